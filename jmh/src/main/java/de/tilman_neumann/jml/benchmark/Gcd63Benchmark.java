@@ -0,0 +1,85 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.tilman_neumann.jml.gcd.Gcd63;
+
+/**
+ * JMH benchmark of the Gcd63 variants for arguments of some bit size.
+ * 
+ * @author Tilman Neumann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class Gcd63Benchmark {
+	
+	private static final int COUNT = 1024;
+	
+	@Param({"31", "63"})
+	private int bits;
+	
+	private long[] m = new long[COUNT];
+	private long[] n = new long[COUNT];
+	private Gcd63 gcd63 = new Gcd63();
+	
+	@Setup
+	public void setup() {
+		Random rng = new Random(42);
+		long mask = bits<63 ? (1L<<bits) - 1 : Long.MAX_VALUE;
+		for (int i=0; i<COUNT; i++) {
+			// avoid zero arguments
+			m[i] = (rng.nextLong() & mask) | 1;
+			n[i] = (rng.nextLong() & mask) | 2;
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void gcd_euclid_withDivision(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(gcd63.gcd_euclid_withDivision(m[i], n[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void gcd_binary1(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(gcd63.gcd_binary1(m[i], n[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void gcd(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(gcd63.gcd(m[i], n[i]));
+	}
+}
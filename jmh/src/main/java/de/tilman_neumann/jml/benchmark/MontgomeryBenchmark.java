@@ -0,0 +1,79 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tilman_neumann.jml.base.Uint128;
+import de.tilman_neumann.jml.factor.ecm.TinyEcm64MHInlined;
+
+/**
+ * JMH benchmark of the Montgomery multiplication used in TinyEcm64MHInlined, compared to a modular multiplication via Uint128 division.
+ * The multiplications are chained so that the latency of a single multiplication is measured, like in ECM.
+ * 
+ * @author Tilman Neumann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MontgomeryBenchmark {
+	
+	@Param({"42", "52", "62"})
+	private int bits;
+	
+	private long N;
+	private long Nhat;
+	private long x;
+	private long y;
+	
+	@Setup
+	public void setup() {
+		Random rng = new Random(42);
+		N = ((rng.nextLong() >>> (64-bits)) | (1L << (bits-1))) | 1; // odd N with the given bit size
+		// Newton iteration for N^-1 mod 2^64
+		long inv = N;
+		for (int i=0; i<5; i++) inv *= 2 - N * inv;
+		Nhat = -inv;
+		x = (rng.nextLong() >>> 1) % N;
+		y = (rng.nextLong() >>> 1) % N;
+	}
+	
+	@Benchmark
+	public long montMul64() {
+		x = TinyEcm64MHInlined.montMul64(x, y, N, Nhat);
+		return x;
+	}
+	
+	@Benchmark
+	public long mulModSpDivide() {
+		x = Uint128.mul64_MH(x, y).spDivide_MH(N)[1];
+		return x;
+	}
+}
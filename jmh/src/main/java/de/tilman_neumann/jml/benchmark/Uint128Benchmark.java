@@ -0,0 +1,114 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.tilman_neumann.jml.base.Uint128;
+
+/**
+ * JMH benchmark of the Uint128 multiplication and division variants, replacing the timing loops of Uint128PerformanceTest.
+ * 
+ * @author Tilman Neumann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class Uint128Benchmark {
+	
+	private static final int COUNT = 1024;
+	
+	private long[] a = new long[COUNT];
+	private long[] b = new long[COUNT];
+	private Uint128[] dividends = new Uint128[COUNT];
+	private long[] divisors = new long[COUNT];
+	
+	@Setup
+	public void setup() {
+		Random rng = new Random(42);
+		for (int i=0; i<COUNT; i++) {
+			a[i] = rng.nextLong();
+			b[i] = rng.nextLong();
+			// spDivide needs a quotient <= 64 bit, i.e. high < divisor
+			divisors[i] = rng.nextLong() | Long.MIN_VALUE;
+			long high = rng.nextLong() >>> 1;
+			dividends[i] = new Uint128(high, rng.nextLong());
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void mul64_v1(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(Uint128.mul64_v1(a[i], b[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void mul64(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(Uint128.mul64(a[i], b[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void mul64_v3(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(Uint128.mul64_v3(a[i], b[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void mul64_MH(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(Uint128.mul64_MH(a[i], b[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void spMul64_MH(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(Uint128.spMul64_MH(a[i], b[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void mul64Signed(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(Uint128.mul64Signed(a[i], b[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void spDivide(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(dividends[i].spDivide(divisors[i]));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void spDivide_MH(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(dividends[i].spDivide_MH(divisors[i]));
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.benchmark;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.tilman_neumann.jml.base.UnsignedBigInt;
+
+/**
+ * JMH benchmark of UnsignedBigInt.divideAndRemainder() versions, dividing numbers of some bit size by int divisors.
+ * 
+ * @author Tilman Neumann
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+@SuppressWarnings("deprecation") // we want to compare deprecated versions, too
+public class UnsignedBigIntBenchmark {
+	
+	private static final int COUNT = 1024;
+	
+	@Param({"100", "200", "400"})
+	private int bits;
+	
+	private UnsignedBigInt dividend;
+	private UnsignedBigInt quotient;
+	private int[] divisors = new int[COUNT];
+	
+	@Setup
+	public void setup() {
+		Random rng = new Random(42);
+		dividend = new UnsignedBigInt(new int[bits/32 + 1]);
+		dividend.set(new BigInteger(bits, rng).setBit(bits-1));
+		quotient = new UnsignedBigInt(new int[bits/32 + 1]);
+		for (int i=0; i<COUNT; i++) {
+			divisors[i] = rng.nextInt(Integer.MAX_VALUE - 2) + 2;
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void divideAndRemainder_v1(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(dividend.divideAndRemainder_v1(divisors[i], quotient));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void divideAndRemainder(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(dividend.divideAndRemainder(divisors[i], quotient));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void mod(Blackhole bh) {
+		for (int i=0; i<COUNT; i++) bh.consume(dividend.mod(divisors[i]));
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.sieve;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Sieve kernel using the Java Vector API (jdk.incubator.vector).
+ * 
+ * This class is compiled only by the "vector" Maven profile (JDK 16+) and needs <code>--add-modules jdk.incubator.vector</code> at runtime;
+ * it should be obtained via SieveKernels.create(), which falls back to the scalar kernel if it is not available.
+ * 
+ * @author Tilman Neumann
+ */
+public class VectorSieveKernel implements SieveKernel {
+
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	
+	private static final int LANES = SPECIES.length();
+	
+	/** we OR 4 vectors before testing for sieve hits */
+	private static final int STEP = 4 * LANES;
+
+	@Override
+	public String getName() {
+		return "vector" + (LANES<<3);
+	}
+
+	@Override
+	public void fill(byte[] sieveArray, int size, byte value) {
+		ByteVector v = ByteVector.broadcast(SPECIES, value);
+		int upperBound = SPECIES.loopBound(size);
+		int i = 0;
+		for (; i < upperBound; i += LANES) {
+			v.intoArray(sieveArray, i);
+		}
+		for (; i < size; i++) {
+			sieveArray[i] = value;
+		}
+	}
+
+	@Override
+	public int collect(byte[] sieveArray, int start, int end, int[] hits) {
+		int count = 0;
+		int x = start;
+		for (; x+STEP <= end; x+=STEP) {
+			ByteVector v0 = ByteVector.fromArray(SPECIES, sieveArray, x);
+			ByteVector v1 = ByteVector.fromArray(SPECIES, sieveArray, x + LANES);
+			ByteVector v2 = ByteVector.fromArray(SPECIES, sieveArray, x + 2*LANES);
+			ByteVector v3 = ByteVector.fromArray(SPECIES, sieveArray, x + 3*LANES);
+			ByteVector t = v0.or(v1).or(v2.or(v3));
+			// sieve hits have the sign bit set
+			if (!t.compare(VectorOperators.LT, 0).anyTrue()) continue;
+			
+			count = addHits(v0.compare(VectorOperators.LT, 0), x, hits, count);
+			count = addHits(v1.compare(VectorOperators.LT, 0), x + LANES, hits, count);
+			count = addHits(v2.compare(VectorOperators.LT, 0), x + 2*LANES, hits, count);
+			count = addHits(v3.compare(VectorOperators.LT, 0), x + 3*LANES, hits, count);
+		}
+		for (; x<end; x++) {
+			if (sieveArray[x] < 0) hits[count++] = x;
+		}
+		return count;
+	}
+	
+	private static int addHits(VectorMask<Byte> mask, int x, int[] hits, int count) {
+		// species have at most 64 byte lanes, so the mask fits into a long
+		long bits = mask.toLong();
+		while (bits != 0) {
+			hits[count++] = x + Long.numberOfTrailingZeros(bits);
+			bits &= bits - 1;
+		}
+		return count;
+	}
+}
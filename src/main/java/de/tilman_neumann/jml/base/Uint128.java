@@ -704,6 +704,81 @@ public class Uint128 {
 		return new long[] {q, r};
 	}
 
+	/**
+	 * Compute the remainder of (high*2^64 + low) / v, without creating any objects.
+	 * The result is correct only if the quotient is <= 64 bit.
+	 * 
+	 * The algorithm is the same as in spDivide_MH(), but the products b*q_hat are computed inline and the quotient is dropped.
+	 * 
+	 * @param high the upper 64 bits of the dividend
+	 * @param low the lower 64 bits of the dividend
+	 * @param v 64 bit unsigned integer
+	 * @return (high*2^64 + low) mod v
+	 */
+	public static long spMod_MH(long high, long low, long v)
+	{
+		final long v_orig = v;
+		long r_hi = high;
+		long r_lo = low;
+		
+		int s = 0;
+		if(0 == (v >>> 63)){
+		    // Normalize so quotient estimates are no more than 2 in error.
+		    s = Long.numberOfLeadingZeros(v);
+		    int t = 64 - s;
+		
+		    v <<= s;
+		    r_hi = (r_hi << s)|(r_lo >>> t);
+		    r_lo <<= s;
+		}
+		
+		long b_hi = v >>> 32;
+		
+		// first half; like spMul64_MH(v, q_hat), where the normalized v has its highest bit set
+		long q_hat = divideUnsignedLong(r_hi, b_hi);
+		long p_lo = v*q_hat;
+		long p_hi = Math.multiplyHigh(v, q_hat) + q_hat;
+		
+		long u_hi = r_hi >>> 32;
+		long u_lo = (r_hi << 32)|(r_lo >>> 32);
+		
+		// r -= b*q_hat; at most 2 iterations of this...
+		while( (p_hi+Long.MIN_VALUE > u_hi+Long.MIN_VALUE) || ((p_hi == u_hi) && (p_lo+Long.MIN_VALUE > u_lo+Long.MIN_VALUE)) )
+		{
+		    if (p_lo+Long.MIN_VALUE < v+Long.MIN_VALUE) {
+		        --p_hi;
+		    }
+		    p_lo -= v;
+		}
+		
+		long w_lo = (p_lo << 32);
+		long w_hi = (p_hi << 32)|(p_lo >>> 32);
+		if (w_lo+Long.MIN_VALUE > r_lo+Long.MIN_VALUE) {
+		    ++w_hi;
+		}
+		
+		r_lo -= w_lo;
+		r_hi -= w_hi;
+		
+		// second half
+		q_hat = divideUnsignedLong((r_hi << 32)|(r_lo >>> 32), b_hi);
+		p_lo = v*q_hat;
+		p_hi = Math.multiplyHigh(v, q_hat) + q_hat;
+		
+		// r -= b*q_hat; ...and at most 2 iterations of this.
+		while( (p_hi+Long.MIN_VALUE > r_hi+Long.MIN_VALUE) || ((p_hi == r_hi) && (p_lo+Long.MIN_VALUE > r_lo+Long.MIN_VALUE)) )
+		{
+		    if(p_lo+Long.MIN_VALUE < v+Long.MIN_VALUE){
+		        --p_hi;
+		    }
+		    p_lo -= v;
+		}
+		
+		long r = (r_lo - p_lo) >>> s;
+		if (DEBUG) Ensure.ensureEquals(new Uint128(high, low).spDivide_MH(v_orig)[1], r);
+		return r;
+	}
+
 	/**
 	 * A good replacement for the slow Long.divideUnsigned(). Taken from the Huldra project,
 	 * see BigInt.div(..) at https://github.com/bwakell/Huldra.
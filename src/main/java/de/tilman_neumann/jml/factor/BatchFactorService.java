@@ -0,0 +1,284 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.factor.ecm.TinyEcm64MHBatch;
+import de.tilman_neumann.jml.factor.pollardRho.PollardRhoBrentMontgomery64Batch;
+import de.tilman_neumann.util.SortedMultiset;
+
+/**
+ * Factors many numbers concurrently.
+ * 
+ * Factor algorithms like SIQS or TinyEcm64MHInlined are not thread-safe, so each worker thread uses its own
+ * single-threaded CombinedFactorAlgorithm. Numbers are dispatched depending on their size:
+ * <ul>
+ * <li>Small N are factored inline by the submitting thread, because scheduling would cost more than the factorization itself.</li>
+ * <li>Medium-size N are factored by the thread pool, one N per thread.</li>
+ * <li>Large N are factored by a PSIQS using all threads. To avoid oversubscribing the cores, such a job waits until
+ *     all running medium-size jobs are complete, and other jobs wait until it is done.</li>
+ * </ul>
+ * 
+ * For large amounts of N &lt; 2^63, findSingleFactors(long[], long[]) is much faster: It avoids BigIntegers, and the batch
+ * algorithms it uses interleave the computations for several N to exploit instruction-level parallelism.
+ * 
+ * The worker threads are daemon threads, but shutdown() should be called when the service is not needed anymore.
+ * 
+ * @author Tilman Neumann
+ */
+public class BatchFactorService {
+	private static final Logger LOG = LogManager.getLogger(BatchFactorService.class);
+	private static final boolean DEBUG = false;
+	
+	/** N with at most that many bits are factored inline by the submitting thread */
+	private static final int DEFAULT_INLINE_MAX_BITS = 64;
+	/** N with at least that many bits are factored with all threads */
+	private static final int DEFAULT_PARALLEL_MIN_BITS = 220;
+	/** the number of N per job in findSingleFactors(long[], long[]) */
+	private static final int SINGLE_FACTOR_CHUNK_SIZE = 1024;
+
+	private int numberOfThreads;
+	private int inlineMaxBits;
+	private int parallelMinBits;
+	private boolean permitUnsafeUsage;
+	
+	private ExecutorService executor;
+	
+	/** one permit per thread; single-threaded jobs take one permit, parallel jobs all of them */
+	private Semaphore threadPermits;
+	
+	/** thread-local single-threaded factor algorithms for inline and pool jobs */
+	private ThreadLocal<FactorAlgorithm> singleThreadedFactorizer;
+	
+	/** thread-local batch algorithms for findSingleFactors(long[], long[]) */
+	private ThreadLocal<TinyEcm64MHBatch> ecmBatch = ThreadLocal.withInitial(TinyEcm64MHBatch::new);
+	private ThreadLocal<PollardRhoBrentMontgomery64Batch> rhoBatch = ThreadLocal.withInitial(PollardRhoBrentMontgomery64Batch::new);
+	
+	/** the multi-threaded factor algorithm for large N. Only one parallel job can run at a time, so a single instance is enough. */
+	private FactorAlgorithm parallelFactorizer;
+	
+	/**
+	 * Simple constructor using default size bounds.
+	 * @param numberOfThreads the number of threads to use
+	 */
+	public BatchFactorService(int numberOfThreads) {
+		this(numberOfThreads, DEFAULT_INLINE_MAX_BITS, DEFAULT_PARALLEL_MIN_BITS, true);
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param numberOfThreads the number of threads to use
+	 * @param inlineMaxBits N with at most that many bits are factored inline by the submitting thread
+	 * @param parallelMinBits N with at least that many bits are factored with all threads
+	 * @param permitUnsafeUsage if true then algorithms using sun.misc.Unsafe features may be used
+	 */
+	public BatchFactorService(int numberOfThreads, int inlineMaxBits, int parallelMinBits, boolean permitUnsafeUsage) {
+		this.numberOfThreads = numberOfThreads;
+		this.inlineMaxBits = inlineMaxBits;
+		this.parallelMinBits = parallelMinBits;
+		this.permitUnsafeUsage = permitUnsafeUsage;
+		
+		threadPermits = new Semaphore(numberOfThreads, true); // fair, so that parallel jobs do not starve
+		singleThreadedFactorizer = ThreadLocal.withInitial(() -> new CombinedFactorAlgorithm(1, null, this.permitUnsafeUsage));
+		executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+			private AtomicInteger threadIndex = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "F-" + threadIndex.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+	
+	/**
+	 * Submit a single N for factorization.
+	 * @param N
+	 * @return a future giving the prime factorization of N
+	 */
+	public CompletableFuture<SortedMultiset<BigInteger>> submit(BigInteger N) {
+		int NBits = N.bitLength();
+		if (NBits <= inlineMaxBits) {
+			// cheap -> factor immediately in the calling thread
+			return CompletableFuture.completedFuture(singleThreadedFactorizer.get().factor(N));
+		}
+		if (NBits < parallelMinBits || numberOfThreads == 1) {
+			return CompletableFuture.supplyAsync(() -> factorSingleThreaded(N), executor);
+		}
+		return CompletableFuture.supplyAsync(() -> factorParallel(N), executor);
+	}
+	
+	/**
+	 * Submit many N for factorization.
+	 * @param Ns
+	 * @return futures giving the prime factorizations, in the order of the arguments
+	 */
+	public List<CompletableFuture<SortedMultiset<BigInteger>>> submitAll(Collection<BigInteger> Ns) {
+		ArrayList<CompletableFuture<SortedMultiset<BigInteger>>> futures = new ArrayList<>(Ns.size());
+		for (BigInteger N : Ns) {
+			futures.add(submit(N));
+		}
+		return futures;
+	}
+	
+	/**
+	 * Factor all given N.
+	 * @param Ns
+	 * @return the prime factorizations, in the order of the arguments
+	 */
+	public List<SortedMultiset<BigInteger>> factorAll(Collection<BigInteger> Ns) {
+		return submitAll(Ns).stream().map(CompletableFuture::join).collect(Collectors.toList());
+	}
+
+	/**
+	 * Factor all N of the given stream. All elements of the input stream are submitted before the result stream is returned.
+	 * @param Ns
+	 * @return stream of the prime factorizations, in the order of the input stream
+	 */
+	public Stream<SortedMultiset<BigInteger>> factor(Stream<BigInteger> Ns) {
+		List<CompletableFuture<SortedMultiset<BigInteger>>> futures = Ns.map(this::submit).collect(Collectors.toList());
+		return futures.stream().map(CompletableFuture::join);
+	}
+	
+	/**
+	 * Find a single factor of each N. The N are split into chunks that are processed by the thread pool.
+	 * 
+	 * @param N the numbers to factor; the sign is irrelevant, but |N| must be > 0 and < 2^63
+	 * @param factors output array of at least the same length as N: factors[i] is a proper factor of N[i] if N[i] is composite,
+	 * 			or 1 if |N[i]| is 1 or prime
+	 */
+	public void findSingleFactors(long[] N, long[] factors) {
+		final int count = N.length;
+		if (factors.length < count) {
+			throw new IllegalArgumentException("The output array has length " + factors.length + " but needs at least " + count);
+		}
+		if (numberOfThreads == 1 || count <= SINGLE_FACTOR_CHUNK_SIZE) {
+			findSingleFactors(N, factors, 0, count);
+			return;
+		}
+		
+		List<CompletableFuture<Void>> futures = new ArrayList<>(count / SINGLE_FACTOR_CHUNK_SIZE + 1);
+		for (int from = 0; from < count; from += SINGLE_FACTOR_CHUNK_SIZE) {
+			final int chunkFrom = from;
+			final int chunkTo = Math.min(from + SINGLE_FACTOR_CHUNK_SIZE, count);
+			futures.add(CompletableFuture.runAsync(() -> findSingleFactorsWithPermit(N, factors, chunkFrom, chunkTo), executor));
+		}
+		try {
+			for (CompletableFuture<Void> future : futures) {
+				future.join();
+			}
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw e;
+		}
+	}
+	
+	private void findSingleFactorsWithPermit(long[] N, long[] factors, int from, int to) {
+		threadPermits.acquireUninterruptibly();
+		try {
+			findSingleFactors(N, factors, from, to);
+		} finally {
+			threadPermits.release();
+		}
+	}
+	
+	/**
+	 * Find a single factor of each N[i], from <= i < to, in the current thread.
+	 * TinyEcm64MHBatch is faster, but supports only N with at most 62 bit; bigger N are given to the Pollard-Rho batch.
+	 */
+	private void findSingleFactors(long[] N, long[] factors, int from, int to) {
+		int bigCount = 0;
+		for (int i=from; i<to; i++) {
+			if (64 - Long.numberOfLeadingZeros(Math.abs(N[i])) > TinyEcm64MHBatch.MAX_BITS_SUPPORTED) bigCount++;
+		}
+		if (bigCount == 0) {
+			ecmBatch.get().findSingleFactors(N, factors, from, to);
+			return;
+		}
+		
+		// split the chunk
+		final int smallCount = to - from - bigCount;
+		long[] smallN = new long[smallCount];
+		long[] bigN = new long[bigCount];
+		int smallIndex = 0, bigIndex = 0;
+		for (int i=from; i<to; i++) {
+			if (64 - Long.numberOfLeadingZeros(Math.abs(N[i])) > TinyEcm64MHBatch.MAX_BITS_SUPPORTED) {
+				bigN[bigIndex++] = N[i];
+			} else {
+				smallN[smallIndex++] = N[i];
+			}
+		}
+		long[] smallFactors = new long[smallCount];
+		long[] bigFactors = new long[bigCount];
+		ecmBatch.get().findSingleFactors(smallN, smallFactors);
+		rhoBatch.get().findSingleFactors(bigN, bigFactors);
+		
+		// merge the results
+		smallIndex = 0; bigIndex = 0;
+		for (int i=from; i<to; i++) {
+			if (64 - Long.numberOfLeadingZeros(Math.abs(N[i])) > TinyEcm64MHBatch.MAX_BITS_SUPPORTED) {
+				factors[i] = bigFactors[bigIndex++];
+			} else {
+				factors[i] = smallFactors[smallIndex++];
+			}
+		}
+	}
+	
+	private SortedMultiset<BigInteger> factorSingleThreaded(BigInteger N) {
+		threadPermits.acquireUninterruptibly();
+		try {
+			return singleThreadedFactorizer.get().factor(N);
+		} finally {
+			threadPermits.release();
+		}
+	}
+
+	private SortedMultiset<BigInteger> factorParallel(BigInteger N) {
+		threadPermits.acquireUninterruptibly(numberOfThreads);
+		try {
+			if (parallelFactorizer == null) {
+				parallelFactorizer = new CombinedFactorAlgorithm(numberOfThreads, null, permitUnsafeUsage);
+			}
+			if (DEBUG) LOG.debug("Factor N=" + N + " (" + N.bitLength() + " bits) with " + numberOfThreads + " threads");
+			return parallelFactorizer.factor(N);
+		} finally {
+			threadPermits.release(numberOfThreads);
+		}
+	}
+	
+	/**
+	 * Stop accepting new jobs. Already submitted jobs will be completed.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
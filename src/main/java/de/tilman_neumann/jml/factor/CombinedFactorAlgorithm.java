@@ -24,6 +24,7 @@ import de.tilman_neumann.jml.factor.base.FactorArguments;
 import de.tilman_neumann.jml.factor.base.FactorResult;
 import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverGauss02;
 import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverPBlockLanczos;
 import de.tilman_neumann.jml.factor.ecm.EllipticCurveMethod;
 import de.tilman_neumann.jml.factor.ecm.TinyEcm64MHInlined;
 import de.tilman_neumann.jml.factor.hart.HartFast2Mult;
@@ -64,7 +65,7 @@ public class CombinedFactorAlgorithm extends FactorAlgorithm {
 	private TinyEcm64MHInlined tinyEcm = new TinyEcm64MHInlined(true); // for general factor arguments, trial division is needed
 	private PollardRhoBrentMontgomery64MH pollardRhoBrentMontgomery64MH = new PollardRhoBrentMontgomery64MH();
 	private TDiv tdiv = new TDiv();
-	private EllipticCurveMethod ecm = new EllipticCurveMethod(0);
+	private EllipticCurveMethod ecm;
 
 	// SIQS tuned for small N
 	private SIQS siqsForSmallArgs;
@@ -95,6 +96,9 @@ public class CombinedFactorAlgorithm extends FactorAlgorithm {
 	public CombinedFactorAlgorithm(int numberOfThreads, Integer tdivLimit, boolean permitUnsafeUsage) {
 		super(tdivLimit);
 		
+		// ECM runs independent curves in parallel if more than one thread is requested
+		ecm = new EllipticCurveMethod(0, numberOfThreads);
+		
 		Sieve smallSieve = permitUnsafeUsage ? new Sieve03gU() : new Sieve03g();
 		siqsForSmallArgs = new SIQS(0.32F, 0.37F, null, new PowerOfSmallPrimesFinder(), new SIQSPolyGenerator(), smallSieve, new TDiv_QS_Small(), 10, new MatrixSolverGauss02());
 
@@ -107,9 +111,9 @@ public class CombinedFactorAlgorithm extends FactorAlgorithm {
 			}
 		} else {
 			if (permitUnsafeUsage) {
-				siqsForBigArgs = new PSIQS_U(0.31F, 0.37F, null, numberOfThreads, new NoPowerFinder(), new MatrixSolverBlockLanczos());
+				siqsForBigArgs = new PSIQS_U(0.31F, 0.37F, null, numberOfThreads, new NoPowerFinder(), new MatrixSolverPBlockLanczos(numberOfThreads));
 			} else {
-				siqsForBigArgs = new PSIQS(0.31F, 0.37F, null, numberOfThreads, new NoPowerFinder(), new MatrixSolverBlockLanczos());
+				siqsForBigArgs = new PSIQS(0.31F, 0.37F, null, numberOfThreads, new NoPowerFinder(), new MatrixSolverPBlockLanczos(numberOfThreads));
 			}
 		}
 	}
@@ -187,7 +191,7 @@ public class CombinedFactorAlgorithm extends FactorAlgorithm {
 					} else {
 						if (DEBUG) LOG.debug("result before ECM: " + result);
 						if (ANALYZE) t0 = System.currentTimeMillis();
-						ecm.searchFactors(args, result); // TODO a parallel ECM implementation with numberOfThreads threads would be nice here
+						ecm.searchFactors(args, result);
 						if (ANALYZE) LOG.debug("ECM took " + (System.currentTimeMillis()-t0) + "ms");
 						if (DEBUG) LOG.debug("result after ECM:  " + result);
 					}
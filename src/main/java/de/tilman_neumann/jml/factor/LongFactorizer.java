@@ -0,0 +1,163 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.factor.ecm.TinyEcm64MHInlined;
+import de.tilman_neumann.jml.factor.hart.HartFast2Mult;
+import de.tilman_neumann.jml.factor.pollardRho.PollardRhoBrentMontgomery64MH;
+import de.tilman_neumann.jml.factor.tdiv.TDiv31Barrett;
+import de.tilman_neumann.jml.primes.probable.BPSWTest64;
+
+/**
+ * Complete factorization of N &lt; 2^63 using only primitive data types.
+ * 
+ * FactorAlgorithm.factor() creates BigIntegers, SortedMultisets and FactorArguments even for small N.
+ * This class uses the same algorithms as CombinedFactorAlgorithm for N &lt; 2^63, but keeps all intermediate
+ * results in pre-allocated arrays, so that factoring does not create any garbage.
+ * 
+ * Instances are not thread-safe.
+ * 
+ * @author Tilman Neumann
+ */
+public class LongFactorizer {
+	private static final Logger LOG = LogManager.getLogger(LongFactorizer.class);
+	private static final boolean DEBUG = false;
+
+	/** The maximum number of distinct prime factors of N &lt; 2^63: 2*3*5*...*47 &lt; 2^63 &lt; 2*3*5*...*53 */
+	public static final int MAX_DISTINCT_PRIME_FACTORS = 15;
+	
+	/** The maximum number of prime factors of N &lt; 2^63 counted with multiplicity */
+	private static final int MAX_PRIME_FACTORS = 62;
+
+	private TDiv31Barrett tDiv31 = new TDiv31Barrett();
+	private HartFast2Mult hart = new HartFast2Mult(true); // for general factor arguments, trial division is needed
+	private TinyEcm64MHInlined tinyEcm = new TinyEcm64MHInlined(true); // for general factor arguments, trial division is needed
+	private PollardRhoBrentMontgomery64MH pollardRhoBrentMontgomery64MH = new PollardRhoBrentMontgomery64MH();
+	private BPSWTest64 bpsw64 = new BPSWTest64();
+
+	/** the factors that still need to be resolved, and their exponents */
+	private long[] untestedFactors = new long[MAX_PRIME_FACTORS];
+	private int[] untestedExponents = new int[MAX_PRIME_FACTORS];
+	
+	/** the prime factors found so far, and their exponents; the same prime may occur several times */
+	private long[] foundPrimes = new long[MAX_PRIME_FACTORS];
+	private int[] foundExponents = new int[MAX_PRIME_FACTORS];
+
+	/**
+	 * Decomposes N into prime factors.
+	 * 
+	 * @param N the number to factor, N &gt; 0
+	 * @param primes output array for the distinct prime factors of N in ascending order;
+	 * 			the length MAX_DISTINCT_PRIME_FACTORS is enough for any N
+	 * @param exponents output array for the multiplicities of the prime factors
+	 * @return the number of distinct prime factors of N, i.e. the number of entries stored in the output arrays
+	 */
+	public int factor(long N, long[] primes, int[] exponents) {
+		if (N < 1) throw new IllegalArgumentException("N = " + N + " is not supported, N must be positive");
+		
+		int foundCount = 0;
+		if (N <= Integer.MAX_VALUE) {
+			// trial division finds all factors at once
+			foundCount = tDiv31.factor((int) N, 1, foundPrimes, foundExponents, 0);
+			return copySorted(foundCount, primes, exponents);
+		}
+		
+		// Remove multiples of 2
+		int lsb = Long.numberOfTrailingZeros(N);
+		if (lsb > 0) {
+			foundPrimes[0] = 2;
+			foundExponents[0] = lsb;
+			foundCount = 1;
+			N >>= lsb;
+		}
+		
+		// Now all untested factors are odd
+		untestedFactors[0] = N;
+		untestedExponents[0] = 1;
+		int untestedCount = 1;
+		while (untestedCount > 0) {
+			final long n = untestedFactors[--untestedCount];
+			final int exp = untestedExponents[untestedCount];
+			if (n == 1) continue;
+			if (bpsw64.isProbablePrime(n)) {
+				// BPSW is exact for 64 bit arguments
+				foundPrimes[foundCount] = n;
+				foundExponents[foundCount++] = exp;
+			} else if (n <= Integer.MAX_VALUE) {
+				foundCount = tDiv31.factor((int) n, exp, foundPrimes, foundExponents, foundCount);
+			} else {
+				final long factor = findSingleFactor(n);
+				if (DEBUG) LOG.debug("Found factor " + factor + " of n=" + n);
+				final long cofactor = n / factor;
+				if (factor == cofactor) {
+					untestedFactors[untestedCount] = factor;
+					untestedExponents[untestedCount++] = exp<<1;
+				} else {
+					untestedFactors[untestedCount] = factor;
+					untestedExponents[untestedCount++] = exp;
+					untestedFactors[untestedCount] = cofactor;
+					untestedExponents[untestedCount++] = exp;
+				}
+			}
+		}
+		return copySorted(foundCount, primes, exponents);
+	}
+	
+	/**
+	 * Find a factor of the odd composite n, using the same algorithms as CombinedFactorAlgorithm.findSingleFactor().
+	 * @param n odd composite with at least 32 bit
+	 * @return a proper factor of n
+	 */
+	private long findSingleFactor(long n) {
+		final int NBits = 64 - Long.numberOfLeadingZeros(n);
+		long factor;
+		if (NBits<46) factor = hart.findSingleFactor(n);
+		else if (NBits<63) factor = tinyEcm.findSingleFactor(n);
+		else return pollardRhoBrentMontgomery64MH.findSingleFactor(n);
+		
+		// Hart would return 1 if its arrays were too small; Pollard-Rho works for all odd composites n < 2^63
+		return (factor > 1 && factor < n) ? factor : pollardRhoBrentMontgomery64MH.findSingleFactor(n);
+	}
+
+	/**
+	 * Copy the found prime factors into the output arrays, sorted bottom-up and with the exponents of equal primes added.
+	 * @param foundCount the number of found prime factors
+	 * @param primes
+	 * @param exponents
+	 * @return the number of distinct prime factors
+	 */
+	private int copySorted(int foundCount, long[] primes, int[] exponents) {
+		int count = 0;
+		for (int i=0; i<foundCount; i++) {
+			final long p = foundPrimes[i];
+			final int exp = foundExponents[i];
+			// insertion sort; there are only a few entries
+			int j = count-1;
+			while (j >= 0 && primes[j] > p) j--;
+			if (j >= 0 && primes[j] == p) {
+				exponents[j] += exp;
+				continue;
+			}
+			System.arraycopy(primes, j+1, primes, j+2, count-j-1);
+			System.arraycopy(exponents, j+1, exponents, j+2, count-j-1);
+			primes[j+1] = p;
+			exponents[j+1] = exp;
+			count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.tilman_neumann.jml.primes.exact.SegmentedSieve;
+import de.tilman_neumann.jml.primes.exact.SieveCallback;
+
+/**
+ * Bernstein's batch smoothness test: Find out which numbers of a list are B-smooth, i.e. have no prime factors greater than B.
+ * 
+ * Let P be the product of all primes <= B. Then a product tree of the numbers q_i and a remainder tree give all r_i = P mod q_i
+ * at the cost of a few big multiplications and divisions. q_i is B-smooth iff r_i^(2^e) == 0 (mod q_i), where 2^e >= bitLength(q_i),
+ * because the exponents of the prime factors of q_i are at most bitLength(q_i).
+ * 
+ * This pays when there are many numbers to test and only few of them are smooth, like the cofactors of 3-large-prime variations.
+ * 
+ * Reference: Daniel J. Bernstein, "How to find smooth parts of integers", 2004, http://cr.yp.to/factorization/smoothparts-20040510.pdf
+ * 
+ * @author Tilman Neumann
+ */
+public class BatchSmoothnessChecker {
+	private static final Logger LOG = LogManager.getLogger(BatchSmoothnessChecker.class);
+	private static final boolean DEBUG = false;
+	
+	private int primeBound;
+	
+	/** the product of all primes <= primeBound */
+	private BigInteger primeProduct;
+	
+	/**
+	 * Full constructor. Computes the product of all primes up to the given bound, which is expensive for big bounds.
+	 * @param primeBound the smoothness bound B
+	 */
+	public BatchSmoothnessChecker(int primeBound) {
+		this.primeBound = primeBound;
+		final ArrayList<BigInteger> primes = new ArrayList<>();
+		SegmentedSieve sieve = new SegmentedSieve(new SieveCallback() {
+			@Override
+			public void processPrime(long prime) {
+				primes.add(BigInteger.valueOf(prime));
+			}
+		});
+		sieve.sieve(primeBound);
+		this.primeProduct = product(primes);
+		if (DEBUG) LOG.debug("Product of " + primes.size() + " primes <= " + primeBound + " has " + primeProduct.bitLength() + " bits");
+	}
+	
+	/**
+	 * @return the smoothness bound B
+	 */
+	public int getPrimeBound() {
+		return primeBound;
+	}
+	
+	/**
+	 * Test which of the given numbers are B-smooth.
+	 * @param numbers positive integers
+	 * @return array with the smoothness results in the order of <code>numbers</code>
+	 */
+	public boolean[] areSmooth(List<BigInteger> numbers) {
+		int count = numbers.size();
+		boolean[] result = new boolean[count];
+		if (count == 0) return result;
+		
+		List<BigInteger[]> productTree = productTree(numbers);
+		BigInteger[] remainders = remainders(primeProduct, productTree);
+		for (int i=0; i<count; i++) {
+			BigInteger q = numbers.get(i);
+			BigInteger y = remainders[i];
+			// square e times, where 2^e >= bitLength(q)
+			int e = 32 - Integer.numberOfLeadingZeros(q.bitLength() - 1);
+			for (int j=0; j<e && y.signum()!=0; j++) {
+				y = y.multiply(y).mod(q);
+			}
+			result[i] = y.signum() == 0;
+		}
+		return result;
+	}
+	
+	/**
+	 * Compute a product tree. Level 0 are the given numbers, the last level contains only their product.
+	 * @param numbers
+	 * @return product tree
+	 */
+	static List<BigInteger[]> productTree(List<BigInteger> numbers) {
+		List<BigInteger[]> tree = new ArrayList<>();
+		BigInteger[] level = numbers.toArray(new BigInteger[numbers.size()]);
+		tree.add(level);
+		while (level.length > 1) {
+			BigInteger[] nextLevel = new BigInteger[(level.length+1)>>1];
+			for (int i=0; i<level.length>>1; i++) {
+				nextLevel[i] = level[i<<1].multiply(level[(i<<1)+1]);
+			}
+			if ((level.length & 1) == 1) nextLevel[nextLevel.length-1] = level[level.length-1];
+			tree.add(nextLevel);
+			level = nextLevel;
+		}
+		return tree;
+	}
+	
+	/**
+	 * Compute the product of the given numbers using a product tree, which is much faster than multiplying them one after another.
+	 * @param numbers
+	 * @return product
+	 */
+	static BigInteger product(List<BigInteger> numbers) {
+		if (numbers.size() == 0) return BigInteger.ONE;
+		List<BigInteger[]> tree = productTree(numbers);
+		return tree.get(tree.size()-1)[0];
+	}
+	
+	/**
+	 * Compute the remainders of x modulo all leaves of the product tree via a remainder tree.
+	 * @param x
+	 * @param productTree
+	 * @return x mod numbers[i] for all leaves numbers[i] of the product tree
+	 */
+	static BigInteger[] remainders(BigInteger x, List<BigInteger[]> productTree) {
+		int top = productTree.size()-1;
+		BigInteger[] remainders = new BigInteger[] {x.mod(productTree.get(top)[0])};
+		for (int l=top-1; l>=0; l--) {
+			BigInteger[] level = productTree.get(l);
+			BigInteger[] nextRemainders = new BigInteger[level.length];
+			for (int i=0; i<level.length; i++) {
+				nextRemainders[i] = remainders[i>>1].mod(level[i]);
+			}
+			remainders = nextRemainders;
+		}
+		return remainders;
+	}
+}
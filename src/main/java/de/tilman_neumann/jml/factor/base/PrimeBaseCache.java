@@ -0,0 +1,112 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.primes.exact.AutoExpandingPrimesArray;
+
+/**
+ * A cache of the N-independent data of SIQS prime bases: The raw primes, their natural logarithms and their reciprocals 2^32/p.
+ * 
+ * Prime bases for different kN differ only in which of the raw primes are selected, so these values can be computed once
+ * and shared by all factorizations (and threads). Instances are immutable snapshots; a bigger snapshot replaces the cached one
+ * when some prime base needs more raw primes than available.
+ * 
+ * @author Tilman Neumann
+ */
+public class PrimeBaseCache {
+	private static final Logger LOG = LogManager.getLogger(PrimeBaseCache.class);
+	private static final boolean DEBUG = false;
+
+	private static final int MIN_PRIME_COUNT = 1024;
+
+	private static volatile PrimeBaseCache the_instance = null;
+
+	private final int count;
+	private final int[] primes;
+	private final float[] lnPArray;
+	private final long[] pinvArray;
+
+	/**
+	 * Get a cache snapshot containing at least the first <code>primeCount</code> primes.
+	 * The returned instance never changes, so callers may keep it as long as they do not need more primes.
+	 * 
+	 * @param primeCount the wanted number of raw primes
+	 * @return cache snapshot
+	 */
+	public static PrimeBaseCache get(int primeCount) {
+		PrimeBaseCache cache = the_instance;
+		if (cache != null && cache.count >= primeCount) return cache;
+		return expand(primeCount);
+	}
+
+	private static synchronized PrimeBaseCache expand(int primeCount) {
+		PrimeBaseCache cache = the_instance;
+		if (cache != null && cache.count >= primeCount) return cache; // another thread was faster
+		// at least double the size to keep the number of expansions small
+		int newCount = Math.max(MIN_PRIME_COUNT, primeCount);
+		if (cache != null) newCount = Math.max(newCount, cache.count<<1);
+		if (DEBUG) LOG.debug("Expand prime base cache to " + newCount + " primes");
+		cache = new PrimeBaseCache(newCount);
+		the_instance = cache;
+		return cache;
+	}
+
+	private PrimeBaseCache(int count) {
+		AutoExpandingPrimesArray rawPrimesArray = AutoExpandingPrimesArray.get().ensurePrimeCount(count);
+		this.count = count;
+		primes = new int[count];
+		lnPArray = new float[count];
+		pinvArray = new long[count];
+		for (int i=0; i<count; i++) {
+			int p = rawPrimesArray.getPrime(i);
+			primes[i] = p;
+			lnPArray[i] = (float) Math.log(p);
+			pinvArray[i] = (1L<<32) / p;
+		}
+	}
+
+	/**
+	 * @return the number of primes in this snapshot
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @param i
+	 * @return the i.th prime, where i starts at 0, e.g. p[0] = 2
+	 */
+	public int getPrime(int i) {
+		return primes[i];
+	}
+
+	/**
+	 * @param i
+	 * @return ln(p_i) as float
+	 */
+	public float getLnP(int i) {
+		return lnPArray[i];
+	}
+
+	/**
+	 * @param i
+	 * @return 2^32/p_i
+	 */
+	public long getPinv(int i) {
+		return pinvArray[i];
+	}
+}
@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2024 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -18,8 +18,10 @@ import java.math.BigInteger;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import de.tilman_neumann.jml.base.UnsignedBigInt;
 import de.tilman_neumann.jml.modular.JacobiSymbol;
 import de.tilman_neumann.jml.primes.exact.AutoExpandingPrimesArray;
+import de.tilman_neumann.jml.primes.exact.PrimeTable;
 import de.tilman_neumann.util.Ensure;
 
 /**
@@ -33,9 +35,24 @@ public class PrimeBaseGenerator {
 	private static final Logger LOG = LogManager.getLogger(PrimeBaseGenerator.class);
 	private static final boolean DEBUG = false;
 	
-	private AutoExpandingPrimesArray rawPrimesArray = AutoExpandingPrimesArray.get();
+	private PrimeTable rawPrimesArray;
 	private JacobiSymbol jacobiEngine = new JacobiSymbol();
 
+	/**
+	 * Standard constructor, taking the raw primes from the AutoExpandingPrimesArray.
+	 */
+	public PrimeBaseGenerator() {
+		this(AutoExpandingPrimesArray.get());
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param rawPrimesArray the source of the raw primes used by computeReducedPrimeBase(BigInteger, int, int[]), e.g. a MappedPrimeTable
+	 */
+	public PrimeBaseGenerator(PrimeTable rawPrimesArray) {
+		this.rawPrimesArray = rawPrimesArray;
+	}
+
 	/**
 	 * Compute a reduced prime base containing the 2 and odd primes p with Jacobi(kN|p)>=0
 	 * 
@@ -70,4 +87,48 @@ public class PrimeBaseGenerator {
 			}
 		}
 	}
+
+	/**
+	 * Compute a reduced prime base containing the 2 and odd primes p with Jacobi(kN|p)>=0,
+	 * together with all data for the selected primes that can be taken from the {@link PrimeBaseCache}.
+	 * 
+	 * kN (mod p) is computed only once per raw prime here; it is needed for the Jacobi symbol and can be passed on
+	 * to the modular sqrt computation.
+	 * 
+	 * @param kN has to be a quadratic residue modulo all p
+	 * @param primeBaseSize the wanted number of primes
+	 * @param primesArray is filled with the primes p satisfying Jacobi(kN|p)>=0
+	 * @param kNModPArray is filled with kN (mod p) for all p in the prime base
+	 * @param lnPArray is filled with ln(p) for all p in the prime base
+	 * @param pinvArray is filled with 2^32/p for all p in the prime base
+	 */
+	public void computeReducedPrimeBase(BigInteger kN, int primeBaseSize, int[] primesArray, int[] kNModPArray, float[] lnPArray, long[] pinvArray) {
+		// about twice as many raw primes as prime base elements are required
+		PrimeBaseCache cache = PrimeBaseCache.get(primeBaseSize<<1);
+		UnsignedBigInt kN_UBI = new UnsignedBigInt(kN);
+		
+		// the 2 is always added
+		primesArray[0] = 2;
+		kNModPArray[0] = kN.intValue() & 1;
+		lnPArray[0] = cache.getLnP(0);
+		pinvArray[0] = cache.getPinv(0);
+		
+		// odd primes
+		int count = 1;
+		for (int i=1; ; i++) {
+			if (i == cache.size()) cache = PrimeBaseCache.get(i+1);
+			int p = cache.getPrime(i);
+			int kN_mod_p = kN_UBI.mod(p);
+			int jacobi = jacobiEngine.jacobiSymbol(kN_mod_p, p);
+			if (DEBUG) Ensure.ensureEquals(jacobiEngine.jacobiSymbol(kN, p), jacobi);
+			if (jacobi>=0) {
+				// kN is a quadratic residue mod p (or not coprime)
+				primesArray[count] = p;
+				kNModPArray[count] = kN_mod_p;
+				lnPArray[count] = cache.getLnP(i);
+				pinvArray[count] = cache.getPinv(i);
+				if (++count == primeBaseSize) break;
+			}
+		}
+	}
 }
@@ -44,6 +44,20 @@ public class PartialNLarge extends Partial {
 		this.bigFactorExponents = bigFactors.copyExponents();
 	}
 
+	/**
+	 * @return the distinct large factors of Q; not a copy, so callers must not modify it
+	 */
+	long[] getBigFactors() {
+		return bigFactors;
+	}
+	
+	/**
+	 * @return the exponents of the large factors of Q; not a copy, so callers must not modify it
+	 */
+	byte[] getBigFactorExponents() {
+		return bigFactorExponents;
+	}
+
 	@Override
 	public SortedMultiset<Long> getAllQFactors() {
 		// get small factors of Q
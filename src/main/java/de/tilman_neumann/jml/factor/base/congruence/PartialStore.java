@@ -0,0 +1,473 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base.congruence;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.factor.base.SortedIntegerArray;
+import de.tilman_neumann.jml.factor.base.SortedLongArray;
+
+/**
+ * A primitive store for partial congruences, designed to keep the heap footprint small when millions of partials are collected.
+ * 
+ * Partials are not kept as objects. Instead, A, the small factors and the large factors of each partial are packed into
+ * chunks of int[]; partial objects are re-created only for the related partials that are passed to the partial solver.
+ * The index from large factors with odd exponent to partials is a long-keyed open addressing hash table
+ * pointing to linked lists of (partial, large factor) records held in primitive arrays.
+ * 
+ * Thus the garbage collector only has to deal with a few big primitive arrays, no matter how many partials we collect,
+ * and we save the object headers and references of Partial objects, Long keys, HashMap entries and ArrayLists.
+ * 
+ * @author Tilman Neumann
+ */
+public class PartialStore {
+	private static final Logger LOG = LogManager.getLogger(PartialStore.class);
+	private static final boolean DEBUG = false; // used for logs and asserts
+
+	/** log2 of the size of a chunk of packed partial data */
+	private static final int CHUNK_BITS = 20;
+	private static final int CHUNK_SIZE = 1<<CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE-1;
+	
+	private static final int INITIAL_TABLE_BITS = 12;
+	private static final int INITIAL_CAPACITY = 1<<10;
+	
+	// hash table: large factor -> (head of the record list, number of partials containing the large factor with odd exponent)
+	// large factors are bigger than the largest prime base element, so 0 can be used to mark empty slots
+	private long[] slotKeys;
+	private int[] slotHeads;
+	private int[] slotCounts;
+	private int[] slotStamps;
+	private int tableBits;
+	private int tableMask;
+	private int keyCount;
+	
+	// records: one per partial and large factor with odd exponent; the records of a partial are stored consecutively
+	private long[] recordFactors;
+	private int[] recordPartialIds;
+	private int[] recordNext;
+	private int recordCount;
+	
+	// partials
+	private int[] partialFirstRecords;
+	private byte[] partialOddLargeFactorCounts;
+	private int[] partialDataPositions;
+	private int[] partialStamps;
+	private int partialCount;
+	
+	// packed partial data
+	private ArrayList<int[]> chunks;
+	private int[] currentChunk;
+	private int currentChunkPos;
+	
+	/** stamp to mark processed large factors and partials in findRelatedPartials() */
+	private int stamp;
+	
+	// buffers
+	private long[] currentLargeFactors = new long[16];
+	private long[] nextLargeFactors = new long[16];
+	private int[] relatedPartialIds = new int[16];
+	private SortedIntegerArray smallFactorsBuffer = new SortedIntegerArray();
+	private SortedLongArray largeFactorsBuffer = new SortedLongArray();
+	private AQPairFactory aqPairFactory = new AQPairFactory();
+	
+	/**
+	 * Initialize this store for a new N.
+	 */
+	public void initialize() {
+		tableBits = INITIAL_TABLE_BITS;
+		tableMask = (1<<tableBits) - 1;
+		slotKeys = new long[1<<tableBits];
+		slotHeads = new int[1<<tableBits];
+		slotCounts = new int[1<<tableBits];
+		slotStamps = new int[1<<tableBits];
+		keyCount = 0;
+		
+		recordFactors = new long[INITIAL_CAPACITY];
+		recordPartialIds = new int[INITIAL_CAPACITY];
+		recordNext = new int[INITIAL_CAPACITY];
+		recordCount = 0;
+		
+		partialFirstRecords = new int[INITIAL_CAPACITY];
+		partialOddLargeFactorCounts = new byte[INITIAL_CAPACITY];
+		partialDataPositions = new int[INITIAL_CAPACITY];
+		partialStamps = new int[INITIAL_CAPACITY];
+		partialCount = 0;
+		
+		chunks = new ArrayList<>();
+		currentChunk = new int[CHUNK_SIZE];
+		chunks.add(currentChunk);
+		currentChunkPos = 0;
+		
+		stamp = 0;
+	}
+	
+	/**
+	 * Add a new partial.
+	 * @param partial
+	 * @param largeFactors the large factors of the partial with odd exponent
+	 */
+	public void add(Partial partial, long[] largeFactors) {
+		int partialId = partialCount;
+		if (partialId == partialFirstRecords.length) {
+			int newCapacity = partialId<<1;
+			partialFirstRecords = Arrays.copyOf(partialFirstRecords, newCapacity);
+			partialOddLargeFactorCounts = Arrays.copyOf(partialOddLargeFactorCounts, newCapacity);
+			partialDataPositions = Arrays.copyOf(partialDataPositions, newCapacity);
+			partialStamps = Arrays.copyOf(partialStamps, newCapacity);
+		}
+		partialFirstRecords[partialId] = recordCount;
+		partialOddLargeFactorCounts[partialId] = (byte) largeFactors.length;
+		partialDataPositions[partialId] = pack(partial);
+		partialCount++;
+		
+		for (long largeFactor : largeFactors) {
+			int slot = getOrCreateSlot(largeFactor);
+			int record = recordCount++;
+			if (record == recordFactors.length) {
+				int newCapacity = record<<1;
+				recordFactors = Arrays.copyOf(recordFactors, newCapacity);
+				recordPartialIds = Arrays.copyOf(recordPartialIds, newCapacity);
+				recordNext = Arrays.copyOf(recordNext, newCapacity);
+			}
+			recordFactors[record] = largeFactor;
+			recordPartialIds[record] = partialId;
+			recordNext[record] = slotHeads[slot];
+			slotHeads[slot] = record;
+			slotCounts[slot]++;
+		}
+	}
+	
+	/**
+	 * Find "old" partials related to a new partial, applying the same on-the-fly singleton removal and cutoff as CongruenceCollector03.
+	 * The new partial must not have been added to this store yet.
+	 * The search itself works on partial ids only; Partial objects are re-created for the final result.
+	 * 
+	 * @param largeFactorsOfNewPartial the large factors with odd exponent of the new partial; not modified
+	 * @param maxCount cutoff: the search stops when that many related partials have been found
+	 * @return list of distinct related partial congruences
+	 */
+	public ArrayList<Partial> findRelatedPartials(long[] largeFactorsOfNewPartial, int maxCount) {
+		int relatedCount = searchRelatedPartials(largeFactorsOfNewPartial, maxCount);
+		// +1 leaves space for the new partial
+		ArrayList<Partial> relatedPartials = new ArrayList<>(relatedCount+1);
+		for (int i=0; i<relatedCount; i++) {
+			relatedPartials.add(unpack(partialDataPositions[relatedPartialIds[i]]));
+		}
+		return relatedPartials;
+	}
+	
+	/**
+	 * The search of findRelatedPartials(), working on partial ids only. The ids of the related partials are stored in relatedPartialIds.
+	 * @param largeFactorsOfNewPartial
+	 * @param maxCount
+	 * @return the number of related partials
+	 */
+	private int searchRelatedPartials(long[] largeFactorsOfNewPartial, int maxCount) {
+		if (++stamp == 0) {
+			// overflow -> reset all marks
+			Arrays.fill(slotStamps, 0);
+			Arrays.fill(partialStamps, 0, partialCount, 0);
+			stamp = 1;
+		}
+		int relatedCount = 0;
+		int currentCount = 0;
+		for (long largeFactor : largeFactorsOfNewPartial) {
+			int slot = findSlot(largeFactor);
+			if (slot >= 0 && slotStamps[slot] != stamp) {
+				slotStamps[slot] = stamp;
+				currentLargeFactors = ensureCapacity(currentLargeFactors, currentCount);
+				currentLargeFactors[currentCount++] = largeFactor;
+			}
+		}
+		while (currentCount > 0) {
+			int nextCount = 0;
+			for (int i=0; i<currentCount; i++) {
+				long largeFactor = currentLargeFactors[i];
+				int slot = findSlot(largeFactor);
+				// Removing some singletons on-the-fly improves performance considerably.
+				// The conditions get a bit more complicated because the new partial has not been added yet to the store...
+				// 1) if there is only 1 partial and that one shares no factor with the new partial, then largeFactor is a singleton column
+				int listSize = slotCounts[slot];
+				if (listSize > 1 || (listSize==1 && arrayContains(largeFactorsOfNewPartial, largeFactor))) {
+					for (int record = slotHeads[slot]; record >= 0; record = recordNext[record]) {
+						int partialId = recordPartialIds[record];
+						// 2) if one of its factors occurs only once, then the partial is a singleton row
+						if (partialStamps[partialId] == stamp || isSingletonRow(partialId, largeFactorsOfNewPartial)) continue;
+						
+						partialStamps[partialId] = stamp;
+						if (relatedCount == relatedPartialIds.length) relatedPartialIds = Arrays.copyOf(relatedPartialIds, relatedCount<<1);
+						relatedPartialIds[relatedCount++] = partialId;
+						if (relatedCount >= maxCount) return relatedCount;
+						
+						int firstRecord = partialFirstRecords[partialId];
+						int endRecord = firstRecord + partialOddLargeFactorCounts[partialId];
+						for (int r = firstRecord; r < endRecord; r++) {
+							long nextLargeFactor = recordFactors[r];
+							int nextSlot = findSlot(nextLargeFactor);
+							if (slotStamps[nextSlot] != stamp) {
+								slotStamps[nextSlot] = stamp;
+								nextLargeFactors = ensureCapacity(nextLargeFactors, nextCount);
+								nextLargeFactors[nextCount++] = nextLargeFactor;
+							}
+						}
+					}
+				}
+			}
+			// swap buffers
+			long[] tmp = currentLargeFactors;
+			currentLargeFactors = nextLargeFactors;
+			nextLargeFactors = tmp;
+			currentCount = nextCount;
+		}
+		return relatedCount;
+	}
+	
+	private boolean isSingletonRow(int partialId, long[] largeFactorsOfNewPartial) {
+		int firstRecord = partialFirstRecords[partialId];
+		int endRecord = firstRecord + partialOddLargeFactorCounts[partialId];
+		for (int r = firstRecord; r < endRecord; r++) {
+			long largeFactor = recordFactors[r];
+			int listSize = slotCounts[findSlot(largeFactor)];
+			if (listSize==0 || (listSize==1 && !arrayContains(largeFactorsOfNewPartial, largeFactor))) return true;
+		}
+		return false;
+	}
+
+	private static boolean arrayContains(long[] array, long l) {
+		for (int i=0; i<array.length; i++) {
+			if (array[i] == l) return true;
+		}
+		return false;
+	}
+	
+	private static long[] ensureCapacity(long[] array, int index) {
+		return index < array.length ? array : Arrays.copyOf(array, array.length<<1);
+	}
+
+	/**
+	 * @return the number of partials in this store
+	 */
+	public int size() {
+		return partialCount;
+	}
+	
+	/**
+	 * @return the number of distinct large factors with odd exponent in this store
+	 */
+	public int getLargeFactorCount() {
+		return keyCount;
+	}
+	
+	// hash table ------------------------------------------------------------------------------------
+	
+	private int hash(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64-tableBits));
+	}
+	
+	/**
+	 * @param key
+	 * @return the slot of the given key, or -1 if the key is not contained
+	 */
+	private int findSlot(long key) {
+		for (int slot = hash(key); ; slot = (slot+1) & tableMask) {
+			long slotKey = slotKeys[slot];
+			if (slotKey == key) return slot;
+			if (slotKey == 0) return -1;
+		}
+	}
+	
+	private int getOrCreateSlot(long key) {
+		int slot = hash(key);
+		for (; ; slot = (slot+1) & tableMask) {
+			long slotKey = slotKeys[slot];
+			if (slotKey == key) return slot;
+			if (slotKey == 0) break;
+		}
+		// new key. keep the load factor <= 1/2
+		if (++keyCount > (tableMask+1)>>1) {
+			resizeTable();
+			slot = hash(key);
+			while (slotKeys[slot] != 0) slot = (slot+1) & tableMask;
+		}
+		slotKeys[slot] = key;
+		slotHeads[slot] = -1;
+		slotCounts[slot] = 0;
+		slotStamps[slot] = 0;
+		return slot;
+	}
+	
+	private void resizeTable() {
+		long[] oldKeys = slotKeys;
+		int[] oldHeads = slotHeads;
+		int[] oldCounts = slotCounts;
+		int[] oldStamps = slotStamps;
+		tableBits++;
+		tableMask = (1<<tableBits) - 1;
+		slotKeys = new long[1<<tableBits];
+		slotHeads = new int[1<<tableBits];
+		slotCounts = new int[1<<tableBits];
+		slotStamps = new int[1<<tableBits];
+		for (int oldSlot=0; oldSlot<oldKeys.length; oldSlot++) {
+			long key = oldKeys[oldSlot];
+			if (key == 0) continue;
+			int slot = hash(key);
+			while (slotKeys[slot] != 0) slot = (slot+1) & tableMask;
+			slotKeys[slot] = key;
+			slotHeads[slot] = oldHeads[oldSlot];
+			slotCounts[slot] = oldCounts[oldSlot];
+			slotStamps[slot] = oldStamps[oldSlot];
+		}
+		if (DEBUG) LOG.debug("resized hash table to " + slotKeys.length + " slots");
+	}
+	
+	// packed partial data ---------------------------------------------------------------------------
+	
+	/**
+	 * Pack a partial into the current chunk. The layout is
+	 * [#bytes of A, A as int[], #small factors, small factors, small factor exponents (2 per int), #large factors, (high int, low int, exponent) per large factor].
+	 * 
+	 * @param partial
+	 * @return the position of the packed data, encoded as (chunk index << CHUNK_BITS) | position in chunk
+	 */
+	private int pack(Partial partial) {
+		byte[] aBytes = partial.getA().toByteArray();
+		int[] smallFactors = partial.smallFactors;
+		short[] smallFactorExponents = partial.smallFactorExponents;
+		long[] largeFactors;
+		byte[] largeFactorExponents;
+		if (partial instanceof PartialNLarge) {
+			PartialNLarge partialNLarge = (PartialNLarge) partial;
+			largeFactors = partialNLarge.getBigFactors();
+			largeFactorExponents = partialNLarge.getBigFactorExponents();
+		} else {
+			// 1- and 2-partials have only large factors with exponent 1
+			Long[] oddLargeFactors = partial.getLargeFactorsWithOddExponent();
+			largeFactors = new long[oddLargeFactors.length];
+			largeFactorExponents = new byte[oddLargeFactors.length];
+			for (int i=0; i<oddLargeFactors.length; i++) {
+				largeFactors[i] = oddLargeFactors[i];
+				largeFactorExponents[i] = 1;
+			}
+		}
+		
+		int aInts = (aBytes.length+3)>>2;
+		int smallCount = smallFactors.length;
+		int largeCount = largeFactors.length;
+		int length = 1 + aInts + 1 + smallCount + ((smallCount+1)>>1) + 1 + 3*largeCount;
+		if (currentChunkPos + length > CHUNK_SIZE) {
+			currentChunk = new int[CHUNK_SIZE];
+			chunks.add(currentChunk);
+			currentChunkPos = 0;
+		}
+		int[] chunk = currentChunk;
+		int startPos = currentChunkPos;
+		int pos = startPos;
+		
+		chunk[pos++] = aBytes.length;
+		for (int i=0; i<aBytes.length; i+=4) {
+			int word = 0;
+			for (int j=i; j<i+4; j++) {
+				word = (word << 8) | (j<aBytes.length ? aBytes[j] & 0xFF : 0);
+			}
+			chunk[pos++] = word;
+		}
+		chunk[pos++] = smallCount;
+		for (int i=0; i<smallCount; i++) {
+			chunk[pos++] = smallFactors[i];
+		}
+		for (int i=0; i<smallCount; i+=2) {
+			int high = i+1<smallCount ? smallFactorExponents[i+1] : 0;
+			chunk[pos++] = (high << 16) | (smallFactorExponents[i] & 0xFFFF);
+		}
+		chunk[pos++] = largeCount;
+		for (int i=0; i<largeCount; i++) {
+			long largeFactor = largeFactors[i];
+			chunk[pos++] = (int) (largeFactor >>> 32);
+			chunk[pos++] = (int) largeFactor;
+			chunk[pos++] = largeFactorExponents[i];
+		}
+		currentChunkPos = pos;
+		
+		return ((chunks.size()-1) << CHUNK_BITS) | startPos;
+	}
+	
+	/**
+	 * Re-create a partial from packed data.
+	 * @param dataPosition
+	 * @return partial
+	 */
+	private Partial unpack(int dataPosition) {
+		int[] chunk = chunks.get(dataPosition >>> CHUNK_BITS);
+		int pos = dataPosition & CHUNK_MASK;
+		
+		int aByteCount = chunk[pos++];
+		byte[] aBytes = new byte[aByteCount];
+		for (int i=0; i<aByteCount; i+=4) {
+			int word = chunk[pos++];
+			for (int j=i; j<i+4; j++) {
+				if (j<aByteCount) aBytes[j] = (byte) (word >>> 24);
+				word <<= 8;
+			}
+		}
+		BigInteger A = new BigInteger(aBytes);
+		
+		int smallCount = chunk[pos++];
+		int exponentPos = pos + smallCount;
+		smallFactorsBuffer.reset();
+		for (int i=0; i<smallCount; i++) {
+			int exponents = chunk[exponentPos + (i>>1)];
+			short exponent = (short) ((i&1)==0 ? exponents : exponents >> 16);
+			smallFactorsBuffer.add(chunk[pos++], exponent);
+		}
+		pos = exponentPos + ((smallCount+1)>>1);
+		
+		int largeCount = chunk[pos++];
+		largeFactorsBuffer.reset();
+		for (int i=0; i<largeCount; i++) {
+			long largeFactor = ((long) chunk[pos++] << 32) | (chunk[pos++] & 0xFFFFFFFFL);
+			int exponent = chunk[pos++];
+			for (int j=0; j<exponent; j++) {
+				largeFactorsBuffer.add(largeFactor);
+			}
+		}
+		Partial partial = (Partial) aqPairFactory.create(A, smallFactorsBuffer, largeFactorsBuffer);
+		if (DEBUG) LOG.debug("unpacked partial " + partial);
+		return partial;
+	}
+	
+	/**
+	 * Release memory after a factorization.
+	 */
+	public void cleanUp() {
+		slotKeys = null;
+		slotHeads = null;
+		slotCounts = null;
+		slotStamps = null;
+		recordFactors = null;
+		recordPartialIds = null;
+		recordNext = null;
+		partialFirstRecords = null;
+		partialOddLargeFactorCounts = null;
+		partialDataPositions = null;
+		partialStamps = null;
+		chunks = null;
+		currentChunk = null;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base.congruence;
+
+import static de.tilman_neumann.jml.factor.base.congruence.RelationFileWriter.*;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+
+import de.tilman_neumann.jml.factor.base.SortedIntegerArray;
+import de.tilman_neumann.jml.factor.base.SortedLongArray;
+
+/**
+ * Reads relation files in the format written by RelationFileWriter.
+ * 
+ * A truncated last record, as left by a process that got killed while writing, is treated like the end of the file.
+ * 
+ * @author Tilman Neumann
+ */
+public class RelationFileReader {
+	/** tag returned by next() at the end of the file */
+	public static final byte END = 0;
+	
+	private DataInputStream in;
+	
+	private BigInteger N;
+	private int primeBaseSize;
+	
+	/** the number of bytes of complete records read so far */
+	private long validLength;
+	
+	private AQPair aqPair;
+	private int checkpointValue;
+	
+	private SortedIntegerArray smallFactors = new SortedIntegerArray();
+	private SortedLongArray largeFactors = new SortedLongArray();
+	private AQPairFactory aqPairFactory = new AQPairFactory();
+	
+	/**
+	 * Open a relation file and read its header.
+	 * @param file
+	 * @throws IOException if the file can not be read or is not a relation file
+	 */
+	public RelationFileReader(File file) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) throw new IOException(file + " is not a relation file");
+			short version = in.readShort();
+			if (version != VERSION) throw new IOException(file + " has unsupported version " + version);
+			int NLength = in.readShort();
+			N = readBigInteger(NLength);
+			primeBaseSize = in.readInt();
+			validLength = 4 + 2 + 2 + NLength + 4;
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+	
+	public BigInteger getN() {
+		return N;
+	}
+	
+	public int getPrimeBaseSize() {
+		return primeBaseSize;
+	}
+	
+	/**
+	 * Read the next record.
+	 * @return RELATION, CHECKPOINT or END
+	 * @throws IOException if the file is corrupt
+	 */
+	public byte next() throws IOException {
+		try {
+			int tag = in.read();
+			if (tag < 0) return END;
+			if (tag == RELATION) {
+				int ALength = in.readShort();
+				BigInteger A = readBigInteger(ALength);
+				int smallFactorCount = in.readShort();
+				smallFactors.reset();
+				for (int i=0; i<smallFactorCount; i++) {
+					int factor = in.readInt();
+					smallFactors.add(factor, in.readShort());
+				}
+				int largeFactorCount = in.readByte();
+				largeFactors.reset();
+				for (int i=0; i<largeFactorCount; i++) {
+					long factor = in.readLong();
+					int exponent = in.readByte();
+					for (int j=0; j<exponent; j++) {
+						largeFactors.add(factor);
+					}
+				}
+				aqPair = aqPairFactory.create(A, smallFactors, largeFactors);
+				validLength += 1 + 2 + ALength + 2 + 6*smallFactorCount + 1 + 9*largeFactorCount;
+				return RELATION;
+			}
+			if (tag == CHECKPOINT) {
+				checkpointValue = in.readInt();
+				validLength += 5;
+				return CHECKPOINT;
+			}
+			throw new IOException("Unknown record tag " + tag + " at position " + validLength);
+		} catch (EOFException e) {
+			// truncated last record
+			return END;
+		}
+	}
+	
+	/**
+	 * @return the AQ-pair read by the last call of next() that returned RELATION
+	 */
+	public AQPair getAQPair() {
+		return aqPair;
+	}
+	
+	/**
+	 * @return the value read by the last call of next() that returned CHECKPOINT
+	 */
+	public int getCheckpointValue() {
+		return checkpointValue;
+	}
+	
+	/**
+	 * @return the number of bytes of the header and all complete records read so far
+	 */
+	public long getValidLength() {
+		return validLength;
+	}
+	
+	private BigInteger readBigInteger(int length) throws IOException {
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new BigInteger(bytes);
+	}
+	
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base.congruence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Writes AQ-pairs to a binary relation file, so that they can be re-read by a RelationFileReader.
+ * 
+ * All numbers are stored big-endian as by java.io.DataOutput. The file format is:
+ * <pre>
+ * header:
+ *   int    magic = 0x4A4D4C52 ("JMLR")
+ *   short  version = 1
+ *   short  byte length of N, followed by N as two's complement bytes (BigInteger.toByteArray())
+ *   int    prime base size
+ * followed by any number of records, each starting with a tag byte:
+ *   RELATION (1): an elementary AQ-pair
+ *     short  byte length of A, followed by A as two's complement bytes
+ *     short  number of small factors of Q, followed by (int factor, short exponent) for each of them
+ *     byte   number of large factors of Q, followed by (long factor, byte exponent) for each of them
+ *   CHECKPOINT (2): marks a consistent state
+ *     int    a user-defined value, e.g. the number of a-parameters completed by SIQS
+ * </pre>
+ * 
+ * The format is append-only, so a writer that got killed leaves a file whose content up to the last complete record is valid.
+ * 
+ * @author Tilman Neumann
+ */
+public class RelationFileWriter {
+	public static final int MAGIC = 0x4A4D4C52;
+	public static final short VERSION = 1;
+	
+	public static final byte RELATION = 1;
+	public static final byte CHECKPOINT = 2;
+	
+	private FileOutputStream fileOut;
+	private DataOutputStream out;
+	
+	/**
+	 * Create a new relation file, overwriting any existing file.
+	 * @param file
+	 * @param N the number to factor
+	 * @param primeBaseSize
+	 * @throws IOException
+	 */
+	public RelationFileWriter(File file, BigInteger N, int primeBaseSize) throws IOException {
+		fileOut = new FileOutputStream(file, false);
+		out = new DataOutputStream(new BufferedOutputStream(fileOut));
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		writeBigInteger(N);
+		out.writeInt(primeBaseSize);
+		out.flush();
+	}
+	
+	/**
+	 * Continue writing an existing relation file. Content after the given length is discarded.
+	 * @param file
+	 * @param validLength the length of the valid part of the file, typically RelationFileReader.getValidLength()
+	 * @throws IOException
+	 */
+	public RelationFileWriter(File file, long validLength) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(validLength);
+		}
+		fileOut = new FileOutputStream(file, true);
+		out = new DataOutputStream(new BufferedOutputStream(fileOut));
+	}
+	
+	/**
+	 * Write an elementary AQ-pair.
+	 * @param aqPair
+	 * @throws IOException
+	 */
+	public void writeAQPair(AQPair aqPair) throws IOException {
+		out.writeByte(RELATION);
+		writeBigInteger(aqPair.getA());
+		
+		int[] smallFactors = aqPair.smallFactors;
+		short[] smallFactorExponents = aqPair.smallFactorExponents;
+		out.writeShort(smallFactors.length);
+		for (int i=0; i<smallFactors.length; i++) {
+			out.writeInt(smallFactors[i]);
+			out.writeShort(smallFactorExponents[i]);
+		}
+		
+		// the large factors are those of all Q-factors that are not small factors
+		Map<Long, Integer> allQFactors = aqPair.getAllQFactors();
+		int largeFactorCount = allQFactors.size() - smallFactors.length;
+		out.writeByte(largeFactorCount);
+		if (largeFactorCount > 0) {
+			for (Map.Entry<Long, Integer> entry : allQFactors.entrySet()) {
+				long factor = entry.getKey();
+				if (!isSmallFactor(smallFactors, factor)) {
+					out.writeLong(factor);
+					out.writeByte(entry.getValue());
+				}
+			}
+		}
+	}
+	
+	private static boolean isSmallFactor(int[] smallFactors, long factor) {
+		for (int smallFactor : smallFactors) {
+			if (smallFactor == factor) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Write a checkpoint record and make sure that everything written so far is on disk.
+	 * @param value
+	 * @throws IOException
+	 */
+	public void writeCheckpoint(int value) throws IOException {
+		out.writeByte(CHECKPOINT);
+		out.writeInt(value);
+		out.flush();
+		fileOut.getFD().sync();
+	}
+	
+	private void writeBigInteger(BigInteger n) throws IOException {
+		byte[] bytes = n.toByteArray();
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+	
+	/**
+	 * Flush buffered records to the file.
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+	
+	public void close() throws IOException {
+		out.close();
+	}
+}
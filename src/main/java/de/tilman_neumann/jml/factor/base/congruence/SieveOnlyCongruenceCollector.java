@@ -0,0 +1,117 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base.congruence;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import de.tilman_neumann.jml.factor.base.matrixSolver.FactorTest;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolver;
+
+/**
+ * A congruence collector that only counts the AQ-pairs it gets and never runs a matrix solver.
+ * 
+ * Used for relation sieving processes whose relations are written to relation files by a wrapping collector
+ * like CheckpointCongruenceCollector, and combined and solved in a separate merge step.
+ * A factoring algorithm using this collector never terminates by itself.
+ * 
+ * @author Tilman Neumann
+ */
+public class SieveOnlyCongruenceCollector implements CongruenceCollector {
+	
+	private int smoothCount;
+	private int partialCount;
+	
+	@Override
+	public void initialize(BigInteger N, int primeBaseSize, MatrixSolver matrixSolver, FactorTest factorTest) {
+		smoothCount = 0;
+		partialCount = 0;
+	}
+
+	@Override
+	public void setPrimeBaseSize(int newPrimeBaseSize) {
+		// not needed
+	}
+
+	@Override
+	public void collectAndProcessAQPairs(List<AQPair> aqPairs) {
+		for (AQPair aqPair : aqPairs) {
+			collectAndProcessAQPair(aqPair);
+		}
+	}
+
+	@Override
+	public void collectAndProcessAQPair(AQPair aqPair) {
+		if (aqPair instanceof Smooth) {
+			smoothCount++;
+		} else {
+			partialCount++;
+		}
+	}
+
+	@Override
+	public int getSmoothCongruenceCount() {
+		return smoothCount;
+	}
+
+	/**
+	 * @return an empty collection, because smooth congruences are not kept
+	 */
+	@Override
+	public Collection<Smooth> getSmoothCongruences() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public int getPartialCongruenceCount() {
+		return partialCount;
+	}
+
+	@Override
+	public BigInteger getFactor() {
+		return null;
+	}
+
+	@Override
+	public CongruenceCollectorReport getReport() {
+		return new CongruenceCollectorReport(partialCount, smoothCount, null, null, 0, null, null, null, null, 0, 0, 0, 0);
+	}
+
+	@Override
+	public long getCollectDuration() {
+		return 0;
+	}
+
+	@Override
+	public long getSolverDuration() {
+		return 0;
+	}
+
+	@Override
+	public int getSolverRunCount() {
+		return 0;
+	}
+
+	@Override
+	public int getTestedNullVectorCount() {
+		return 0;
+	}
+
+	@Override
+	public void cleanUp() {
+		// nothing to do
+	}
+}
@@ -528,7 +528,7 @@ public class BlockLanczos implements Serializable {
 	 * @param matrixAV result
 	 * @param matrixBlength matrix/vector size
 	 */
-	private void MultiplyAByMatrix(int[][] matrixB, int[] matrixV, int[] TempMatr, int[] matrixAV, int matrixBlength) {
+	protected void MultiplyAByMatrix(int[][] matrixB, int[] matrixV, int[] TempMatr, int[] matrixAV, int matrixBlength) {
 	    int index;
 	    int prodMatr;
 	    int[] rowMatrixB = null;
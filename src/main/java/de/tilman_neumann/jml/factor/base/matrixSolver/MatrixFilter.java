@@ -0,0 +1,421 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base.matrixSolver;
+
+import static de.tilman_neumann.jml.factor.base.GlobalFactoringOptions.ANALYZE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.factor.FactorException;
+import de.tilman_neumann.jml.factor.base.congruence.AQPair;
+import de.tilman_neumann.jml.factor.base.congruence.Smooth;
+import de.tilman_neumann.jml.factor.base.congruence.SmoothComposite;
+
+/**
+ * Filtering stage ("structured Gaussian elimination") that reduces the dimension and weight of the congruence matrix
+ * before it is passed to the real solver. The following steps are repeated until nothing changes anymore:
+ * 
+ * 1. Singleton removal: Rows having a column that occurs in no other row can not be part of a null vector.
+ * 2. Merging of light columns: If a column occurs in only k<=maxMergeWeight rows, then the lightest of these rows is added to the others
+ *    and removed. This eliminates one row and one column. Weight-2 merges never increase the matrix weight;
+ *    heavier merges are only done if they do not increase the matrix weight.
+ * 3. Clique removal: If there are more excess rows than required, the heaviest "cliques" are removed.
+ *    A clique is a connected component of the graph whose nodes are the rows and whose edges are the columns of weight 2.
+ *    Removing a clique reduces the excess by at most 1 and does not create new singletons inside the remaining cliques.
+ * 
+ * Merged rows are represented by composite smooths. If a merge yields a zero row, then the merged congruence is tested for a factor immediately.
+ * 
+ * @author Tilman Neumann
+ */
+public class MatrixFilter {
+	private static final Logger LOG = LogManager.getLogger(MatrixFilter.class);
+
+	/** The number of excess rows that is kept by default; enough for the Block-Lanczos solver to find 32 null vectors */
+	public static final int DEFAULT_TARGET_EXCESS = 64;
+	
+	/** The maximum column weight that is merged by default */
+	public static final int DEFAULT_MAX_MERGE_WEIGHT = 3;
+	
+	/** A matrix row under construction */
+	private static class Row {
+		Smooth smooth;
+		/** sorted column indices */
+		int[] columns;
+		boolean alive = true;
+		
+		Row(Smooth smooth, int[] columns) {
+			this.smooth = smooth;
+			this.columns = columns;
+		}
+	}
+
+	private MatrixSolver matrixSolver;
+	private int targetExcess;
+	private int maxMergeWeight;
+	
+	private ArrayList<Row> rows;
+	private int[] columnWeights;
+	private int aliveRowCount;
+	
+	// statistics
+	private int initialRowCount, initialColumnCount;
+	private long initialWeight;
+	private int finalRowCount, finalColumnCount;
+	private long finalWeight;
+	private int singletonCount, mergeCount, cliqueRowCount, nullVectorCount;
+	
+	/**
+	 * Standard constructor.
+	 * @param matrixSolver the solver using this filter, to test null vectors found while merging
+	 */
+	public MatrixFilter(MatrixSolver matrixSolver) {
+		this(matrixSolver, DEFAULT_TARGET_EXCESS, DEFAULT_MAX_MERGE_WEIGHT);
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param matrixSolver the solver using this filter, to test null vectors found while merging
+	 * @param targetExcess the number of rows more than columns that shall be kept
+	 * @param maxMergeWeight the maximum column weight that is merged; values < 2 disable merging
+	 */
+	public MatrixFilter(MatrixSolver matrixSolver, int targetExcess, int maxMergeWeight) {
+		this.matrixSolver = matrixSolver;
+		this.targetExcess = targetExcess;
+		this.maxMergeWeight = maxMergeWeight;
+	}
+	
+	/**
+	 * Filter the given congruences.
+	 * @param congruences
+	 * @return the filtered congruences, a mix of the given congruences and composites of them
+	 * @throws FactorException if a null vector found while merging gave a factor
+	 */
+	public List<Smooth> filter(List<Smooth> congruences) throws FactorException {
+		createRows(congruences);
+		initialRowCount = aliveRowCount;
+		initialColumnCount = getColumnCount();
+		initialWeight = getWeight();
+		singletonCount = mergeCount = cliqueRowCount = nullVectorCount = 0;
+		
+		boolean changed;
+		do {
+			removeSingletons();
+			changed = mergeLightColumns();
+			removeSingletons();
+			changed |= removeCliques();
+		} while (changed);
+		
+		List<Smooth> result = new ArrayList<>(aliveRowCount);
+		for (Row row : rows) {
+			if (row.alive) result.add(row.smooth);
+		}
+		finalRowCount = aliveRowCount;
+		finalColumnCount = getColumnCount();
+		finalWeight = getWeight();
+		if (ANALYZE) LOG.info(getReport());
+		// release memory
+		rows = null;
+		columnWeights = null;
+		return result;
+	}
+	
+	private void createRows(List<Smooth> congruences) {
+		Map<Integer, Integer> factors_2_columnIndices = new HashMap<>();
+		rows = new ArrayList<>(congruences.size());
+		for (Smooth congruence : congruences) {
+			rows.add(new Row(congruence, toColumns(congruence, factors_2_columnIndices)));
+		}
+		aliveRowCount = rows.size();
+		columnWeights = new int[factors_2_columnIndices.size()];
+		for (Row row : rows) {
+			for (int column : row.columns) {
+				columnWeights[column]++;
+			}
+		}
+	}
+	
+	private int[] toColumns(Smooth congruence, Map<Integer, Integer> factors_2_columnIndices) {
+		Integer[] oddExpFactors = congruence.getMatrixElements();
+		int[] columns = new int[oddExpFactors.length];
+		for (int i=0; i<oddExpFactors.length; i++) {
+			Integer column = factors_2_columnIndices.get(oddExpFactors[i]);
+			if (column == null) {
+				column = factors_2_columnIndices.size();
+				factors_2_columnIndices.put(oddExpFactors[i], column);
+			}
+			columns[i] = column;
+		}
+		Arrays.sort(columns);
+		return columns;
+	}
+
+	private void removeRow(Row row) {
+		for (int column : row.columns) {
+			columnWeights[column]--;
+		}
+		row.alive = false;
+		aliveRowCount--;
+	}
+	
+	/**
+	 * Remove rows having a column of weight 1, until there are no such rows anymore.
+	 */
+	private void removeSingletons() {
+		boolean removedSome;
+		do {
+			removedSome = false;
+			for (Row row : rows) {
+				if (!row.alive) continue;
+				for (int column : row.columns) {
+					if (columnWeights[column] == 1) {
+						removeRow(row);
+						singletonCount++;
+						removedSome = true;
+						break;
+					}
+				}
+			}
+		} while (removedSome);
+	}
+	
+	/**
+	 * Merge columns having a weight in [2, maxMergeWeight].
+	 * @return true if some column was merged
+	 * @throws FactorException
+	 */
+	private boolean mergeLightColumns() throws FactorException {
+		if (maxMergeWeight < 2) return false;
+		
+		// find the rows of the light columns
+		Row[][] columnRows = new Row[columnWeights.length][];
+		int[] columnRowCounts = new int[columnWeights.length];
+		for (Row row : rows) {
+			if (!row.alive) continue;
+			for (int column : row.columns) {
+				int weight = columnWeights[column];
+				if (weight < 2 || weight > maxMergeWeight) continue;
+				if (columnRows[column] == null) columnRows[column] = new Row[weight];
+				columnRows[column][columnRowCounts[column]++] = row;
+			}
+		}
+		
+		boolean mergedSome = false;
+		for (int column=0; column<columnWeights.length; column++) {
+			Row[] candidates = columnRows[column];
+			if (candidates == null) continue;
+			// previous merges may have changed the rows of the column, then we skip it until the next round
+			int weight = columnWeights[column];
+			if (weight != candidates.length) continue;
+			Row pivot = null;
+			boolean valid = true;
+			for (Row row : candidates) {
+				if (!row.alive || Arrays.binarySearch(row.columns, column) < 0) {
+					valid = false;
+					break;
+				}
+				if (pivot == null || row.columns.length < pivot.columns.length) pivot = row;
+			}
+			if (!valid) continue;
+			
+			// compute the merged rows
+			int[][] mergedColumns = new int[weight][];
+			long weightChange = -pivot.columns.length;
+			for (int i=0; i<weight; i++) {
+				Row row = candidates[i];
+				if (row == pivot) continue;
+				mergedColumns[i] = addXor(row.columns, pivot.columns);
+				weightChange += mergedColumns[i].length - row.columns.length;
+			}
+			if (weight > 2 && weightChange > 0) continue; // merge would make the matrix heavier
+			
+			// do it
+			for (int i=0; i<weight; i++) {
+				Row row = candidates[i];
+				if (row == pivot) continue;
+				for (int c : row.columns) columnWeights[c]--;
+				for (int c : mergedColumns[i]) columnWeights[c]++;
+				row.columns = mergedColumns[i];
+				Set<AQPair> aqPairs = new HashSet<>();
+				row.smooth.addMyAQPairsViaXor(aqPairs);
+				pivot.smooth.addMyAQPairsViaXor(aqPairs);
+				if (row.columns.length == 0) {
+					// found a null vector
+					row.alive = false;
+					aliveRowCount--;
+					if (!aqPairs.isEmpty()) {
+						nullVectorCount++;
+						matrixSolver.processNullVector(aqPairs);
+					}
+				} else {
+					row.smooth = new SmoothComposite(aqPairs);
+				}
+			}
+			removeRow(pivot);
+			mergeCount++;
+			mergedSome = true;
+		}
+		return mergedSome;
+	}
+
+	/**
+	 * Add two sorted column arrays modulo 2.
+	 * @param columns1
+	 * @param columns2
+	 * @return sorted columns occurring in exactly one of the arguments
+	 */
+	private static int[] addXor(int[] columns1, int[] columns2) {
+		int[] result = new int[columns1.length + columns2.length];
+		int i=0, j=0, k=0;
+		while (i<columns1.length && j<columns2.length) {
+			int c1 = columns1[i], c2 = columns2[j];
+			if (c1 < c2) {
+				result[k++] = c1;
+				i++;
+			} else if (c1 > c2) {
+				result[k++] = c2;
+				j++;
+			} else {
+				i++;
+				j++;
+			}
+		}
+		while (i<columns1.length) result[k++] = columns1[i++];
+		while (j<columns2.length) result[k++] = columns2[j++];
+		return Arrays.copyOf(result, k);
+	}
+	
+	/**
+	 * Remove the heaviest cliques until the excess has been reduced to the target excess.
+	 * @return true if some rows were removed
+	 */
+	private boolean removeCliques() {
+		int excess = aliveRowCount - getColumnCount();
+		if (excess <= targetExcess) return false;
+		
+		// union-find over the rows connected by columns of weight 2
+		int rowCount = rows.size();
+		int[] parents = new int[rowCount];
+		for (int i=0; i<rowCount; i++) parents[i] = i;
+		int[] firstRowOfColumn = new int[columnWeights.length];
+		Arrays.fill(firstRowOfColumn, -1);
+		for (int i=0; i<rowCount; i++) {
+			Row row = rows.get(i);
+			if (!row.alive) continue;
+			for (int column : row.columns) {
+				if (columnWeights[column] != 2) continue;
+				if (firstRowOfColumn[column] < 0) {
+					firstRowOfColumn[column] = i;
+				} else {
+					int root1 = find(parents, firstRowOfColumn[column]);
+					int root2 = find(parents, i);
+					if (root1 != root2) parents[root2] = root1;
+				}
+			}
+		}
+		
+		// compute clique weights = number of rows + number of entries
+		long[] cliqueWeights = new long[rowCount];
+		for (int i=0; i<rowCount; i++) {
+			Row row = rows.get(i);
+			if (row.alive) cliqueWeights[find(parents, i)] += 1 + row.columns.length;
+		}
+		List<Integer> cliqueRoots = new ArrayList<>();
+		for (int i=0; i<rowCount; i++) {
+			if (cliqueWeights[i] > 0) cliqueRoots.add(i);
+		}
+		cliqueRoots.sort(Comparator.comparingLong((Integer root) -> cliqueWeights[root]).reversed());
+		
+		// Each removed clique reduces the excess by at most 1
+		int cliqueCount = Math.min(excess - targetExcess, cliqueRoots.size());
+		boolean[] removeClique = new boolean[rowCount];
+		for (int i=0; i<cliqueCount; i++) {
+			removeClique[cliqueRoots.get(i)] = true;
+		}
+		for (int i=0; i<rowCount; i++) {
+			Row row = rows.get(i);
+			if (row.alive && removeClique[find(parents, i)]) {
+				removeRow(row);
+				cliqueRowCount++;
+			}
+		}
+		return cliqueCount > 0;
+	}
+	
+	private static int find(int[] parents, int i) {
+		while (parents[i] != i) {
+			parents[i] = parents[parents[i]]; // path halving
+			i = parents[i];
+		}
+		return i;
+	}
+	
+	private int getColumnCount() {
+		int count = 0;
+		for (int weight : columnWeights) {
+			if (weight > 0) count++;
+		}
+		return count;
+	}
+	
+	private long getWeight() {
+		long weight = 0;
+		for (Row row : rows) {
+			if (row.alive) weight += row.columns.length;
+		}
+		return weight;
+	}
+	
+	public int getInitialRowCount() {
+		return initialRowCount;
+	}
+
+	public int getInitialColumnCount() {
+		return initialColumnCount;
+	}
+
+	public long getInitialWeight() {
+		return initialWeight;
+	}
+
+	public int getFinalRowCount() {
+		return finalRowCount;
+	}
+
+	public int getFinalColumnCount() {
+		return finalColumnCount;
+	}
+
+	public long getFinalWeight() {
+		return finalWeight;
+	}
+
+	/**
+	 * @return a report of the matrix reduction achieved by the last filter() call
+	 */
+	public String getReport() {
+		return "Matrix filter reduced " + initialRowCount + " rows x " + initialColumnCount + " columns (weight " + initialWeight + ") to "
+				+ finalRowCount + " rows x " + finalColumnCount + " columns (weight " + finalWeight + "): removed " + singletonCount + " singletons, "
+				+ mergeCount + " merged columns, " + cliqueRowCount + " clique rows; " + nullVectorCount + " null vectors found while merging";
+	}
+}
@@ -71,6 +71,9 @@ abstract public class MatrixSolverBase02 extends MatrixSolver {
 			noSingletons = removeSingletons(noSingletons, primeIndexMap);
 		}
 		
+		// Optional filtering stage
+		noSingletons = filterSmooths(noSingletons);
+		
 		// Sort smooths? Gives a nice improvement for large N in version 03
 		sortSmooths(noSingletons);
 
@@ -166,6 +169,17 @@ abstract public class MatrixSolverBase02 extends MatrixSolver {
 		return noSingles;
 	}
 	
+	/**
+	 * Optional filtering of the congruences after singleton removal, e.g. by a MatrixFilter.
+	 * @param congruences congruences without singletons
+	 * @return filtered congruences
+	 * @throws FactorException if the filter found a factor
+	 */
+	protected List<Smooth> filterSmooths(List<Smooth> congruences) throws FactorException {
+		// in this version we keep the congruences as they are
+		return congruences;
+	}
+	
 	protected void sortSmooths(List<Smooth> list) {
 		// in this version we keep the sorting as is
 	}
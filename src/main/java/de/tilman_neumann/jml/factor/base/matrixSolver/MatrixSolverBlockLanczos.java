@@ -32,13 +32,36 @@ import de.tilman_neumann.util.Ensure;
 public class MatrixSolverBlockLanczos extends MatrixSolverBase03 {
 	private static final boolean DEBUG = false;
 
-	private BlockLanczos blockLanczosSolver = new BlockLanczos();
+	private BlockLanczos blockLanczosSolver;
+	
+	/** filtering stage reducing the matrix size before solving */
+	private MatrixFilter matrixFilter = new MatrixFilter(this);
+	
+	/**
+	 * Standard constructor, using the single-threaded Block-Lanczos solver.
+	 */
+	public MatrixSolverBlockLanczos() {
+		this(new BlockLanczos());
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param blockLanczosSolver the Block-Lanczos implementation
+	 */
+	protected MatrixSolverBlockLanczos(BlockLanczos blockLanczosSolver) {
+		this.blockLanczosSolver = blockLanczosSolver;
+	}
 	
 	@Override
 	public String getName() {
 		return "BLSolver";
 	}
 	
+	@Override
+	protected List<Smooth> filterSmooths(List<Smooth> congruences) throws FactorException {
+		return matrixFilter.filter(congruences);
+	}
+
 	@Override
 	protected void solve(List<Smooth> congruences, Map<Integer, Integer> factors_2_columnIndices) throws FactorException {
 		// create the matrix:
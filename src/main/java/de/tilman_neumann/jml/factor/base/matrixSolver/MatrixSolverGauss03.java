@@ -35,11 +35,19 @@ public class MatrixSolverGauss03 extends MatrixSolverBase03 {
 	@SuppressWarnings("unused")
 	private static final Logger LOG = LogManager.getLogger(MatrixSolverGauss03.class);
 	
+	/** filtering stage reducing the matrix size before solving */
+	private MatrixFilter matrixFilter = new MatrixFilter(this);
+	
 	@Override
 	public String getName() {
 		return "GaussSolver03";
 	}
 
+	@Override
+	protected List<Smooth> filterSmooths(List<Smooth> congruences) throws FactorException {
+		return matrixFilter.filter(congruences);
+	}
+
 	@Override
 	protected void solve(List<Smooth> congruences, Map<Integer, Integer> factors_2_columnIndices) throws FactorException {
 		// create matrix
@@ -0,0 +1,193 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base.matrixSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-threaded version of Dario Alpern's Block-Lanczos solver.
+ * 
+ * Parallelizes the most expensive operation of the Block-Lanczos algorithm, the computation of Bt * B * V in each iteration.
+ * The serial implementation computes B * V by "scattering" the rows of V into the columns of B, which can not be split among threads
+ * without synchronization. Here we build the transpose of B once per solver run, so that both B * V and Bt * (B * V)
+ * become "gather" operations, where each thread computes a distinct range of result entries.
+ * 
+ * The result is bit-identical to that of the serial solver.
+ * 
+ * @author Tilman Neumann
+ */
+public class ParallelBlockLanczos extends BlockLanczos {
+	private static final long serialVersionUID = -3261862451937815245L;
+
+	/** Smaller matrices are solved single-threaded, because then the thread synchronization costs more than it gains */
+	private static final int MIN_PARALLEL_MATRIX_SIZE = 5000;
+
+	private int numberOfThreads;
+	
+	private transient ExecutorService executor;
+	
+	/** The tasks computing B * V and Bt * (B * V) for distinct index ranges */
+	private transient List<Callable<Void>> bvTasks, btbvTasks;
+
+	// the matrices of the current multiplication, shared by the tasks
+	private transient int[][] matrixB;
+	private transient int[] columnStarts; // the rows having column c are columnRows[columnStarts[c]] ... columnRows[columnStarts[c+1]-1]
+	private transient int[] columnRows;
+	private transient int[] matrixV;
+	private transient int[] tempMatr;
+	private transient int[] matrixAV;
+	
+	/**
+	 * Full constructor.
+	 * @param numberOfThreads the number of threads for matrix multiplications
+	 */
+	public ParallelBlockLanczos(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	@Override
+	public int[] computeBlockLanczos(final int[][] matrixB, int matrixBlength) {
+		if (numberOfThreads < 2 || matrixBlength < MIN_PARALLEL_MATRIX_SIZE) {
+			// use the serial implementation
+			return super.computeBlockLanczos(matrixB, matrixBlength);
+		}
+		
+		this.matrixB = matrixB;
+		computeTranspose(matrixB, matrixBlength);
+		createTasks(matrixBlength);
+		AtomicInteger threadIndex = new AtomicInteger(0);
+		executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "BL-" + threadIndex.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		try {
+			return super.computeBlockLanczos(matrixB, matrixBlength);
+		} finally {
+			executor.shutdownNow();
+			executor = null;
+			// release memory
+			this.matrixB = null;
+			columnStarts = columnRows = matrixV = tempMatr = matrixAV = null;
+			bvTasks = btbvTasks = null;
+		}
+	}
+	
+	/**
+	 * Compute the transpose of B in compressed column format.
+	 * @param matrixB
+	 * @param matrixBlength
+	 */
+	private void computeTranspose(int[][] matrixB, int matrixBlength) {
+		// count the entries of each column
+		columnStarts = new int[matrixBlength + 1];
+		int entryCount = 0;
+		for (int row = 0; row < matrixBlength; row++) {
+			for (int column : matrixB[row]) {
+				// In the following line we would get an ArrayIndexOutOfBoundsException if the equation system is under-determined
+				columnStarts[column + 1]++;
+			}
+			entryCount += matrixB[row].length;
+		}
+		for (int column = 0; column < matrixBlength; column++) {
+			columnStarts[column + 1] += columnStarts[column];
+		}
+		// fill in the row indices
+		columnRows = new int[entryCount];
+		int[] columnFill = new int[matrixBlength];
+		for (int row = 0; row < matrixBlength; row++) {
+			for (int column : matrixB[row]) {
+				columnRows[columnStarts[column] + columnFill[column]++] = row;
+			}
+		}
+	}
+	
+	private void createTasks(int matrixBlength) {
+		bvTasks = new ArrayList<>(numberOfThreads);
+		btbvTasks = new ArrayList<>(numberOfThreads);
+		for (int i = 0; i < numberOfThreads; i++) {
+			final int start = (int) ((long) matrixBlength * i / numberOfThreads);
+			final int end = (int) ((long) matrixBlength * (i + 1) / numberOfThreads);
+			bvTasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					// compute tempMatr = B * matrixV for columns [start, end)
+					for (int column = start; column < end; column++) {
+						int prodMatr = 0;
+						for (int index = columnStarts[column], stop = columnStarts[column + 1]; index < stop; index++) {
+							prodMatr ^= matrixV[columnRows[index]];
+						}
+						tempMatr[column] = prodMatr;
+					}
+					return null;
+				}
+			});
+			btbvTasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					// compute matrixAV = Bt * tempMatr for rows [start, end)
+					for (int row = start; row < end; row++) {
+						int prodMatr = 0;
+						for (int column : matrixB[row]) {
+							prodMatr ^= tempMatr[column];
+						}
+						matrixAV[row] = prodMatr;
+					}
+					return null;
+				}
+			});
+		}
+	}
+	
+	@Override
+	protected void MultiplyAByMatrix(int[][] matrixB, int[] matrixV, int[] TempMatr, int[] matrixAV, int matrixBlength) {
+		if (executor == null) {
+			// serial mode
+			super.MultiplyAByMatrix(matrixB, matrixV, TempMatr, matrixAV, matrixBlength);
+			return;
+		}
+		this.matrixV = matrixV;
+		this.tempMatr = TempMatr;
+		this.matrixAV = matrixAV;
+		// The second step needs the complete result of the first one
+		runTasks(bvTasks);
+		runTasks(btbvTasks);
+	}
+	
+	private void runTasks(List<Callable<Void>> tasks) {
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Block-Lanczos matrix multiplication has been interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+}
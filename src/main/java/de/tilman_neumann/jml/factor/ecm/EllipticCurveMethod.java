@@ -21,6 +21,7 @@
 package de.tilman_neumann.jml.factor.ecm;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.SortedMap;
 
 import org.apache.logging.log4j.Logger;
@@ -72,10 +73,12 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 	private static final int ADD = 6; // number of multiplications in an addition
 	private static final int DUP = 5; //number of multiplications in a duplicate
 
-	private static final PrPTest prp = new PrPTest();
-	private static final PurePowerTest powerTest = new PurePowerTest();
 	private static final TDiv tdiv = new TDiv().setTestLimit(131072);
 
+	// not static because the Miller-Rabin test is not thread-safe
+	private final PrPTest prp = new PrPTest();
+	private final PurePowerTest powerTest = new PurePowerTest();
+
 	/** input N as a BigNbr */
 	private final int TestNbr[] = new int[NLen];
 
@@ -88,7 +91,20 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 	/** Elliptic curve counter */
 	private int EC;
 	
+	/** number of threads running curves in parallel */
+	private int numberOfThreads;
+	/** the instances doing the work in parallel mode, including this */
+	private EllipticCurveMethod[] workers;
+	/** shared state if this instance is working in parallel mode, null else */
+	private volatile CurveRace curveRace;
+	
 	private MontgomeryMult montgomery;
+	
+	// constants for Montgomery multiplication with the current N
+	private double dN;
+	private final int[] MontgomeryMultR1 = new int[NLen];
+	private final int[] MontgomeryMultR2 = new int[NLen];
+	private final int[] MontgomeryMultAfterInv = new int[NLen];
 
 	// big numbers used in gcd calculation
 	private final int[] CalcAuxGcdU = new int[NLen];
@@ -156,12 +172,23 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 	 * -1 means no limit, 0 automatic computation of the parameter, positive values are applied directly.
 	 */
 	public EllipticCurveMethod(int maxCurves) {
+		this(maxCurves, 1);
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param maxCurves the maximum number of curves to run.
+	 * -1 means no limit, 0 automatic computation of the parameter, positive values are applied directly.
+	 * @param numberOfThreads the number of threads to run curves in parallel
+	 */
+	public EllipticCurveMethod(int maxCurves, int numberOfThreads) {
 		this.maxCurves = maxCurves;
+		this.numberOfThreads = numberOfThreads;
 	}
 	
 	@Override
 	public String getName() {
-		return "ECM(maxCurves = " + maxCurves + ")";
+		return "ECM(maxCurves = " + maxCurves + (numberOfThreads > 1 ? ", " + numberOfThreads + " threads" : "") + ")";
 	}
 	
 	@Override
@@ -252,12 +279,12 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 		return fnECM(N, maxCurvesForN);
 	}
 
-	private static boolean isProbablePrime(BigInteger N) {
+	private boolean isProbablePrime(BigInteger N) {
 		// XXX The 33-bit "guard" is only safe if we did tdiv for all p <= sqrt(2^33) before
 		return N.bitLength() <= 33 || prp.isProbablePrime(N);
 	}
 
-	private static void addToMapDependingOnPrimeTest(BigInteger factor, int exp, SortedMap<BigInteger, Integer> primeFactors, SortedMap<BigInteger, Integer> compositeFactors) {
+	private void addToMapDependingOnPrimeTest(BigInteger factor, int exp, SortedMap<BigInteger, Integer> primeFactors, SortedMap<BigInteger, Integer> compositeFactors) {
 		addToMap(factor, exp, isProbablePrime(factor) ? primeFactors : compositeFactors);
 	}
 	
@@ -280,13 +307,138 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 	}
 	
 	private BigInteger fnECM(BigInteger N, int maxCurvesForN) {
-		int[] TX = fieldTX;
-		int[] TZ = fieldTZ;
-		int[] UX = fieldUX;
-		int[] UZ = fieldUZ;
-		int[] Aux1 = fieldAux1;
-		int[] Aux2 = fieldAux2;
-		int[] Aux3 = fieldAux3;
+		if (numberOfThreads > 1 && (maxCurvesForN == -1 || maxCurvesForN - EC > 1)) {
+			// there is more than one curve to run -> distribute them over several threads
+			return fnECMParallel(N, maxCurvesForN);
+		}
+		
+		initializeForN(N);
+
+		// Modular curve loop:
+		while (maxCurvesForN==-1 || EC < maxCurvesForN) { // maxCurvesForN==-1 means "run until a factor is found"
+			EC++;
+			BigInteger factor = runCurve(EC);
+			if (factor != null) return factor;
+		}
+		
+		return I_1; // no factor found
+	}
+	
+	/**
+	 * Parallel version of fnECM(). The curves are handed out to the threads in increasing order, and the factor found by
+	 * the curve with the smallest index wins. Curves are fully determined by their index, so the result is the same as
+	 * in the single-threaded case, no matter how many threads are used or how they are scheduled.
+	 * 
+	 * @param N
+	 * @param maxCurvesForN
+	 * @return factor of N, or 1 if no factor was found
+	 */
+	private BigInteger fnECMParallel(BigInteger N, int maxCurvesForN) {
+		if (workers == null) {
+			// the first worker is this instance, the others are created once and kept
+			workers = new EllipticCurveMethod[numberOfThreads];
+			workers[0] = this;
+			for (int i=1; i<numberOfThreads; i++) {
+				workers[i] = new EllipticCurveMethod(maxCurves);
+			}
+		}
+		
+		CurveRace race = new CurveRace(EC+1, maxCurvesForN);
+		ECMThread[] threads = new ECMThread[numberOfThreads];
+		for (int i=0; i<numberOfThreads; i++) {
+			threads[i] = new ECMThread(workers[i], N, race);
+			threads[i].setName("ECM-"+i);
+			threads[i].start();
+		}
+		for (ECMThread t : threads) {
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				LOG.debug(e, e);
+			}
+		}
+		
+		// The elliptic curve counter continues after the winning curve, as in the single-threaded case
+		if (race.bestFactor != null) {
+			EC = race.bestCurve;
+			return race.bestFactor;
+		}
+		EC = maxCurvesForN;
+		return I_1; // no factor found
+	}
+	
+	/**
+	 * Shared state of the parallel ECM threads working on the same N.
+	 */
+	private static class CurveRace {
+		private final int maxCurvesForN;
+		private int nextCurve;
+		private volatile int bestCurve = Integer.MAX_VALUE;
+		private BigInteger bestFactor = null;
+		
+		CurveRace(int firstCurve, int maxCurvesForN) {
+			this.nextCurve = firstCurve;
+			this.maxCurvesForN = maxCurvesForN;
+		}
+		
+		/**
+		 * @return the index of the next curve to run, or -1 if there is no more work to do
+		 */
+		synchronized int nextCurve() {
+			if (maxCurvesForN != -1 && nextCurve > maxCurvesForN) return -1;
+			if (nextCurve > bestCurve) return -1; // no need to test curves after one that already found a factor
+			return nextCurve++;
+		}
+		
+		synchronized void reportFactor(int curve, BigInteger factor) {
+			if (curve < bestCurve) {
+				bestFactor = factor;
+				bestCurve = curve;
+			}
+		}
+		
+		/**
+		 * @param curve
+		 * @return true if a curve with smaller index found a factor, so that the given curve can be abandoned
+		 */
+		boolean isOvertaken(int curve) {
+			return bestCurve < curve;
+		}
+	}
+	
+	private static class ECMThread extends Thread {
+		private EllipticCurveMethod worker;
+		private BigInteger N;
+		private CurveRace race;
+		
+		ECMThread(EllipticCurveMethod worker, BigInteger N, CurveRace race) {
+			this.worker = worker;
+			this.N = N;
+			this.race = race;
+		}
+		
+		@Override
+		public void run() {
+			worker.initializeForN(N);
+			worker.curveRace = race;
+			int curve;
+			while ((curve = race.nextCurve()) > 0) {
+				BigInteger factor = worker.runCurve(curve);
+				if (factor != null) race.reportFactor(curve, factor);
+			}
+			worker.curveRace = null;
+		}
+	}
+	
+	private boolean isOvertaken(int curve) {
+		return curveRace != null && curveRace.isOvertaken(curve);
+	}
+
+	/**
+	 * Set up the multiple precision representation of N and Montgomery multiplication.
+	 * @param N
+	 */
+	private void initializeForN(BigInteger N) {
 		
 		// Compute NumberLength, the number of ints in which all computations are carried out
 		this.NumberLength = computeNumberLength(N.toByteArray().length * 8);
@@ -297,7 +449,7 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 		this.montgomery = new MontgomeryMult(TestNbr, NumberLength);
 		
 		// More initializations
-		double dN = TestNbr[NumberLength - 1];
+		dN = TestNbr[NumberLength - 1];
 		if (NumberLength > 1) {
 			dN += TestNbr[NumberLength - 2] / dDosALa31;
 		}
@@ -305,9 +457,9 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 			dN += TestNbr[NumberLength - 3] / dDosALa62;
 		}
 
-		final int MontgomeryMultR1[] = new int[NLen];
-		final int MontgomeryMultR2[] = new int[NLen];
-		final int MontgomeryMultAfterInv[] = new int[NLen];
+		Arrays.fill(MontgomeryMultR1, 0);
+		Arrays.fill(MontgomeryMultR2, 0);
+		Arrays.fill(MontgomeryMultAfterInv, 0);
 
 		MontgomeryMultR1[NumberLength] = 1;
 		for (int jj=NumberLength-1; jj>=0; jj--) {
@@ -318,76 +470,105 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 		MultBigNbrModN(MontgomeryMultR1, MontgomeryMultR1, MontgomeryMultR2, dN);
 		montgomery.mul(MontgomeryMultR2, MontgomeryMultR2, MontgomeryMultAfterInv);
 		AddBigNbrModN(MontgomeryMultR1, MontgomeryMultR1, MontgomeryMultR2);
-
-		// Modular curve loop:
-		while (maxCurvesForN==-1 || EC < maxCurvesForN) { // maxCurvesForN==-1 means "run until a factor is found"
-			EC++;
-
-			long L1; // step 1 prime bound
-			// The original estimate are the standard values for searching 15, 25, 35, 45-digit factors, see e.g.
-			// https://www.rieselprime.de/ziki/Elliptic_curve_method#Choosing_the_best_parameters_for_ECM
-			if (EC < 26) L1 = 2000;
-			else if (EC < 326) L1 = 50000;
-			else if (EC < 2000) L1 = 1000000; 
-			else L1 = 11000000;
-
-			long L2 = 100 * L1; // step 2 prime bound
-			long LS = (long) Math.ceil(Math.sqrt(L1));
-
-			// [Le] Pick a random elliptic curve over Z_N, with equation of the form y^2 = x^3 + ax + b (mod N) together with a
-			// non-trivial point P(x0, y0) on it. This can be done by first picking random x0, y0, a ∈ Z_N, and then setting
-			// b = y0^2 − x0^3 − a*x0 (mod N) to assure the point is on the curve.
-			LongToBigNbr(2 * (EC + 1), Aux1);
-			LongToBigNbr(3 * (EC + 1) * (EC + 1) - 1, Aux2);
-			ModInvBigNbr(Aux2, TestNbr, Aux2);
-			MultBigNbrModN(Aux1, Aux2, Aux3, dN);
-			MultBigNbrModN(Aux3, MontgomeryMultR1, A0, dN);
-			montgomery.mul(A0, A0, A02);
-			montgomery.mul(A02, A0, A03);
-			SubtractBigNbrModN(A03, A0, Aux1);
-			MultBigNbrByLongModN(A02, 9, Aux2, dN);
-			SubtractBigNbrModN(Aux2, MontgomeryMultR1, Aux2);
-			montgomery.mul(Aux1, Aux2, Aux3);
-			if (BigNbrIsZero(Aux3)) {
-				continue;
+	}
+	
+	/**
+	 * Run a single elliptic curve.
+	 * @param curve curve index; the curve parameters are derived from it, so the same index always gives the same curve
+	 * @return factor of N, or null if no factor was found
+	 */
+	private BigInteger runCurve(int curve) {
+		int[] TX = fieldTX;
+		int[] TZ = fieldTZ;
+		int[] UX = fieldUX;
+		int[] UZ = fieldUZ;
+		int[] Aux1 = fieldAux1;
+		int[] Aux2 = fieldAux2;
+		int[] Aux3 = fieldAux3;
+		
+		long L1; // step 1 prime bound
+		// The original estimate are the standard values for searching 15, 25, 35, 45-digit factors, see e.g.
+		// https://www.rieselprime.de/ziki/Elliptic_curve_method#Choosing_the_best_parameters_for_ECM
+		if (curve < 26) L1 = 2000;
+		else if (curve < 326) L1 = 50000;
+		else if (curve < 2000) L1 = 1000000; 
+		else L1 = 11000000;
+
+		long L2 = 100 * L1; // step 2 prime bound
+		long LS = (long) Math.ceil(Math.sqrt(L1));
+
+		// [Le] Pick a random elliptic curve over Z_N, with equation of the form y^2 = x^3 + ax + b (mod N) together with a
+		// non-trivial point P(x0, y0) on it. This can be done by first picking random x0, y0, a ∈ Z_N, and then setting
+		// b = y0^2 − x0^3 − a*x0 (mod N) to assure the point is on the curve.
+		LongToBigNbr(2 * (curve + 1), Aux1);
+		LongToBigNbr(3 * (curve + 1) * (curve + 1) - 1, Aux2);
+		ModInvBigNbr(Aux2, TestNbr, Aux2);
+		MultBigNbrModN(Aux1, Aux2, Aux3, dN);
+		MultBigNbrModN(Aux3, MontgomeryMultR1, A0, dN);
+		montgomery.mul(A0, A0, A02);
+		montgomery.mul(A02, A0, A03);
+		SubtractBigNbrModN(A03, A0, Aux1);
+		MultBigNbrByLongModN(A02, 9, Aux2, dN);
+		SubtractBigNbrModN(Aux2, MontgomeryMultR1, Aux2);
+		montgomery.mul(Aux1, Aux2, Aux3);
+		if (BigNbrIsZero(Aux3)) {
+			return null;
+		}
+		MultBigNbrByLongModN(A0, 4, Z, dN);
+		MultBigNbrByLongModN(A02, 3, Aux1, dN);
+		AddBigNbrModN(Aux1, MontgomeryMultR1, X);
+		// now we have determined the point P(X, Z)
+		
+		// compute Zimmermann's a,b parameters // XXX are these the curve parameters ?
+		MultBigNbrByLongModN(A02, 6, Aux1, dN);
+		SubtractBigNbrModN(MontgomeryMultR1, Aux1, Aux1);
+		montgomery.mul(A02, A02, Aux2);
+		MultBigNbrByLongModN(Aux2, 3, Aux2, dN);
+		SubtractBigNbrModN(Aux1, Aux2, Aux1);
+		MultBigNbrByLongModN(A03, 4, Aux2, dN);
+		ModInvBigNbr(Aux2, TestNbr, Aux2);
+		montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux3);
+		montgomery.mul(Aux1, Aux3, A0); // Zimmermann's a
+		AddBigNbrModN(A0, MontgomeryMultR2, Aux1);
+		LongToBigNbr(4, Aux2);
+		ModInvBigNbr(Aux2, TestNbr, Aux3);
+		MultBigNbrModN(Aux3, MontgomeryMultR1, Aux2, dN);
+		montgomery.mul(Aux1, Aux2, bZi); // Zimmermann's b = (a+2)/4 mod N (fixed from now on)
+		
+		/**************/
+		/* First step */
+		/**************/
+		System.arraycopy(X, 0, Xaux, 0, NumberLength);
+		System.arraycopy(Z, 0, Zaux, 0, NumberLength);
+		System.arraycopy(MontgomeryMultR1, 0, GcdAccumulated, 0, NumberLength);
+		for (int Pass = 0; Pass < 2; Pass++) {
+			/* For powers of 2 */
+			for (int I = 1; I <= L1; I <<= 1) {
+				duplicate(X, Z, X, Z, bZi);
 			}
-			MultBigNbrByLongModN(A0, 4, Z, dN);
-			MultBigNbrByLongModN(A02, 3, Aux1, dN);
-			AddBigNbrModN(Aux1, MontgomeryMultR1, X);
-			// now we have determined the point P(X, Z)
-			
-			// compute Zimmermann's a,b parameters // XXX are these the curve parameters ?
-			MultBigNbrByLongModN(A02, 6, Aux1, dN);
-			SubtractBigNbrModN(MontgomeryMultR1, Aux1, Aux1);
-			montgomery.mul(A02, A02, Aux2);
-			MultBigNbrByLongModN(Aux2, 3, Aux2, dN);
-			SubtractBigNbrModN(Aux1, Aux2, Aux1);
-			MultBigNbrByLongModN(A03, 4, Aux2, dN);
-			ModInvBigNbr(Aux2, TestNbr, Aux2);
-			montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux3);
-			montgomery.mul(Aux1, Aux3, A0); // Zimmermann's a
-			AddBigNbrModN(A0, MontgomeryMultR2, Aux1);
-			LongToBigNbr(4, Aux2);
-			ModInvBigNbr(Aux2, TestNbr, Aux3);
-			MultBigNbrModN(Aux3, MontgomeryMultR1, Aux2, dN);
-			montgomery.mul(Aux1, Aux2, bZi); // Zimmermann's b = (a+2)/4 mod N (fixed from now on)
-			
-			/**************/
-			/* First step */
-			/**************/
-			System.arraycopy(X, 0, Xaux, 0, NumberLength);
-			System.arraycopy(Z, 0, Zaux, 0, NumberLength);
-			System.arraycopy(MontgomeryMultR1, 0, GcdAccumulated, 0, NumberLength);
-			for (int Pass = 0; Pass < 2; Pass++) {
-				/* For powers of 2 */
-				for (int I = 1; I <= L1; I <<= 1) {
-					duplicate(X, Z, X, Z, bZi);
-				}
-				for (int I = 3; I <= L1; I *= 3) {
-					duplicate(W1, W2, X, Z, bZi);
-					add3(X, Z, X, Z, W1, W2, X, Z);
+			for (int I = 3; I <= L1; I *= 3) {
+				duplicate(W1, W2, X, Z, bZi);
+				add3(X, Z, X, Z, W1, W2, X, Z);
+			}
+
+			if (Pass == 0) {
+				montgomery.mul(GcdAccumulated, Z, Aux1);
+				System.arraycopy(Aux1, 0, GcdAccumulated, 0, NumberLength);
+			} else {
+				GcdBigNbr(Z, TestNbr, GD);
+				if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
+					return BigIntToBigNbr(GD); // found factor, exit
 				}
+			}
 
+			/* for powers of odd primes */
+			long P;
+			int indexM = 1;
+			do {
+				P = SmallPrime[indexM++];
+				for (long IP = P; IP <= L1; IP *= P) {
+					prac((int) P, X, Z, W1, W2, W3, W4, bZi);
+				}
 				if (Pass == 0) {
 					montgomery.mul(GcdAccumulated, Z, Aux1);
 					System.arraycopy(Aux1, 0, GcdAccumulated, 0, NumberLength);
@@ -397,15 +578,28 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 						return BigIntToBigNbr(GD); // found factor, exit
 					}
 				}
-
-				/* for powers of odd primes */
-				long P;
-				int indexM = 1;
-				do {
-					P = SmallPrime[indexM++];
-					for (long IP = P; IP <= L1; IP *= P) {
-						prac((int) P, X, Z, W1, W2, W3, W4, bZi);
-					}
+			} while (P <= LS);
+			P += 2;
+
+			/* Initialize sieve2310[n]: 1 if gcd(P+2n,2310) > 1, 0 otherwise */
+			int u = (int) P;
+			for (int i = 0; i < 2310; i++) {
+				sieve2310[i] = (u % 3 == 0 || u % 5 == 0 || u % 7 == 0 || u % 11 == 0 ? (byte) 1 : (byte) 0);
+				u += 2;
+			}
+			do {
+				if (isOvertaken(curve)) return null;
+				
+				/* Generate sieve */
+				GenerateSieve((int) P, sieve, sieve2310, SmallPrime);
+
+				/* Walk through sieve */
+				for (int i = 0; i < 23100; i++) {
+					if (sieve[i] != 0)
+						continue; /* Do not process composites */
+					if (P + 2 * i > L1)
+						break;
+					prac((int) (P + 2 * i), X, Z, W1, W2, W3, W4, bZi);
 					if (Pass == 0) {
 						montgomery.mul(GcdAccumulated, Z, Aux1);
 						System.arraycopy(Aux1, 0, GcdAccumulated, 0, NumberLength);
@@ -415,84 +609,70 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 							return BigIntToBigNbr(GD); // found factor, exit
 						}
 					}
-				} while (P <= LS);
-				P += 2;
-
-				/* Initialize sieve2310[n]: 1 if gcd(P+2n,2310) > 1, 0 otherwise */
-				int u = (int) P;
-				for (int i = 0; i < 2310; i++) {
-					sieve2310[i] = (u % 3 == 0 || u % 5 == 0 || u % 7 == 0 || u % 11 == 0 ? (byte) 1 : (byte) 0);
-					u += 2;
 				}
-				do {
-					/* Generate sieve */
-					GenerateSieve((int) P, sieve, sieve2310, SmallPrime);
-
-					/* Walk through sieve */
-					for (int i = 0; i < 23100; i++) {
-						if (sieve[i] != 0)
-							continue; /* Do not process composites */
-						if (P + 2 * i > L1)
-							break;
-						prac((int) (P + 2 * i), X, Z, W1, W2, W3, W4, bZi);
-						if (Pass == 0) {
-							montgomery.mul(GcdAccumulated, Z, Aux1);
-							System.arraycopy(Aux1, 0, GcdAccumulated, 0, NumberLength);
-						} else {
-							GcdBigNbr(Z, TestNbr, GD);
-							if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
-								return BigIntToBigNbr(GD); // found factor, exit
-							}
-						}
-					}
-					P += 46200;
-				} while (P < L1);
-				if (Pass == 0) {
-					if (BigNbrIsZero(GcdAccumulated)) { // If GcdAccumulated is...
-						System.arraycopy(Xaux, 0, X, 0, NumberLength);
-						System.arraycopy(Zaux, 0, Z, 0, NumberLength);
-						continue; // ... a multiple of TestNbr, continue.
-					}
-					GcdBigNbr(GcdAccumulated, TestNbr, GD);
-					if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
-						return BigIntToBigNbr(GD); // found factor, exit
-					}
-					break;
+				P += 46200;
+			} while (P < L1);
+			if (Pass == 0) {
+				if (BigNbrIsZero(GcdAccumulated)) { // If GcdAccumulated is...
+					System.arraycopy(Xaux, 0, X, 0, NumberLength);
+					System.arraycopy(Zaux, 0, Z, 0, NumberLength);
+					continue; // ... a multiple of TestNbr, continue.
 				}
-			} /* end for Pass */
-
-			/******************************************************/
-			/* Second step (using improved standard continuation) */
-			/******************************************************/
-			int j = 0;
-			for (int u = 1; u < 2310; u += 2) {
-				if (u % 3 == 0 || u % 5 == 0 || u % 7 == 0 || u % 11 == 0) {
-					sieve2310[u / 2] = (byte) 1;
-				} else {
-					sieve2310[(sieveidx[j++] = u / 2)] = (byte) 0;
+				GcdBigNbr(GcdAccumulated, TestNbr, GD);
+				if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
+					return BigIntToBigNbr(GD); // found factor, exit
 				}
+				break;
 			}
-			System.arraycopy(sieve2310, 0, sieve2310, 1155, 1155);
-			System.arraycopy(X, 0, Xaux, 0, NumberLength);
-			System.arraycopy(Z, 0, Zaux, 0, NumberLength); // (X:Z) -> Q (output from step 1)
-			
-			for (int Pass = 0; Pass < 2; Pass++) {
-				int J = 0;
-				System.arraycopy(MontgomeryMultR1, 0, GcdAccumulated, 0, NumberLength);
-				System.arraycopy(X, 0, UX, 0, NumberLength);
-				System.arraycopy(Z, 0, UZ, 0, NumberLength); // (UX:UZ) -> Q
-				ModInvBigNbr(Z, TestNbr, Aux2);
-				montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux1);
-				montgomery.mul(Aux1, X, root[0]); // root[0] <- X/Z (Q)
-				AddBigNbrModN(X, Z, Aux1);
-				montgomery.mul(Aux1, Aux1, W1);
-				SubtractBigNbrModN(X, Z, Aux1);
-				montgomery.mul(Aux1, Aux1, W2);
-				montgomery.mul(W1, W2, TX);
-				SubtractBigNbrModN(W1, W2, Aux1);
-				montgomery.mul(Aux1, bZi, Aux2);
-				AddBigNbrModN(Aux2, W2, Aux3);
-				montgomery.mul(Aux1, Aux3, TZ); // (TX:TZ) -> 2Q
+		} /* end for Pass */
+
+		/******************************************************/
+		/* Second step (using improved standard continuation) */
+		/******************************************************/
+		int j = 0;
+		for (int u = 1; u < 2310; u += 2) {
+			if (u % 3 == 0 || u % 5 == 0 || u % 7 == 0 || u % 11 == 0) {
+				sieve2310[u / 2] = (byte) 1;
+			} else {
+				sieve2310[(sieveidx[j++] = u / 2)] = (byte) 0;
+			}
+		}
+		System.arraycopy(sieve2310, 0, sieve2310, 1155, 1155);
+		System.arraycopy(X, 0, Xaux, 0, NumberLength);
+		System.arraycopy(Z, 0, Zaux, 0, NumberLength); // (X:Z) -> Q (output from step 1)
+		
+		for (int Pass = 0; Pass < 2; Pass++) {
+			int J = 0;
+			System.arraycopy(MontgomeryMultR1, 0, GcdAccumulated, 0, NumberLength);
+			System.arraycopy(X, 0, UX, 0, NumberLength);
+			System.arraycopy(Z, 0, UZ, 0, NumberLength); // (UX:UZ) -> Q
+			ModInvBigNbr(Z, TestNbr, Aux2);
+			montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux1);
+			montgomery.mul(Aux1, X, root[0]); // root[0] <- X/Z (Q)
+			AddBigNbrModN(X, Z, Aux1);
+			montgomery.mul(Aux1, Aux1, W1);
+			SubtractBigNbrModN(X, Z, Aux1);
+			montgomery.mul(Aux1, Aux1, W2);
+			montgomery.mul(W1, W2, TX);
+			SubtractBigNbrModN(W1, W2, Aux1);
+			montgomery.mul(Aux1, bZi, Aux2);
+			AddBigNbrModN(Aux2, W2, Aux3);
+			montgomery.mul(Aux1, Aux3, TZ); // (TX:TZ) -> 2Q
+			SubtractBigNbrModN(X, Z, Aux1);
+			AddBigNbrModN(TX, TZ, Aux2);
+			montgomery.mul(Aux1, Aux2, W1);
+			AddBigNbrModN(X, Z, Aux1);
+			SubtractBigNbrModN(TX, TZ, Aux2);
+			montgomery.mul(Aux1, Aux2, W2);
+			AddBigNbrModN(W1, W2, Aux1);
+			montgomery.mul(Aux1, Aux1, Aux2);
+			montgomery.mul(Aux2, UZ, X);
+			SubtractBigNbrModN(W1, W2, Aux1);
+			montgomery.mul(Aux1, Aux1, Aux2);
+			montgomery.mul(Aux2, UX, Z); // (X:Z) -> 3Q
+			for (int I = 5; I < 2310; I += 2) {
+				System.arraycopy(X, 0, WX, 0, NumberLength);
+				System.arraycopy(Z, 0, WZ, 0, NumberLength);
 				SubtractBigNbrModN(X, Z, Aux1);
 				AddBigNbrModN(TX, TZ, Aux2);
 				montgomery.mul(Aux1, Aux2, W1);
@@ -504,8 +684,100 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 				montgomery.mul(Aux2, UZ, X);
 				SubtractBigNbrModN(W1, W2, Aux1);
 				montgomery.mul(Aux1, Aux1, Aux2);
-				montgomery.mul(Aux2, UX, Z); // (X:Z) -> 3Q
-				for (int I = 5; I < 2310; I += 2) {
+				montgomery.mul(Aux2, UX, Z); // (X:Z) -> 5Q, 7Q, ...
+				if (Pass == 0) {
+					montgomery.mul(GcdAccumulated, Aux1, Aux2);
+					System.arraycopy(Aux2, 0, GcdAccumulated, 0, NumberLength);
+				} else {
+					GcdBigNbr(Aux1, TestNbr, GD);
+					if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
+						return BigIntToBigNbr(GD); // found factor, exit
+					}
+				}
+				if (I == 1155) {
+					System.arraycopy(X, 0, DX, 0, NumberLength);
+					System.arraycopy(Z, 0, DZ, 0, NumberLength); // (DX:DZ) -> 1155Q
+				}
+				if (I % 3 != 0 && I % 5 != 0 && I % 7 != 0 && I % 11 != 0) {
+					J++;
+					ModInvBigNbr(Z, TestNbr, Aux2);
+					montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux1);
+					montgomery.mul(Aux1, X, root[J]); // root[J] <- X/Z
+				}
+				System.arraycopy(WX, 0, UX, 0, NumberLength);
+				System.arraycopy(WZ, 0, UZ, 0, NumberLength); // (UX:UZ) <- Previous (X:Z)
+			} /* end for I */
+			AddBigNbrModN(DX, DZ, Aux1);
+			montgomery.mul(Aux1, Aux1, W1);
+			SubtractBigNbrModN(DX, DZ, Aux1);
+			montgomery.mul(Aux1, Aux1, W2);
+			montgomery.mul(W1, W2, X);
+			SubtractBigNbrModN(W1, W2, Aux1);
+			montgomery.mul(Aux1, bZi, Aux2);
+			AddBigNbrModN(Aux2, W2, Aux3);
+			montgomery.mul(Aux1, Aux3, Z);
+			System.arraycopy(X, 0, UX, 0, NumberLength);
+			System.arraycopy(Z, 0, UZ, 0, NumberLength); // (UX:UZ) -> 2310Q
+			AddBigNbrModN(X, Z, Aux1);
+			montgomery.mul(Aux1, Aux1, W1);
+			SubtractBigNbrModN(X, Z, Aux1);
+			montgomery.mul(Aux1, Aux1, W2);
+			montgomery.mul(W1, W2, TX);
+			SubtractBigNbrModN(W1, W2, Aux1);
+			montgomery.mul(Aux1, bZi, Aux2);
+			AddBigNbrModN(Aux2, W2, Aux3);
+			montgomery.mul(Aux1, Aux3, TZ); // (TX:TZ) -> 2*2310Q
+			SubtractBigNbrModN(X, Z, Aux1);
+			AddBigNbrModN(TX, TZ, Aux2);
+			montgomery.mul(Aux1, Aux2, W1);
+			AddBigNbrModN(X, Z, Aux1);
+			SubtractBigNbrModN(TX, TZ, Aux2);
+			montgomery.mul(Aux1, Aux2, W2);
+			AddBigNbrModN(W1, W2, Aux1);
+			montgomery.mul(Aux1, Aux1, Aux2);
+			montgomery.mul(Aux2, UZ, X);
+			SubtractBigNbrModN(W1, W2, Aux1);
+			montgomery.mul(Aux1, Aux1, Aux2);
+			montgomery.mul(Aux2, UX, Z); // (X:Z) -> 3*2310Q
+			int Qaux = (int) (L1 / 4620);
+			int maxIndexM = (int) (L2 / 4620);
+			for (int indexM = 0; indexM <= maxIndexM; indexM++) {
+				if (indexM >= Qaux) { // If inside step 2 range...
+					if (isOvertaken(curve)) return null;
+					
+					if (indexM == 0) {
+						ModInvBigNbr(UZ, TestNbr, Aux2);
+						montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux3);
+						montgomery.mul(UX, Aux3, Aux1); // Aux1 <- X/Z (2310Q)
+					} else {
+						ModInvBigNbr(Z, TestNbr, Aux2);
+						montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux3);
+						montgomery.mul(X, Aux3, Aux1); // Aux1 <- X/Z (3,5,* 2310Q)
+					}
+
+					/* Generate sieve */
+					if (indexM % 10 == 0 || indexM == Qaux) {
+						GenerateSieve(indexM / 10 * 46200 + 1, sieve, sieve2310, SmallPrime);
+					}
+					/* Walk through sieve */
+					J = 1155 + (indexM % 10) * 2310;
+					for (int i = 0; i < 480; i++) {
+						j = sieveidx[i]; // 0 < J < 1155
+						if (sieve[J + j] != 0 && sieve[J - 1 - j] != 0) {
+							continue; // Do not process if both are composite numbers.
+						}
+						SubtractBigNbrModN(Aux1, root[i], M);
+						montgomery.mul(GcdAccumulated, M, Aux2);
+						System.arraycopy(Aux2, 0, GcdAccumulated, 0, NumberLength);
+					}
+					if (Pass != 0) {
+						GcdBigNbr(GcdAccumulated, TestNbr, GD);
+						if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
+							return BigIntToBigNbr(GD); // found factor, exit
+						}
+					}
+				}
+				if (indexM != 0) { // Update (X:Z)
 					System.arraycopy(X, 0, WX, 0, NumberLength);
 					System.arraycopy(Z, 0, WZ, 0, NumberLength);
 					SubtractBigNbrModN(X, Z, Aux1);
@@ -519,132 +791,26 @@ public class EllipticCurveMethod extends FactorAlgorithm {
 					montgomery.mul(Aux2, UZ, X);
 					SubtractBigNbrModN(W1, W2, Aux1);
 					montgomery.mul(Aux1, Aux1, Aux2);
-					montgomery.mul(Aux2, UX, Z); // (X:Z) -> 5Q, 7Q, ...
-					if (Pass == 0) {
-						montgomery.mul(GcdAccumulated, Aux1, Aux2);
-						System.arraycopy(Aux2, 0, GcdAccumulated, 0, NumberLength);
-					} else {
-						GcdBigNbr(Aux1, TestNbr, GD);
-						if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
-							return BigIntToBigNbr(GD); // found factor, exit
-						}
-					}
-					if (I == 1155) {
-						System.arraycopy(X, 0, DX, 0, NumberLength);
-						System.arraycopy(Z, 0, DZ, 0, NumberLength); // (DX:DZ) -> 1155Q
-					}
-					if (I % 3 != 0 && I % 5 != 0 && I % 7 != 0 && I % 11 != 0) {
-						J++;
-						ModInvBigNbr(Z, TestNbr, Aux2);
-						montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux1);
-						montgomery.mul(Aux1, X, root[J]); // root[J] <- X/Z
-					}
+					montgomery.mul(Aux2, UX, Z);
 					System.arraycopy(WX, 0, UX, 0, NumberLength);
-					System.arraycopy(WZ, 0, UZ, 0, NumberLength); // (UX:UZ) <- Previous (X:Z)
-				} /* end for I */
-				AddBigNbrModN(DX, DZ, Aux1);
-				montgomery.mul(Aux1, Aux1, W1);
-				SubtractBigNbrModN(DX, DZ, Aux1);
-				montgomery.mul(Aux1, Aux1, W2);
-				montgomery.mul(W1, W2, X);
-				SubtractBigNbrModN(W1, W2, Aux1);
-				montgomery.mul(Aux1, bZi, Aux2);
-				AddBigNbrModN(Aux2, W2, Aux3);
-				montgomery.mul(Aux1, Aux3, Z);
-				System.arraycopy(X, 0, UX, 0, NumberLength);
-				System.arraycopy(Z, 0, UZ, 0, NumberLength); // (UX:UZ) -> 2310Q
-				AddBigNbrModN(X, Z, Aux1);
-				montgomery.mul(Aux1, Aux1, W1);
-				SubtractBigNbrModN(X, Z, Aux1);
-				montgomery.mul(Aux1, Aux1, W2);
-				montgomery.mul(W1, W2, TX);
-				SubtractBigNbrModN(W1, W2, Aux1);
-				montgomery.mul(Aux1, bZi, Aux2);
-				AddBigNbrModN(Aux2, W2, Aux3);
-				montgomery.mul(Aux1, Aux3, TZ); // (TX:TZ) -> 2*2310Q
-				SubtractBigNbrModN(X, Z, Aux1);
-				AddBigNbrModN(TX, TZ, Aux2);
-				montgomery.mul(Aux1, Aux2, W1);
-				AddBigNbrModN(X, Z, Aux1);
-				SubtractBigNbrModN(TX, TZ, Aux2);
-				montgomery.mul(Aux1, Aux2, W2);
-				AddBigNbrModN(W1, W2, Aux1);
-				montgomery.mul(Aux1, Aux1, Aux2);
-				montgomery.mul(Aux2, UZ, X);
-				SubtractBigNbrModN(W1, W2, Aux1);
-				montgomery.mul(Aux1, Aux1, Aux2);
-				montgomery.mul(Aux2, UX, Z); // (X:Z) -> 3*2310Q
-				int Qaux = (int) (L1 / 4620);
-				int maxIndexM = (int) (L2 / 4620);
-				for (int indexM = 0; indexM <= maxIndexM; indexM++) {
-					if (indexM >= Qaux) { // If inside step 2 range...
-						if (indexM == 0) {
-							ModInvBigNbr(UZ, TestNbr, Aux2);
-							montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux3);
-							montgomery.mul(UX, Aux3, Aux1); // Aux1 <- X/Z (2310Q)
-						} else {
-							ModInvBigNbr(Z, TestNbr, Aux2);
-							montgomery.mul(Aux2, MontgomeryMultAfterInv, Aux3);
-							montgomery.mul(X, Aux3, Aux1); // Aux1 <- X/Z (3,5,* 2310Q)
-						}
-
-						/* Generate sieve */
-						if (indexM % 10 == 0 || indexM == Qaux) {
-							GenerateSieve(indexM / 10 * 46200 + 1, sieve, sieve2310, SmallPrime);
-						}
-						/* Walk through sieve */
-						J = 1155 + (indexM % 10) * 2310;
-						for (int i = 0; i < 480; i++) {
-							j = sieveidx[i]; // 0 < J < 1155
-							if (sieve[J + j] != 0 && sieve[J - 1 - j] != 0) {
-								continue; // Do not process if both are composite numbers.
-							}
-							SubtractBigNbrModN(Aux1, root[i], M);
-							montgomery.mul(GcdAccumulated, M, Aux2);
-							System.arraycopy(Aux2, 0, GcdAccumulated, 0, NumberLength);
-						}
-						if (Pass != 0) {
-							GcdBigNbr(GcdAccumulated, TestNbr, GD);
-							if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
-								return BigIntToBigNbr(GD); // found factor, exit
-							}
-						}
-					}
-					if (indexM != 0) { // Update (X:Z)
-						System.arraycopy(X, 0, WX, 0, NumberLength);
-						System.arraycopy(Z, 0, WZ, 0, NumberLength);
-						SubtractBigNbrModN(X, Z, Aux1);
-						AddBigNbrModN(TX, TZ, Aux2);
-						montgomery.mul(Aux1, Aux2, W1);
-						AddBigNbrModN(X, Z, Aux1);
-						SubtractBigNbrModN(TX, TZ, Aux2);
-						montgomery.mul(Aux1, Aux2, W2);
-						AddBigNbrModN(W1, W2, Aux1);
-						montgomery.mul(Aux1, Aux1, Aux2);
-						montgomery.mul(Aux2, UZ, X);
-						SubtractBigNbrModN(W1, W2, Aux1);
-						montgomery.mul(Aux1, Aux1, Aux2);
-						montgomery.mul(Aux2, UX, Z);
-						System.arraycopy(WX, 0, UX, 0, NumberLength);
-						System.arraycopy(WZ, 0, UZ, 0, NumberLength);
-					}
-				} // end for Q
-				if (Pass == 0) {
-					if (BigNbrIsZero(GcdAccumulated)) { // If GcdAccumulated is...
-						System.arraycopy(Xaux, 0, X, 0, NumberLength);
-						System.arraycopy(Zaux, 0, Z, 0, NumberLength);
-						continue; // ... a multiple of TestNbr, continue.
-					}
-					GcdBigNbr(GcdAccumulated, TestNbr, GD);
-					if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
-						return BigIntToBigNbr(GD); // found factor, exit
-					}
-					break;
+					System.arraycopy(WZ, 0, UZ, 0, NumberLength);
 				}
-			} /* end for Pass */
-		} /* end curve calculation */
+			} // end for Q
+			if (Pass == 0) {
+				if (BigNbrIsZero(GcdAccumulated)) { // If GcdAccumulated is...
+					System.arraycopy(Xaux, 0, X, 0, NumberLength);
+					System.arraycopy(Zaux, 0, Z, 0, NumberLength);
+					continue; // ... a multiple of TestNbr, continue.
+				}
+				GcdBigNbr(GcdAccumulated, TestNbr, GD);
+				if (!BigNbrAreEqual(GD, BigNbr1) && !BigNbrAreEqual(GD, TestNbr)) {
+					return BigIntToBigNbr(GD); // found factor, exit
+				}
+				break;
+			}
+		} /* end for Pass */
 		
-		return I_1; // no factor found
+		return null; // no factor found
 	}
 	
 	private static void GenerateSieve(int initial, byte[] sieve, byte[] sieve2310, int[] SmallPrime) {
@@ -0,0 +1,766 @@
+/*
+	Copyright (c) 2014, Ben Buhrow
+	All rights reserved.
+
+	Redistribution and use in source and binary forms, with or without
+	modification, are permitted provided that the following conditions are met:
+
+	1. Redistributions of source code must retain the above copyright notice, this
+	   list of conditions and the following disclaimer.
+	2. Redistributions in binary form must reproduce the above copyright notice,
+	   this list of conditions and the following disclaimer in the documentation
+	   and/or other materials provided with the distribution.
+
+	THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+	ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+	WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+	DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+	ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+	(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+	LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+	ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+	(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+	SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+	The views and conclusions contained in the software and documentation are those
+	of the authors and should not be interpreted as representing official policies,
+	either expressed or implied, of the FreeBSD Project.
+*/
+package de.tilman_neumann.jml.factor.ecm;
+
+import static de.tilman_neumann.jml.factor.ecm.TinyEcm64MHInlined.*;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.gcd.Gcd63;
+import de.tilman_neumann.jml.primes.exact.AutoExpandingPrimesArray;
+import de.tilman_neumann.jml.primes.probable.BPSWTest64;
+import de.tilman_neumann.jml.random.SpRand32;
+
+/**
+ * A batch version of TinyEcm64MHInlined, finding factors of many N with at most 62 bit in one go.
+ * 
+ * For a given stage 1 bound B1, the sequence of point operations is the same for all curves and all N.
+ * Thus we can run curves for several N ("lanes") in lockstep, with each point operation doing the arithmetic
+ * of all lanes in one loop, whose iterations are independent and can be executed in parallel.
+ * The gain is smaller than for PollardRhoBrentMontgomery64Batch, because point additions and doublings have some
+ * independent multiplications already; the branch-free modular arithmetic is a part of it, too.
+ * After each curve, lanes that found a factor continue with the next N, the others with a new curve for the same N.
+ * Since B1 depends on the size of N, N are processed in groups of the same B1.
+ * 
+ * Before ECM, N are checked for factors < 2^10, for being squares and for being (probable) prime, so that ECM works reliably.
+ * 
+ * Instances are not thread-safe.
+ * 
+ * @author Tilman Neumann
+ */
+public class TinyEcm64MHBatch {
+	private static final Logger LOG = LogManager.getLogger(TinyEcm64MHBatch.class);
+	private static final boolean DEBUG = false;
+
+	/** the maximum bit length of N */
+	public static final int MAX_BITS_SUPPORTED = 62;
+
+	/** the number of interleaved lanes. 8 lanes were notably faster than 4. */
+	private static final int LANES = 8;
+
+	/** the stage 1 bounds supported by the pre-paired stage 2 sequences of TinyEcm64MHInlined */
+	private static final int[] STAGE1_BOUNDS = new int[] {70, 85, 125, 165, 205};
+
+	/** a prime serving as modulus of idle lanes */
+	private static final long IDLE_N = 1000003;
+
+	/**
+	 * Trial division limit. With a limit of 2^8 tinyEcm still fails sometimes; 2^9 is stable; 2^10 is best in terms of performance.
+	 * TDiv63Inverse is not used here because for large N it does exact divisions by a lot more primes.
+	 */
+	private static final int TDIV_LIMIT = 1<<10;
+
+	/** the odd primes < TDIV_LIMIT */
+	private static final int[] TDIV_PRIMES;
+	/** the inverses of the odd primes p < TDIV_LIMIT modulo 2^64 */
+	private static final long[] TDIV_INVERSES;
+	/** floor((2^64-1) / p) + 2^63 for the odd primes p < TDIV_LIMIT; p divides n iff (n * inverse(p) mod 2^64) + 2^63 <= bound, the latter in signed comparison */
+	private static final long[] TDIV_BOUNDS;
+
+	static {
+		AutoExpandingPrimesArray primes = AutoExpandingPrimesArray.get().ensureLimit(TDIV_LIMIT);
+		int count = primes.getInsertPosition(TDIV_LIMIT) - 1;
+		TDIV_PRIMES = new int[count];
+		TDIV_INVERSES = new long[count];
+		TDIV_BOUNDS = new long[count];
+		for (int i=0; i<count; i++) {
+			long p = primes.getPrime(i+1);
+			long inv = p; // Newton iteration: inv*p==1 mod 2^3 already
+			for (int j=0; j<5; j++) {
+				inv *= 2 - p * inv;
+			}
+			TDIV_PRIMES[i] = (int) p;
+			TDIV_INVERSES[i] = inv;
+			TDIV_BOUNDS[i] = Long.divideUnsigned(-1L, p) + Long.MIN_VALUE;
+		}
+	}
+
+	/** the X and Z coordinates of a point on the curves of all lanes */
+	private static class Point {
+		final long[] X = new long[LANES];
+		final long[] Z = new long[LANES];
+	}
+
+	private BPSWTest64 bpsw64 = new BPSWTest64();
+	private Gcd63 gcd63 = new Gcd63();
+	private SpRand32 spRand32 = new SpRand32();
+
+	/** the index of the N processed in each lane, or -1 if the lane is idle */
+	private int[] index = new int[LANES];
+	private long[] n = new long[LANES];
+	/** (1/n) mod 2^64 */
+	private long[] nInv = new long[LANES];
+	/** the curve parameters (A+2)/4 */
+	private long[] s = new long[LANES];
+	/** the stage 1 bound of the current group */
+	private int stg1Max;
+
+	private Point P = new Point();
+	// Temporary points. Swapping point references instead of coordinates is possible because all lanes do the same swaps.
+	private Point pt1 = new Point();
+	private Point pt2 = new Point();
+	private Point pt3 = new Point();
+	private Point pt4 = new Point();
+	// stage 2
+	private Point Pa = new Point();
+	private Point Pad = new Point();
+	private Point[] Pb = new Point[20];
+	private long[] Paprod = new long[LANES];
+	private long[][] Pbprod = new long[20][LANES];
+	private long[] stg2acc = new long[LANES];
+
+	public TinyEcm64MHBatch() {
+		for (int i=0; i<20; i++) {
+			Pb[i] = new Point();
+		}
+	}
+
+	public String getName() {
+		return "TinyEcm64MHBatch";
+	}
+
+	/**
+	 * Find a single factor of each N.
+	 * 
+	 * @param N the numbers to factor; the sign is irrelevant, but |N| must be > 0 and have at most 62 bit
+	 * @param factors output array of at least the same length as N: factors[i] is a proper factor of N[i] if N[i] is composite,
+	 * 			or 1 if |N[i]| is 1 or prime
+	 */
+	public void findSingleFactors(long[] N, long[] factors) {
+		if (factors.length < N.length) {
+			throw new IllegalArgumentException("The output array has length " + factors.length + " but needs at least " + N.length);
+		}
+		findSingleFactors(N, factors, 0, N.length);
+	}
+
+	/**
+	 * Find a single factor of each N[i], from <= i < to.
+	 * 
+	 * @param N the numbers to factor; the sign is irrelevant, but |N| must be > 0 and have at most 62 bit
+	 * @param factors output array: factors[i] is a proper factor of N[i] if N[i] is composite, or 1 if |N[i]| is 1 or prime
+	 * @param from the index of the first N to factor
+	 * @param to the index after the last N to factor
+	 */
+	public void findSingleFactors(long[] N, long[] factors, int from, int to) {
+		// Resolve the easy cases. factors[i] == 0 marks the N that still need ECM.
+		for (int i=from; i<to; i++) {
+			long nAbs = Math.abs(N[i]);
+			int NBits = 64 - Long.numberOfLeadingZeros(nAbs);
+			if (nAbs <= 0 || NBits > MAX_BITS_SUPPORTED) {
+				throw new IllegalArgumentException("N = " + N[i] + " has " + NBits + " bit, but " + getName() + " only supports arguments > 0 and <= " + MAX_BITS_SUPPORTED + " bit");
+			}
+			factors[i] = findTrivialFactor(nAbs);
+		}
+
+		for (int group = 0; group < STAGE1_BOUNDS.length; group++) {
+			findSingleFactors(N, factors, from, to, group);
+		}
+	}
+
+	/**
+	 * @param n
+	 * @return a factor of n < 2^10, 1 if n is 1 or prime, the square root if n is a square, or 0 if n needs ECM
+	 */
+	private long findTrivialFactor(long n) {
+		if ((n & 1) == 0) return n == 2 ? 1 : 2;
+		for (int i=0; i<TDIV_PRIMES.length; i++) {
+			if (n * TDIV_INVERSES[i] + Long.MIN_VALUE <= TDIV_BOUNDS[i]) {
+				return n == TDIV_PRIMES[i] ? 1 : TDIV_PRIMES[i];
+			}
+		}
+		if (n < TDIV_LIMIT*TDIV_LIMIT) return 1; // n has no prime factor < 2^10 -> n is 1 or prime
+
+		long sqrt = (long) Math.sqrt(n);
+		while (sqrt*sqrt > n) sqrt--;
+		while ((sqrt+1)*(sqrt+1) <= n) sqrt++;
+		if (sqrt*sqrt == n) return sqrt;
+
+		return bpsw64.isProbablePrime(n) ? 1 : 0;
+	}
+
+	/**
+	 * @param NBits
+	 * @return the index of the stage 1 bound for N with NBits bits
+	 */
+	private static int getGroup(int NBits) {
+		if (NBits <= 50) return 0;
+		if (NBits <= 52) return 1;
+		if (NBits <= 56) return 2;
+		if (NBits <= 60) return 3;
+		return 4; // here the original tinyecm.c bound was < 64 bit
+	}
+
+	/**
+	 * Run ECM for all N[i], from <= i < to, that belong to the given group and still need ECM.
+	 */
+	private void findSingleFactors(long[] N, long[] factors, int from, int to, int group) {
+		stg1Max = STAGE1_BOUNDS[group];
+		int next = from;
+		int activeCount = 0;
+		for (int l=0; l<LANES; l++) {
+			next = fillLane(l, N, factors, next, to, group);
+			if (index[l] >= 0) activeCount++;
+		}
+		if (DEBUG && activeCount > 0) LOG.debug("Start group with B1=" + stg1Max);
+
+		while (activeCount > 0) {
+			ecm_stage1();
+			ecm_stage2();
+
+			for (int l=0; l<LANES; l++) {
+				if (index[l] < 0) continue;
+				long factor = check_factor(P.Z[l], n[l]);
+				if (factor == 0) factor = check_factor(stg2acc[l], n[l]);
+				if (factor > 1) {
+					if (DEBUG) LOG.debug("Found factor " + factor + " of N=" + N[index[l]]);
+					factors[index[l]] = factor;
+					next = fillLane(l, N, factors, next, to, group);
+					if (index[l] < 0) activeCount--;
+				} else {
+					build(l); // next curve
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assign the next N of the given group that needs ECM to lane l and build its first curve.
+	 * If there is no such N left, the lane becomes idle.
+	 * 
+	 * @param l lane index
+	 * @param N
+	 * @param factors
+	 * @param next the index of the next N to check
+	 * @param to the index after the last N to check
+	 * @param group
+	 * @return the new value of 'next'
+	 */
+	private int fillLane(int l, long[] N, long[] factors, int next, int to, int group) {
+		for ( ; next<to; next++) {
+			if (factors[next] != 0) continue;
+			long nAbs = Math.abs(N[next]);
+			if (getGroup(64 - Long.numberOfLeadingZeros(nAbs)) != group) continue;
+			index[l] = next;
+			setModulus(l, nAbs);
+			build(l);
+			return next+1;
+		}
+		// Idle lanes keep on computing curves modulo some prime, which is harmless.
+		index[l] = -1;
+		setModulus(l, IDLE_N);
+		build(l);
+		return next;
+	}
+
+	private void setModulus(int l, long N) {
+		n[l] = N;
+		long x = (((N + 2) & 4) << 1) + N; // here x*N==1 mod 2**4
+		x *= 2 - N * x;         	       // here x*N==1 mod 2**8
+		x *= 2 - N * x;               	   // here x*N==1 mod 2**16
+		x *= 2 - N * x;              	   // here x*N==1 mod 2**32
+		x *= 2 - N * x;           	       // here x*N==1 mod 2**64
+		nInv[l] = x;
+	}
+
+	/**
+	 * Build a new random curve for lane l, setting P and s.
+	 * @param l lane index
+	 */
+	private void build(int l) {
+		final long n = this.n[l], nInv = this.nInv[l];
+		long t1, t2, t3, t4;
+		long u, v;
+
+		int sigma = spRand32.nextInt(7, (int)-1);
+		u = Integer.toUnsignedLong(sigma); // a simple cast would go wrong for sigma having negative signed int values
+		u = u64div(u, n);
+
+		t1 = u64div(4, n);
+		v = montMul(u, t1, n, nInv);		// v = 4*sigma
+
+		u = montMul(u, u, n, nInv);
+		t1 = u64div(5, n);
+		u = subMod(u, t1, n);			// u = sigma^2 - 5
+
+		t1 = montMul(u, u, n, nInv);
+		final long PX = montMul(t1, u, n, nInv);	// x = u^3
+		P.X[l] = PX;
+
+		t1 = montMul(v, v, n, nInv);
+		P.Z[l] = montMul(t1, v, n, nInv);	// z = v^3
+
+		//compute parameter A
+		t1 = subMod(v, u, n);			// (v - u)
+		t2 = montMul(t1, t1, n, nInv);
+		t4 = montMul(t2, t1, n, nInv);	// (v - u)^3
+
+		t1 = u64div(3, n);
+		t2 = montMul(t1, u, n, nInv);	// 3u
+		t3 = addMod(t2, v, n);			// 3u + v
+
+		t1 = montMul(t3, t4, n, nInv);	// a = (v-u)^3 * (3u + v)
+
+		t2 = u64div(16, n);
+		t3 = montMul(PX, t2, n, nInv);	// 16*u^3
+		t4 = montMul(t3, v, n, nInv);	// 16*u^3*v
+
+		// u holds the denom, t1 holds the numer
+		// accomplish the division by multiplying by the modular inverse
+		t4 = montMul(t4, 1, n, nInv);	// take t4 out of monty rep
+		t1 = montMul(t1, 1, n, nInv);	// take t1 out of monty rep
+
+		t3 = modinv_64(t4, n);
+		s[l] = u64div(spMulMod(t3, t1, n), n);
+	}
+
+	/**
+	 * Pout = P1 + P2 in all lanes, given Pin = P1 - P2. Pout may be the same object as any of the input points.
+	 * 
+	 * x+ = z- * [(x1-z1)(x2+z2) + (x1+z1)(x2-z2)]^2
+	 * z+ = x- * [(x1-z1)(x2+z2) - (x1+z1)(x2-z2)]^2
+	 * where x- = Pin.X, z- = Pin.Z.
+	 */
+	private void add(Point P1, Point P2, Point Pin, Point Pout) {
+		for (int l=0; l<LANES; l++) {
+			final long n = this.n[l], nInv = this.nInv[l];
+			final long diff1 = subMod(P1.X[l], P1.Z[l], n);
+			final long sum1 = addMod(P1.X[l], P1.Z[l], n);
+			final long diff2 = subMod(P2.X[l], P2.Z[l], n);
+			final long sum2 = addMod(P2.X[l], P2.Z[l], n);
+
+			final long tt1 = montMul(diff1, sum2, n, nInv);	//U
+			final long tt2 = montMul(sum1, diff2, n, nInv);	//V
+
+			final long tt3 = addMod(tt1, tt2, n);
+			final long tt4 = subMod(tt1, tt2, n);
+			final long sq3 = montMul(tt3, tt3, n, nInv);	//(U + V)^2
+			final long sq4 = montMul(tt4, tt4, n, nInv);	//(U - V)^2
+
+			final long inX = Pin.X[l], inZ = Pin.Z[l];
+			Pout.X[l] = montMul(sq3, inZ, n, nInv);	//Z * (U + V)^2
+			Pout.Z[l] = montMul(sq4, inX, n, nInv);	//X * (U - V)^2
+		}
+	}
+
+	/**
+	 * Pout = 2*Pin in all lanes. Pout may be the same object as Pin.
+	 */
+	private void dup(Point Pin, Point Pout) {
+		for (int l=0; l<LANES; l++) {
+			final long n = this.n[l], nInv = this.nInv[l];
+			final long indiff = subMod(Pin.X[l], Pin.Z[l], n);
+			final long insum = addMod(Pin.X[l], Pin.Z[l], n);
+			final long tt1 = montMul(indiff, indiff, n, nInv);	// U=(x1 - z1)^2
+			final long tt2 = montMul(insum, insum, n, nInv);	// V=(x1 + z1)^2
+			Pout.X[l] = montMul(tt1, tt2, n, nInv);			// x=U*V
+
+			final long tt3 = subMod(tt2, tt1, n);				// w = V-U
+			long w = montMul(tt3, s[l], n, nInv);			// w = (A+2)/4 * w
+			w = addMod(w, tt1, n);							// w = w + U
+			Pout.Z[l] = montMul(w, tt3, n, nInv);			// Z = w*(V-U)
+		}
+	}
+
+	private static void copy(Point Pin, Point Pout) {
+		System.arraycopy(Pin.X, 0, Pout.X, 0, LANES);
+		System.arraycopy(Pin.Z, 0, Pout.Z, 0, LANES);
+	}
+
+	/**
+	 * Run a pre-computed prac chain, like prac70() and prac85() in TinyEcm64MHInlined.
+	 * @param steps
+	 */
+	private void pracSteps(byte[] steps) {
+		Point swp;
+		for (int i = 0; i < steps.length; i++) {
+			switch (steps[i]) {
+			case 0:
+				copy(P, pt1);
+				copy(P, pt2);
+				copy(P, pt3);
+				dup(pt1, pt1);
+				break;
+			case 3:
+				// integrate step 4 followed by swap(1,2)
+				add(pt2, pt1, pt3, pt4);		// T = B + A (C)
+				swp = pt1;
+				pt1 = pt4;
+				pt4 = pt3;
+				pt3 = pt2;
+				pt2 = swp;
+				break;
+			case 4:
+				add(pt2, pt1, pt3, pt4);		// T = B + A (C)
+				swp = pt2;
+				pt2 = pt4;
+				pt4 = pt3;
+				pt3 = swp;
+				break;
+			case 5:
+				add(pt2, pt1, pt3, pt2);		// B = B + A (C)
+				dup(pt1, pt1);					// A = 2A
+				break;
+			case 6:
+				add(pt1, pt2, pt3, P);			// A = A + B (C)
+				break;
+			default:
+				throw new IllegalStateException("Unknown prac step " + steps[i]);
+			}
+		}
+	}
+
+	/**
+	 * P = c*P in all lanes.
+	 * @param c
+	 * @param v
+	 */
+	private void prac(long c, double v) {
+		long d, e, r;
+		Point swp;
+
+		d = c;
+		r = (long)((double)d * v + 0.5);
+
+		d = c - r;
+		e = 2 * r - c;
+
+		// the first one is always a doubling
+		// point1 is [1]P
+		copy(P, pt1);
+		copy(P, pt2);
+		copy(P, pt3);
+		// point2 is [2]P
+		dup(pt1, pt1);
+
+		while (d != e) {
+			if (d < e) {
+				r = d;
+				d = e;
+				e = r;
+				swp = pt1;
+				pt1 = pt2;
+				pt2 = swp;
+			}
+
+			if ((d + 3)/4 <= e) {
+				d -= e;
+
+				add(pt2, pt1, pt3, pt4);		// T = B + A (C)
+				swp = pt2;
+				pt2 = pt4;
+				pt4 = pt3;
+				pt3 = swp;
+			} else if ((d + e) % 2 == 0) {
+				d = (d - e) >>> 1;
+
+				add(pt2, pt1, pt3, pt2);		// B = B + A (C)
+				dup(pt1, pt1);					// A = 2A
+			} else {
+				// empirically, tiny B1 values only need the above prac cases.
+				throw new IllegalStateException("unhandled case in prac");
+			}
+		}
+
+		add(pt1, pt2, pt3, P);		// A = A + B (C)
+	}
+
+	private void ecm_stage1() {
+		final int stg1 = stg1Max;
+
+		// handle the only even case
+		for (int q = 2; q < stg1; q *= 2) {
+			dup(P, P);
+		}
+
+		if (stg1 == 70) {
+			pracSteps(prac70Steps);
+			return;
+		}
+
+		// call prac with best ratios found by a deep search.
+		// some composites are cheaper than their constituent primes.
+		pracSteps(prac85Steps);
+		if (stg1 < 100) {
+			// paired into a composite for larger bounds
+			prac(61, 0.522786351415446049);
+		}
+
+		if (stg1 >= 125) {
+			prac(5, 0.618033988749894903);
+			prac(11, 0.580178728295464130);
+			prac(61, 0.522786351415446049);
+			prac(89, 0.618033988749894903);
+			prac(97, 0.723606797749978936);
+			prac(101, 0.556250337855490828);
+			prac(107, 0.580178728295464130);
+			prac(109, 0.548409048446403258);
+			prac(113, 0.618033988749894903);
+
+			if (stg1 < 130) {
+				prac(103, 0.632839806088706269);
+			}
+		}
+
+		if (stg1 >= 165) {
+			prac(7747, 0.552188778811121); // 61 x 127
+			prac(131, 0.618033988749894903);
+			prac(14111, 0.632839806088706);	// 103 x 137
+			prac(20989, 0.620181980807415);	// 139 x 151
+			prac(157, 0.640157392785047019);
+			prac(163, 0.551390822543526449);
+
+			if (stg1 < 200) {
+				prac(149, 0.580178728295464130);
+			}
+		}
+
+		if (stg1 >= 205) {
+			prac(13, 0.618033988749894903);
+			prac(167, 0.580178728295464130);
+			prac(173, 0.612429949509495031);
+			prac(179, 0.618033988749894903);
+			prac(181, 0.551390822543526449);
+			prac(191, 0.618033988749894903);
+			prac(193, 0.618033988749894903);
+			prac(29353, 0.580178728295464);	// 149 x 197
+			prac(199, 0.551390822543526449);
+		}
+	}
+
+	private void ecm_stage2() {
+		int i, j, k;
+
+		//stage 2 init
+		//Q = P = result of stage 1
+		//compute [d]Q for 0 < d <= D
+		final Point Pd = Pb[map[60]];
+
+		// [1]Q
+		copy(P, Pb[1]);
+		// [2]Q
+		dup(P, Pb[2]);
+
+		// Calculate all Pb: the following is specialized for D=60
+		// [2]Q + [1]Q([1]Q) = [3]Q
+		add(Pb[1], Pb[2], Pb[1], Pb[3]);		// <-- temporary
+
+		// 2*[3]Q = [6]Q
+		dup(Pb[3], pt3);	// pt3 = [6]Q
+
+		// [3]Q + [2]Q([1]Q) = [5]Q
+		add(Pb[3], Pb[2], Pb[1], pt1);	// <-- pt1 = [5]Q
+		copy(pt1, Pb[3]);
+
+		// [6]Q + [5]Q([1]Q) = [11]Q
+		add(pt3, pt1, Pb[1], Pb[4]);	// <-- [11]Q
+
+		i = 3;
+		k = 4;
+		j = 5;
+		while ((j + 12) < (60)) {
+			// [j+6]Q + [6]Q([j]Q) = [j+12]Q
+			add(pt3, Pb[k], Pb[i], Pb[map[j + 12]]);
+			i = k;
+			k = map[j + 12];
+			j += 6;
+		}
+
+		// [6]Q + [1]Q([5]Q) = [7]Q
+		add(pt3, Pb[1], pt1, Pb[3]);	// <-- [7]Q
+		i = 1;
+		k = 3;
+		j = 1;
+		while ((j + 12) < (60)) {
+			// [j+6]Q + [6]Q([j]Q) = [j+12]Q
+			add(pt3, Pb[k], Pb[i], Pb[map[j + 12]]);
+			i = k;
+			k = map[j + 12];
+			j += 6;
+		}
+
+		// Pd = [2w]Q
+		// [31]Q + [29]Q([2]Q) = [60]Q
+		add(Pb[9], Pb[10], Pb[2], Pd);	// <-- [60]Q
+
+		// make all of the Pbprod's
+		for (i = 1; i < 19; i++) {
+			final long[] PbX = Pb[i].X, PbZ = Pb[i].Z, prod = Pbprod[i];
+			for (int l=0; l<LANES; l++) {
+				prod[l] = montMul(PbX[l], PbZ[l], n[l], nInv[l]);
+			}
+		}
+
+		//initialize info needed for giant step
+		// temporary - make [4]Q
+		dup(Pb[2], pt3);	// pt3 = [4]Q
+
+		// Pd = [w]Q
+		// [17]Q + [13]Q([4]Q) = [30]Q
+		add(Pb[map[17]], Pb[map[13]], pt3, Pad);	// <-- [30]Q
+
+		// [60]Q + [30]Q([30]Q) = [90]Q
+		add(Pd, Pad, Pad, Pa);
+		copy(Pa, pt1);
+
+		// [90]Q + [30]Q([60]Q) = [120]Q
+		add(Pa, Pad, Pd, Pa);
+		copy(Pa, Pd);
+
+		// [120]Q + [30]Q([90]Q) = [150]Q
+		add(Pa, Pad, pt1, Pa);
+
+		// adjustment of Pa and Pad for larger B1.
+		// Currently we have Pa=150, Pd=120, Pad=30
+		if (stg1Max == 165) {
+			// need Pa = 180, Pad = 60
+			// [150]Q + [30]Q([120]Q) = [180]Q
+			add(Pa, Pad, Pd, Pa);
+			dup(Pad, Pad);	// Pad = [60]Q
+		} else if (stg1Max == 205) {
+			// need Pa = 210, Pad = 90.
+			// have pt1 = 90
+			dup(Pad, Pad);	// Pad = [60]Q
+
+			// [150]Q + [60]Q([90]Q) = [210]Q
+			add(Pa, Pad, pt1, Pa);
+			copy(pt1, Pad);
+		}
+
+		//initialize accumulator and Paprod
+		final long[] acc = stg2acc;
+		for (int l=0; l<LANES; l++) {
+			acc[l] = u64div(1, n[l]);
+			Paprod[l] = montMul(Pa.X[l], Pa.Z[l], n[l], nInv[l]);
+		}
+
+		final byte[] barray;
+		final int numb;
+		switch (stg1Max) {
+		case 70: barray = b1_70; numb = numb1_70; break;
+		case 85: barray = b1_85; numb = numb1_85; break;
+		case 125: barray = b1_125; numb = numb1_125; break;
+		case 165: barray = b1_165; numb = numb1_165; break;
+		default: barray = b1_205; numb = numb1_205; break;
+		}
+
+		for (i = 0; i < numb; i++) {
+			if (barray[i] == 0) {
+				//giant step - use the addition formula for ECM
+				copy(Pa, pt1);
+
+				//Pa + Pd
+				add(Pa, Pd, Pad, Pa);
+
+				//Pad holds the previous Pa
+				copy(pt1, Pad);
+
+				//and Paprod
+				for (int l=0; l<LANES; l++) {
+					Paprod[l] = montMul(Pa.X[l], Pa.Z[l], n[l], nInv[l]);
+				}
+
+				i++;
+			}
+
+			//we accumulate XrZd - XdZr = (Xr - Xd) * (Zr + Zd) + XdZd - XrZr
+			//in CP notation, Pa -> (Xr,Zr), Pb -> (Xd,Zd)
+			final int b = map[barray[i]];
+			final long[] PbX = Pb[b].X, PbZ = Pb[b].Z, prod = Pbprod[b];
+
+			// accumulate the cross product  (zimmerman syntax).
+			// page 342 in C&P
+			for (int l=0; l<LANES; l++) {
+				final long n = this.n[l], nInv = this.nInv[l];
+				final long tt1 = subMod(Pa.X[l], PbX[l], n);
+				final long tt2 = addMod(Pa.Z[l], PbZ[l], n);
+				final long tt3 = montMul(tt1, tt2, n, nInv);
+				final long tt4 = addMod(tt3, prod[l], n);
+				final long tt5 = subMod(tt4, Paprod[l], n);
+				acc[l] = montMul(acc[l], tt5, n, nInv);
+			}
+		}
+	}
+
+	/**
+	 * Montgomery multiplication a*b/R mod n, with R=2^64.
+	 * 
+	 * In contrast to TinyEcm64MHInlined.montMul64(), this variant subtracts m*n from a*b, which needs no carry propagation,
+	 * and the final correction is branch-free. Branch mispredictions would stall all lanes, while the multiplications
+	 * of different lanes can be executed in parallel.
+	 * 
+	 * @param a 0 <= a < n
+	 * @param b 0 <= b < n
+	 * @param n odd modulus < 2^62
+	 * @param nInv (1/n) mod 2^64
+	 * @return a*b/R mod n, with 0 <= result < n
+	 */
+	private static long montMul(long a, long b, long n, long nInv) {
+		// a*b - m*n is a multiple of 2^64; the low parts cancel, so the result is the difference of the high parts.
+		final long m = a * b * nInv;
+		final long mnHigh = Math.multiplyHigh(m, n) + ((m >> 63) & n); // m is unsigned
+		final long r = Math.multiplyHigh(a, b) - mnHigh;
+		return r + ((r >> 63) & n);
+	}
+
+	/**
+	 * Branch-free modular addition.
+	 * @param x 0 <= x < n
+	 * @param y 0 <= y < n
+	 * @param n modulus < 2^62
+	 * @return (x + y) mod n
+	 */
+	private static long addMod(long x, long y, long n) {
+		final long r = x + y - n;
+		return r + ((r >> 63) & n);
+	}
+
+	/**
+	 * Branch-free modular subtraction.
+	 * @param x 0 <= x < n
+	 * @param y 0 <= y < n
+	 * @param n modulus < 2^62
+	 * @return (x - y) mod n
+	 */
+	private static long subMod(long x, long y, long n) {
+		final long r = x - y;
+		return r + ((r >> 63) & n);
+	}
+
+	/**
+	 * Test if Z is a factor of N.
+	 * @param Z
+	 * @param n
+	 * @return factor or 0 if no factor
+	 */
+	private long check_factor(long Z, long n) {
+		long f = gcd63.gcd(Z, n);
+		return (f>1 && f<n) ? f : 0;
+	}
+}
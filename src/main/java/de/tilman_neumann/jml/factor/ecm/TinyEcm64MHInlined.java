@@ -110,7 +110,7 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 	// The reducer R is 2^64, but the only constant still required is the half of it.
 	private static final long R_HALF = 1L << 63;
 
-	private static final byte[] prac70Steps = new byte[] { 
+	static final byte[] prac70Steps = new byte[] { 
 			0,6,0,6,0,6,0,4,6,0,4,6,0,4,4,6,
 			0,4,4,6,0,5,4,6,0,3,3,4,6,0,3,5,
 			4,6,0,3,4,3,4,6,0,5,5,4,6,0,5,3,
@@ -120,7 +120,7 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 			4,3,5,4,6,0,5,5,3,3,4,6,0,4,3,3,
 			3,5,4,6};
 
-	private static final byte[] prac85Steps = new byte[] { 
+	static final byte[] prac85Steps = new byte[] { 
 			0,6,0,6,0,6,0,6,0,4,
 			6,0,4,6,0,4,4,6,0,4,
 			4,6,0,5,4,6,0,3,3,4,
@@ -138,22 +138,22 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 			3,4,3,3,4,6 };
 
 	// pre-paired sequences for various B1 and B2 = 25*B1
-	private static final int numb1_70 = 186;
-	private static final byte[] b1_70 = new byte[] { 53,49,47,43,41,37,23,19,13,11,1,7,17,29,31,0,59,47,43,41,37,31,29,19,13,7,1,11,23,0,59,53,43,41,37,31,23,17,11,7,1,19,29,49,0,53,49,47,43,31,23,19,11,7,1,13,37,59,0,59,53,43,37,31,29,23,17,13,11,1,47,0,59,49,41,31,23,17,11,7,1,19,37,47,0,59,49,47,43,41,31,17,13,11,7,37,0,53,49,43,37,23,19,13,7,1,29,31,41,59,0,59,49,47,41,23,19,17,13,7,1,43,53,0,59,49,43,37,29,17,13,7,1,19,47,53,0,59,53,49,47,43,31,29,23,11,17,0,47,43,41,37,31,23,19,17,11,1,13,29,53,0,59,47,41,37,31,23,19,11,7,17,29,0,53,47,43,41,17,13,11,1,23,31,37,49 };
+	static final int numb1_70 = 186;
+	static final byte[] b1_70 = new byte[] { 53,49,47,43,41,37,23,19,13,11,1,7,17,29,31,0,59,47,43,41,37,31,29,19,13,7,1,11,23,0,59,53,43,41,37,31,23,17,11,7,1,19,29,49,0,53,49,47,43,31,23,19,11,7,1,13,37,59,0,59,53,43,37,31,29,23,17,13,11,1,47,0,59,49,41,31,23,17,11,7,1,19,37,47,0,59,49,47,43,41,31,17,13,11,7,37,0,53,49,43,37,23,19,13,7,1,29,31,41,59,0,59,49,47,41,23,19,17,13,7,1,43,53,0,59,49,43,37,29,17,13,7,1,19,47,53,0,59,53,49,47,43,31,29,23,11,17,0,47,43,41,37,31,23,19,17,11,1,13,29,53,0,59,47,41,37,31,23,19,11,7,17,29,0,53,47,43,41,17,13,11,1,23,31,37,49 };
 
-	private static final int numb1_85 = 225;
-	private static final byte[] b1_85 = new byte[] { 61,53,49,47,43,41,37,23,19,13,11,1,7,17,29,31,0,59,47,43,41,37,31,29,19,13,7,1,11,23,0,59,53,43,41,37,31,23,17,11,7,1,19,29,49,0,53,49,47,43,31,23,19,11,7,1,13,37,59,0,59,53,43,37,31,29,23,17,13,11,1,47,0,59,49,41,31,23,17,11,7,1,19,37,47,0,59,49,47,43,41,31,17,13,11,7,37,0,53,49,43,37,23,19,13,7,1,29,31,41,59,0,59,49,47,41,23,19,17,13,7,1,43,53,0,59,49,43,37,29,17,13,7,1,19,47,53,0,59,53,49,47,43,31,29,23,11,17,0,47,43,41,37,31,23,19,17,11,1,13,29,53,0,59,47,41,37,31,23,19,11,7,17,29,0,53,47,43,41,17,13,11,1,23,31,37,49,0,53,47,43,41,29,19,7,1,17,31,37,49,59,0,49,43,37,19,17,1,23,29,47,53,0,59,53,43,41,31,17,7,1,11,13,19,29 };
+	static final int numb1_85 = 225;
+	static final byte[] b1_85 = new byte[] { 61,53,49,47,43,41,37,23,19,13,11,1,7,17,29,31,0,59,47,43,41,37,31,29,19,13,7,1,11,23,0,59,53,43,41,37,31,23,17,11,7,1,19,29,49,0,53,49,47,43,31,23,19,11,7,1,13,37,59,0,59,53,43,37,31,29,23,17,13,11,1,47,0,59,49,41,31,23,17,11,7,1,19,37,47,0,59,49,47,43,41,31,17,13,11,7,37,0,53,49,43,37,23,19,13,7,1,29,31,41,59,0,59,49,47,41,23,19,17,13,7,1,43,53,0,59,49,43,37,29,17,13,7,1,19,47,53,0,59,53,49,47,43,31,29,23,11,17,0,47,43,41,37,31,23,19,17,11,1,13,29,53,0,59,47,41,37,31,23,19,11,7,17,29,0,53,47,43,41,17,13,11,1,23,31,37,49,0,53,47,43,41,29,19,7,1,17,31,37,49,59,0,49,43,37,19,17,1,23,29,47,53,0,59,53,43,41,31,17,7,1,11,13,19,29 };
 
-	private static final int numb1_125 = 319;
-	private static final byte[] b1_125 = new byte[] { 23,19,13,11,1,7,17,29,31,0,59,47,43,41,37,31,29,19,13,7,1,11,23,0,59,53,43,41,37,31,23,17,11,7,1,19,29,49,0,53,49,47,43,31,23,19,11,7,1,13,37,59,0,59,53,43,37,31,29,23,17,13,11,1,47,0,59,49,41,31,23,17,11,7,1,19,37,47,0,59,49,47,43,41,31,17,13,11,7,37,0,53,49,43,37,23,19,13,7,1,29,31,41,59,0,59,49,47,41,23,19,17,13,7,1,43,53,0,59,49,43,37,29,17,13,7,1,19,47,53,0,59,53,49,47,43,31,29,23,11,17,0,47,43,41,37,31,23,19,17,11,1,13,29,53,0,59,47,41,37,31,23,19,11,7,17,29,0,53,47,43,41,17,13,11,1,23,31,37,49,0,53,47,43,41,29,19,7,1,17,31,37,49,59,0,49,43,37,19,17,1,23,29,47,53,0,59,53,43,41,31,17,7,1,11,13,19,29,0,59,53,49,47,37,29,11,13,17,23,31,0,59,43,41,37,29,23,17,13,1,31,47,0,59,53,49,47,41,37,31,19,13,7,11,17,29,43,0,47,29,19,11,7,1,41,43,59,0,53,49,37,23,13,11,7,1,17,19,29,41,43,59,0,59,49,41,37,23,13,1,7,11,29,43,47,53,0,59,53,49,31,23,13,7,1,17,29,43,47,0,59,31,29,19,11,7,37,49,53 };
+	static final int numb1_125 = 319;
+	static final byte[] b1_125 = new byte[] { 23,19,13,11,1,7,17,29,31,0,59,47,43,41,37,31,29,19,13,7,1,11,23,0,59,53,43,41,37,31,23,17,11,7,1,19,29,49,0,53,49,47,43,31,23,19,11,7,1,13,37,59,0,59,53,43,37,31,29,23,17,13,11,1,47,0,59,49,41,31,23,17,11,7,1,19,37,47,0,59,49,47,43,41,31,17,13,11,7,37,0,53,49,43,37,23,19,13,7,1,29,31,41,59,0,59,49,47,41,23,19,17,13,7,1,43,53,0,59,49,43,37,29,17,13,7,1,19,47,53,0,59,53,49,47,43,31,29,23,11,17,0,47,43,41,37,31,23,19,17,11,1,13,29,53,0,59,47,41,37,31,23,19,11,7,17,29,0,53,47,43,41,17,13,11,1,23,31,37,49,0,53,47,43,41,29,19,7,1,17,31,37,49,59,0,49,43,37,19,17,1,23,29,47,53,0,59,53,43,41,31,17,7,1,11,13,19,29,0,59,53,49,47,37,29,11,13,17,23,31,0,59,43,41,37,29,23,17,13,1,31,47,0,59,53,49,47,41,37,31,19,13,7,11,17,29,43,0,47,29,19,11,7,1,41,43,59,0,53,49,37,23,13,11,7,1,17,19,29,41,43,59,0,59,49,41,37,23,13,1,7,11,29,43,47,53,0,59,53,49,31,23,13,7,1,17,29,43,47,0,59,31,29,19,11,7,37,49,53 };
 
-	private static final int numb1_165 = 425;
-	private static final byte[] b1_165 = new byte[] { 13,7,1,11,19,47,59,0,59,49,43,37,31,29,23,19,17,7,11,13,47,53,0,53,47,41,37,31,23,19,11,1,13,29,43,59,0,53,49,41,37,31,19,17,1,7,23,29,47,59,0,59,53,47,43,41,29,19,17,13,7,1,23,31,49,0,53,47,41,37,29,23,19,11,7,17,31,43,49,59,0,47,43,41,37,23,19,17,13,7,11,29,53,0,53,49,43,37,29,23,11,7,1,13,19,31,41,0,53,49,47,43,37,31,23,17,11,13,41,0,59,47,43,37,31,29,23,11,1,17,19,41,0,59,53,19,13,7,1,29,43,47,49,0,53,49,47,41,29,19,17,13,11,7,1,23,31,43,59,0,53,49,41,37,23,19,13,11,7,1,17,43,47,0,47,43,41,31,19,17,7,1,13,37,49,0,59,49,37,29,13,1,7,11,17,19,41,47,53,0,49,47,31,29,7,1,13,17,19,23,37,59,0,47,37,31,19,17,13,11,1,29,41,43,53,0,59,41,17,13,7,1,19,23,31,47,49,53,0,59,53,47,43,31,29,7,1,11,17,37,41,49,0,49,43,37,23,19,13,1,7,17,0,59,49,41,37,31,29,23,1,11,13,53,0,53,43,41,37,29,23,17,13,11,7,1,19,31,49,0,53,43,31,29,23,19,17,1,13,37,41,59,0,53,43,37,31,23,13,1,17,29,59,0,59,49,41,37,23,19,11,1,7,29,0,59,43,17,13,11,1,7,23,29,37,41,49,0,49,47,43,41,29,1,7,13,19,23,31,59,0,59,49,47,31,29,13,7,37,41,43,0,49,41,29,23,13,11,7,1,17,19,31,43,53,0,53,47,43,37,29,23,17,1,11,13,31,41,49,59,0,53,47,41,19,13,11,1,17,23,43,0,53,49,47,37,23,19,11,7,17,29,31,43,0,53,31,19,17,13,7,1,29,37,59 };
+	static final int numb1_165 = 425;
+	static final byte[] b1_165 = new byte[] { 13,7,1,11,19,47,59,0,59,49,43,37,31,29,23,19,17,7,11,13,47,53,0,53,47,41,37,31,23,19,11,1,13,29,43,59,0,53,49,41,37,31,19,17,1,7,23,29,47,59,0,59,53,47,43,41,29,19,17,13,7,1,23,31,49,0,53,47,41,37,29,23,19,11,7,17,31,43,49,59,0,47,43,41,37,23,19,17,13,7,11,29,53,0,53,49,43,37,29,23,11,7,1,13,19,31,41,0,53,49,47,43,37,31,23,17,11,13,41,0,59,47,43,37,31,29,23,11,1,17,19,41,0,59,53,19,13,7,1,29,43,47,49,0,53,49,47,41,29,19,17,13,11,7,1,23,31,43,59,0,53,49,41,37,23,19,13,11,7,1,17,43,47,0,47,43,41,31,19,17,7,1,13,37,49,0,59,49,37,29,13,1,7,11,17,19,41,47,53,0,49,47,31,29,7,1,13,17,19,23,37,59,0,47,37,31,19,17,13,11,1,29,41,43,53,0,59,41,17,13,7,1,19,23,31,47,49,53,0,59,53,47,43,31,29,7,1,11,17,37,41,49,0,49,43,37,23,19,13,1,7,17,0,59,49,41,37,31,29,23,1,11,13,53,0,53,43,41,37,29,23,17,13,11,7,1,19,31,49,0,53,43,31,29,23,19,17,1,13,37,41,59,0,53,43,37,31,23,13,1,17,29,59,0,59,49,41,37,23,19,11,1,7,29,0,59,43,17,13,11,1,7,23,29,37,41,49,0,49,47,43,41,29,1,7,13,19,23,31,59,0,59,49,47,31,29,13,7,37,41,43,0,49,41,29,23,13,11,7,1,17,19,31,43,53,0,53,47,43,37,29,23,17,1,11,13,31,41,49,59,0,53,47,41,19,13,11,1,17,23,43,0,53,49,47,37,23,19,11,7,17,29,31,43,0,53,31,19,17,13,7,1,29,37,59 };
 
-	private static final int numb1_205 = 511;
-	private static final byte[] b1_205 = new byte[] { 1,23,41,0,59,53,49,47,37,23,19,17,13,1,7,29,43,0,53,49,41,31,29,19,17,11,7,1,13,37,59,0,49,47,29,23,13,7,1,17,31,37,43,0,59,49,47,43,37,31,29,17,13,7,1,11,19,53,0,59,53,49,41,37,23,13,1,11,17,19,29,43,47,0,53,49,47,43,23,19,11,1,7,17,37,41,0,59,53,41,37,31,29,19,17,11,1,13,43,47,0,53,47,41,19,17,7,1,11,23,31,43,59,0,59,53,41,31,13,11,7,1,17,29,37,0,49,43,37,29,11,1,13,17,19,23,41,0,59,49,47,43,41,37,31,19,7,1,13,23,29,53,0,53,49,43,41,37,31,29,23,13,7,17,19,47,59,0,49,47,37,29,23,17,11,7,13,19,31,41,53,0,59,43,29,23,19,17,13,11,1,41,0,59,37,31,23,17,13,11,7,1,19,29,43,53,0,49,47,43,41,31,19,17,1,7,11,13,23,0,47,43,37,29,13,11,7,1,17,19,23,31,59,0,59,37,31,29,23,19,13,1,7,11,41,47,53,0,53,49,43,31,23,17,13,41,59,0,59,53,31,19,17,1,7,11,23,37,47,49,0,59,53,47,43,41,37,31,23,19,17,11,1,0,59,53,49,47,31,17,13,7,1,11,29,37,0,53,43,31,17,13,7,1,29,41,49,0,53,49,41,29,23,11,7,1,19,31,47,0,47,43,41,29,23,19,7,1,11,49,0,59,31,29,23,17,11,7,1,13,41,43,0,59,43,37,17,1,7,11,13,19,41,49,0,59,53,43,41,37,31,29,23,13,11,1,47,0,59,53,47,31,19,17,13,1,7,11,29,37,43,49,0,49,43,41,31,17,13,7,11,23,37,53,0,53,49,41,23,19,13,11,7,1,17,37,59,0,49,47,43,37,31,29,23,1,7,41,0,59,43,41,37,31,17,13,11,7,47,49,0,59,49,47,37,31,29,19,17,7,1,0,53,47,37,19,13,1,11,31,41,0,49,47,37,23,17,13,11,7,19,31,53,0,59,53,47,29,13,11,7,1,23,41,0,49,47,41,37,19,11,13,17,23,29,31,43,0,59,29,19,13,1,41,43,47,53,0,59,53,43,41,37,23,17,11,7,1,13,29,49 };
+	static final int numb1_205 = 511;
+	static final byte[] b1_205 = new byte[] { 1,23,41,0,59,53,49,47,37,23,19,17,13,1,7,29,43,0,53,49,41,31,29,19,17,11,7,1,13,37,59,0,49,47,29,23,13,7,1,17,31,37,43,0,59,49,47,43,37,31,29,17,13,7,1,11,19,53,0,59,53,49,41,37,23,13,1,11,17,19,29,43,47,0,53,49,47,43,23,19,11,1,7,17,37,41,0,59,53,41,37,31,29,19,17,11,1,13,43,47,0,53,47,41,19,17,7,1,11,23,31,43,59,0,59,53,41,31,13,11,7,1,17,29,37,0,49,43,37,29,11,1,13,17,19,23,41,0,59,49,47,43,41,37,31,19,7,1,13,23,29,53,0,53,49,43,41,37,31,29,23,13,7,17,19,47,59,0,49,47,37,29,23,17,11,7,13,19,31,41,53,0,59,43,29,23,19,17,13,11,1,41,0,59,37,31,23,17,13,11,7,1,19,29,43,53,0,49,47,43,41,31,19,17,1,7,11,13,23,0,47,43,37,29,13,11,7,1,17,19,23,31,59,0,59,37,31,29,23,19,13,1,7,11,41,47,53,0,53,49,43,31,23,17,13,41,59,0,59,53,31,19,17,1,7,11,23,37,47,49,0,59,53,47,43,41,37,31,23,19,17,11,1,0,59,53,49,47,31,17,13,7,1,11,29,37,0,53,43,31,17,13,7,1,29,41,49,0,53,49,41,29,23,11,7,1,19,31,47,0,47,43,41,29,23,19,7,1,11,49,0,59,31,29,23,17,11,7,1,13,41,43,0,59,43,37,17,1,7,11,13,19,41,49,0,59,53,43,41,37,31,29,23,13,11,1,47,0,59,53,47,31,19,17,13,1,7,11,29,37,43,49,0,49,43,41,31,17,13,7,11,23,37,53,0,53,49,41,23,19,13,11,7,1,17,37,59,0,49,47,43,37,31,29,23,1,7,41,0,59,43,41,37,31,17,13,11,7,47,49,0,59,49,47,37,31,29,19,17,7,1,0,53,47,37,19,13,1,11,31,41,0,49,47,37,23,17,13,11,7,19,31,53,0,59,53,47,29,13,11,7,1,23,41,0,49,47,41,37,19,11,13,17,23,29,31,43,0,59,29,19,13,1,41,43,47,53,0,59,53,43,41,37,23,17,11,7,1,13,29,49 };
 
-	private static final int[] map = {
+	static final int[] map = {
 		0, 1, 2, 0, 0, 0, 0, 3, 0, 0,
 		0, 4, 0, 5, 0, 0, 0, 6, 0, 7,
 		0, 0, 0, 8, 0, 0, 0, 0, 0, 9,
@@ -170,6 +170,10 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 
 	private SpRand32 spRand32 = new SpRand32();
 	
+	// work data and point are reused for all N, so that tinyecm() does not create garbage
+	private ecm_work work = new ecm_work();
+	private ecm_pt P = new ecm_pt();
+	
 	private boolean doTDivFirst;
 	
 	/**
@@ -194,7 +198,7 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 	 * @param n
 	 * @return (x-y) mod n
 	 */
-	long submod(long x, long y, long n) {
+	static long submod(long x, long y, long n) {
 	    final long r0 = x-y;
 		// This method's implementation history is quite an odyssey:
 		// * My first version was quite bad
@@ -214,7 +218,7 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 	 * @param n
 	 * @return x+y mod n
 	 */
-	long addmod(long x, long y, long n) {
+	static long addmod(long x, long y, long n) {
 	    long r0 = x+y;
 	    return (r0 >= n) ? r0-n : r0;
 	    // From https://www.mersenneforum.org/showpost.php?p=524038&postcount=158:
@@ -231,9 +235,9 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 	 * @param n
 	 * @return c*2^64 mod n
 	 */
-	long u64div(long c, long n) {
+	static long u64div(long c, long n) {
 		// optimizing on lo=0 does not yield any notable performance gain
-		return new Uint128(c, 0L).spDivide_MH(n)[1];
+		return Uint128.spMod_MH(c, 0L, n);
 	}
 
 	/**
@@ -243,9 +247,9 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 	 * @param m
 	 * @return u*v mod m
 	 */
-	long spMulMod(long u, long v, long m) {
-		// using spMul64_MH() or mul64SignedMH() makes no notable difference in terms of performance
-		return Uint128.spMul64_MH(u, v).spDivide_MH(m)[1];
+	static long spMulMod(long u, long v, long m) {
+		// u, v < m < 2^63, so Math.multiplyHigh() gives the unsigned upper half of the product
+		return Uint128.spMod_MH(Math.multiplyHigh(u, v), u*v, m);
 	}
 
 	void add(long rho, ecm_work work, ecm_pt P1, ecm_pt P2, ecm_pt Pin, ecm_pt Pout) {
@@ -510,7 +514,7 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 	 * @param p modulus
 	 * @return (1/a) mod p
 	 */
-	long modinv_64(long a, long p) {
+	static long modinv_64(long a, long p) {
 
 		/* thanks to the folks at www.mersenneforum.org */
 
@@ -663,29 +667,19 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 		if (DEBUG) LOG.debug("work.s=" + work.s);
 	}
 
-	public static class EcmResult {
-		public long f;
-		public int curve;
-		
-		public EcmResult(long f, int curve) {
-			this.f = f;
-			this.curve = curve;
-		}
-	}
-	
 	/**
 	 * @param n the number to factor
 	 * @param B1 stage 1 bound
 	 * @param curves currently ignored because we run curves until a factor is found. This requires that the algorithm is fed with composites, no primes.
-	 * @return Factorization result
+	 * @return factor of n
 	 */
-	EcmResult tinyecm(long n, int B1, int curves) {
+	long tinyecm(long n, int B1, int curves) {
 		//attempt to factor n with the elliptic curve method
 		//following brent and montgomery's papers, and CP's book
 		int curve;
 		long result;
-		ecm_work work = new ecm_work();
-		ecm_pt P = new ecm_pt();
+		final ecm_work work = this.work;
+		ecm_pt P = this.P;
 		int sigma;
 		long rho = setUpMontgomeryMult_v1(n);
 		if (DEBUG) {
@@ -715,7 +709,8 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 
 			if (result > 1)
 			{
-				return new EcmResult(result, curve + 1);
+				if (DEBUG) LOG.debug("Found factor " + result + " after " + (curve + 1) + " curves");
+				return result;
 			}
 
 			ecm_stage2(P, rho, work);
@@ -725,13 +720,14 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 
 			if (result > 1)
 			{
-				return new EcmResult(result, curve + 1);
+				if (DEBUG) LOG.debug("Found factor " + result + " after " + (curve + 1) + " curves");
+				return result;
 			}
 
 		}
 
 //		/*if (DEBUG)*/ LOG.warn("No factor of N=" + n + " found after " + curves + " curves...");
-//		return new EcmResult(1, curve);
+//		return 1;
 	}
 
 	ecm_pt ecm_stage1(long rho, ecm_work work, ecm_pt P) {
@@ -1124,15 +1120,29 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 	}
 
 	private BigInteger findSingleFactor(BigInteger N, boolean doTDivFirst) {
+		return BigInteger.valueOf(findSingleFactor(N.longValue(), doTDivFirst));
+	}
+
+	/**
+	 * Find a factor of long N, which must be composite and have at most 62 bit.
+	 * This method does not create any garbage.
+	 * @param N
+	 * @return factor of N
+	 */
+	public long findSingleFactor(long N) {
+		return findSingleFactor(N, this.doTDivFirst);
+	}
+
+	private long findSingleFactor(long N, boolean doTDivFirst) {
 		if (doTDivFirst) {
 			// Do trial division before ecm.
 			// The required amount of trial division has been derived experimentally.
 			// With a tdiv limit of 2^8 it still fails sometimes; 2^9 is stable; 2^10 is best in terms of performance.
-			final long factor = tdiv.setTestLimit(1<<10).findSingleFactor(N.longValue());
-			if (factor > 1) return BigInteger.valueOf(factor);
+			final long factor = tdiv.setTestLimit(1<<10).findSingleFactor(N);
+			if (factor > 1) return factor;
 		}
 		
-		int NBits = N.bitLength();
+		int NBits = 64 - Long.numberOfLeadingZeros(N);
 		if (NBits > MAX_BITS_SUPPORTED) throw new IllegalArgumentException("N=" + N + " has " + NBits + " bit, but tinyEcm only supports arguments <= " + MAX_BITS_SUPPORTED + " bit.");
 		// TODO Try to make it work for 63, 64 bit numbers
 		if (DEBUG) LOG.debug("N=" + N + " has " + NBits + " bits");
@@ -1160,8 +1170,7 @@ public class TinyEcm64MHInlined extends FactorAlgorithm {
 		if (DEBUG) LOG.debug("B1=" + B1 + ", curves=" + curves);
 		
 		if (DEBUG) LOG.debug("Try to factor N=" + N);
-		EcmResult result = tinyecm(N.longValue(), B1, curves);
-		return BigInteger.valueOf(result.f);
+		return tinyecm(N, B1, curves);
 	}
 	
 	@Override
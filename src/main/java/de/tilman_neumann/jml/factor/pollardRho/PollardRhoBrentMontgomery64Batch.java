@@ -0,0 +1,287 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.pollardRho;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.gcd.Gcd63;
+import de.tilman_neumann.jml.primes.probable.BPSWTest64;
+import de.tilman_neumann.jml.random.Rng;
+
+/**
+ * Brent's improvement of Pollard's Rho algorithm using Montgomery multiplication, finding factors of many N < 2^63 in one go.
+ *
+ * Factoring a single N, Pollard-Rho is latency-bound: Each Montgomery multiplication needs the result of the previous one,
+ * so the multipliers of the CPU are mostly idle. Here, the iterations for several N ("lanes") are interleaved in the same loop,
+ * so that their independent multiplication chains can be executed in parallel. As soon as a lane has found a factor,
+ * it continues with the next N of the batch.
+ *
+ * To keep the lanes in lockstep, the cycle detection uses Brent's basic scheme: x is fixed at the end of rounds of doubling length,
+ * and each step accumulates the product of y-x. As in PollardRhoBrentMontgomery64MH, the polynomial is y*(y+1).
+ *
+ * Before Pollard-Rho, N are checked for factors < 64 and for being (probable) prime, so that primes do not end up in an infinite loop.
+ *
+ * Instances are not thread-safe; BatchFactorService distributes batches over several threads.
+ *
+ * @see [Richard P. Brent: An improved Monte Carlo Factorization Algorithm, 1980]
+ *
+ * @author Tilman Neumann
+ */
+public class PollardRhoBrentMontgomery64Batch {
+	private static final Logger LOG = LogManager.getLogger(PollardRhoBrentMontgomery64Batch.class);
+	private static final boolean DEBUG = false;
+
+	/** the number of interleaved lanes. The lanes are unrolled in runBlock(), so this can not be changed alone. */
+	private static final int LANES = 4;
+
+	/** the odd primes < 64 */
+	private static final int[] SMALL_PRIMES = new int[] {3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61};
+
+	private Rng rng = new Rng();
+	private Gcd63 gcd = new Gcd63();
+	private BPSWTest64 bpsw64 = new BPSWTest64();
+
+	/** the index of the N processed in each lane, or -1 if the lane is idle */
+	private int[] index = new int[LANES];
+	private long[] n = new long[LANES];
+	/** (1/n) mod 2^64 */
+	private long[] nInv = new long[LANES];
+	private long[] x = new long[LANES];
+	private long[] y = new long[LANES];
+	/** y at the start of the current block */
+	private long[] ys = new long[LANES];
+	private long[] q = new long[LANES];
+	/** the length of the current round */
+	private int[] r = new int[LANES];
+	/** the number of steps done in the current round */
+	private int[] k = new int[LANES];
+	/** the number of steps between gcd's */
+	private int blockSteps;
+
+	public String getName() {
+		return "PollardRhoBrentMontgomery64Batch";
+	}
+
+	/**
+	 * Find a single factor of each N.
+	 *
+	 * @param N the numbers to factor; the sign is irrelevant, but |N| must be > 0 and < 2^63
+	 * @param factors output array of at least the same length as N: factors[i] is a proper factor of N[i] if N[i] is composite,
+	 * 			or 1 if |N[i]| is 1 or prime
+	 */
+	public void findSingleFactors(long[] N, long[] factors) {
+		if (factors.length < N.length) {
+			throw new IllegalArgumentException("The output array has length " + factors.length + " but needs at least " + N.length);
+		}
+		findSingleFactors(N, factors, 0, N.length);
+	}
+
+	/**
+	 * Find a single factor of each N[i], from <= i < to.
+	 *
+	 * @param N the numbers to factor; the sign is irrelevant, but |N| must be > 0 and < 2^63
+	 * @param factors output array: factors[i] is a proper factor of N[i] if N[i] is composite, or 1 if |N[i]| is 1 or prime
+	 * @param from the index of the first N to factor
+	 * @param to the index after the last N to factor
+	 */
+	public void findSingleFactors(long[] N, long[] factors, int from, int to) {
+		long maxN = 0;
+		for (int i=from; i<to; i++) maxN |= Math.abs(N[i]);
+		blockSteps = computeBlockSteps(64 - Long.numberOfLeadingZeros(maxN));
+		
+		int next = from;
+		int activeCount = 0;
+		for (int l=0; l<LANES; l++) {
+			next = fillLane(l, N, factors, next, to);
+			if (index[l] >= 0) activeCount++;
+		}
+		while (activeCount > 0) {
+			runBlock();
+			for (int l=0; l<LANES; l++) {
+				if (index[l] < 0) continue;
+				long factor = checkLane(l);
+				if (factor > 1) {
+					if (DEBUG) LOG.debug("Found factor " + factor + " of N=" + N[index[l]]);
+					factors[index[l]] = factor;
+					next = fillLane(l, N, factors, next, to);
+					if (index[l] < 0) activeCount--;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A gcd is as expensive as about 100 steps, so the blocks are much longer than in PollardRhoBrentMontgomery64MH.
+	 * But on average half of the last block of each N is wasted, so the block length must stay small compared to
+	 * the expected number of steps.
+	 * 
+	 * @param NBits the bit length of the biggest N
+	 * @return the number of steps between gcd's
+	 */
+	private static int computeBlockSteps(int NBits) {
+		if (NBits < 42) return 256;
+		if (NBits < 48) return 512;
+		return 1024;
+	}
+	
+	/**
+	 * Assign the next N that needs Pollard-Rho to lane l. N that are resolved without Pollard-Rho are skipped
+	 * after storing their result. If there is no such N left, the lane becomes idle.
+	 *
+	 * @param l lane index
+	 * @param N
+	 * @param factors
+	 * @param next the index of the next N to process
+	 * @param to the index after the last N to process
+	 * @return the new value of 'next'
+	 */
+	private int fillLane(int l, long[] N, long[] factors, int next, int to) {
+		for ( ; next<to; next++) {
+			long nAbs = Math.abs(N[next]);
+			if (nAbs <= 0) throw new IllegalArgumentException("N = " + N[next] + " is not supported");
+			long factor = findTrivialFactor(nAbs);
+			if (factor > 0) {
+				factors[next] = factor;
+				continue;
+			}
+			index[l] = next;
+			initLane(l, nAbs);
+			return next+1;
+		}
+		index[l] = -1; // idle lanes keep on computing garbage in runBlock(), which is harmless
+		return next;
+	}
+
+	/**
+	 * @param n
+	 * @return a factor of n < 64, 1 if n is 1 or prime, or 0 if n is a composite without factors < 64
+	 */
+	private long findTrivialFactor(long n) {
+		if ((n & 1) == 0) return n == 2 ? 1 : 2;
+		for (int p : SMALL_PRIMES) {
+			if (n % p == 0) return n == p ? 1 : p;
+		}
+		if (n < 64*64) return 1; // n has no prime factor < 64 -> n is 1 or prime
+		return bpsw64.isProbablePrime(n) ? 1 : 0;
+	}
+
+	/**
+	 * Set up lane l to start Pollard-Rho for n, or to restart it with a new random seed.
+	 * @param l lane index
+	 * @param n
+	 */
+	private void initLane(int l, long n) {
+		this.n[l] = n;
+		// Newton iteration for 1/n mod 2^64; n*n == 1 (mod 8) gives the first 3 correct bits, each iteration doubles them
+		long inv = n;
+		for (int i=0; i<5; i++) inv *= 2 - n * inv;
+		nInv[l] = inv;
+		y[l] = rng.nextLong(n);
+		x[l] = y[l];
+		q[l] = 1;
+		r[l] = blockSteps;
+		k[l] = 0;
+	}
+
+	/**
+	 * Do blockSteps steps of Pollard-Rho in all lanes.
+	 */
+	private void runBlock() {
+		final long n0 = n[0], n1 = n[1], n2 = n[2], n3 = n[3];
+		final long nInv0 = nInv[0], nInv1 = nInv[1], nInv2 = nInv[2], nInv3 = nInv[3];
+		final long x0 = x[0], x1 = x[1], x2 = x[2], x3 = x[3];
+		long y0 = y[0], y1 = y[1], y2 = y[2], y3 = y[3];
+		long q0 = q[0], q1 = q[1], q2 = q[2], q3 = q[3];
+		ys[0] = y0; ys[1] = y1; ys[2] = y2; ys[3] = y3;
+
+		for (int i=blockSteps; i>0; i--) {
+			y0 = montMul(y0, y0+1, n0, nInv0);
+			y1 = montMul(y1, y1+1, n1, nInv1);
+			y2 = montMul(y2, y2+1, n2, nInv2);
+			y3 = montMul(y3, y3+1, n3, nInv3);
+			q0 = montMul(subtractMod(y0, x0, n0), q0, n0, nInv0);
+			q1 = montMul(subtractMod(y1, x1, n1), q1, n1, nInv1);
+			q2 = montMul(subtractMod(y2, x2, n2), q2, n2, nInv2);
+			q3 = montMul(subtractMod(y3, x3, n3), q3, n3, nInv3);
+		}
+
+		y[0] = y0; y[1] = y1; y[2] = y2; y[3] = y3;
+		q[0] = q0; q[1] = q1; q[2] = q2; q[3] = q3;
+	}
+
+	/**
+	 * Check if lane l has found a factor in the last block, and advance its round if not.
+	 * @param l lane index
+	 * @return a proper factor of n[l], or 0 if no factor has been found yet
+	 */
+	private long checkLane(int l) {
+		final long n = this.n[l];
+		long G = gcd.gcd(q[l], n);
+		if (G == 1) {
+			k[l] += blockSteps;
+			if (k[l] >= r[l]) {
+				// start the next round
+				x[l] = y[l];
+				r[l] <<= 1;
+				k[l] = 0;
+			}
+			return 0;
+		}
+		if (G == n) {
+			// some factors were collected in the same block -> repeat the block step by step
+			final long nInv = this.nInv[l], x = this.x[l];
+			long z = ys[l];
+			for (int i=blockSteps; i>0; i--) {
+				z = montMul(z, z+1, n, nInv);
+				G = gcd.gcd(subtractMod(z, x, n), n);
+				if (G != 1) break;
+			}
+			if (G == n || G == 1) {
+				// failure -> restart with a new random seed
+				if (DEBUG) LOG.debug("Restart lane " + l + " for n=" + n);
+				initLane(l, n);
+				return 0;
+			}
+		}
+		return G;
+	}
+
+	/**
+	 * Montgomery multiplication a*b/R mod n, with R=2^64.
+	 * @param a 0 <= a < n
+	 * @param b 0 <= b <= n
+	 * @param n odd modulus < 2^63
+	 * @param nInv (1/n) mod 2^64
+	 * @return a*b/R mod n, with 0 <= result < n
+	 */
+	private static long montMul(long a, long b, long n, long nInv) {
+		// a*b - m*n is a multiple of 2^64; the low parts cancel, so the result is the difference of the high parts.
+		final long m = a * b * nInv;
+		final long mnHigh = Math.multiplyHigh(m, n) + ((m >> 63) & n); // m is unsigned
+		final long r = Math.multiplyHigh(a, b) - mnHigh;
+		return r < 0 ? r + n : r;
+	}
+
+	/**
+	 * @param a 0 <= a < n
+	 * @param b 0 <= b < n
+	 * @param n
+	 * @return (a-b) mod n
+	 */
+	private static long subtractMod(long a, long b, long n) {
+		final long d = a - b;
+		return d < 0 ? d + n : d;
+	}
+}
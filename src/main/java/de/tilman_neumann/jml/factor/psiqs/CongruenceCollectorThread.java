@@ -0,0 +1,97 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.psiqs;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.factor.base.congruence.AQPair;
+import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollector;
+
+/**
+ * A dedicated thread feeding the congruence collector in PSIQS.
+ * 
+ * The sieve threads hand their AQ-pairs to a lock-free queue and continue sieving immediately;
+ * this thread alone does the collecting, cycle finding and matrix solving. Thus the sieve threads never block on the congruence collector.
+ * 
+ * @author Tilman Neumann
+ */
+public class CongruenceCollectorThread extends Thread {
+	private static final Logger LOG = LogManager.getLogger(CongruenceCollectorThread.class);
+	private static final boolean DEBUG = false;
+
+	private CongruenceCollector congruenceCollector;
+	private ConcurrentLinkedQueue<List<AQPair>> queue = new ConcurrentLinkedQueue<>();
+	private volatile boolean finishNow = false;
+	
+	/**
+	 * Full constructor.
+	 * @param cc the congruence collector, already initialized for the current N
+	 */
+	public CongruenceCollectorThread(CongruenceCollector cc) {
+		super("CC");
+		this.congruenceCollector = cc;
+	}
+	
+	/**
+	 * Hand over some AQ-pairs. This method is lock-free and may be called by any number of threads.
+	 * @param aqPairs
+	 */
+	public void add(List<AQPair> aqPairs) {
+		queue.add(aqPairs);
+		LockSupport.unpark(this);
+	}
+	
+	@Override
+	public void run() {
+		while (!finishNow) {
+			List<AQPair> aqPairs = queue.poll();
+			if (aqPairs == null) {
+				// nothing to do -> sleep until new AQ-pairs arrive. A spurious wakeup does no harm.
+				LockSupport.park(this);
+				continue;
+			}
+			
+			// This thread is the only one modifying the collector, but other threads like SIQSMetrics.getSnapshot() read it while holding its lock.
+			// The lock is not contended by the sieve threads, so taking it is cheap.
+			synchronized (congruenceCollector) {
+				congruenceCollector.collectAndProcessAQPairs(aqPairs);
+				if (congruenceCollector.getFactor() != null) {
+					if (DEBUG) LOG.debug("Collector thread found factor " + congruenceCollector.getFactor() + " and is done.");
+					// notify control thread
+					congruenceCollector.notify();
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Let this thread stop and wait for its termination.
+	 */
+	public void finish() {
+		finishNow = true;
+		LockSupport.unpark(this);
+		try {
+			join();
+		} catch (InterruptedException e) {
+			if (DEBUG) LOG.debug("collector thread interrupted main thread");
+		}
+		queue.clear();
+	}
+}
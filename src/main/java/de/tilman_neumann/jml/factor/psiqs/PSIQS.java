@@ -41,7 +41,22 @@ public class PSIQS extends PSIQSBase {
 	 * @param matrixSolver solver for smooth congruences matrix
 	 */
 	public PSIQS(float Cmult, float Mmult, Integer wantedQCount, int numberOfThreads, PowerFinder powerFinder, MatrixSolver matrixSolver) {
-		super(Cmult, Mmult, numberOfThreads, null, powerFinder, matrixSolver, new AParamGenerator02(wantedQCount), new CongruenceCollector01(10));
+		this(Cmult, Mmult, wantedQCount, numberOfThreads, powerFinder, matrixSolver, false, false);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param Cmult multiplier for prime base size
+	 * @param Mmult multiplier for sieve array size
+	 * @param wantedQCount hypercube dimension (null for automatic selection)
+	 * @param numberOfThreads
+	 * @param powerFinder algorithm to add powers to the primes used for sieving
+	 * @param matrixSolver solver for smooth congruences matrix
+	 * @param reuseThreads if true then the worker threads are kept alive and reused for many N; cleanUp() must be called at the end
+	 * @param useCollectorThread if true then a dedicated thread feeds the congruence collector, so that sieve threads never block on it
+	 */
+	public PSIQS(float Cmult, float Mmult, Integer wantedQCount, int numberOfThreads, PowerFinder powerFinder, MatrixSolver matrixSolver, boolean reuseThreads, boolean useCollectorThread) {
+		super(Cmult, Mmult, numberOfThreads, null, powerFinder, matrixSolver, new AParamGenerator02(wantedQCount), new CongruenceCollector01(10), reuseThreads, useCollectorThread);
 	}
 
 	@Override
@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2024 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -16,6 +16,7 @@ package de.tilman_neumann.jml.factor.psiqs;
 import static de.tilman_neumann.jml.factor.base.GlobalFactoringOptions.*;
 import static de.tilman_neumann.jml.base.BigIntConstants.*;
 
+import java.io.File;
 import java.math.BigInteger;
 
 import org.apache.logging.log4j.Logger;
@@ -30,14 +31,19 @@ import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollectorReport;
 import de.tilman_neumann.jml.factor.base.matrixSolver.FactorTest;
 import de.tilman_neumann.jml.factor.base.matrixSolver.FactorTest01;
 import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolver;
+import de.tilman_neumann.jml.factor.siqs.CheckpointCongruenceCollector;
 import de.tilman_neumann.jml.factor.siqs.KnuthSchroeppel;
 import de.tilman_neumann.jml.factor.siqs.ModularSqrtsEngine;
+import de.tilman_neumann.jml.factor.siqs.SIQSMetrics;
 import de.tilman_neumann.jml.factor.siqs.data.BaseArrays;
 import de.tilman_neumann.jml.factor.siqs.poly.AParamGenerator;
+import de.tilman_neumann.jml.factor.siqs.poly.PartitionedAParamGenerator;
 import de.tilman_neumann.jml.factor.siqs.poly.PolyReport;
 import de.tilman_neumann.jml.factor.siqs.powers.PowerFinder;
 import de.tilman_neumann.jml.factor.siqs.sieve.SieveParams;
 import de.tilman_neumann.jml.factor.siqs.sieve.SieveParamsFactory02;
+import de.tilman_neumann.jml.factor.siqs.tuning.SIQSParameterProvider;
+import de.tilman_neumann.jml.factor.siqs.tuning.SIQSParameters;
 import de.tilman_neumann.jml.factor.siqs.sieve.SieveReport;
 import de.tilman_neumann.jml.factor.siqs.tdiv.TDivReport;
 import de.tilman_neumann.jml.powers.PurePowerTest;
@@ -82,6 +88,16 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 	protected MatrixSolver matrixSolver;
 	
 	protected PowerFinder powerFinder;
+	
+	/** If true then the worker threads are kept alive and reused for the next N */
+	private boolean reuseThreads;
+	/** If true then a dedicated thread feeds the congruence collector, so that sieve threads never block on it */
+	private boolean useCollectorThread;
+	private PSIQSThreadBase[] threadPool;
+	/** runtime progress metrics, or null */
+	private SIQSMetrics metrics;
+	/** provider of tuned parameters, or null */
+	private SIQSParameterProvider parameterProvider;
 
 	// statistics
 	private Timer timer = new Timer();
@@ -96,8 +112,30 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 	 * @param powerFinder algorithm to add powers to the primes used for sieving
 	 * @param matrixSolver solver for smooth congruences matrix
 	 * @param apg a-parameter generator
+	 * @param cc congruence collector, also runs the matrix solver
 	 */
 	public PSIQSBase(float Cmult, float Mmult, int numberOfThreads, Integer d, PowerFinder powerFinder, MatrixSolver matrixSolver, AParamGenerator apg, CongruenceCollector cc) {
+		this(Cmult, Mmult, numberOfThreads, d, powerFinder, matrixSolver, apg, cc, false, false);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param Cmult multiplier for prime base size
+	 * @param Mmult multiplier for sieve array size
+	 * @param numberOfThreads
+	 * @param d the d-parameter of quadratic polynomials Q(x) = (d*a*x + b)^2 - kN; may be null for automatic derivation
+	 * @param powerFinder algorithm to add powers to the primes used for sieving
+	 * @param matrixSolver solver for smooth congruences matrix
+	 * @param apg a-parameter generator
+	 * @param cc congruence collector, also runs the matrix solver
+	 * @param reuseThreads if true then the worker threads and their sieve, tdiv and polynomial generator objects are kept
+	 *        alive and reused for many N. This removes the thread creation costs for each N, but cleanUp() must be called
+	 *        when the algorithm is not needed anymore, to terminate the threads and release native memory.
+	 * @param useCollectorThread if true then the sieve threads pass their AQ-pairs to a lock-free queue, and a dedicated thread
+	 *        does the collecting, cycle finding and matrix solving. Otherwise each sieve thread feeds the congruence collector
+	 *        in a block synchronized on it.
+	 */
+	public PSIQSBase(float Cmult, float Mmult, int numberOfThreads, Integer d, PowerFinder powerFinder, MatrixSolver matrixSolver, AParamGenerator apg, CongruenceCollector cc, boolean reuseThreads, boolean useCollectorThread) {
 		
 		super(null);
 		
@@ -110,6 +148,49 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 		this.matrixSolver = matrixSolver;
 		this.apg = apg;
 		this.multiplierFinder = new KnuthSchroeppel();
+		this.reuseThreads = reuseThreads;
+		this.useCollectorThread = useCollectorThread;
+	}
+
+	/**
+	 * Let the relations collected for each N be written to a relation file in the given directory,
+	 * such that an interrupted factorization of the same N can be resumed instead of starting over.
+	 * @param directory directory for relation files
+	 * @param checkpointIntervalMillis the time between two checkpoints
+	 */
+	public void enableCheckpoints(File directory, long checkpointIntervalMillis) {
+		this.congruenceCollector = new CheckpointCongruenceCollector(congruenceCollector, apg, directory, checkpointIntervalMillis);
+	}
+
+	/**
+	 * Let this instance sieve only a partition of the a-parameters, such that several processes with distinct partIndex
+	 * and the same partCount can sieve the same N without producing duplicate relations.
+	 * Combined with enableCheckpoints() and a SieveOnlyCongruenceCollector, this is a relation sieving worker
+	 * whose relation file can be merged with those of the other workers by a RelationMerger.
+	 * Must be called before enableCheckpoints(), because the checkpoints need to synchronize on the final a-parameter generator.
+	 * @param partIndex 0 <= partIndex < partCount
+	 * @param partCount the number of partitions
+	 */
+	public void setAParameterPartition(int partIndex, int partCount) {
+		if (congruenceCollector instanceof CheckpointCongruenceCollector) throw new IllegalStateException("setAParameterPartition() must be called before enableCheckpoints()");
+		this.apg = new PartitionedAParamGenerator(apg, partIndex, partCount);
+	}
+
+	/**
+	 * Enable runtime progress metrics.
+	 * @param metrics the metrics object to update, or null to disable metrics
+	 */
+	public void setMetrics(SIQSMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Set a source of tuned parameters, like a SIQSTuningTable or a SIQSAutoTuner.
+	 * If set, its Cmult, Mmult and sieve exponents override those passed to the constructor.
+	 * @param parameterProvider the parameter provider, or null to use the constructor arguments
+	 */
+	public void setParameterProvider(SIQSParameterProvider parameterProvider) {
+		this.parameterProvider = parameterProvider;
 	}
 
 	abstract public String getName();
@@ -147,6 +228,7 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 	/**
 	 * Test the current N.
 	 * @return factor, or null if no factor was found.
+	 * @throws IllegalStateException if the a-parameter generator found no unused a-parameters, which may happen for N that are too small for PSIQS
 	 */
 	@Override
 	public BigInteger findSingleFactor(BigInteger N) {
@@ -178,10 +260,12 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 		// Here we estimate the number of entries instead of the largest element in the prime base,
 		// with Cmult instead of the constant 0.5. A good value is Cmult = 0.32.
 		int NBits = N.bitLength();
+		SIQSParameters parameters = SIQSParameters.createDefault(NBits, Cmult, Mmult);
+		if (parameterProvider != null) parameters = parameterProvider.getParameters(NBits, parameters);
 		double N_dbl = N.doubleValue();
 		double lnN = Math.log(N_dbl);
 		double lnTerm = Math.sqrt(lnN * Math.log(lnN)); // (lnN)^0.5 * (lnlnN)^(1-0.5)
-		double primeBaseSize_dbl = Math.exp(Cmult * lnTerm);
+		double primeBaseSize_dbl = Math.exp(parameters.Cmult * lnTerm);
 		if (primeBaseSize_dbl > Integer.MAX_VALUE) {
 			// For Cmult=0.32 this condition takes effect at 996 bits; but long before we will get memory issues
 			LOG.error("N=" + N + " (" + NBits + " bits) is too big for SIQS!");
@@ -189,6 +273,9 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 		}
 		int primeBaseSize = Math.max(30, (int) primeBaseSize_dbl); // min. size for very small N
 		int[] primesArray = new int[primeBaseSize];
+		int[] kNModPArray = new int[primeBaseSize];
+		float[] lnPArray = new float[primeBaseSize];
+		long[] pinvArrayL = new long[primeBaseSize];
 
 		// compute Knuth-Schroppel multiplier
 		int k = multiplierFinder.computeMultiplier(N);
@@ -209,15 +296,15 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 		}
 		if (DEBUG) LOG.debug("d = " + d);
 		
-		// Create the reduced prime base for kN:
-		primeBaseBuilder.computeReducedPrimeBase(kN, primeBaseSize, primesArray);
+		// Create the reduced prime base for kN; ln(p) and the reciprocals of primes are taken from the prime base cache
+		primeBaseBuilder.computeReducedPrimeBase(kN, primeBaseSize, primesArray, kNModPArray, lnPArray, pinvArrayL);
 		
-		// Compute the t with t^2 == kN (mod p) for all p: Throws a FactorException if some p divides N
-		int[] tArray = modularSqrtsEngine.computeTArray(primesArray, primeBaseSize, kN);
+		// Compute the t with t^2 == kN (mod p) for all p
+		int[] tArray = modularSqrtsEngine.computeTArray(primesArray, kNModPArray, primeBaseSize);
 
 		// compute sieve array size, a multiple of 256
 		int pMax = primesArray[primeBaseSize-1];
-		long proposedSieveArraySize = 6144 + (long) Math.exp(Mmult * lnTerm); // 6144 = best experimental result for small N
+		long proposedSieveArraySize = 6144 + (long) Math.exp(parameters.Mmult * lnTerm); // 6144 = best experimental result for small N
 		if (proposedSieveArraySize+pMax > Integer.MAX_VALUE) { // this might happen at N with ~ 650 bit or later
 			LOG.error("N=" + N + " (" + NBits + " bits) is too big for SIQS!");
 			return null;
@@ -232,32 +319,33 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 		congruenceCollector.initialize(N, primeBaseSize, matrixSolver, factorTest);
 
 		// compute some basic parameters for N
-		SieveParams sieveParams = SieveParamsFactory02.create(N_dbl, NBits, kN, d, primesArray, primeBaseSize, adjustedSieveArraySize, apg.getQCount(), apg.getBestQ());
+		SieveParams sieveParams = SieveParamsFactory02.create(N_dbl, NBits, kN, d, primesArray, primeBaseSize, adjustedSieveArraySize, apg.getQCount(), apg.getBestQ(),
+				parameters.sieveHitExponent, parameters.tdivTestExponent);
 		
 		// compute logP array
-		byte[] logPArray = computeLogPArray(primesArray, primeBaseSize, sieveParams.lnPMultiplier);
-		// compute reciprocals of primes
-		long[] pinvArrayL = new long[primeBaseSize];
-		for (int i=primeBaseSize-1; i>=0; i--) {
-			pinvArrayL[i] = (1L<<32) / primesArray[i];
-		}
+		byte[] logPArray = computeLogPArray(lnPArray, primeBaseSize, sieveParams.lnPMultiplier);
 
 		// Find and add powers to the prime base
 		BaseArrays baseArrays = powerFinder.addPowers(kN, primesArray, tArray, logPArray, pinvArrayL, primeBaseSize, sieveParams);
 		if (ANALYZE) initNDuration += timer.capture();
+		long sieveStartNanos = System.nanoTime();
+		if (metrics != null) metrics.startN(N, congruenceCollector, primeBaseSize);
 
 		// Create and run threads: This is among the most expensive parts for N<=180 bit,
 		// much more expensive than all the other initializations for a new N.
-		PSIQSThreadBase[] threadArray = new PSIQSThreadBase[numberOfThreads];
-		for (int threadIndex=0; threadIndex<numberOfThreads; threadIndex++) {
-			threadArray[threadIndex] = createThread(k, N, kN, d, sieveParams, baseArrays, apg, congruenceCollector, threadIndex);
-			threadArray[threadIndex].start();
+		// In pooled mode this is done only once; for further N the idle threads are re-initialized in place.
+		CongruenceCollectorThread collectorThread = null;
+		if (useCollectorThread) {
+			collectorThread = new CongruenceCollectorThread(congruenceCollector);
+			collectorThread.start();
 		}
+		PSIQSThreadBase[] threadArray = reuseThreads ? startPooledThreads(k, N, kN, d, sieveParams, baseArrays, collectorThread) : startNewThreads(k, N, kN, d, sieveParams, baseArrays, collectorThread);
 		if (ANALYZE) createThreadDuration += timer.capture();
 
-		// Wait until a factor has been found. For small N, a factor may be found before the control thread waits!
+		// Wait until a factor has been found or some thread failed. For small N, a factor may be found before the control thread waits!
+		RuntimeException failure = null;
 		synchronized (congruenceCollector) {
-			while (congruenceCollector.getFactor() == null) {
+			while (congruenceCollector.getFactor() == null && (failure = getFailure(threadArray)) == null) {
 				try {
 					congruenceCollector.wait(); // is woken up by notify() when a factor was found
 					//LOG.debug("Control thread got notified...");
@@ -268,28 +356,105 @@ abstract public class PSIQSBase extends FactorAlgorithm {
 		}
 
 		BigInteger factor = congruenceCollector.getFactor();
+		if (collectorThread != null) collectorThread.finish();
+		
+		if (reuseThreads) {
+			// stop all threads but keep them and their memory for the next N
+			for (int threadIndex=0; threadIndex<numberOfThreads; threadIndex++) {
+				threadArray[threadIndex].finishAndWaitUntilIdle();
+			}
+		}
 		
 		if (ANALYZE) logResults(N, k, kN, factor, primeBaseSize, sieveParams, threadArray, numberOfThreads);
+		if (metrics != null) metrics.finishN();
+		if (parameterProvider != null && failure == null) parameterProvider.reportResult(NBits, parameters, (System.nanoTime() - sieveStartNanos) / 1000000);
 		
-		// kill all threads & release memory
-		long killStart = System.currentTimeMillis();
-		for (int threadIndex=0; threadIndex<numberOfThreads; threadIndex++) {
-			killThread(threadArray[threadIndex]);
-			threadArray[threadIndex].cleanUp(); // e.g. let sieve release native memory !
-			threadArray[threadIndex] = null;
+		if (!reuseThreads) {
+			// kill all threads & release memory
+			long killStart = System.currentTimeMillis();
+			for (int threadIndex=0; threadIndex<numberOfThreads; threadIndex++) {
+				killThread(threadArray[threadIndex]);
+				threadArray[threadIndex].cleanUp(); // e.g. let sieve release native memory !
+				threadArray[threadIndex] = null;
+			}
+			if (DEBUG) LOG.debug("Killing threads took " + (System.currentTimeMillis()-killStart) + "ms"); // usually 0-16 ms, no problem
 		}
-		if (DEBUG) LOG.debug("Killing threads took " + (System.currentTimeMillis()-killStart) + "ms"); // usually 0-16 ms, no problem
 		apg.cleanUp();
 		congruenceCollector.cleanUp();
 		matrixSolver.cleanUp();
+		if (failure != null) throw failure;
 		// done
 		return factor;
 	}
 	
-	private byte[] computeLogPArray(int[] primesArray, int primeBaseSize, float lnPMultiplier) {
+	private RuntimeException getFailure(PSIQSThreadBase[] threadArray) {
+		for (PSIQSThreadBase t : threadArray) {
+			RuntimeException failure = t.getFailure();
+			if (failure != null) return failure;
+		}
+		return null;
+	}
+	
+	private PSIQSThreadBase[] startNewThreads(int k, BigInteger N, BigInteger kN, int d, SieveParams sieveParams, BaseArrays baseArrays, CongruenceCollectorThread collectorThread) {
+		PSIQSThreadBase[] threadArray = new PSIQSThreadBase[numberOfThreads];
+		for (int threadIndex=0; threadIndex<numberOfThreads; threadIndex++) {
+			threadArray[threadIndex] = createThread(k, N, kN, d, sieveParams, baseArrays, apg, congruenceCollector, threadIndex);
+			threadArray[threadIndex].setCollectorThread(collectorThread);
+			threadArray[threadIndex].setMetrics(metrics != null ? metrics.registerThread(threadArray[threadIndex].getName()) : null);
+			threadArray[threadIndex].start();
+		}
+		return threadArray;
+	}
+	
+	private PSIQSThreadBase[] startPooledThreads(int k, BigInteger N, BigInteger kN, int d, SieveParams sieveParams, BaseArrays baseArrays, CongruenceCollectorThread collectorThread) {
+		if (threadPool == null) {
+			// first N: create the pool. Daemon threads do not prevent JVM termination if cleanUp() is never called.
+			threadPool = new PSIQSThreadBase[numberOfThreads];
+			for (int threadIndex=0; threadIndex<numberOfThreads; threadIndex++) {
+				PSIQSThreadBase t = createThread(k, N, kN, d, sieveParams, baseArrays, apg, congruenceCollector, threadIndex);
+				t.setKeepAlive(true);
+				t.setDaemon(true);
+				t.setCollectorThread(collectorThread);
+				t.setMetrics(metrics != null ? metrics.registerThread(t.getName()) : null);
+				threadPool[threadIndex] = t;
+				t.start();
+			}
+		} else {
+			// the threads are idle -> re-initialize their sub-algorithms in place and let them start again
+			for (int threadIndex=0; threadIndex<numberOfThreads; threadIndex++) {
+				PSIQSThreadBase t = threadPool[threadIndex];
+				t.initializeForN(k, N, kN, d, sieveParams, baseArrays, apg, congruenceCollector);
+				t.setCollectorThread(collectorThread);
+				t.setMetrics(metrics != null ? metrics.registerThread(t.getName()) : null);
+				t.startNextN();
+			}
+		}
+		return threadPool;
+	}
+
+	/**
+	 * Terminate pooled threads and release their memory.
+	 * Only needed if this algorithm has been created with reuseThreads=true.
+	 */
+	public void cleanUp() {
+		if (threadPool == null) return;
+		for (int threadIndex=0; threadIndex<numberOfThreads; threadIndex++) {
+			PSIQSThreadBase t = threadPool[threadIndex];
+			t.shutdown();
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				if (DEBUG) LOG.debug("thread " + t.getName() + " interrupted main thread");
+			}
+			t.cleanUp(); // let sieve release native memory
+		}
+		threadPool = null;
+	}
+	
+	private byte[] computeLogPArray(float[] lnPArray, int primeBaseSize, float lnPMultiplier) {
 		byte[] logPArray = new byte[primeBaseSize];
 		for (int i=primeBaseSize-1; i>=0; i--) {
-			logPArray[i] = (byte) ((float) Math.log(primesArray[i]) * lnPMultiplier + 0.5F);
+			logPArray[i] = (byte) (lnPArray[i] * lnPMultiplier + 0.5F);
 		}
 		return logPArray;
 	}
@@ -14,6 +14,7 @@
 package de.tilman_neumann.jml.factor.psiqs;
 
 import java.math.BigInteger;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.logging.log4j.Logger;
@@ -21,6 +22,7 @@ import org.apache.logging.log4j.LogManager;
 
 import de.tilman_neumann.jml.factor.base.congruence.AQPair;
 import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollector;
+import de.tilman_neumann.jml.factor.siqs.SIQSMetrics;
 import de.tilman_neumann.jml.factor.siqs.data.BaseArrays;
 import de.tilman_neumann.jml.factor.siqs.poly.AParamGenerator;
 import de.tilman_neumann.jml.factor.siqs.poly.SIQSPolyGenerator;
@@ -44,7 +46,18 @@ abstract public class PSIQSThreadBase extends Thread {
 	protected Sieve sieve;
 	protected TDiv_QS auxFactorizer;
 	private CongruenceCollector congruenceCollector;
-	private boolean finishNow = false;
+	/** if not null then AQ-pairs are passed to this thread instead of feeding the congruence collector directly */
+	private CongruenceCollectorThread collectorThread;
+	private volatile boolean finishNow = false;
+	/** the exception that stopped this thread from working on the current N, or null */
+	private volatile RuntimeException failure = null;
+	/** runtime progress metrics of this thread, or null */
+	private SIQSMetrics.ThreadMetrics metrics;
+	
+	// pooled mode: if keepAlive is true then the thread does not terminate after a factor was found but waits for the next N
+	private boolean keepAlive = false;
+	private boolean hasJob = true;
+	private boolean shutdown = false;
 
 	/**
 	 * Standard constructor.
@@ -73,6 +86,28 @@ abstract public class PSIQSThreadBase extends Thread {
 		this.polyGenerator = polyGenerator;
 		this.sieve = sieve;
 		this.auxFactorizer = tdiv;
+		
+		initializeForN(k, N, kN, d, sieveParams, baseArrays, apg, cc);
+	}
+	
+	/**
+	 * Initialize the sub-algorithms of this thread for a new N.
+	 * In pooled mode this is called by the control thread while this thread is idle,
+	 * so that the poly generator, sieve and tdiv objects can be reused for many N.
+	 * 
+	 * @param k multiplier
+	 * @param N factor argument
+	 * @param kN k*N
+	 * @param d the d-parameter of quadratic polynomials Q(x) = (d*a*x + b)^2 - kN
+	 * @param sieveParams basic sieve parameters
+	 * @param baseArrays primes, power arrays after adding powers
+	 * @param apg a-parameter generator
+	 * @param cc congruence collector, also runs the matrix solver
+	 */
+	public void initializeForN(
+			int k, BigInteger N, BigInteger kN, int d, SieveParams sieveParams, 
+			BaseArrays baseArrays, AParamGenerator apg, CongruenceCollector cc) {
+		
 		this.congruenceCollector = cc;
 		
 		// initialize polynomial generator and sub-engines
@@ -81,20 +116,58 @@ abstract public class PSIQSThreadBase extends Thread {
 	}
 	
 	public void run() {
+		while (true) {
+			try {
+				sieveUntilFinished();
+			} catch (RuntimeException e) {
+				// e.g. the a-parameter generator found no unused a-parameters -> let the control thread stop waiting for a factor
+				failure = e;
+				synchronized (congruenceCollector) {
+					congruenceCollector.notify();
+				}
+			}
+			if (!keepAlive) return;
+			
+			// pooled mode: report that we are idle and wait for the next N
+			synchronized (this) {
+				hasJob = false;
+				notifyAll();
+				while (!hasJob && !shutdown) {
+					try {
+						wait();
+					} catch (InterruptedException ie) {
+						// ignore
+					}
+				}
+				if (shutdown) return;
+			}
+		}
+	}
+	
+	private void sieveUntilFinished() {
 		while (!finishNow) {
 			// create new polynomial Q(x)
 			polyGenerator.nextPolynomial();
 			
 			// run sieve and get the sieve locations x where Q(x) is sufficiently smooth
+			long t0 = metrics != null ? System.nanoTime() : 0;
 			SieveResult smoothCandidates = sieve.sieve();
 			if (DEBUG) LOG.debug("Sieve found " + smoothCandidates.size() + " Q(x) smooth enough to be passed to trial division: " + smoothCandidates);
 			
+			long t1 = metrics != null ? System.nanoTime() : 0;
 			if (smoothCandidates.size() > 0) {
 				// trial division stage: produce AQ-pairs
 				List<AQPair> aqPairs = auxFactorizer.testList(smoothCandidates);
 				if (DEBUG) LOG.debug("Trial division found " + aqPairs.size() + " Q(x) smooth enough for a congruence.");
+				if (metrics != null) metrics.addPolynomial(t1-t0, System.nanoTime()-t1, aqPairs);
 	
 				if (aqPairs.size() > 0) {
+					if (collectorThread != null) {
+						// lock-free hand-over; the collector thread notifies the control thread when a factor was found
+						collectorThread.add(aqPairs);
+						continue;
+					}
+					
 					// add all congruences synchronized and notify control thread
 					synchronized (congruenceCollector) {
 						if (congruenceCollector.getFactor() == null) {
@@ -107,13 +180,82 @@ abstract public class PSIQSThreadBase extends Thread {
 						}
 					}
 				}
+			} else if (metrics != null) {
+				metrics.addPolynomial(t1-t0, 0, Collections.emptyList());
 			}
 		}
 	}
 
+	/**
+	 * Set the runtime metrics counters of this thread, or null to disable metrics.
+	 * Must be called before the thread is started for the current N.
+	 * @param metrics
+	 */
+	public void setMetrics(SIQSMetrics.ThreadMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	public void setFinishNow() {
 		finishNow = true;
 	}
+	
+	/**
+	 * @return the exception that stopped this thread from working on the current N, or null
+	 */
+	public RuntimeException getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Set the thread that collects AQ-pairs, or null to let this thread feed the congruence collector itself.
+	 * Must be called before the thread is started for the current N.
+	 * @param collectorThread
+	 */
+	public void setCollectorThread(CongruenceCollectorThread collectorThread) {
+		this.collectorThread = collectorThread;
+	}
+
+	/**
+	 * Let this thread wait for a new N after a factor has been found instead of terminating.
+	 * Must be called before the thread is started.
+	 * @param keepAlive
+	 */
+	public void setKeepAlive(boolean keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+	
+	/**
+	 * Pooled mode: Stop working on the current N and block until this thread is idle.
+	 */
+	public synchronized void finishAndWaitUntilIdle() {
+		finishNow = true;
+		while (hasJob) {
+			try {
+				wait();
+			} catch (InterruptedException ie) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Pooled mode: Start working on a new N. initializeForN() must have been called before.
+	 */
+	public synchronized void startNextN() {
+		finishNow = false;
+		failure = null;
+		hasJob = true;
+		notifyAll();
+	}
+	
+	/**
+	 * Pooled mode: Let the idle thread terminate.
+	 */
+	public synchronized void shutdown() {
+		finishNow = true;
+		shutdown = true;
+		notifyAll();
+	}
 
 	public void cleanUp() {
 		polyGenerator.cleanUp();
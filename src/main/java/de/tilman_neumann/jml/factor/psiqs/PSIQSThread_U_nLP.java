@@ -40,12 +40,13 @@ public class PSIQSThread_U_nLP extends PSIQSThreadBase {
 	 * @param apg
 	 * @param cc congruence collector, also runs the matrix solver
 	 * @param threadIndex
+	 * @param batchCofactorization if true then composite QRests are tested for smoothness in batches
 	 */
 	public PSIQSThread_U_nLP(
 			int k, BigInteger N, BigInteger kN, int d, SieveParams sieveParams, BaseArrays baseArrays,
-			AParamGenerator apg, CongruenceCollector cc, int threadIndex) {
+			AParamGenerator apg, CongruenceCollector cc, int threadIndex, boolean batchCofactorization) {
 		
 		super(k, N, kN, d, sieveParams, baseArrays, apg, new SIQSPolyGenerator(), new Sieve03hU(),
-			  new TDiv_QS_nLP(true), cc, threadIndex);
+			  new TDiv_QS_nLP(true, batchCofactorization), cc, threadIndex);
 	}
 }
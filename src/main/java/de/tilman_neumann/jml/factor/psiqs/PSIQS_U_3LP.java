@@ -42,7 +42,21 @@ public class PSIQS_U_3LP extends PSIQSBase {
 	 * @param matrixSolver solver for smooth congruences matrix
 	 */
 	public PSIQS_U_3LP(float Cmult, float Mmult, Integer wantedQCount, int numberOfThreads, PowerFinder powerFinder, MatrixSolver matrixSolver) {
-		super(Cmult, Mmult, numberOfThreads, null, powerFinder, matrixSolver, new AParamGenerator02(wantedQCount), new CongruenceCollector03(10));
+		this(Cmult, Mmult, wantedQCount, numberOfThreads, powerFinder, matrixSolver, new CongruenceCollector03(10));
+	}
+
+	/**
+	 * Full constructor.
+	 * @param Cmult multiplier for prime base size
+	 * @param Mmult multiplier for sieve array size
+	 * @param wantedQCount hypercube dimension (null for automatic selection)
+	 * @param numberOfThreads
+	 * @param powerFinder algorithm to add powers to the primes used for sieving
+	 * @param matrixSolver solver for smooth congruences matrix
+	 * @param cc congruence collector, e.g. CongruenceCollector03 or CongruenceCollector04
+	 */
+	public PSIQS_U_3LP(float Cmult, float Mmult, Integer wantedQCount, int numberOfThreads, PowerFinder powerFinder, MatrixSolver matrixSolver, CongruenceCollector cc) {
+		super(Cmult, Mmult, numberOfThreads, null, powerFinder, matrixSolver, new AParamGenerator02(wantedQCount), cc);
 	}
 
 	@Override
@@ -32,6 +32,8 @@ import de.tilman_neumann.jml.factor.siqs.sieve.SieveParams;
  */
 public class PSIQS_U_nLP extends PSIQSBase {
 
+	private boolean batchCofactorization;
+
 	/**
 	 * Standard constructor.
 	 * @param Cmult multiplier for prime base size
@@ -42,12 +44,42 @@ public class PSIQS_U_nLP extends PSIQSBase {
 	 * @param matrixSolver solver for smooth congruences matrix
 	 */
 	public PSIQS_U_nLP(float Cmult, float Mmult, Integer wantedQCount, int numberOfThreads, PowerFinder powerFinder, MatrixSolver matrixSolver) {
-		super(Cmult, Mmult, numberOfThreads, null, powerFinder, matrixSolver, new AParamGenerator02(wantedQCount), new CongruenceCollector03(10));
+		this(Cmult, Mmult, wantedQCount, numberOfThreads, powerFinder, matrixSolver, new CongruenceCollector03(10));
+	}
+
+	/**
+	 * Constructor without batch cofactorization.
+	 * @param Cmult multiplier for prime base size
+	 * @param Mmult multiplier for sieve array size
+	 * @param wantedQCount hypercube dimension (null for automatic selection)
+	 * @param numberOfThreads
+	 * @param powerFinder algorithm to add powers to the primes used for sieving
+	 * @param matrixSolver solver for smooth congruences matrix
+	 * @param cc congruence collector, e.g. CongruenceCollector03 or CongruenceCollector04
+	 */
+	public PSIQS_U_nLP(float Cmult, float Mmult, Integer wantedQCount, int numberOfThreads, PowerFinder powerFinder, MatrixSolver matrixSolver, CongruenceCollector cc) {
+		this(Cmult, Mmult, wantedQCount, numberOfThreads, powerFinder, matrixSolver, cc, false);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param Cmult multiplier for prime base size
+	 * @param Mmult multiplier for sieve array size
+	 * @param wantedQCount hypercube dimension (null for automatic selection)
+	 * @param numberOfThreads
+	 * @param powerFinder algorithm to add powers to the primes used for sieving
+	 * @param matrixSolver solver for smooth congruences matrix
+	 * @param cc congruence collector, e.g. CongruenceCollector03 or CongruenceCollector04
+	 * @param batchCofactorization if true then the trial division engines test composite QRests for smoothness in batches, see TDiv_QS_nLP
+	 */
+	public PSIQS_U_nLP(float Cmult, float Mmult, Integer wantedQCount, int numberOfThreads, PowerFinder powerFinder, MatrixSolver matrixSolver, CongruenceCollector cc, boolean batchCofactorization) {
+		super(Cmult, Mmult, numberOfThreads, null, powerFinder, matrixSolver, new AParamGenerator02(wantedQCount), cc);
+		this.batchCofactorization = batchCofactorization;
 	}
 
 	@Override
 	public String getName() {
-		return "PSIQS_U_nLP(Cmult=" + Cmult + ", Mmult=" + Mmult + ", qCount=" + apg.getQCount() + ", " + powerFinder.getName() + ", " + matrixSolver.getName() + ", " + numberOfThreads + " threads)";
+		return "PSIQS_U_nLP" + (batchCofactorization ? "_batch" : "") + "(Cmult=" + Cmult + ", Mmult=" + Mmult + ", qCount=" + apg.getQCount() + ", " + powerFinder.getName() + ", " + matrixSolver.getName() + ", " + numberOfThreads + " threads)";
 	}
 
 	@Override
@@ -55,6 +87,6 @@ public class PSIQS_U_nLP extends PSIQSBase {
 			int k, BigInteger N, BigInteger kN, int d, SieveParams sieveParams, BaseArrays baseArrays,
 			AParamGenerator apg, CongruenceCollector cc, int threadIndex) {
 		
-		return new PSIQSThread_U_nLP(k, N, kN, d, sieveParams, baseArrays, apg, cc, threadIndex);
+		return new PSIQSThread_U_nLP(k, N, kN, d, sieveParams, baseArrays, apg, cc, threadIndex, batchCofactorization);
 	}
 }
@@ -0,0 +1,261 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.factor.base.congruence.AQPair;
+import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollector;
+import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollectorReport;
+import de.tilman_neumann.jml.factor.base.congruence.RelationFileReader;
+import de.tilman_neumann.jml.factor.base.congruence.RelationFileWriter;
+import de.tilman_neumann.jml.factor.base.congruence.Smooth;
+import de.tilman_neumann.jml.factor.base.matrixSolver.FactorTest;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolver;
+import de.tilman_neumann.jml.factor.siqs.poly.AParamGenerator;
+
+/**
+ * A congruence collector that writes all AQ-pairs passed to another congruence collector to a relation file,
+ * so that a SIQS or PSIQS run for the same N can be resumed after the JVM died.
+ * 
+ * Only elementary AQ-pairs are stored; smooths from partials are re-assembled when the relations are read again.
+ * From time to time a checkpoint record with the number of a-parameters computed so far is written.
+ * On initialization for an N that has a relation file, all relations up to the last checkpoint are fed into the congruence collector,
+ * and the a-parameter generator skips the a-parameters that have already been used.
+ * Relations after the last checkpoint might stem from a-parameters that are going to be skipped, but they are discarded to avoid duplicates.
+ * 
+ * The relation file is deleted when a factor has been found.
+ * 
+ * @author Tilman Neumann
+ */
+public class CheckpointCongruenceCollector implements CongruenceCollector {
+	private static final Logger LOG = LogManager.getLogger(CheckpointCongruenceCollector.class);
+	
+	/** the congruence collector doing the real work */
+	private CongruenceCollector congruenceCollector;
+	/** the a-parameter generator of the factoring algorithm; must be initialized before this congruence collector */
+	private AParamGenerator apg;
+	
+	private File directory;
+	private long checkpointIntervalMillis;
+
+	private File file;
+	private RelationFileWriter writer;
+	private long lastCheckpointTime;
+	
+	/**
+	 * Full constructor.
+	 * @param congruenceCollector the congruence collector that does the collecting and runs the matrix solver
+	 * @param apg the a-parameter generator used by the factoring algorithm
+	 * @param directory the directory where relation files are stored
+	 * @param checkpointIntervalMillis the time between two checkpoints
+	 */
+	public CheckpointCongruenceCollector(CongruenceCollector congruenceCollector, AParamGenerator apg, File directory, long checkpointIntervalMillis) {
+		this.congruenceCollector = congruenceCollector;
+		this.apg = apg;
+		this.directory = directory;
+		this.checkpointIntervalMillis = checkpointIntervalMillis;
+	}
+	
+	/**
+	 * @param N
+	 * @return the relation file for N
+	 */
+	public File getFile(BigInteger N) {
+		return new File(directory, "siqs-" + N + ".rel");
+	}
+	
+	@Override
+	public void initialize(BigInteger N, int primeBaseSize, MatrixSolver matrixSolver, FactorTest factorTest) {
+		congruenceCollector.initialize(N, primeBaseSize, matrixSolver, factorTest);
+		
+		file = getFile(N);
+		writer = null;
+		try {
+			if (!file.exists() || !resume(N, primeBaseSize)) {
+				writer = new RelationFileWriter(file, N, primeBaseSize);
+				writer.writeCheckpoint(0);
+			}
+		} catch (IOException e) {
+			LOG.error("Checkpointing to " + file + " failed, continue without checkpoints: " + e, e);
+			closeWriter();
+		}
+		lastCheckpointTime = System.currentTimeMillis();
+	}
+	
+	/**
+	 * Read the relations up to the last checkpoint from the relation file, feed them into the congruence collector,
+	 * skip the a-parameters used before, and open the relation file for appending.
+	 * @param N
+	 * @param primeBaseSize
+	 * @return true if the relation file could be used, false if it was created for another factoring problem
+	 * @throws IOException
+	 */
+	private boolean resume(BigInteger N, int primeBaseSize) throws IOException {
+		int relationCount = 0;
+		int aParamCount = 0;
+		long validLength;
+		RelationFileReader reader = new RelationFileReader(file);
+		try {
+			if (!reader.getN().equals(N) || reader.getPrimeBaseSize() != primeBaseSize) {
+				LOG.warn("Relation file " + file + " does not match the current parameters and will be overwritten");
+				return false;
+			}
+			validLength = reader.getValidLength();
+			ArrayList<AQPair> pendingAQPairs = new ArrayList<>();
+			byte tag;
+			while ((tag = reader.next()) != RelationFileReader.END && congruenceCollector.getFactor() == null) {
+				if (tag == RelationFileWriter.RELATION) {
+					pendingAQPairs.add(reader.getAQPair());
+				} else {
+					// CHECKPOINT: all relations read so far are valid
+					congruenceCollector.collectAndProcessAQPairs(pendingAQPairs);
+					relationCount += pendingAQPairs.size();
+					pendingAQPairs.clear();
+					aParamCount = reader.getCheckpointValue();
+					validLength = reader.getValidLength();
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		
+		apg.skipAParameters(aParamCount);
+		writer = new RelationFileWriter(file, validLength);
+		LOG.info("Resumed from " + file + ": " + relationCount + " relations, " + aParamCount + " a-parameters skipped");
+		return true;
+	}
+
+	@Override
+	public void setPrimeBaseSize(int newPrimeBaseSize) {
+		congruenceCollector.setPrimeBaseSize(newPrimeBaseSize);
+	}
+
+	@Override
+	public void collectAndProcessAQPairs(List<AQPair> aqPairs) {
+		if (writer != null) {
+			try {
+				for (AQPair aqPair : aqPairs) {
+					writer.writeAQPair(aqPair);
+				}
+				checkpointIfDue();
+			} catch (IOException e) {
+				LOG.error("Checkpointing to " + file + " failed, continue without checkpoints: " + e, e);
+				closeWriter();
+			}
+		}
+		congruenceCollector.collectAndProcessAQPairs(aqPairs);
+	}
+
+	@Override
+	public void collectAndProcessAQPair(AQPair aqPair) {
+		if (writer != null) {
+			try {
+				writer.writeAQPair(aqPair);
+				checkpointIfDue();
+			} catch (IOException e) {
+				LOG.error("Checkpointing to " + file + " failed, continue without checkpoints: " + e, e);
+				closeWriter();
+			}
+		}
+		congruenceCollector.collectAndProcessAQPair(aqPair);
+	}
+	
+	private void checkpointIfDue() throws IOException {
+		long now = System.currentTimeMillis();
+		if (now - lastCheckpointTime >= checkpointIntervalMillis) {
+			// All relations written so far stem from a-parameters that have been computed before.
+			// In PSIQS, other threads compute a-parameters synchronized on the generator.
+			int aParamCount;
+			synchronized (apg) {
+				aParamCount = apg.getAParameterCount();
+			}
+			writer.writeCheckpoint(aParamCount);
+			lastCheckpointTime = now;
+		}
+	}
+	
+	private void closeWriter() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				LOG.error("Closing " + file + " failed: " + e, e);
+			}
+			writer = null;
+		}
+	}
+
+	@Override
+	public int getSmoothCongruenceCount() {
+		return congruenceCollector.getSmoothCongruenceCount();
+	}
+
+	@Override
+	public Collection<Smooth> getSmoothCongruences() {
+		return congruenceCollector.getSmoothCongruences();
+	}
+
+	@Override
+	public int getPartialCongruenceCount() {
+		return congruenceCollector.getPartialCongruenceCount();
+	}
+
+	@Override
+	public BigInteger getFactor() {
+		return congruenceCollector.getFactor();
+	}
+
+	@Override
+	public CongruenceCollectorReport getReport() {
+		return congruenceCollector.getReport();
+	}
+
+	@Override
+	public long getCollectDuration() {
+		return congruenceCollector.getCollectDuration();
+	}
+
+	@Override
+	public long getSolverDuration() {
+		return congruenceCollector.getSolverDuration();
+	}
+
+	@Override
+	public int getSolverRunCount() {
+		return congruenceCollector.getSolverRunCount();
+	}
+
+	@Override
+	public int getTestedNullVectorCount() {
+		return congruenceCollector.getTestedNullVectorCount();
+	}
+
+	@Override
+	public void cleanUp() {
+		closeWriter();
+		// the relations are not needed anymore if we found a factor
+		if (file != null && congruenceCollector.getFactor() != null) file.delete();
+		file = null;
+		congruenceCollector.cleanUp();
+	}
+}
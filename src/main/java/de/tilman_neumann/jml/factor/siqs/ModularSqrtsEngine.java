@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2024 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -83,4 +83,28 @@ public class ModularSqrtsEngine {
 		}
 		return tArray;
 	}
+
+	/**
+	 * For all primes p in the prime base, find the modular sqrt's of kN (mod p), i.e. the t such that t^2 == kN (mod p),
+	 * using the kN (mod p) values that have already been computed together with the prime base.
+	 * 
+	 * @param primesArray
+	 * @param kNModPArray kN (mod p) for all p in the prime base
+	 * @param primeBaseSize
+	 * @return the array of modular sqrt's t with t^2 == kN (mod p) for all p of the prime base
+	 */
+	public int[] computeTArray(int[] primesArray, int[] kNModPArray, int primeBaseSize) {
+		int[] tArray = new int[primeBaseSize]; // zero-initialized
+		// p[0]=2: t = kN % 2
+		tArray[0] = kNModPArray[0];
+		// odd primes
+		for (int i = primeBaseSize-1; i>0; i--) {
+			int kN_mod_p = kNModPArray[i];
+			// kN_mod_p == 0 gives t = 0, see above
+			if (kN_mod_p > 0) {
+				tArray[i] = modularSqrtEngine.modularSqrt(kN_mod_p, primesArray[i]);
+			}
+		}
+		return tArray;
+	}
 }
@@ -0,0 +1,157 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.factor.base.congruence.AQPair;
+import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollector;
+import de.tilman_neumann.jml.factor.base.congruence.Partial;
+import de.tilman_neumann.jml.factor.base.congruence.RelationFileReader;
+import de.tilman_neumann.jml.factor.base.congruence.RelationFileWriter;
+import de.tilman_neumann.jml.factor.base.matrixSolver.FactorTest01;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolver;
+
+/**
+ * Merge, filter and linear algebra step for relation files written by several relation sieving processes,
+ * see PSIQSBase.setAParameterPartition().
+ * 
+ * The relations of all files are merged, duplicates are removed, and partials that can not be part of any cycle
+ * because one of their large factors occurs in no other partial are filtered out. The remaining relations are passed
+ * to a congruence collector that combines partials to smooths and runs the matrix solver.
+ * 
+ * @author Tilman Neumann
+ */
+public class RelationMerger {
+	private static final Logger LOG = LogManager.getLogger(RelationMerger.class);
+	private static final boolean DEBUG = false;
+
+	private CongruenceCollector congruenceCollector;
+	private MatrixSolver matrixSolver;
+	
+	/**
+	 * Full constructor.
+	 * @param congruenceCollector the congruence collector used to combine partials and run the matrix solver
+	 * @param matrixSolver e.g. MatrixSolverBlockLanczos
+	 */
+	public RelationMerger(CongruenceCollector congruenceCollector, MatrixSolver matrixSolver) {
+		this.congruenceCollector = congruenceCollector;
+		this.matrixSolver = matrixSolver;
+	}
+	
+	/**
+	 * Try to find a factor of N from the relations in the given files.
+	 * Files that are still being written can be read, too; incomplete records at their end are ignored.
+	 * 
+	 * @param N
+	 * @param relationFiles
+	 * @return a factor of N, or null if the relations do not suffice yet
+	 * @throws IOException if some file can not be read or does not belong to N, or if the files have different prime base sizes
+	 */
+	public BigInteger findFactor(BigInteger N, List<File> relationFiles) throws IOException {
+		// merge relation files; the set removes duplicates
+		LinkedHashSet<AQPair> aqPairs = new LinkedHashSet<>();
+		int primeBaseSize = -1;
+		int relationCount = 0;
+		for (File file : relationFiles) {
+			RelationFileReader reader = new RelationFileReader(file);
+			try {
+				if (!reader.getN().equals(N)) throw new IOException("Relation file " + file + " belongs to N=" + reader.getN());
+				if (primeBaseSize < 0) {
+					primeBaseSize = reader.getPrimeBaseSize();
+				} else if (reader.getPrimeBaseSize() != primeBaseSize) {
+					throw new IOException("Relation file " + file + " has prime base size " + reader.getPrimeBaseSize() + ", expected " + primeBaseSize);
+				}
+				byte tag;
+				while ((tag = reader.next()) != RelationFileReader.END) {
+					if (tag == RelationFileWriter.RELATION) {
+						aqPairs.add(reader.getAQPair());
+						relationCount++;
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		}
+		if (primeBaseSize < 0) return null; // no files
+		
+		// filter
+		ArrayList<AQPair> filteredAQPairs = removeSingletonPartials(aqPairs);
+		LOG.info("Merged " + relationFiles.size() + " relation files: " + relationCount + " relations, " + aqPairs.size() + " distinct, " + filteredAQPairs.size() + " after filtering");
+		
+		// combine partials and run the matrix solver
+		FactorTest01 factorTest = new FactorTest01(N);
+		matrixSolver.initialize(N, factorTest);
+		congruenceCollector.initialize(N, primeBaseSize, matrixSolver, factorTest);
+		congruenceCollector.collectAndProcessAQPairs(filteredAQPairs);
+		BigInteger factor = congruenceCollector.getFactor();
+		if (DEBUG) LOG.debug("#smooths = " + congruenceCollector.getSmoothCongruenceCount() + ", required = " + primeBaseSize + " -> factor = " + factor);
+		congruenceCollector.cleanUp();
+		matrixSolver.cleanUp();
+		return factor;
+	}
+	
+	/**
+	 * Remove partials having a large factor that occurs in no other partial, until no such partial is left.
+	 * @param aqPairs
+	 * @return list of smooths and remaining partials
+	 */
+	private ArrayList<AQPair> removeSingletonPartials(Iterable<AQPair> aqPairs) {
+		// count the partials containing each large factor
+		HashMap<Long, Integer> largeFactorCounts = new HashMap<>();
+		ArrayList<AQPair> result = new ArrayList<>();
+		for (AQPair aqPair : aqPairs) {
+			if (aqPair instanceof Partial) {
+				for (Long largeFactor : ((Partial) aqPair).getLargeFactorsWithOddExponent()) {
+					largeFactorCounts.merge(largeFactor, 1, Integer::sum);
+				}
+			}
+			result.add(aqPair);
+		}
+		
+		boolean removedSome;
+		do {
+			removedSome = false;
+			ArrayList<AQPair> remaining = new ArrayList<>(result.size());
+			for (AQPair aqPair : result) {
+				if (aqPair instanceof Partial && isSingleton((Partial) aqPair, largeFactorCounts)) {
+					for (Long largeFactor : ((Partial) aqPair).getLargeFactorsWithOddExponent()) {
+						largeFactorCounts.merge(largeFactor, -1, Integer::sum);
+					}
+					removedSome = true;
+				} else {
+					remaining.add(aqPair);
+				}
+			}
+			result = remaining;
+		} while (removedSome);
+		return result;
+	}
+	
+	private boolean isSingleton(Partial partial, HashMap<Long, Integer> largeFactorCounts) {
+		for (Long largeFactor : partial.getLargeFactorsWithOddExponent()) {
+			if (largeFactorCounts.get(largeFactor) < 2) return true;
+		}
+		return false;
+	}
+}
@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2025 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -16,6 +16,7 @@ package de.tilman_neumann.jml.factor.siqs;
 import static de.tilman_neumann.jml.factor.base.GlobalFactoringOptions.*;
 import static de.tilman_neumann.jml.base.BigIntConstants.*;
 
+import java.io.File;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +50,8 @@ import de.tilman_neumann.jml.factor.siqs.sieve.SieveReport;
 import de.tilman_neumann.jml.factor.siqs.sieve.SieveResult;
 import de.tilman_neumann.jml.factor.siqs.tdiv.TDivReport;
 import de.tilman_neumann.jml.factor.siqs.tdiv.TDiv_QS;
+import de.tilman_neumann.jml.factor.siqs.tuning.SIQSParameterProvider;
+import de.tilman_neumann.jml.factor.siqs.tuning.SIQSParameters;
 import de.tilman_neumann.jml.powers.PurePowerTest;
 import de.tilman_neumann.util.TimeUtil;
 import de.tilman_neumann.util.Timer;
@@ -81,6 +84,11 @@ public class SIQS extends FactorAlgorithm {
 	private CongruenceCollector congruenceCollector;
 	/** The solver used for smooth congruence equation systems. */
 	private MatrixSolver matrixSolver;
+	
+	/** runtime progress metrics, or null */
+	private SIQSMetrics metrics;
+	/** provider of tuned parameters, or null */
+	private SIQSParameterProvider parameterProvider;
 
 	private int foundPerfectSmoothCount;
 	private int allPerfectSmoothCount;
@@ -107,6 +115,25 @@ public class SIQS extends FactorAlgorithm {
 			float Cmult, float Mmult, Integer wantedQCount, PowerFinder powerFinder, SIQSPolyGenerator polyGenerator, Sieve sieve, 
 			TDiv_QS auxFactorizer, int extraCongruences, MatrixSolver matrixSolver) {
 		
+		this(Cmult, Mmult, wantedQCount, powerFinder, polyGenerator, sieve, auxFactorizer, new CongruenceCollector01(extraCongruences), matrixSolver);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param Cmult multiplier for prime base size
+	 * @param Mmult multiplier for sieve array size
+	 * @param wantedQCount the wanted number of q whose product gives the a-parameter
+	 * @param powerFinder algorithm to add powers to the primes used for sieving
+	 * @param polyGenerator
+	 * @param sieve the sieve algorithm
+	 * @param auxFactorizer
+	 * @param congruenceCollector the congruence collector, e.g. CongruenceCollector04 to keep the memory footprint small when lots of partials are collected
+	 * @param matrixSolver matrix solver for the smooth congruence equation system
+	 */
+	public SIQS(
+			float Cmult, float Mmult, Integer wantedQCount, PowerFinder powerFinder, SIQSPolyGenerator polyGenerator, Sieve sieve, 
+			TDiv_QS auxFactorizer, CongruenceCollector congruenceCollector, MatrixSolver matrixSolver) {
+		
 		super(null);
 		
 		this.Cmult = Cmult;
@@ -114,12 +141,39 @@ public class SIQS extends FactorAlgorithm {
 		this.powerFinder = powerFinder;
 		this.polyGenerator = polyGenerator;
 		this.sieve = sieve;
-		this.congruenceCollector = new CongruenceCollector01(extraCongruences);
+		this.congruenceCollector = congruenceCollector;
 		this.auxFactorizer = auxFactorizer;
 		this.matrixSolver = matrixSolver;
 		apg = new AParamGenerator02(wantedQCount);
 	}
 
+	/**
+	 * Let the relations collected for each N be written to a relation file in the given directory,
+	 * such that an interrupted factorization of the same N can be resumed instead of starting over.
+	 * @param directory directory for relation files
+	 * @param checkpointIntervalMillis the time between two checkpoints
+	 */
+	public void enableCheckpoints(File directory, long checkpointIntervalMillis) {
+		this.congruenceCollector = new CheckpointCongruenceCollector(congruenceCollector, apg, directory, checkpointIntervalMillis);
+	}
+
+	/**
+	 * Enable runtime progress metrics.
+	 * @param metrics the metrics object to update, or null to disable metrics
+	 */
+	public void setMetrics(SIQSMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Set a source of tuned parameters, like a SIQSTuningTable or a SIQSAutoTuner.
+	 * If set, its Cmult, Mmult and sieve exponents override those passed to the constructor.
+	 * @param parameterProvider the parameter provider, or null to use the constructor arguments
+	 */
+	public void setParameterProvider(SIQSParameterProvider parameterProvider) {
+		this.parameterProvider = parameterProvider;
+	}
+
 	@Override
 	public String getName() {
 		return "SIQS(Cmult=" + Cmult + ", Mmult=" + Mmult + ", qCount=" + apg.getQCount()+ ", " + powerFinder.getName() + ", " + polyGenerator.getName() + ", " + sieve.getName() + ", " + auxFactorizer.getName() + ", " + matrixSolver.getName() + ")";
@@ -189,10 +243,12 @@ public class SIQS extends FactorAlgorithm {
 		// Here we estimate the number of entries instead of the largest element in the prime base,
 		// with Cmult instead of the constant 0.5. A good value is Cmult = 0.32.
 		int NBits = N.bitLength();
+		SIQSParameters parameters = SIQSParameters.createDefault(NBits, Cmult, Mmult);
+		if (parameterProvider != null) parameters = parameterProvider.getParameters(NBits, parameters);
 		double N_dbl = N.doubleValue();
 		double lnN = Math.log(N_dbl);
 		double lnTerm = Math.sqrt(lnN * Math.log(lnN)); // (lnN)^0.5 * (lnlnN)^(1-0.5)
-		double primeBaseSize_dbl = Math.exp(Cmult * lnTerm);
+		double primeBaseSize_dbl = Math.exp(parameters.Cmult * lnTerm);
 		if (primeBaseSize_dbl > Integer.MAX_VALUE) {
 			// For Cmult=0.32 this condition takes effect at 996 bits; but long before we will get memory issues
 			LOG.error("N=" + N + " (" + NBits + " bits) is too big for SIQS!");
@@ -200,6 +256,9 @@ public class SIQS extends FactorAlgorithm {
 		}
 		int primeBaseSize = Math.max(30, (int) primeBaseSize_dbl); // min. size for very small N
 		int[] primesArray = new int[primeBaseSize];
+		int[] kNModPArray = new int[primeBaseSize];
+		float[] lnPArray = new float[primeBaseSize];
+		long[] pinvArrayL = new long[primeBaseSize];
 
 		// compute Knuth-Schroppel multiplier
 		int k = multiplierFinder.computeMultiplier(N);
@@ -215,15 +274,15 @@ public class SIQS extends FactorAlgorithm {
 		int d = ((kN.intValue() & 7) == 1) ? 2 : 1;
 		if (DEBUG) LOG.debug("d = " + d);
 
-		// Create the reduced prime base for kN:
-		primeBaseBuilder.computeReducedPrimeBase(kN, primeBaseSize, primesArray);
+		// Create the reduced prime base for kN; ln(p) and the reciprocals of primes are taken from the prime base cache
+		primeBaseBuilder.computeReducedPrimeBase(kN, primeBaseSize, primesArray, kNModPArray, lnPArray, pinvArrayL);
 		
-		// Compute the t with t^2 == kN (mod p) for all p: Throws a FactorException if some p divides N
-		int[] tArray = modularSqrtsEngine.computeTArray(primesArray, primeBaseSize, kN);
+		// Compute the t with t^2 == kN (mod p) for all p
+		int[] tArray = modularSqrtsEngine.computeTArray(primesArray, kNModPArray, primeBaseSize);
 		
 		// compute sieve array size, a multiple of 256
 		int pMax = primesArray[primeBaseSize-1];
-		long proposedSieveArraySize = 6144 + (long) Math.exp(Mmult * lnTerm); // 6144 = best experimental result for small N
+		long proposedSieveArraySize = 6144 + (long) Math.exp(parameters.Mmult * lnTerm); // 6144 = best experimental result for small N
 		if (proposedSieveArraySize+pMax > Integer.MAX_VALUE) { // this might happen at N with ~ 650 bit or later
 			LOG.error("N=" + N + " (" + NBits + " bits) is too big for SIQS!");
 			return null;
@@ -238,15 +297,11 @@ public class SIQS extends FactorAlgorithm {
 		congruenceCollector.initialize(N, primeBaseSize, matrixSolver, factorTest);
 
 		// compute some basic parameters for N
-		SieveParams sieveParams = SieveParamsFactory02.create(N_dbl, NBits, kN, d, primesArray, primeBaseSize, adjustedSieveArraySize, apg.getQCount(), apg.getBestQ());
+		SieveParams sieveParams = SieveParamsFactory02.create(N_dbl, NBits, kN, d, primesArray, primeBaseSize, adjustedSieveArraySize, apg.getQCount(), apg.getBestQ(),
+				parameters.sieveHitExponent, parameters.tdivTestExponent);
 		
 		// compute logP array
-		byte[] logPArray = computeLogPArray(primesArray, primeBaseSize, sieveParams.lnPMultiplier);
-		// compute reciprocals of primes
-		long[] pinvArrayL = new long[primeBaseSize];
-		for (int i=primeBaseSize-1; i>=0; i--) {
-			pinvArrayL[i] = (1L<<32) / primesArray[i];
-		}
+		byte[] logPArray = computeLogPArray(lnPArray, primeBaseSize, sieveParams.lnPMultiplier);
 
 		// Find and add powers to the prime base
 		BaseArrays baseArrays = powerFinder.addPowers(kN, primesArray, tArray, logPArray, pinvArrayL, primeBaseSize, sieveParams);
@@ -261,26 +316,39 @@ public class SIQS extends FactorAlgorithm {
 			allAQPairsCount = 0;
 		}
 		if (ANALYZE) initNDuration += timer.capture();
+		long sieveStartNanos = System.nanoTime();
+		SIQSMetrics.ThreadMetrics threadMetrics = null;
+		if (metrics != null) {
+			metrics.startN(N, congruenceCollector, primeBaseSize);
+			threadMetrics = metrics.registerThread(Thread.currentThread().getName());
+		}
 
 		while (true) {
 			// create new polynomial Q(x)
 			polyGenerator.nextPolynomial(); // sets filtered prime base in SIQS
 
 			// run sieve and get the sieve locations x where Q(x) is sufficiently smooth
+			long t0 = threadMetrics != null ? System.nanoTime() : 0;
 			SieveResult smoothCandidates = sieve.sieve();
 			if (DEBUG) LOG.debug("Sieve found " + smoothCandidates.size() + " Q(x) smooth enough to be passed to trial division: " + smoothCandidates);
 			
 			// trial division stage: produce AQ-pairs
+			long t1 = threadMetrics != null ? System.nanoTime() : 0;
 			List<AQPair> aqPairs = this.auxFactorizer.testList(smoothCandidates);
 			if (DEBUG) LOG.debug("Trial division found " + aqPairs.size() + " Q(x) smooth enough for a congruence.");
+			if (threadMetrics != null) threadMetrics.addPolynomial(t1-t0, System.nanoTime()-t1, aqPairs);
 			if (TEST_SIEVE) testSieve(aqPairs, adjustedSieveArraySize, kN);
 
 			if (aqPairs.size() > 0) {
-				// add all congruences
-				congruenceCollector.collectAndProcessAQPairs(aqPairs);
+				// add all congruences. The lock is not contended; it is needed because SIQSMetrics.getSnapshot() may read the collector from other threads.
+				synchronized (congruenceCollector) {
+					congruenceCollector.collectAndProcessAQPairs(aqPairs);
+				}
 				BigInteger factor = congruenceCollector.getFactor();
 				if (factor != null) {
 					if (ANALYZE) logResults(N, k, kN, factor, primeBaseSize, sieveParams);
+					if (metrics != null) metrics.finishN();
+					if (parameterProvider != null) parameterProvider.reportResult(NBits, parameters, (System.nanoTime() - sieveStartNanos) / 1000000);
 	
 					if (TEST_SIEVE) {
 						float perfectSmoothPercentage = foundPerfectSmoothCount*100 / (float) allPerfectSmoothCount;
@@ -304,10 +372,10 @@ public class SIQS extends FactorAlgorithm {
 		}
 	}
 
-	private byte[] computeLogPArray(int[] primesArray, int primeBaseSize, float lnPMultiplier) {
+	private byte[] computeLogPArray(float[] lnPArray, int primeBaseSize, float lnPMultiplier) {
 		byte[] logPArray = new byte[primeBaseSize];
 		for (int i=primeBaseSize-1; i>=0; i--) {
-			logPArray[i] = (byte) ((float) Math.log(primesArray[i]) * lnPMultiplier + 0.5F);
+			logPArray[i] = (byte) (lnPArray[i] * lnPMultiplier + 0.5F);
 		}
 		return logPArray;
 	}
@@ -0,0 +1,194 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.tilman_neumann.jml.factor.base.congruence.AQPair;
+import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollector;
+import de.tilman_neumann.jml.factor.base.congruence.Smooth;
+
+/**
+ * Runtime progress metrics for SIQS and PSIQS.
+ * 
+ * In contrast to the statistics controlled by GlobalFactoringOptions.ANALYZE, these metrics can be switched on at runtime
+ * by passing an instance of this class to SIQS.setMetrics() or PSIQSBase.setMetrics(). They are cheap enough to be always on:
+ * Each sieving thread only takes two timestamps per polynomial and updates its own counters.
+ * 
+ * The metrics can be polled by getSnapshot() from any thread, or pushed to a listener in regular intervals.
+ * 
+ * @author Tilman Neumann
+ */
+public class SIQSMetrics {
+
+	/**
+	 * The counters of a single sieving thread. They are only written by that thread.
+	 */
+	public static class ThreadMetrics {
+		private final String threadName;
+		private final SIQSMetrics parent;
+		private volatile long polynomialCount;
+		private volatile long sieveNanos;
+		private volatile long tdivNanos;
+		private volatile long smoothRelationCount;
+		private volatile long partialRelationCount;
+		
+		ThreadMetrics(String threadName, SIQSMetrics parent) {
+			this.threadName = threadName;
+			this.parent = parent;
+		}
+		
+		/**
+		 * Register the work done for one polynomial.
+		 * @param sieveNanos sieve duration in nanoseconds
+		 * @param tdivNanos trial division duration in nanoseconds
+		 * @param aqPairs the AQ-pairs found by trial division
+		 */
+		public void addPolynomial(long sieveNanos, long tdivNanos, List<AQPair> aqPairs) {
+			int smoothCount = 0;
+			for (AQPair aqPair : aqPairs) {
+				if (aqPair instanceof Smooth) smoothCount++;
+			}
+			// single writer -> no atomic operations needed
+			this.polynomialCount++;
+			this.sieveNanos += sieveNanos;
+			this.tdivNanos += tdivNanos;
+			this.smoothRelationCount += smoothCount;
+			this.partialRelationCount += aqPairs.size() - smoothCount;
+			parent.notifyListenerIfDue();
+		}
+	}
+	
+	private volatile SIQSMetricsListener listener;
+	private volatile long reportIntervalNanos;
+	private AtomicLong nextReportNanos = new AtomicLong();
+	
+	private volatile BigInteger N;
+	private volatile CongruenceCollector congruenceCollector;
+	private volatile int requiredCongruenceCount;
+	private volatile long startNanos;
+	private List<ThreadMetrics> threadMetrics = new CopyOnWriteArrayList<>();
+	/** the last snapshot of a finished N, after which the congruence collector may have been cleaned up */
+	private volatile SIQSMetricsSnapshot finalSnapshot;
+	
+	/**
+	 * Set a listener that gets a new snapshot at most every reportIntervalMillis milliseconds while sieving,
+	 * and a final snapshot when a factor has been found.
+	 * The listener is called by a sieving thread, so it should return quickly.
+	 * 
+	 * @param listener the listener, or null to remove it
+	 * @param reportIntervalMillis
+	 */
+	public void setListener(SIQSMetricsListener listener, long reportIntervalMillis) {
+		this.reportIntervalNanos = reportIntervalMillis * 1000000L;
+		this.listener = listener;
+	}
+	
+	/**
+	 * Start collecting metrics for a new N. Discards the metrics of the previous N.
+	 * @param N
+	 * @param congruenceCollector the congruence collector, from which the smooth and partial congruence counts are read
+	 * @param requiredCongruenceCount the approximate number of smooth congruences needed to find a factor, i.e. the prime base size
+	 */
+	public void startN(BigInteger N, CongruenceCollector congruenceCollector, int requiredCongruenceCount) {
+		threadMetrics.clear();
+		this.finalSnapshot = null;
+		this.N = N;
+		this.congruenceCollector = congruenceCollector;
+		this.requiredCongruenceCount = requiredCongruenceCount;
+		this.startNanos = System.nanoTime();
+		nextReportNanos.set(startNanos + reportIntervalNanos);
+	}
+	
+	/**
+	 * Register a sieving thread for the current N.
+	 * @param threadName
+	 * @return the counters the thread should update
+	 */
+	public ThreadMetrics registerThread(String threadName) {
+		ThreadMetrics metrics = new ThreadMetrics(threadName, this);
+		threadMetrics.add(metrics);
+		return metrics;
+	}
+	
+	/**
+	 * Freeze the metrics of the current N and notify the listener. Must be called before the congruence collector is cleaned up.
+	 */
+	public void finishN() {
+		SIQSMetricsSnapshot snapshot;
+		CongruenceCollector cc = congruenceCollector;
+		synchronized (cc) {
+			snapshot = getSnapshot();
+			finalSnapshot = snapshot;
+			congruenceCollector = null;
+		}
+		SIQSMetricsListener listener = this.listener;
+		if (listener != null) listener.metricsUpdated(snapshot);
+	}
+	
+	private void notifyListenerIfDue() {
+		SIQSMetricsListener listener = this.listener;
+		if (listener == null) return;
+		long now = System.nanoTime();
+		long next = nextReportNanos.get();
+		// only one thread wins the race for each report
+		if (now - next >= 0 && nextReportNanos.compareAndSet(next, now + reportIntervalNanos)) {
+			listener.metricsUpdated(getSnapshot());
+		}
+	}
+	
+	/**
+	 * @return a snapshot of the current metrics. Can be called from any thread.
+	 */
+	public SIQSMetricsSnapshot getSnapshot() {
+		SIQSMetricsSnapshot finalSnapshot = this.finalSnapshot;
+		if (finalSnapshot != null) return finalSnapshot;
+		
+		long elapsedNanos = System.nanoTime() - startNanos;
+		ThreadMetrics[] threads = threadMetrics.toArray(new ThreadMetrics[0]);
+		int threadCount = threads.length;
+		String[] threadNames = new String[threadCount];
+		long[] polynomialCounts = new long[threadCount];
+		long[] sieveNanos = new long[threadCount];
+		long[] tdivNanos = new long[threadCount];
+		long smoothRelationCount = 0, partialRelationCount = 0;
+		for (int i=0; i<threadCount; i++) {
+			ThreadMetrics t = threads[i];
+			threadNames[i] = t.threadName;
+			polynomialCounts[i] = t.polynomialCount;
+			sieveNanos[i] = t.sieveNanos;
+			tdivNanos[i] = t.tdivNanos;
+			smoothRelationCount += t.smoothRelationCount;
+			partialRelationCount += t.partialRelationCount;
+		}
+		// The threads modifying the collector hold its lock while they do so (the SIQS thread, the PSIQS sieve threads, or the
+		// PSIQS collector thread if there is one), and finishN() holds it while it freezes
+		// the final snapshot. So if we get the lock after finishN(), we return the final snapshot and never read a cleaned-up collector.
+		CongruenceCollector cc = congruenceCollector;
+		int smoothCongruenceCount = 0, partialCongruenceCount = 0;
+		if (cc != null) {
+			synchronized (cc) {
+				finalSnapshot = this.finalSnapshot;
+				if (finalSnapshot != null) return finalSnapshot;
+				smoothCongruenceCount = cc.getSmoothCongruenceCount();
+				partialCongruenceCount = cc.getPartialCongruenceCount();
+			}
+		}
+		return new SIQSMetricsSnapshot(N, elapsedNanos, threadNames, polynomialCounts, sieveNanos, tdivNanos, smoothRelationCount, partialRelationCount,
+				smoothCongruenceCount, partialCongruenceCount, requiredCongruenceCount);
+	}
+}
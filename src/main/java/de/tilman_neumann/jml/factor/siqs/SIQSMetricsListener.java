@@ -0,0 +1,28 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs;
+
+/**
+ * Listener for SIQS/PSIQS progress metrics.
+ * 
+ * @author Tilman Neumann
+ */
+public interface SIQSMetricsListener {
+	
+	/**
+	 * Called in regular intervals while sieving, and once when a factor has been found.
+	 * @param snapshot the current metrics
+	 */
+	void metricsUpdated(SIQSMetricsSnapshot snapshot);
+}
@@ -0,0 +1,182 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs;
+
+import java.math.BigInteger;
+
+/**
+ * An immutable snapshot of SIQS/PSIQS progress metrics.
+ * 
+ * @author Tilman Neumann
+ */
+public class SIQSMetricsSnapshot {
+	private BigInteger N;
+	private long elapsedNanos;
+	private String[] threadNames;
+	private long[] polynomialCounts;
+	private long[] sieveNanos;
+	private long[] tdivNanos;
+	private long smoothRelationCount;
+	private long partialRelationCount;
+	private int smoothCongruenceCount;
+	private int partialCongruenceCount;
+	private int requiredCongruenceCount;
+	
+	public SIQSMetricsSnapshot(BigInteger N, long elapsedNanos, String[] threadNames, long[] polynomialCounts, long[] sieveNanos, long[] tdivNanos,
+			long smoothRelationCount, long partialRelationCount, int smoothCongruenceCount, int partialCongruenceCount, int requiredCongruenceCount) {
+		this.N = N;
+		this.elapsedNanos = elapsedNanos;
+		this.threadNames = threadNames;
+		this.polynomialCounts = polynomialCounts;
+		this.sieveNanos = sieveNanos;
+		this.tdivNanos = tdivNanos;
+		this.smoothRelationCount = smoothRelationCount;
+		this.partialRelationCount = partialRelationCount;
+		this.smoothCongruenceCount = smoothCongruenceCount;
+		this.partialCongruenceCount = partialCongruenceCount;
+		this.requiredCongruenceCount = requiredCongruenceCount;
+	}
+
+	/**
+	 * @return the number to factor
+	 */
+	public BigInteger getN() {
+		return N;
+	}
+
+	/**
+	 * @return time since the start of sieving for the current N, in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedNanos / 1000000;
+	}
+	
+	public int getThreadCount() {
+		return threadNames.length;
+	}
+	
+	public String getThreadName(int threadIndex) {
+		return threadNames[threadIndex];
+	}
+	
+	public long getPolynomialCount(int threadIndex) {
+		return polynomialCounts[threadIndex];
+	}
+	
+	/**
+	 * @param threadIndex
+	 * @return the sieve time of the given thread in milliseconds
+	 */
+	public long getSieveMillis(int threadIndex) {
+		return sieveNanos[threadIndex] / 1000000;
+	}
+	
+	/**
+	 * @param threadIndex
+	 * @return the trial division time of the given thread in milliseconds
+	 */
+	public long getTDivMillis(int threadIndex) {
+		return tdivNanos[threadIndex] / 1000000;
+	}
+
+	/**
+	 * @return the number of polynomials sieved by all threads
+	 */
+	public long getPolynomialCount() {
+		long sum = 0;
+		for (long count : polynomialCounts) sum += count;
+		return sum;
+	}
+	
+	public double getPolynomialsPerSecond() {
+		return perSecond(getPolynomialCount());
+	}
+	
+	/**
+	 * @return the number of perfectly smooth relations found by trial division
+	 */
+	public long getSmoothRelationCount() {
+		return smoothRelationCount;
+	}
+
+	/**
+	 * @return the number of partial relations found by trial division
+	 */
+	public long getPartialRelationCount() {
+		return partialRelationCount;
+	}
+	
+	/**
+	 * @return the number of relations (smooth or partial) found per second
+	 */
+	public double getRelationsPerSecond() {
+		return perSecond(smoothRelationCount + partialRelationCount);
+	}
+	
+	/**
+	 * @return the number of smooth congruences held by the congruence collector, including those combined from partials
+	 */
+	public int getSmoothCongruenceCount() {
+		return smoothCongruenceCount;
+	}
+
+	/**
+	 * @return the number of partial congruences held by the congruence collector
+	 */
+	public int getPartialCongruenceCount() {
+		return partialCongruenceCount;
+	}
+	
+	/**
+	 * @return the approximate number of smooth congruences combined from cycles of partials
+	 */
+	public long getCycleCount() {
+		return Math.max(0, smoothCongruenceCount - smoothRelationCount);
+	}
+
+	/**
+	 * @return the approximate number of smooth congruences required to find a factor
+	 */
+	public int getRequiredCongruenceCount() {
+		return requiredCongruenceCount;
+	}
+	
+	/**
+	 * Estimate the remaining time until enough smooth congruences have been found, assuming that they are found at a constant rate.
+	 * Since the number of smooths combined from partials grows faster than linearly, this estimate is pessimistic.
+	 * @return the estimated remaining time in milliseconds, or -1 if no estimate is possible yet
+	 */
+	public long getEtaMillis() {
+		if (smoothCongruenceCount <= 0) return -1;
+		int remaining = requiredCongruenceCount - smoothCongruenceCount;
+		if (remaining <= 0) return 0;
+		return (long) (getElapsedMillis() * (double) remaining / smoothCongruenceCount);
+	}
+
+	private double perSecond(long count) {
+		return elapsedNanos > 0 ? count * 1.0E9 / elapsedNanos : 0;
+	}
+	
+	@Override
+	public String toString() {
+		String result = "N=" + N + ": " + getElapsedMillis() + "ms, " + getPolynomialCount() + " polynomials (" + String.format("%.1f", getPolynomialsPerSecond()) + "/s), "
+				+ smoothRelationCount + " smooth + " + partialRelationCount + " partial relations (" + String.format("%.1f", getRelationsPerSecond()) + "/s), "
+				+ smoothCongruenceCount + "/" + requiredCongruenceCount + " smooth congruences (" + getCycleCount() + " from cycles), "
+				+ partialCongruenceCount + " partials, ETA " + getEtaMillis() + "ms";
+		for (int i=0; i<threadNames.length; i++) {
+			result += "\n    " + threadNames[i] + ": " + polynomialCounts[i] + " polynomials, sieve " + getSieveMillis(i) + "ms, tdiv " + getTDivMillis(i) + "ms";
+		}
+		return result;
+	}
+}
@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2025 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -207,6 +207,9 @@ public class SIQSSmall extends FactorAlgorithm {
 		}
 		int primeBaseSize = Math.max(30, (int) primeBaseSize_dbl); // min. size for very small N
 		int[] primesArray = new int[primeBaseSize];
+		int[] kNModPArray = new int[primeBaseSize];
+		float[] lnPArray = new float[primeBaseSize];
+		long[] pinvArrayL = new long[primeBaseSize];
 
 		// compute Knuth-Schroppel multiplier
 		int k = multiplierFinder.computeMultiplier(N);
@@ -222,11 +225,11 @@ public class SIQSSmall extends FactorAlgorithm {
 		int d = ((kN.intValue() & 7) == 1) ? 2 : 1;
 		if (DEBUG) LOG.debug("d = " + d);
 
-		// Create the reduced prime base for kN:
-		primeBaseBuilder.computeReducedPrimeBase(kN, primeBaseSize, primesArray);
+		// Create the reduced prime base for kN; ln(p) and the reciprocals of primes are taken from the prime base cache
+		primeBaseBuilder.computeReducedPrimeBase(kN, primeBaseSize, primesArray, kNModPArray, lnPArray, pinvArrayL);
 		
-		// Compute the t with t^2 == kN (mod p) for all p: Throws a FactorException if some p divides N
-		int[] tArray = modularSqrtsEngine.computeTArray(primesArray, primeBaseSize, kN);
+		// Compute the t with t^2 == kN (mod p) for all p
+		int[] tArray = modularSqrtsEngine.computeTArray(primesArray, kNModPArray, primeBaseSize);
 		
 		// compute sieve array size, a multiple of 256
 		int pMax = primesArray[primeBaseSize-1];
@@ -248,12 +251,7 @@ public class SIQSSmall extends FactorAlgorithm {
 		SieveParams sieveParams = SieveParamsFactory01.create(N_dbl, NBits, kN, d, primesArray, primeBaseSize, adjustedSieveArraySize);
 
 		// compute logP array
-		byte[] logPArray = computeLogPArray(primesArray, primeBaseSize, sieveParams.lnPMultiplier);
-		// compute reciprocals of primes
-		long[] pinvArrayL = new long[primeBaseSize];
-		for (int i=primeBaseSize-1; i>=0; i--) {
-			pinvArrayL[i] = (1L<<32) / primesArray[i];
-		}
+		byte[] logPArray = computeLogPArray(lnPArray, primeBaseSize, sieveParams.lnPMultiplier);
 
 		// Find and add powers to the prime base
 		BaseArrays baseArrays = powerFinder.addPowers(kN, primesArray, tArray, logPArray, pinvArrayL, primeBaseSize, sieveParams);
@@ -292,10 +290,10 @@ public class SIQSSmall extends FactorAlgorithm {
 		}
 	}
 
-	private byte[] computeLogPArray(int[] primesArray, int primeBaseSize, float lnPMultiplier) {
+	private byte[] computeLogPArray(float[] lnPArray, int primeBaseSize, float lnPMultiplier) {
 		byte[] logPArray = new byte[primeBaseSize];
 		for (int i=primeBaseSize-1; i>=0; i--) {
-			logPArray[i] = (byte) ((float) Math.log(primesArray[i]) * lnPMultiplier + 0.5F);
+			logPArray[i] = (byte) (lnPArray[i] * lnPMultiplier + 0.5F);
 		}
 		return logPArray;
 	}
@@ -45,8 +45,24 @@ public interface AParamGenerator {
 	 */
 	void initialize(int k, BigInteger N, BigInteger kN, int d, int primeBaseSize, int[] primesArray, int[] tArray, int sieveArraySize);
 	
+	/**
+	 * @return the next a-parameter, different from all a-parameters computed before for the current N
+	 * @throws IllegalStateException if no unused a-parameter can be found, e.g. because the prime base is too small
+	 */
 	BigInteger computeNextAParameter();
 	
+	/**
+	 * @return the number of a-parameters computed since the last initialization for N
+	 */
+	int getAParameterCount();
+	
+	/**
+	 * Skip the given number of a-parameters, such that the next call of computeNextAParameter()
+	 * continues the sequence as if they had been computed. Used to resume a factorization from a checkpoint.
+	 * @param count
+	 */
+	void skipAParameters(int count);
+	
 	/**
 	 * @return approximate optimal size of q-parameters
 	 */
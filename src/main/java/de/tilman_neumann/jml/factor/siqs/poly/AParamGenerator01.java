@@ -63,6 +63,9 @@ import de.tilman_neumann.jml.BinarySearch;
 public class AParamGenerator01 implements AParamGenerator {
 	private static final Logger LOG = LogManager.getLogger(AParamGenerator01.class);
 	private static final boolean DEBUG = false;
+	
+	/** the number of duplicate a-parameters in a row after which we assume that there are no unused a-parameters left */
+	private static final int MAX_DUPLICATE_A_COUNT = 1000;
 
 	/** multiplier k: we must avoid q_l that divide k */
 	private int k;
@@ -84,8 +87,8 @@ public class AParamGenerator01 implements AParamGenerator {
 	private int[] qtArray;
 	/** and the factors themselves */
 	private int[] qArray;
-	/** random generator */
-	private static final Random rng = new Random();
+	/** random generator; per instance, so that each instance replays its own a-parameter sequence on resume */
+	private final Random rng = new Random();
 	/** map of a-values already used to their q-values */
 	private HashMap<BigInteger, int[]> aParamHistory;
 
@@ -247,7 +250,6 @@ public class AParamGenerator01 implements AParamGenerator {
 
 	@Override
 	public BigInteger computeNextAParameter() {
-		@SuppressWarnings("unused")
 		int duplicateACount = 0;
 		Set<BigInteger> previousAParams = aParamHistory.keySet();
 		while (true) {
@@ -255,6 +257,10 @@ public class AParamGenerator01 implements AParamGenerator {
 			if (!previousAParams.contains(a)) break; // a new "a"
 			duplicateACount++;
 			if (DEBUG) LOG.warn("New a-parameter #" + aParamHistory.size() + ": a=" + a + " has already been used! #(duplicate a in a row) = " + duplicateACount);
+			if (duplicateACount >= MAX_DUPLICATE_A_COUNT) {
+				// this happens if the prime base is too small for qCount, e.g. for N with 64 bit or less
+				throw new IllegalStateException("No unused a-parameter found in " + duplicateACount + " attempts after " + aParamHistory.size() + " a-parameters, primeBaseSize=" + primeBaseSize + ", qCount=" + qCount);
+			}
 		}
 		if (DEBUG) {
 			// Analyze disjunctness with previous a-parameters
@@ -291,6 +297,19 @@ public class AParamGenerator01 implements AParamGenerator {
 		return sharedCount;
 	}
 
+	@Override
+	public int getAParameterCount() {
+		return aParamHistory.size();
+	}
+
+	@Override
+	public void skipAParameters(int count) {
+		// the a-parameter sequence is determined by the rng seed set in initialize(), so we can just replay it
+		for (int i=0; i<count; i++) {
+			computeNextAParameter();
+		}
+	}
+
 	@Override
 	public double getBestQ() {
 		return best_q;
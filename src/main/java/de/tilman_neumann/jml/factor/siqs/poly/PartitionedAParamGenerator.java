@@ -0,0 +1,104 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.poly;
+
+import java.math.BigInteger;
+
+/**
+ * An a-parameter generator that returns only one partition of the a-parameters of another generator:
+ * Of the a-parameter sequence a_0, a_1, a_2, ... of the underlying generator, only those a_i with i % partCount == partIndex are returned.
+ * 
+ * Since the a-parameter sequence of the underlying generator is deterministic for given N and prime base,
+ * independent processes with distinct partIndex values and the same partCount sieve disjoint sets of a-parameters.
+ * Thus they produce no duplicate relations and their relation files can be merged.
+ * 
+ * @author Tilman Neumann
+ */
+public class PartitionedAParamGenerator implements AParamGenerator {
+	
+	private AParamGenerator apg;
+	private int partIndex;
+	private int partCount;
+	
+	/**
+	 * Full constructor.
+	 * @param apg the underlying a-parameter generator
+	 * @param partIndex the index of the partition to return, 0 <= partIndex < partCount
+	 * @param partCount the number of partitions
+	 */
+	public PartitionedAParamGenerator(AParamGenerator apg, int partIndex, int partCount) {
+		if (partIndex < 0 || partIndex >= partCount) throw new IllegalArgumentException("partIndex=" + partIndex + " must be in [0, " + partCount + ")");
+		this.apg = apg;
+		this.partIndex = partIndex;
+		this.partCount = partCount;
+	}
+	
+	@Override
+	public String getName() {
+		return apg.getName() + "[" + partIndex + "/" + partCount + "]";
+	}
+
+	@Override
+	public void initialize(int k, BigInteger N, BigInteger kN, int d, int primeBaseSize, int[] primesArray, int[] tArray, int sieveArraySize) {
+		apg.initialize(k, N, kN, d, primeBaseSize, primesArray, tArray, sieveArraySize);
+	}
+
+	@Override
+	public BigInteger computeNextAParameter() {
+		// skip the a-parameters of the other partitions
+		BigInteger a;
+		do {
+			a = apg.computeNextAParameter();
+		} while ((apg.getAParameterCount()-1) % partCount != partIndex);
+		return a;
+	}
+	
+	/**
+	 * @return the number of a-parameters computed by the underlying generator, including those of other partitions
+	 */
+	@Override
+	public int getAParameterCount() {
+		return apg.getAParameterCount();
+	}
+
+	@Override
+	public void skipAParameters(int count) {
+		apg.skipAParameters(count);
+	}
+
+	@Override
+	public double getBestQ() {
+		return apg.getBestQ();
+	}
+
+	@Override
+	public int getQCount() {
+		return apg.getQCount();
+	}
+
+	@Override
+	public int[] getQArray() {
+		return apg.getQArray();
+	}
+
+	@Override
+	public int[] getQTArray() {
+		return apg.getQTArray();
+	}
+
+	@Override
+	public void cleanUp() {
+		apg.cleanUp();
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.sieve;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Sieve kernel without Vector API: Initialization by doubling System.arraycopy() blocks,
+ * and collection of sieve hits checking 8 sieve locations in one long, like Sieve03h.
+ * 
+ * @author Tilman Neumann
+ */
+public class ScalarSieveKernel implements SieveKernel {
+
+	private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private static final long LONG_MASK = 0x8080808080808080L;
+
+	@Override
+	public String getName() {
+		return "scalar";
+	}
+
+	@Override
+	public void fill(byte[] sieveArray, int size, byte value) {
+		int filled = Math.min(size, 256);
+		for (int i=0; i<filled; i++) {
+			sieveArray[i] = value;
+		}
+		while (filled < size) {
+			int fillNext = Math.min(size-filled, filled);
+			System.arraycopy(sieveArray, 0, sieveArray, filled, fillNext);
+			filled += fillNext;
+		}
+	}
+
+	@Override
+	public int collect(byte[] sieveArray, int start, int end, int[] hits) {
+		int count = 0;
+		int x = start;
+		// 4 longs = 32 sieve locations at once
+		for (; x+32 <= end; x+=32) {
+			long t = (long) LONG_VIEW.get(sieveArray, x);
+			t |= (long) LONG_VIEW.get(sieveArray, x+8);
+			t |= (long) LONG_VIEW.get(sieveArray, x+16);
+			t |= (long) LONG_VIEW.get(sieveArray, x+24);
+			if ((t & LONG_MASK) == 0) continue;
+			
+			// go back and look in more detail
+			for (int i=x; i<x+32; i++) {
+				if (sieveArray[i] < 0) hits[count++] = i;
+			}
+		}
+		for (; x<end; x++) {
+			if (sieveArray[x] < 0) hits[count++] = x;
+		}
+		return count;
+	}
+}
@@ -65,6 +65,8 @@ public class Sieve03gU implements Sieve {
 	private byte initializer;
 	/** base address of the sieve array holding logP sums for all x */
 	private long sieveArrayAddress;
+	/** allocated size of the sieve array; 0 if no native memory is held */
+	private int sieveAllocationSize = 0;
 
 	private SieveResultDefaultImpl sieveResult = new SieveResultDefaultImpl(10);
 
@@ -91,8 +93,13 @@ public class Sieve03gU implements Sieve {
 		// For large primes with 0 or 1 sieve locations we need to allocate pMax+1 entries;
 		// For primes p[i], i<p1Index, we need p[i]+sieveArraySize = 2*sieveArraySize entries.
 		this.sieveArraySize = sieveParams.sieveArraySize;
-		int sieveAllocationSize = Math.max(pMax+1, 2*sieveArraySize);
-		sieveArrayAddress = UnsafeUtil.allocateMemory(sieveAllocationSize);
+		// If the sieve is reused for another N without cleanUp() (pooled PSIQS threads), then the old sieve array is kept if it is big enough.
+		int requiredAllocationSize = Math.max(pMax+1, 2*sieveArraySize);
+		if (requiredAllocationSize > sieveAllocationSize) {
+			if (sieveAllocationSize > 0) UnsafeUtil.freeMemory(sieveArrayAddress);
+			sieveArrayAddress = UnsafeUtil.allocateMemory(requiredAllocationSize);
+			sieveAllocationSize = requiredAllocationSize;
+		}
 		if (DEBUG) LOG.debug("pMax = " + pMax + ", sieveArraySize = " + sieveArraySize + " --> sieveAllocationSize = " + sieveAllocationSize);
 
 		if (ANALYZE) {
@@ -440,6 +447,9 @@ public class Sieve03gU implements Sieve {
 	public void cleanUp() {
 		solutionArrays = null;
 		minSolutionCounts_m3 = null;
-		UnsafeUtil.freeMemory(sieveArrayAddress);
+		if (sieveAllocationSize > 0) {
+			UnsafeUtil.freeMemory(sieveArrayAddress);
+			sieveAllocationSize = 0;
+		}
 	}
 }
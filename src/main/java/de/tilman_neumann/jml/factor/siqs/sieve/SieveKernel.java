@@ -0,0 +1,48 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.sieve;
+
+/**
+ * The sieve array operations that can be vectorized: Initialization and collection of sieve hits.
+ * 
+ * Sieve hits are the locations whose sieve array entry has the sign bit set, see Sieve03h.
+ * 
+ * @author Tilman Neumann
+ */
+public interface SieveKernel {
+	
+	/**
+	 * @return the name of this kernel
+	 */
+	String getName();
+	
+	/**
+	 * Set the first <code>size</code> entries of the sieve array to <code>value</code>.
+	 * @param sieveArray
+	 * @param size
+	 * @param value
+	 */
+	void fill(byte[] sieveArray, int size, byte value);
+	
+	/**
+	 * Find the sieve hits in sieveArray[start, end), i.e. the x with sieveArray[x] &lt; 0 (as a signed byte).
+	 * 
+	 * @param sieveArray
+	 * @param start
+	 * @param end exclusive; end-start must not exceed hits.length
+	 * @param hits output: the sieve hit locations x in ascending order
+	 * @return the number of sieve hits stored in <code>hits</code>
+	 */
+	int collect(byte[] sieveArray, int start, int end, int[] hits);
+}
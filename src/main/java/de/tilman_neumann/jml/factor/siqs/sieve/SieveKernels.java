@@ -0,0 +1,68 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.sieve;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Selects the sieve kernel to use.
+ * 
+ * The Vector API kernel is only available if the library was built with JDK 16 or above (then it is compiled by the "vector" Maven profile)
+ * and the JVM was started with <code>--add-modules jdk.incubator.vector</code>. Otherwise we fall back to the scalar kernel.
+ * 
+ * @author Tilman Neumann
+ */
+public class SieveKernels {
+	private static final Logger LOG = LogManager.getLogger(SieveKernels.class);
+	
+	private static final String VECTOR_KERNEL_CLASS = "de.tilman_neumann.jml.factor.siqs.sieve.VectorSieveKernel";
+	
+	/** set -Djml.sieve.vector=false to disable the Vector API kernel */
+	private static final boolean VECTOR_ENABLED = !"false".equals(System.getProperty("jml.sieve.vector"));
+	
+	private static volatile Boolean vectorKernelAvailable = null;
+	
+	private SieveKernels() {
+		// static class
+	}
+	
+	/**
+	 * @return a new instance of the best available sieve kernel
+	 */
+	public static SieveKernel create() {
+		if (VECTOR_ENABLED) {
+			SieveKernel vectorKernel = createVectorKernel();
+			if (vectorKernel != null) return vectorKernel;
+		}
+		return new ScalarSieveKernel();
+	}
+	
+	/**
+	 * @return a new Vector API kernel, or null if the Vector API or the kernel class are not available
+	 */
+	public static SieveKernel createVectorKernel() {
+		if (vectorKernelAvailable == Boolean.FALSE) return null;
+		try {
+			SieveKernel kernel = (SieveKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+			vectorKernelAvailable = Boolean.TRUE;
+			return kernel;
+		} catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+			// class not compiled, or module jdk.incubator.vector not present
+			if (vectorKernelAvailable == null) LOG.info("Vector API sieve kernel not available (" + e + "), using scalar sieve kernel.");
+			vectorKernelAvailable = Boolean.FALSE;
+			return null;
+		}
+	}
+}
@@ -35,14 +35,36 @@ public class SieveParamsFactory02 {
 	private static final int FREE_UNITS = 1;
 	
 	public static SieveParams create(double N_dbl, int NBits, BigInteger kN, int d, int[] primeBase, int primeBaseSize, int sieveArraySize, int qCount, double best_q) {
+		return create(N_dbl, NBits, kN, d, primeBase, primeBaseSize, sieveArraySize, qCount, best_q, getDefaultSieveHitExponent(NBits), getDefaultTDivTestExponent(NBits));
+	}
+	
+	/**
+	 * Default sieve hit exponent: Sieve hits are those Q(x)/(da) that are smaller than N^sieveHitExponent after dividing out the sieved primes.
+	 * @param NBits
+	 * @return sieveHitExponent
+	 */
+	public static double getDefaultSieveHitExponent(int NBits) {
+		double progessivePart = (NBits<=150) ? 0 : (NBits-150.0)*0.045/150;
+		return 0.21 + progessivePart;
+	}
+	
+	/**
+	 * Default trial division test exponent: Sieve hits are passed to trial division if their unfactored rest after dividing out
+	 * the sieved primes is expected to be smaller than N^tdivTestExponent. This is also the smooth bound exponent.
+	 * @param NBits
+	 * @return tdivTestExponent
+	 */
+	public static double getDefaultTDivTestExponent(int NBits) {
+		return (NBits >= 250) ? 0.16 : 0.12; // at 250 bit 2LP kick in!
+	}
+	
+	/**
+	 * Create sieve parameters with custom exponents, e.g. from a tuning table.
+	 */
+	public static SieveParams create(double N_dbl, int NBits, BigInteger kN, int d, int[] primeBase, int primeBaseSize, int sieveArraySize, int qCount, double best_q,
+			double sieveHitExponent, double tdivTestExponent) {
 		
 		// The triples (sieveHitExponent, tdivTestExponent, smoothBoundExponent) are important tuning parameters.
-		double progessivePart = (NBits<=150) ? 0 : (NBits-150.0)*0.045/150;
-		double sieveHitExponent = 0.21 + progessivePart;
-		double tdivTestExponent = 0.12;
-		if (NBits >= 250) {
-			tdivTestExponent = 0.16; // at 250 bit 2LP kick in!
-		}
 		double smoothBoundExponent = tdivTestExponent;
 		
 		double sieveHitBound = Math.pow(N_dbl, sieveHitExponent);
@@ -78,6 +78,8 @@ public class SingleBlockSieveU implements Sieve {
 	/** number of complete blocks */
 	private int blockCount;
 	private long initializedBlockAddress;
+	/** allocated size of the sieve block and the initialized block; 0 if no native memory is held */
+	private int blockAllocationSize = 0;
 	/** the value to initializate the sieve array with */
 	private byte initializer;
 
@@ -148,8 +150,19 @@ public class SingleBlockSieveU implements Sieve {
 			Ensure.ensureEquals(sieveArraySize, blockCount*effectiveBlockSize);
 		}
 
+		// allocate sieve block and initialized block.
+		// If the sieve is reused for another N without cleanUp() (pooled PSIQS threads), then the old blocks are kept if they are big enough.
+		if (effectiveBlockSize > blockAllocationSize) {
+			if (blockAllocationSize > 0) {
+				UnsafeUtil.freeMemory(sieveBlockAddress);
+				UnsafeUtil.freeMemory(initializedBlockAddress);
+			}
+			initializedBlockAddress = UnsafeUtil.allocateMemory(effectiveBlockSize);
+			sieveBlockAddress = UnsafeUtil.allocateMemory(effectiveBlockSize);
+			blockAllocationSize = effectiveBlockSize;
+		}
+		
 		// create initialized block
-		initializedBlockAddress = UnsafeUtil.allocateMemory(effectiveBlockSize);
 		UNSAFE.setMemory(initializedBlockAddress, 256, initializer);
 		int filled = 256;
 		int unfilled = effectiveBlockSize-filled;
@@ -160,9 +173,6 @@ public class SingleBlockSieveU implements Sieve {
 			unfilled = effectiveBlockSize-filled;
 		}
 
-		// allocate sieve block
-		sieveBlockAddress = UnsafeUtil.allocateMemory(effectiveBlockSize);
-
 		// allocate "bookkeeping arrays" (slightly too big because before filtering)
 		xPosArray = new long[mergedBaseSize];
 		xNegArray = new long[mergedBaseSize];
@@ -698,8 +708,11 @@ public class SingleBlockSieveU implements Sieve {
 	
 	@Override
 	public void cleanUp() {
-		UnsafeUtil.freeMemory(sieveBlockAddress);
-		UnsafeUtil.freeMemory(initializedBlockAddress);
+		if (blockAllocationSize > 0) {
+			UnsafeUtil.freeMemory(sieveBlockAddress);
+			UnsafeUtil.freeMemory(initializedBlockAddress);
+			blockAllocationSize = 0;
+		}
 		xPosArray = null;
 		xNegArray = null;
 		dPosArray = null;
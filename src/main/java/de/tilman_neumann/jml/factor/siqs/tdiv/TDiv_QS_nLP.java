@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2025 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -27,6 +27,7 @@ import org.apache.logging.log4j.LogManager;
 
 import de.tilman_neumann.jml.BinarySearch;
 import de.tilman_neumann.jml.base.UnsignedBigInt;
+import de.tilman_neumann.jml.factor.base.BatchSmoothnessChecker;
 import de.tilman_neumann.jml.factor.base.SortedIntegerArray;
 import de.tilman_neumann.jml.factor.base.SortedLongArray;
 import de.tilman_neumann.jml.factor.base.congruence.AQPair;
@@ -50,12 +51,24 @@ import de.tilman_neumann.util.Timer;
  * 
  * This variant is not testing the small primes, so it needs to be run together with a sieve doing that (like Sieve_03hU).
  * 
+ * With batch cofactorization, composite QRests are not factored one at a time. Instead they are collected,
+ * and when BATCH_SIZE of them are available (or MIN_BATCH_SIZE after a new a-parameter), Bernstein's batch smoothness test using product and remainder trees
+ * identifies the ones that are smooth over the primes <= BATCH_PRIME_BOUND_MULTIPLIER * pMax. Only those are factored.
+ * The price is that relations having a large factor above that bound are lost, and that some relations are returned one or more testList() calls later.
+ * 
  * @author Tilman Neumann
  */
 public class TDiv_QS_nLP implements TDiv_QS {
 	private static final Logger LOG = LogManager.getLogger(TDiv_QS_nLP.class);
 	private static final boolean DEBUG = false;
 
+	/** number of composite QRests collected before a batch smoothness test is carried out */
+	private static final int BATCH_SIZE = 256;
+	/** minimum number of composite QRests for a batch smoothness test after a new a-parameter, so that few relations are left untested at the end */
+	static final int MIN_BATCH_SIZE = 32;
+	/** the smoothness bound of the batch test is this multiplier times pMax, but at most 2^31-1 */
+	private static final int BATCH_PRIME_BOUND_MULTIPLIER = 16;
+
 	// factor argument and polynomial parameters
 	private BigInteger kN;
 	private BigInteger da; // d*a with d = 1 or 2 depending on kN % 8
@@ -108,22 +121,41 @@ public class TDiv_QS_nLP implements TDiv_QS {
 	
 	private BinarySearch binarySearch = new BinarySearch();
 
+	// batch cofactorization
+	private boolean batchCofactorization;
+	private BatchSmoothnessChecker batchSmoothnessChecker;
+	private ArrayList<SmoothCandidate> batchCandidates = new ArrayList<>();
+	private ArrayList<BigInteger> batchQRests = new ArrayList<>();
+	private boolean isNewAParameter;
+	/** batch test statistics for the current N; cheap enough to be collected without ANALYZE */
+	private long batchTestCount, batchQRestCount, batchSmoothCount;
+
 	// statistics
 	private Timer timer = new Timer();
 	private long testCount, sufficientSmoothCount;
 	private long aqDuration, pass1Duration, pass2Duration, primeTestDuration, factorDuration;
 
 	/**
-	 * Full constructor.
+	 * Standard constructor, without batch cofactorization.
 	 * @param permitUnsafeUsage if true then SIQSSmall (which is used for N > 310 bit to factor Q-rests) uses a sieve exploiting sun.misc.Unsafe features.
 	 */
 	public TDiv_QS_nLP(boolean permitUnsafeUsage) {
+		this(permitUnsafeUsage, false);
+	}
+
+	/**
+	 * Full constructor.
+	 * @param permitUnsafeUsage if true then SIQSSmall (which is used for N > 310 bit to factor Q-rests) uses a sieve exploiting sun.misc.Unsafe features.
+	 * @param batchCofactorization if true then composite QRests are tested for smoothness in batches before trying to factor them
+	 */
+	public TDiv_QS_nLP(boolean permitUnsafeUsage, boolean batchCofactorization) {
 		qsInternal = new SIQSSmall(0.305F, 0.37F, null, new SIQSPolyGenerator(), 10, permitUnsafeUsage);
+		this.batchCofactorization = batchCofactorization;
 	}
 
 	@Override
 	public String getName() {
-		return "TDiv_nLP";
+		return batchCofactorization ? "TDiv_nLP_batch" : "TDiv_nLP";
 	}
 
 	@Override
@@ -135,6 +167,16 @@ public class TDiv_QS_nLP implements TDiv_QS {
 		this.kN = sieveParams.kN;
 		this.sieveArraySize = sieveParams.sieveArraySize;
 		
+		if (batchCofactorization) {
+			int batchPrimeBound = (int) Math.min(Integer.MAX_VALUE, BATCH_PRIME_BOUND_MULTIPLIER * (long) sieveParams.pMax);
+			if (batchSmoothnessChecker == null || batchSmoothnessChecker.getPrimeBound() != batchPrimeBound) {
+				batchSmoothnessChecker = new BatchSmoothnessChecker(batchPrimeBound);
+			}
+			batchCandidates.clear();
+			batchQRests.clear();
+			batchTestCount = batchQRestCount = batchSmoothCount = 0;
+		}
+
 		// statistics
 		if (ANALYZE) testCount = sufficientSmoothCount = 0;
 		if (ANALYZE) aqDuration = pass1Duration = pass2Duration = primeTestDuration = factorDuration = 0;
@@ -155,6 +197,7 @@ public class TDiv_QS_nLP implements TDiv_QS {
 		pMaxSquare = pMax * (long) pMax;
 		this.p1Index = binarySearch.getInsertPosition(pArray, baseSize, sieveArraySize);
 		this.unsievedBaseElements = unsievedBaseElements;
+		this.isNewAParameter = true;
 	}
 
 	@Override
@@ -217,6 +260,11 @@ public class TDiv_QS_nLP implements TDiv_QS {
 				}
 			}
 		}
+		int batchCount = batchCandidates.size();
+		if (batchCount >= BATCH_SIZE || (isNewAParameter && batchCount >= MIN_BATCH_SIZE)) {
+			testBatch(aqPairs);
+		}
+		isNewAParameter = false;
 		if (ANALYZE) aqDuration += timer.capture();
 		return aqPairs;
 	}
@@ -342,6 +390,14 @@ public class TDiv_QS_nLP implements TDiv_QS {
 		double QRestDbl = QRest.doubleValue();
 		if (QRestDbl >= smoothBound) return null; // Q is not sufficiently smooth
 		
+		if (batchCofactorization && QRestDbl >= pMaxSquare && !prpTest.isProbablePrime(QRest)) {
+			// QRest is composite; keep the complete small factors for the batch test
+			addCommonFactorsToSmallFactors();
+			batchCandidates.add(new SmoothCandidate(x, QRest, A, new SortedIntegerArray(smallFactors)));
+			batchQRests.add(QRest);
+			return null;
+		}
+
 		// now we consider Q as sufficiently smooth. then we want to know all prime factors, as long as we do not find one that is too big to be useful.
 		if (DEBUG) LOG.debug("test(): pMax=" + pMax + " < QRest=" + QRest + " < smoothBound=" + smoothBound + " -> resolve all factors");
 		boolean isSmooth = factor_recurrent(QRest);
@@ -353,6 +409,33 @@ public class TDiv_QS_nLP implements TDiv_QS {
 		return null;
 	}
 
+	/**
+	 * Run the batch smoothness test on the collected composite QRests, and factor the smooth ones.
+	 * @param aqPairs the list to which the AQ-pairs of smooth QRests are added
+	 */
+	private void testBatch(List<AQPair> aqPairs) {
+		boolean[] isSmooth = batchSmoothnessChecker.areSmooth(batchQRests);
+		int count = batchCandidates.size();
+		int smoothCount = 0;
+		for (int i=0; i<count; i++) {
+			if (!isSmooth[i]) continue;
+			
+			SmoothCandidate candidate = batchCandidates.get(i);
+			bigFactors.reset();
+			if (factor_recurrent(candidate.QRest)) {
+				aqPairs.add(aqPairFactory.create(candidate.A, candidate.smallFactors, bigFactors));
+				if (ANALYZE) sufficientSmoothCount++;
+			}
+			smoothCount++;
+		}
+		if (DEBUG) LOG.debug("Batch test: " + smoothCount + " of " + count + " composite QRests are smooth");
+		batchTestCount++;
+		batchQRestCount += count;
+		batchSmoothCount += smoothCount;
+		batchCandidates.clear();
+		batchQRests.clear();
+	}
+
 	private boolean factor_recurrent(BigInteger QRest) {
 		// Here we need a prime test, because factor algorithms may not return when called with a prime argument.
 		double QRestDbl = QRest.doubleValue();
@@ -410,6 +493,27 @@ public class TDiv_QS_nLP implements TDiv_QS {
 		}
 	}
 	
+	/**
+	 * @return the number of batch smoothness tests carried out for the current N
+	 */
+	long getBatchTestCount() {
+		return batchTestCount;
+	}
+	
+	/**
+	 * @return the number of composite QRests passed to batch smoothness tests for the current N
+	 */
+	long getBatchQRestCount() {
+		return batchQRestCount;
+	}
+	
+	/**
+	 * @return the number of QRests the batch smoothness tests found smooth for the current N
+	 */
+	long getBatchSmoothCount() {
+		return batchSmoothCount;
+	}
+	
 	@Override
 	public TDivReport getReport() {
 		return new TDivReport(testCount, sufficientSmoothCount, aqDuration, pass1Duration, pass2Duration, primeTestDuration, factorDuration);
@@ -422,5 +526,8 @@ public class TDiv_QS_nLP implements TDiv_QS {
 		x1Array = null;
 		x2Array = null;
 		qsInternal.cleanUp();
+		batchSmoothnessChecker = null;
+		batchCandidates.clear();
+		batchQRests.clear();
 	}
 }
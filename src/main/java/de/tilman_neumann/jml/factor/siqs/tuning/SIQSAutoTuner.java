@@ -0,0 +1,145 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.tuning;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Online auto-tuner for SIQS and PSIQS parameters.
+ * 
+ * For each bit size of N, the tuner first measures the sieving time of the initial parameters (from a tuning table or the defaults),
+ * and then tries variations of one parameter at a time (coordinate search) in subsequent factorizations of numbers with the same bit size.
+ * A variation that is faster by at least 3% becomes the new best parameter set. If no variation is better, the step sizes are halved;
+ * after a few halvings the tuner keeps the best parameters.
+ * 
+ * Sieving time is used as the score because relation yields per second can not be compared between different prime base sizes.
+ * The tuner learns across factorizations; this is useful when many numbers of similar size are factored, e.g. by a batch service.
+ * The tuned parameters can be saved via getTuningTable().write(file) and loaded again as a SIQSTuningTable.
+ * 
+ * @author Tilman Neumann
+ */
+public class SIQSAutoTuner implements SIQSParameterProvider {
+	private static final Logger LOG = LogManager.getLogger(SIQSAutoTuner.class);
+	private static final boolean DEBUG = false;
+
+	/** relative speed improvement required to accept a variation */
+	private static final double MIN_IMPROVEMENT = 0.03;
+	/** initial step sizes for Cmult, Mmult, sieveHitExponent, tdivTestExponent */
+	private static final double[] INITIAL_STEPS = {0.02, 0.02, 0.01, 0.01};
+	private static final int MAX_STEP_HALVINGS = 3;
+	
+	/** tuning state for one bit size */
+	private static class State {
+		SIQSParameters best;
+		double bestMillis = -1;
+		double[] steps = INITIAL_STEPS.clone();
+		int halvings = 0;
+		/** even indices increase, odd indices decrease the parameter with index candidateIndex/2 */
+		int candidateIndex = 0;
+		SIQSParameters candidate;
+		
+		State(SIQSParameters initial) {
+			this.best = initial;
+		}
+	}
+	
+	private SIQSParameterProvider initialParameters;
+	private Map<Integer, State> states = new HashMap<>();
+	
+	/**
+	 * Standard constructor, starting from the default parameters.
+	 */
+	public SIQSAutoTuner() {
+		this(null);
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param initialParameters the provider of the parameters to start from, e.g. a SIQSTuningTable; null for the default parameters
+	 */
+	public SIQSAutoTuner(SIQSParameterProvider initialParameters) {
+		this.initialParameters = initialParameters;
+	}
+
+	@Override
+	public synchronized SIQSParameters getParameters(int NBits, SIQSParameters defaultParameters) {
+		State state = states.get(NBits);
+		if (state == null) {
+			SIQSParameters initial = initialParameters != null ? initialParameters.getParameters(NBits, defaultParameters) : defaultParameters;
+			state = new State(initial);
+			states.put(NBits, state);
+		}
+		if (state.bestMillis < 0 || state.halvings > MAX_STEP_HALVINGS) {
+			// measure initial parameters, or tuning finished
+			return state.best;
+		}
+		state.candidate = createVariation(state.best, state.candidateIndex, state.steps);
+		return state.candidate;
+	}
+	
+	private SIQSParameters createVariation(SIQSParameters p, int candidateIndex, double[] steps) {
+		int parameterIndex = candidateIndex >> 1;
+		double delta = (candidateIndex & 1) == 0 ? steps[parameterIndex] : -steps[parameterIndex];
+		switch (parameterIndex) {
+		case 0: return new SIQSParameters((float) (p.Cmult + delta), p.Mmult, p.sieveHitExponent, p.tdivTestExponent);
+		case 1: return new SIQSParameters(p.Cmult, (float) (p.Mmult + delta), p.sieveHitExponent, p.tdivTestExponent);
+		case 2: return new SIQSParameters(p.Cmult, p.Mmult, p.sieveHitExponent + delta, p.tdivTestExponent);
+		default: return new SIQSParameters(p.Cmult, p.Mmult, p.sieveHitExponent, p.tdivTestExponent + delta);
+		}
+	}
+
+	@Override
+	public synchronized void reportResult(int NBits, SIQSParameters parameters, long sieveMillis) {
+		State state = states.get(NBits);
+		if (state == null) return;
+		if (parameters == state.best) {
+			// initial measurement or repeated use of the best parameters: average the measurements
+			state.bestMillis = state.bestMillis < 0 ? sieveMillis : (state.bestMillis + sieveMillis) / 2;
+			return;
+		}
+		if (parameters != state.candidate) return; // outdated, e.g. another thread got a newer candidate in the meantime
+		state.candidate = null;
+		
+		if (sieveMillis < state.bestMillis * (1 - MIN_IMPROVEMENT)) {
+			if (DEBUG) LOG.debug(NBits + " bit: " + parameters + " (" + sieveMillis + "ms) is better than " + state.best + " (" + state.bestMillis + "ms)");
+			state.best = parameters;
+			state.bestMillis = sieveMillis;
+			state.candidateIndex = 0;
+			return;
+		}
+		state.candidateIndex++;
+		if (state.candidateIndex == 2 * INITIAL_STEPS.length) {
+			// no variation helped -> refine
+			state.candidateIndex = 0;
+			for (int i=0; i<state.steps.length; i++) state.steps[i] /= 2;
+			state.halvings++;
+			if (DEBUG && state.halvings > MAX_STEP_HALVINGS) LOG.debug(NBits + " bit: tuning finished with " + state.best + " (" + state.bestMillis + "ms)");
+		}
+	}
+	
+	/**
+	 * @return a tuning table containing the best parameters found so far for each bit size
+	 */
+	public synchronized SIQSTuningTable getTuningTable() {
+		SIQSTuningTable table = new SIQSTuningTable();
+		for (Map.Entry<Integer, State> entry : states.entrySet()) {
+			table.put(entry.getKey(), entry.getValue().best);
+		}
+		return table;
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.tuning;
+
+/**
+ * Source of tuning parameters for SIQS and PSIQS, e.g. a tuning table or an auto-tuner.
+ * 
+ * @author Tilman Neumann
+ */
+public interface SIQSParameterProvider {
+	
+	/**
+	 * @param NBits the bit length of the N to factor
+	 * @param defaultParameters the parameters that would be used without tuning
+	 * @return the parameters to use for the N
+	 */
+	SIQSParameters getParameters(int NBits, SIQSParameters defaultParameters);
+	
+	/**
+	 * Report the sieving time achieved with some parameters.
+	 * @param NBits the bit length of the N that has been factored
+	 * @param parameters the parameters that were used
+	 * @param sieveMillis the time from the start of sieving until a factor was found, in milliseconds
+	 */
+	void reportResult(int NBits, SIQSParameters parameters, long sieveMillis);
+}
@@ -0,0 +1,62 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.tuning;
+
+import de.tilman_neumann.jml.factor.siqs.sieve.SieveParamsFactory02;
+
+/**
+ * The main tuning parameters of SIQS and PSIQS for some N.
+ * 
+ * @author Tilman Neumann
+ */
+public class SIQSParameters {
+	/** multiplier for prime base size */
+	public final float Cmult;
+	/** multiplier for sieve array size */
+	public final float Mmult;
+	/** see SieveParamsFactory02.getDefaultSieveHitExponent() */
+	public final double sieveHitExponent;
+	/** see SieveParamsFactory02.getDefaultTDivTestExponent() */
+	public final double tdivTestExponent;
+	
+	/**
+	 * Full constructor.
+	 * @param Cmult multiplier for prime base size
+	 * @param Mmult multiplier for sieve array size
+	 * @param sieveHitExponent
+	 * @param tdivTestExponent
+	 */
+	public SIQSParameters(float Cmult, float Mmult, double sieveHitExponent, double tdivTestExponent) {
+		this.Cmult = Cmult;
+		this.Mmult = Mmult;
+		this.sieveHitExponent = sieveHitExponent;
+		this.tdivTestExponent = tdivTestExponent;
+	}
+	
+	/**
+	 * Create the parameters used if no tuning is available, i.e. the given Cmult and Mmult and the default exponents of SieveParamsFactory02.
+	 * @param NBits
+	 * @param Cmult
+	 * @param Mmult
+	 * @return default parameters
+	 */
+	public static SIQSParameters createDefault(int NBits, float Cmult, float Mmult) {
+		return new SIQSParameters(Cmult, Mmult, SieveParamsFactory02.getDefaultSieveHitExponent(NBits), SieveParamsFactory02.getDefaultTDivTestExponent(NBits));
+	}
+	
+	@Override
+	public String toString() {
+		return "Cmult=" + Cmult + ", Mmult=" + Mmult + ", sieveHitExponent=" + sieveHitExponent + ", tdivTestExponent=" + tdivTestExponent;
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.tuning;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A table of tuned SIQS parameters per bit size of N.
+ * 
+ * The text format has one entry per line: <code>NBits Cmult Mmult sieveHitExponent tdivTestExponent</code>, separated by white space.
+ * Empty lines and lines starting with '#' are ignored.
+ * For bit sizes between table entries the parameters are interpolated linearly; outside of the table the nearest entry is used.
+ * 
+ * @author Tilman Neumann
+ */
+public class SIQSTuningTable implements SIQSParameterProvider {
+	
+	private TreeMap<Integer, SIQSParameters> entries = new TreeMap<>();
+	
+	/**
+	 * Read a tuning table from a file.
+	 * @param file
+	 * @return tuning table
+	 * @throws IOException if the file can not be read or has a syntax error
+	 */
+	public static SIQSTuningTable read(File file) throws IOException {
+		try (Reader reader = new FileReader(file)) {
+			return read(reader);
+		}
+	}
+	
+	/**
+	 * Read a tuning table.
+	 * @param reader
+	 * @return tuning table
+	 * @throws IOException if reading fails or there is a syntax error
+	 */
+	public static SIQSTuningTable read(Reader reader) throws IOException {
+		SIQSTuningTable table = new SIQSTuningTable();
+		BufferedReader in = new BufferedReader(reader);
+		String line;
+		int lineNumber = 0;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) continue;
+			String[] fields = line.split("\\s+");
+			if (fields.length != 5) throw new IOException("Line " + lineNumber + ": expected 5 fields but found " + fields.length);
+			try {
+				int NBits = Integer.parseInt(fields[0]);
+				SIQSParameters parameters = new SIQSParameters(Float.parseFloat(fields[1]), Float.parseFloat(fields[2]), Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+				table.put(NBits, parameters);
+			} catch (NumberFormatException e) {
+				throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * Write this table to a file, in a format that can be read by read().
+	 * @param file
+	 * @throws IOException
+	 */
+	public void write(File file) throws IOException {
+		try (Writer writer = new FileWriter(file)) {
+			write(writer);
+		}
+	}
+	
+	/**
+	 * Write this table in a format that can be read by read().
+	 * @param writer
+	 */
+	public void write(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		out.println("# NBits Cmult Mmult sieveHitExponent tdivTestExponent");
+		for (Map.Entry<Integer, SIQSParameters> entry : entries.entrySet()) {
+			SIQSParameters p = entry.getValue();
+			out.println(entry.getKey() + " " + p.Cmult + " " + p.Mmult + " " + p.sieveHitExponent + " " + p.tdivTestExponent);
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Add or replace the parameters for the given bit size.
+	 * @param NBits
+	 * @param parameters
+	 */
+	public synchronized void put(int NBits, SIQSParameters parameters) {
+		entries.put(NBits, parameters);
+	}
+	
+	/**
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * @param NBits
+	 * @return the parameters for the given bit size, interpolated if necessary, or null if the table is empty
+	 */
+	public synchronized SIQSParameters get(int NBits) {
+		Map.Entry<Integer, SIQSParameters> lower = entries.floorEntry(NBits);
+		Map.Entry<Integer, SIQSParameters> upper = entries.ceilingEntry(NBits);
+		if (lower == null) return upper != null ? upper.getValue() : null;
+		if (upper == null || lower.getKey().intValue() == upper.getKey().intValue()) return lower.getValue();
+		// interpolate
+		double t = (NBits - lower.getKey()) / (double) (upper.getKey() - lower.getKey());
+		SIQSParameters p = lower.getValue(), q = upper.getValue();
+		return new SIQSParameters((float) (p.Cmult + t * (q.Cmult - p.Cmult)), (float) (p.Mmult + t * (q.Mmult - p.Mmult)),
+				p.sieveHitExponent + t * (q.sieveHitExponent - p.sieveHitExponent), p.tdivTestExponent + t * (q.tdivTestExponent - p.tdivTestExponent));
+	}
+
+	@Override
+	public SIQSParameters getParameters(int NBits, SIQSParameters defaultParameters) {
+		SIQSParameters parameters = get(NBits);
+		return parameters != null ? parameters : defaultParameters;
+	}
+
+	@Override
+	public void reportResult(int NBits, SIQSParameters parameters, long sieveMillis) {
+		// a static table does not learn
+	}
+}
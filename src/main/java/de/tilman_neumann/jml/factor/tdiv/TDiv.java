@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2025 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -26,6 +26,7 @@ import de.tilman_neumann.jml.factor.FactorAlgorithm;
 import de.tilman_neumann.jml.factor.base.FactorArguments;
 import de.tilman_neumann.jml.factor.base.FactorResult;
 import de.tilman_neumann.jml.primes.exact.AutoExpandingPrimesArray;
+import de.tilman_neumann.jml.primes.exact.PrimeTable;
 import de.tilman_neumann.util.Ensure;
 import de.tilman_neumann.util.SortedMultiset;
 import de.tilman_neumann.util.SortedMultiset_BottomUp;
@@ -39,22 +40,38 @@ public class TDiv extends FactorAlgorithm {
 	private static final Logger LOG = LogManager.getLogger(TDiv.class);
 	private static final boolean DEBUG = false;
 	
-	private static final AutoExpandingPrimesArray SMALL_PRIMES = AutoExpandingPrimesArray.get();
+	private PrimeTable primeTable;
 
 	private int pLimit = Integer.MAX_VALUE;
 
+	/**
+	 * Standard constructor, taking the primes from the AutoExpandingPrimesArray.
+	 */
+	public TDiv() {
+		this(AutoExpandingPrimesArray.get());
+	}
+
+	/**
+	 * Full constructor.
+	 * @param primeTable the source of the primes, e.g. a MappedPrimeTable. The test limit can not exceed the limit of the table.
+	 */
+	public TDiv(PrimeTable primeTable) {
+		this.primeTable = primeTable;
+		this.pLimit = primeTable.getLimit();
+	}
+
 	@Override
 	public String getName() {
 		return "TDiv";
 	}
 
 	/**
-	 * Set the upper limit of primes to be tested.
+	 * Set the upper limit of primes to be tested. The limit is clamped to the limit of the prime table.
 	 * @param pLimit upper limit of primes to be tested
 	 * @return this
 	 */
 	public TDiv setTestLimit(int pLimit) {
-		this.pLimit = pLimit;
+		this.pLimit = Math.min(pLimit, primeTable.getLimit());
 		return this;
 	}
 	
@@ -97,10 +114,12 @@ public class TDiv extends FactorAlgorithm {
 		
 		if (N.equals(I_1)) return;
 		
-		SMALL_PRIMES.ensureLimit(pLimit);
+		primeTable.ensureLimit(pLimit);
 		
-		int p_i;
-		for (int i=1; (p_i=SMALL_PRIMES.getPrime(i))<=pLimit; i++) {
+		// a fixed-size prime table may end before pLimit is exceeded
+		final int primeCount = primeTable.getPrimeCount();
+		int p_i = 2;
+		for (int i=1; i<primeCount && (p_i=primeTable.getPrime(i))<=pLimit; i++) {
 			BigInteger p_i_big = BigInteger.valueOf(p_i);
 			BigInteger[] div;
 			int exp = 0;
@@ -144,8 +163,9 @@ public class TDiv extends FactorAlgorithm {
 		if (!N.testBit(0)) return I_2; // N even
 		UnsignedBigInt N_UBI = new UnsignedBigInt(N);
 		
+		final int primeCount = primeTable.getPrimeCount();
 		int i=1, p;
-		while ((p = SMALL_PRIMES.getPrime(i++)) <= pLimit) { // upper bound avoids positive int overflow
+		while (i<primeCount && (p = primeTable.getPrime(i++)) <= pLimit) { // upper bound avoids positive int overflow
 			if (N_UBI.mod(p)==0) return BigInteger.valueOf(p);
 		}
 		
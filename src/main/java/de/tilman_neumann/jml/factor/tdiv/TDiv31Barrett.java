@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2025 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -22,6 +22,7 @@ import de.tilman_neumann.jml.factor.FactorAlgorithm;
 import de.tilman_neumann.jml.factor.base.FactorArguments;
 import de.tilman_neumann.jml.factor.base.FactorResult;
 import de.tilman_neumann.jml.primes.exact.AutoExpandingPrimesArray;
+import de.tilman_neumann.jml.primes.exact.PrimeTable;
 import de.tilman_neumann.util.SortedMultiset;
 
 import static de.tilman_neumann.jml.base.BigIntConstants.I_2;
@@ -38,17 +39,26 @@ public class TDiv31Barrett extends FactorAlgorithm {
 	@SuppressWarnings("unused")
 	private static final Logger LOG = LogManager.getLogger(TDiv31Barrett.class);
 
-	// "static" would be slightly slower ?
-	private AutoExpandingPrimesArray SMALL_PRIMES = AutoExpandingPrimesArray.get().ensurePrimeCount(NUM_PRIMES_FOR_31_BIT_TDIV);
-	
 	private int[] primes;
 	private long[] pinv;
 	
+	/**
+	 * Standard constructor, taking the primes from the AutoExpandingPrimesArray.
+	 */
 	public TDiv31Barrett() {
+		this(AutoExpandingPrimesArray.get());
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param primeTable the source of the primes, e.g. a MappedPrimeTable
+	 */
+	public TDiv31Barrett(PrimeTable primeTable) {
+		primeTable.ensurePrimeCount(NUM_PRIMES_FOR_31_BIT_TDIV);
 		primes = new int[NUM_PRIMES_FOR_31_BIT_TDIV];
 		pinv = new long[NUM_PRIMES_FOR_31_BIT_TDIV];
 		for (int i=0; i<NUM_PRIMES_FOR_31_BIT_TDIV; i++) {
-			int p = SMALL_PRIMES.getPrime(i);
+			int p = primeTable.getPrime(i);
 			primes[i] = p;
 			pinv[i] = (1L<<32)/p;
 		}
@@ -106,6 +116,52 @@ public class TDiv31Barrett extends FactorAlgorithm {
 		}
 	}
 	
+	/**
+	 * Find all factors of N, which must be positive and have less than 32 bit, without creating any garbage.
+	 * The prime factors are appended in ascending order to the output arrays.
+	 * 
+	 * @param N
+	 * @param Nexp the exponent which with found factors are stored
+	 * @param factors output array of prime factors
+	 * @param exponents output array of the exponents of the prime factors
+	 * @param count the number of entries already stored in the output arrays
+	 * @return the new number of entries in the output arrays
+	 */
+	public int factor(int N, int Nexp, long[] factors, int[] exponents, int count) {
+		// Powers of 2 can be removed very fast.
+		// This is required also because the Barrett division does not work with p=2.
+		int lsb = Integer.numberOfTrailingZeros(N);
+		if (lsb > 0) {
+			factors[count] = 2;
+			exponents[count++] = lsb*Nexp;
+			N >>= lsb;
+		}
+		
+		// Test odd primes
+		int q;
+		for (int i=1; ; i++) {
+			final int p = primes[i];
+			int exp = 0;
+			while ((q = (1 + (int) ((N*pinv[i])>>32))) * p == N) {
+				exp++;
+				N = q;
+			}
+			if (exp > 0) {
+				factors[count] = p;
+				exponents[count++] = exp*Nexp;
+			}
+			if (((long)p) * p > N) {
+				break;
+			}
+		}
+		
+		if (N>1) {
+			factors[count] = N;
+			exponents[count++] = Nexp;
+		}
+		return count;
+	}
+	
 	/**
 	 * Try to find small factors of a positive argument N by doing trial division by all primes p <= pLimit.
 	 * 
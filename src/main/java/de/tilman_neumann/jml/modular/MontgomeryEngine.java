@@ -0,0 +1,329 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.modular;
+
+import java.math.BigInteger;
+
+/**
+ * Mutable Montgomery arithmetic modulo odd N with 2 to 16 unsigned 32-bit limbs, i.e. N < 2^512.
+ * 
+ * Numbers are int arrays holding the limbs in little-endian order; only the first {@link #getLimbCount()} entries are used.
+ * All operations work on buffers allocated by the caller and keep their intermediate results in instance scratch arrays,
+ * so after construction no objects are created. The reducer is R = 2^(32*limbCount).
+ * 
+ * Operands of the modular operations must be reduced, i.e. smaller than N.
+ * Instances are not thread-safe.
+ * 
+ * @author Tilman Neumann
+ */
+public class MontgomeryEngine {
+	/** the smallest supported number of limbs */
+	public static final int MIN_LIMBS = 2;
+	
+	/** the biggest supported number of limbs */
+	public static final int MAX_LIMBS = 16;
+	
+	private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+	
+	/** the modulus N */
+	private final int[] N = new int[MAX_LIMBS];
+	
+	/** the length of N in 32-bit limbs */
+	private int limbCount;
+	
+	/** the bit length of N */
+	private int bitLength;
+	
+	/** (-1/N[0]) mod 2^32 */
+	private long minusNInv;
+	
+	/** R mod N, the Montgomery form of 1 */
+	private final int[] one = new int[MAX_LIMBS];
+	
+	/** scratch array for the Montgomery product */
+	private final long[] t = new long[MAX_LIMBS+1];
+	
+	/**
+	 * Sets the modulus. Allocation-free.
+	 * @param N odd
+	 * @throws IllegalArgumentException if N is even or too big
+	 */
+	public void setModulus(BigInteger N) {
+		int NBits = N.bitLength();
+		if (N.signum() < 0 || !N.testBit(0) || NBits > 32*MAX_LIMBS) {
+			throw new IllegalArgumentException("N = " + N + " is not an odd positive number with at most " + (32*MAX_LIMBS) + " bits");
+		}
+		int count = Math.max(MIN_LIMBS, (NBits+31)>>5);
+		for (int i=0; i<count; i++) {
+			int limb = 0;
+			int bitIndex = i<<5;
+			int jMax = Math.min(32, NBits - bitIndex);
+			for (int j=0; j<jMax; j++) {
+				if (N.testBit(bitIndex + j)) limb |= 1<<j;
+			}
+			this.N[i] = limb;
+		}
+		setUp(count);
+	}
+	
+	/**
+	 * Sets the modulus. The content of the given array is copied.
+	 * @param N odd modulus
+	 * @param limbCount the number of limbs of N to use
+	 * @throws IllegalArgumentException if N is even or limbCount is out of range
+	 */
+	public void setModulus(int[] N, int limbCount) {
+		if (limbCount < MIN_LIMBS || limbCount > MAX_LIMBS || (N[0]&1) == 0) {
+			throw new IllegalArgumentException("Montgomery arithmetic needs an odd modulus with " + MIN_LIMBS + " to " + MAX_LIMBS + " limbs");
+		}
+		System.arraycopy(N, 0, this.N, 0, limbCount);
+		setUp(limbCount);
+	}
+	
+	private void setUp(int limbCount) {
+		this.limbCount = limbCount;
+		
+		int top = limbCount-1;
+		while (top>0 && N[top]==0) top--;
+		bitLength = (top<<5) + 32 - Integer.numberOfLeadingZeros(N[top]);
+		
+		// (1/N[0]) mod 2^32 by Newton iteration
+		int n0 = N[0];
+		int x = n0; // now x*n0==1 mod 2^3
+		x *= 2 - n0 * x; // mod 2^6
+		x *= 2 - n0 * x; // mod 2^12
+		x *= 2 - n0 * x; // mod 2^24
+		x *= 2 - n0 * x; // mod 2^48
+		minusNInv = (-x) & UNSIGNED_INT_MASK;
+		
+		// R mod N: 2^bitLength - N < N can be computed by two's complement, then we need some modular doublings
+		long borrow = 0;
+		for (int i=0; i<limbCount; i++) {
+			long diff = -(N[i] & UNSIGNED_INT_MASK) - borrow;
+			one[i] = (int) diff;
+			borrow = (diff >> 32) & 1;
+		}
+		int topBits = bitLength & 31;
+		int topLimb = (bitLength-1)>>5;
+		if (topBits != 0) one[topLimb] &= (1<<topBits) - 1;
+		for (int i=topLimb+1; i<limbCount; i++) one[i] = 0;
+		for (int i = (limbCount<<5) - bitLength; i>0; i--) {
+			add(one, one, one);
+		}
+	}
+	
+	/**
+	 * @return the number of 32-bit limbs of the modulus, and of all numbers processed with this engine
+	 */
+	public int getLimbCount() {
+		return limbCount;
+	}
+	
+	/**
+	 * @return the bit length of the modulus
+	 */
+	public int getBitLength() {
+		return bitLength;
+	}
+	
+	/**
+	 * Copy the Montgomery form of 1 into result.
+	 * @param result
+	 */
+	public void getOne(int[] result) {
+		System.arraycopy(one, 0, result, 0, limbCount);
+	}
+	
+	/**
+	 * Computes the Montgomery form a*R mod N of a small non-negative integer a by double-and-add.
+	 * @param a
+	 * @param result
+	 */
+	public void toMontgomery(int a, int[] result) {
+		for (int i=0; i<limbCount; i++) result[i] = 0;
+		for (int i = 31 - Integer.numberOfLeadingZeros(a); i >= 0; i--) {
+			add(result, result, result);
+			if (((a >>> i) & 1) != 0) add(result, one, result);
+		}
+	}
+	
+	/**
+	 * Montgomery multiplication result = a*b/R mod N ("coarsely integrated operand scanning").
+	 * The result may be the same array as a or b.
+	 * 
+	 * @param a
+	 * @param b
+	 * @param result
+	 */
+	public void mul(int[] a, int[] b, int[] result) {
+		final int s = limbCount;
+		final long[] t = this.t;
+		final long n0 = N[0] & UNSIGNED_INT_MASK;
+		final long b0 = b[0] & UNSIGNED_INT_MASK;
+		for (int j=0; j<=s; j++) t[j] = 0;
+		
+		for (int i=0; i<s; i++) {
+			// t = (t + a[i]*b + m*N) / 2^32 in one pass, where m is chosen such that the lowest limb of the sum vanishes.
+			// Each partial sum is < 2^64, so unsigned long arithmetic is exact.
+			long ai = a[i] & UNSIGNED_INT_MASK;
+			long C1 = t[0] + ai * b0;
+			long m = ((C1 & UNSIGNED_INT_MASK) * minusNInv) & UNSIGNED_INT_MASK;
+			long C2 = (C1 & UNSIGNED_INT_MASK) + m * n0;
+			C1 >>>= 32;
+			C2 >>>= 32;
+			for (int j=1; j<s; j++) {
+				C1 += t[j] + ai * (b[j] & UNSIGNED_INT_MASK);
+				C2 += (C1 & UNSIGNED_INT_MASK) + m * (N[j] & UNSIGNED_INT_MASK);
+				t[j-1] = C2 & UNSIGNED_INT_MASK;
+				C1 >>>= 32;
+				C2 >>>= 32;
+			}
+			C1 += t[s];
+			C2 += C1 & UNSIGNED_INT_MASK;
+			t[s-1] = C2 & UNSIGNED_INT_MASK;
+			t[s] = (C1 >>> 32) + (C2 >>> 32);
+		}
+		
+		// now t < 2N; subtract N if necessary
+		boolean subtract = t[s] != 0;
+		if (!subtract) {
+			subtract = true; // t == N
+			for (int j=s-1; j>=0; j--) {
+				long nj = N[j] & UNSIGNED_INT_MASK;
+				if (t[j] != nj) {
+					subtract = t[j] > nj;
+					break;
+				}
+			}
+		}
+		if (subtract) {
+			long borrow = 0;
+			for (int j=0; j<s; j++) {
+				long diff = t[j] - (N[j] & UNSIGNED_INT_MASK) - borrow;
+				result[j] = (int) diff;
+				borrow = (diff >> 32) & 1;
+			}
+		} else {
+			for (int j=0; j<s; j++) result[j] = (int) t[j];
+		}
+	}
+	
+	/**
+	 * Modular addition result = a + b mod N. The result may be the same array as a or b.
+	 * @param a
+	 * @param b
+	 * @param result
+	 */
+	public void add(int[] a, int[] b, int[] result) {
+		final int s = limbCount;
+		long carry = 0;
+		for (int i=0; i<s; i++) {
+			carry += (a[i] & UNSIGNED_INT_MASK) + (b[i] & UNSIGNED_INT_MASK);
+			result[i] = (int) carry;
+			carry >>>= 32;
+		}
+		if (carry != 0 || !isSmallerThanN(result)) subtractN(result);
+	}
+	
+	/**
+	 * Modular subtraction result = a - b mod N. The result may be the same array as a or b.
+	 * @param a
+	 * @param b
+	 * @param result
+	 */
+	public void subtract(int[] a, int[] b, int[] result) {
+		final int s = limbCount;
+		long borrow = 0;
+		for (int i=0; i<s; i++) {
+			long diff = (a[i] & UNSIGNED_INT_MASK) - (b[i] & UNSIGNED_INT_MASK) - borrow;
+			result[i] = (int) diff;
+			borrow = (diff >> 32) & 1;
+		}
+		if (borrow != 0) {
+			// add N; the carry out cancels the borrow
+			long carry = 0;
+			for (int i=0; i<s; i++) {
+				carry += (result[i] & UNSIGNED_INT_MASK) + (N[i] & UNSIGNED_INT_MASK);
+				result[i] = (int) carry;
+				carry >>>= 32;
+			}
+		}
+	}
+	
+	/**
+	 * Modular halving result = a/2 mod N. The result may be the same array as a.
+	 * @param a
+	 * @param result
+	 */
+	public void half(int[] a, int[] result) {
+		final int s = limbCount;
+		if ((a[0]&1) == 0) {
+			for (int i=0; i<s-1; i++) {
+				result[i] = (a[i] >>> 1) | (a[i+1] << 31);
+			}
+			result[s-1] = a[s-1] >>> 1;
+		} else {
+			// (a + N) / 2, where a + N may have s*32 + 1 bits
+			long carry = 0;
+			for (int i=0; i<s; i++) {
+				carry += (a[i] & UNSIGNED_INT_MASK) + (N[i] & UNSIGNED_INT_MASK);
+				result[i] = (int) carry;
+				carry >>>= 32;
+			}
+			for (int i=0; i<s-1; i++) {
+				result[i] = (result[i] >>> 1) | (result[i+1] << 31);
+			}
+			result[s-1] = (result[s-1] >>> 1) | ((int) carry << 31);
+		}
+	}
+	
+	/**
+	 * @param a
+	 * @return true if a == 0
+	 */
+	public boolean isZero(int[] a) {
+		for (int i=limbCount-1; i>=0; i--) {
+			if (a[i] != 0) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * @param a
+	 * @param b
+	 * @return true if a and b are equal in all limbs
+	 */
+	public boolean equals(int[] a, int[] b) {
+		for (int i=limbCount-1; i>=0; i--) {
+			if (a[i] != b[i]) return false;
+		}
+		return true;
+	}
+	
+	private boolean isSmallerThanN(int[] a) {
+		for (int i=limbCount-1; i>=0; i--) {
+			if (a[i] != N[i]) return Integer.compareUnsigned(a[i], N[i]) < 0;
+		}
+		return false; // a == N
+	}
+	
+	private void subtractN(int[] a) {
+		long borrow = 0;
+		for (int i=0; i<limbCount; i++) {
+			long diff = (a[i] & UNSIGNED_INT_MASK) - (N[i] & UNSIGNED_INT_MASK) - borrow;
+			a[i] = (int) diff;
+			borrow = (diff >> 32) & 1;
+		}
+	}
+}
@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2024 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -25,30 +25,34 @@ import de.tilman_neumann.jml.primes.bounds.PrimeCountUpperBounds;
  * 
  * Singleton implementation to avoid spending too much memory on the primes in different instances.
  * 
+ * The class is thread-safe: The primes are held in an array that is never modified after publication via a volatile field,
+ * so readers never block and always see a completely built array. Expansions are serialized and continue sieving
+ * after the biggest prime found so far, copying the already known primes instead of sieving them again.
+ * The array is published before the count, so a reader that reads the count first and then the array
+ * finds at least that many primes in the array.
+ * 
  * @author Tilman Neumann
  */
-public class AutoExpandingPrimesArray implements SieveCallback {
+public class AutoExpandingPrimesArray implements PrimeTable {
 	private static final Logger LOG = LogManager.getLogger(AutoExpandingPrimesArray.class);
 	private static final boolean DEBUG = false;
 	
-	// variables must be initialized to avoid exceptions in ensureMaxPrime()
-	private int[] array = new int[] {2}; // the array to store the primes
-	private int count = 1; // actual element count
-	private int capacity = 1; // maximal array capacity
+	/** the primes found so far; never modified after publication. The array may be longer than the number of primes. */
+	private volatile int[] array = new int[] {2};
+	
+	/** the number of primes in the array; written after the array */
+	private volatile int count = 1;
 	
 	private BinarySearch bs = new BinarySearch();
 	
-	// lazy-initialized singleton
-	private static AutoExpandingPrimesArray the_instance = null;
+	// the singleton is cheap to create, so we do not need lazy initialization
+	private static final AutoExpandingPrimesArray THE_INSTANCE = new AutoExpandingPrimesArray();
 	
 	/**
-	 * @return the only TDivPrimeTest instance (singleton)
+	 * @return the only AutoExpandingPrimesArray instance (singleton)
 	 */
-	public static synchronized final AutoExpandingPrimesArray get() {
-		if (the_instance == null) {
-			the_instance = new AutoExpandingPrimesArray();
-		}
-		return the_instance;
+	public static final AutoExpandingPrimesArray get() {
+		return THE_INSTANCE;
 	}
 	
 	/**
@@ -56,6 +60,7 @@ public class AutoExpandingPrimesArray implements SieveCallback {
 	 * @param desiredCount
 	 * @return PrimeGenerator
 	 */
+	@Override
 	public AutoExpandingPrimesArray ensurePrimeCount(int desiredCount) {
 		if (count < desiredCount) {
 			// The current primes array is to small -> expansion needed.
@@ -71,8 +76,10 @@ public class AutoExpandingPrimesArray implements SieveCallback {
 	 * @param x
 	 * @return PrimeGenerator
 	 */
+	@Override
 	public AutoExpandingPrimesArray ensureLimit(int x) {
-		if (array[count-1] < x) {
+		int primeCount = count;
+		if (array[primeCount-1] < x) {
 			// The current primes array is to small -> expansion needed.
 			// Compute upper bound for the number of primes in (0, x]
 			int countUpperBound = (int) PrimeCountUpperBounds.combinedUpperBound(x);
@@ -82,12 +89,29 @@ public class AutoExpandingPrimesArray implements SieveCallback {
 		return this;
 	}
 	
+	/**
+	 * @return Integer.MAX_VALUE, because the array is expanded on demand
+	 */
+	@Override
+	public int getLimit() {
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @return Integer.MAX_VALUE, because the array is expanded on demand
+	 */
+	@Override
+	public int getPrimeCount() {
+		return Integer.MAX_VALUE;
+	}
+	
 	/**
 	 * @param x
 	 * @return the index where x would be inserted into the prime array.
 	 */
 	public int getInsertPosition(int x) {
-		return bs.getInsertPosition(array, count, x);
+		int primeCount = count;
+		return bs.getInsertPosition(array, primeCount, x);
 	}
 
 	/**
@@ -98,39 +122,39 @@ public class AutoExpandingPrimesArray implements SieveCallback {
 	 * @param n
 	 * @return n.th prime, where n starts at 0, e.g. p[0] = 2
 	 */
+	@Override
 	public int getPrime(int n) {
-		if (count <= n) {
-			// The current primes array is too small -> expansion needed.
-			int nextCount = 3*count; // trade-off between speed and memory waste
-			// Compute (tight) bound such that there are at least count primes in (0, nthPrimeUpperBound]
-			long nthPrimeUpperBound = NthPrimeUpperBounds.combinedUpperBound(nextCount);
-			fetchPrimes(nextCount, nthPrimeUpperBound);
-		}
+		int primeCount = count;
+		if (n < primeCount) return array[n];
+		
+		// The current primes array is too small -> expansion needed.
+		int nextCount = Math.max(3*primeCount, n+1); // trade-off between speed and memory waste
+		// Compute (tight) bound such that there are at least count primes in (0, nthPrimeUpperBound]
+		long nthPrimeUpperBound = NthPrimeUpperBounds.combinedUpperBound(nextCount);
+		fetchPrimes(nextCount, nthPrimeUpperBound);
 		return array[n];
 	}
 	
 	/**
-	 * Run the sieve to expand the primes array. Thread-safe.
+	 * Run the sieve to expand the primes array, beginning after the biggest prime found so far. Thread-safe.
 	 * @param desiredCount wanted number of primes
 	 * @param limit maximum value to be checked for being prime.
 	 */
 	private synchronized void fetchPrimes(int desiredCount, long limit) {
+		int oldCount = count;
+		int[] oldArray = array;
+		int pMax = oldArray[oldCount-1];
 		// Is the array still too small when the current thread gets its go?
-		if (desiredCount > count) {
-			array = new int[desiredCount];
-			capacity = desiredCount;
-			count = 0;
-			SegmentedSieve segmentedSieve = new SegmentedSieve(this);
-			segmentedSieve.sieve(limit);
+		if (desiredCount > oldCount && limit > pMax) {
+			CollectingCallback callback = new CollectingCallback(desiredCount);
+			System.arraycopy(oldArray, 0, callback.array, 0, oldCount);
+			callback.count = oldCount;
+			SegmentedSieve segmentedSieve = new SegmentedSieve(callback);
+			segmentedSieve.sieve(pMax + 1, limit);
+			// The array is not trimmed to callback.count; for big limits a copy would double the peak memory.
+			if (DEBUG) LOG.debug("Expanded primes array from " + oldCount + " to " + callback.count + " primes");
+			array = callback.array; // publish the array first,
+			count = callback.count; // then the count
 		}
 	}
-
-	/**
-	 * Fallback method: Receives new primes from the sieve and stores them in the array.
-	 */
-	@Override
-	public void processPrime(long prime) {
-		if (count == capacity) return; // array is full
-		array[count++] = (int) prime;
-	}
 }
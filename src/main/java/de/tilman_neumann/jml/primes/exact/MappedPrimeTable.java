@@ -0,0 +1,159 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * A read-only prime table backed by a memory-mapped file.
+ * 
+ * The file contains a small header followed by the primes up to some limit as little-endian 32-bit ints. Mapping it is almost free,
+ * and processes mapping the same file share the data through the page cache, so no process needs to run a sieve at startup.
+ * Access via getPrime(n) is O(1), like for AutoExpandingPrimesArray, but the table can not grow beyond the limit it was written with.
+ * 
+ * Prime table files are created with {@link #write(File, int)}.
+ * 
+ * @author Tilman Neumann
+ */
+public class MappedPrimeTable implements PrimeTable {
+	private static final Logger LOG = LogManager.getLogger(MappedPrimeTable.class);
+	private static final boolean DEBUG = false;
+
+	private static final int FILE_MAGIC = 0x4a4d4c50; // "JMLP"
+	private static final int FILE_VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	private int limit;
+	private int count;
+	private IntBuffer primes;
+
+	/**
+	 * Write all primes <= limit to a prime table file.
+	 * @param file
+	 * @param limit
+	 * @throws IOException
+	 */
+	public static void write(File file, int limit) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+			channel.truncate(0);
+			// primes are written behind the header while sieving; the header is written when the count is known
+			channel.position(HEADER_SIZE);
+			WritingCallback callback = new WritingCallback(channel);
+			try {
+				new SegmentedSieve(callback).sieve(limit);
+				callback.flush();
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(limit).putInt(callback.count);
+			header.flip();
+			channel.position(0);
+			while (header.hasRemaining()) channel.write(header);
+			if (DEBUG) LOG.debug("Wrote " + callback.count + " primes <= " + limit + " to " + file);
+		}
+	}
+
+	/**
+	 * Memory-map a prime table file read-only.
+	 * @param file a file created by {@link #write(File, int)}
+	 * @throws IOException if the file can not be read or has an invalid format
+	 */
+	public MappedPrimeTable(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(0) != FILE_MAGIC || header.getInt(4) != FILE_VERSION) throw new IOException(file + " is not a prime table file of version " + FILE_VERSION);
+			limit = header.getInt(8);
+			count = header.getInt(12);
+			if (channel.size() != HEADER_SIZE + 4L*count) throw new IOException(file + " has size " + channel.size() + ", but " + (HEADER_SIZE + 4L*count) + " was expected");
+			// the mapping stays valid after the channel is closed
+			primes = channel.map(MapMode.READ_ONLY, HEADER_SIZE, 4L*count).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		}
+	}
+
+	/**
+	 * @return the limit the file was written with; the table contains all primes <= limit
+	 */
+	@Override
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return the number of primes in the table
+	 */
+	@Override
+	public int getPrimeCount() {
+		return count;
+	}
+
+	@Override
+	public MappedPrimeTable ensurePrimeCount(int desiredCount) {
+		if (desiredCount > count) throw new IllegalArgumentException("The prime table contains only " + count + " primes, but " + desiredCount + " are required");
+		return this;
+	}
+
+	@Override
+	public MappedPrimeTable ensureLimit(int x) {
+		if (x > limit) throw new IllegalArgumentException("The prime table contains only primes <= " + limit + ", but primes <= " + x + " are required");
+		return this;
+	}
+
+	@Override
+	public int getPrime(int n) {
+		return primes.get(n);
+	}
+
+	/**
+	 * Writes the primes coming from the sieve to a file channel.
+	 */
+	private static class WritingCallback implements SieveCallback {
+		private FileChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocate(1<<16).order(ByteOrder.LITTLE_ENDIAN);
+		int count = 0;
+		
+		WritingCallback(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void processPrime(long prime) {
+			if (!buffer.hasRemaining()) flush();
+			buffer.putInt((int) prime);
+			count++;
+		}
+		
+		void flush() {
+			buffer.flip();
+			try {
+				while (buffer.hasRemaining()) channel.write(buffer);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			buffer.clear();
+		}
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.primes.bounds.PrimeCountUpperBounds;
+
+/**
+ * Multi-threaded segmented sieve of Eratosthenes for arbitrary ranges [start, end).
+ * 
+ * The range is split into chunks that are sieved by a thread pool. Each chunk is processed in segments of 2^18 odd numbers,
+ * stored as a bitset of 32 kB that fits into the L1 or L2 cache. The primes can be delivered
+ * <ul>
+ * <li>to per-thread callbacks, each of which receives the primes of a contiguous sub-range in increasing order,</li>
+ * <li>as a sorted long[] array,</li>
+ * <li>or as bitset blocks to a thread-safe {@link SieveBlockCallback}, avoiding a method call per prime.</li>
+ * </ul>
+ * 
+ * The sieving primes are int values, so end must not exceed 2^62.
+ * 
+ * The worker threads are daemon threads, but shutdown() should be called when the sieve is not needed anymore.
+ * 
+ * @author Tilman Neumann
+ */
+public class ParallelSegmentedSieve {
+	private static final Logger LOG = LogManager.getLogger(ParallelSegmentedSieve.class);
+	private static final boolean DEBUG = false;
+
+	/** number of odd numbers per segment */
+	private static final int SEGMENT_ODDS = 1<<18;
+	/** maximum size of the chunks sieved by a single task, a multiple of the segment size */
+	private static final long MAX_CHUNK_SIZE = ((long) SEGMENT_ODDS) << 9;
+	
+	private static final long MAX_END = 1L<<62;
+
+	private int numberOfThreads;
+	
+	private ExecutorService executor;
+
+	/**
+	 * Full constructor.
+	 * @param numberOfThreads the number of threads to use
+	 */
+	public ParallelSegmentedSieve(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+		executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+			private AtomicInteger threadIndex = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "PS-" + threadIndex.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+	
+	/**
+	 * Sieve [start, end) and pass the primes to the given callbacks. The range is split into callbacks.length contiguous
+	 * sub-ranges of about equal size; callback i receives the primes of sub-range i in increasing order, in a single pool thread.
+	 * Thus the callbacks do not need to be thread-safe if they are distinct objects.
+	 * 
+	 * @param start inclusive
+	 * @param end exclusive
+	 * @param callbacks
+	 */
+	public void sieve(long start, long end, SieveCallback[] callbacks) {
+		checkRange(start, end);
+		if (start <= 2 && end > 2) callbacks[0].processPrime(2);
+		int[] basePrimes = computeBasePrimes(end);
+		int partCount = callbacks.length;
+		List<Callable<Void>> tasks = new ArrayList<>(partCount);
+		long partStart = start;
+		for (int i=0; i<partCount; i++) {
+			long partEnd = (i == partCount-1) ? end : Math.max(partStart, (start + (end-start) / partCount * (i+1)) & ~1L);
+			final long s = partStart, e = partEnd;
+			final SieveCallback callback = callbacks[i];
+			tasks.add(() -> {
+				sieveRange(s, e, basePrimes, new BlockToPrimesCallback(callback));
+				return null;
+			});
+			partStart = partEnd;
+		}
+		runTasks(tasks);
+	}
+
+	/**
+	 * Sieve [start, end) and pass the primes as bitset blocks to the given callback.
+	 * The blocks of different chunks are passed concurrently and in no particular order, so the callback must be thread-safe.
+	 * 
+	 * @param start inclusive
+	 * @param end exclusive
+	 * @param callback
+	 */
+	public void sieve(long start, long end, SieveBlockCallback callback) {
+		checkRange(start, end);
+		int[] basePrimes = computeBasePrimes(end);
+		List<Callable<Void>> tasks = new ArrayList<>();
+		long chunkSize = computeChunkSize(start, end);
+		for (long chunkStart = start; chunkStart < end; chunkStart += chunkSize) {
+			final long s = chunkStart, e = Math.min(chunkStart + chunkSize, end);
+			tasks.add(() -> {
+				sieveRange(s, e, basePrimes, callback);
+				return null;
+			});
+		}
+		runTasks(tasks);
+	}
+
+	/**
+	 * Sieve [start, end) and return all primes in that range.
+	 * @param start inclusive
+	 * @param end exclusive
+	 * @return sorted array of the primes p with start <= p < end
+	 */
+	public long[] sieve(long start, long end) {
+		checkRange(start, end);
+		int[] basePrimes = computeBasePrimes(end);
+		List<Callable<long[]>> tasks = new ArrayList<>();
+		long chunkSize = computeChunkSize(start, end);
+		for (long chunkStart = start; chunkStart < end; chunkStart += chunkSize) {
+			final long s = chunkStart, e = Math.min(chunkStart + chunkSize, end);
+			tasks.add(() -> {
+				CollectingBlockCallback callback = new CollectingBlockCallback(e - s);
+				sieveRange(s, e, basePrimes, callback);
+				return Arrays.copyOf(callback.primes, callback.count);
+			});
+		}
+		List<long[]> chunkPrimes = runTasks(tasks);
+		
+		// concatenate the results
+		long totalCount = (start <= 2 && end > 2) ? 1 : 0;
+		for (long[] primes : chunkPrimes) totalCount += primes.length;
+		if (totalCount > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("[" + start + ", " + end + ") contains too many primes to be stored in an array");
+		long[] result = new long[(int) totalCount];
+		int pos = 0;
+		if (start <= 2 && end > 2) result[pos++] = 2;
+		for (long[] primes : chunkPrimes) {
+			System.arraycopy(primes, 0, result, pos, primes.length);
+			pos += primes.length;
+		}
+		return result;
+	}
+
+	/**
+	 * Stop the worker threads.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private void checkRange(long start, long end) {
+		if (start < 0 || end > MAX_END) throw new IllegalArgumentException("Invalid range [" + start + ", " + end + "): Only 0 <= start and end <= 2^62 are supported");
+	}
+
+	/**
+	 * Split the range into chunks such that all threads get some work, but big ranges do not need too much memory per task.
+	 */
+	private long computeChunkSize(long start, long end) {
+		long chunkSize = (end - start) / numberOfThreads + 1;
+		// round up to a multiple of the segment size
+		long segmentSize = ((long) SEGMENT_ODDS) << 1;
+		chunkSize = ((chunkSize + segmentSize - 1) / segmentSize) * segmentSize;
+		return Math.min(chunkSize, MAX_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param end
+	 * @return all odd primes p with p^2 < end (and possibly a few more)
+	 */
+	private int[] computeBasePrimes(long end) {
+		long sqrt = (long) Math.sqrt((double) end) + 1;
+		CollectingCallback callback = new CollectingCallback((int) PrimeCountUpperBounds.combinedUpperBound(sqrt));
+		new SegmentedSieve(callback).sieve(3, sqrt);
+		if (DEBUG) LOG.debug("end = " + end + ": " + callback.count + " sieving primes");
+		return Arrays.copyOf(callback.array, callback.count);
+	}
+
+	/**
+	 * Sieve [start, end) segment by segment and pass the segment bitsets to the callback.
+	 * @param start
+	 * @param end
+	 * @param basePrimes odd primes p with p^2 < end
+	 * @param callback
+	 */
+	private void sieveRange(long start, long end, int[] basePrimes, SieveBlockCallback callback) {
+		long[] bits = new long[SEGMENT_ODDS >> 6];
+		int[] next = new int[basePrimes.length]; // index of the next odd multiple to cross out, relative to the current segment
+		int activeCount = 0; // number of base primes with p^2 < current segment end
+		for (long segLow = start & ~1L; segLow < end; segLow += SEGMENT_ODDS<<1) {
+			int oddCount = (int) Math.min(SEGMENT_ODDS, (end - segLow) >> 1);
+			if (oddCount == 0) break;
+			long segEnd = segLow + (oddCount<<1) + 1;
+			
+			// activate new sieving primes
+			while (activeCount < basePrimes.length) {
+				long p = basePrimes[activeCount];
+				long m = p*p;
+				if (m >= segEnd) break;
+				if (m <= segLow) {
+					// first odd multiple of p > segLow; this can only happen in the first segment
+					m = ((segLow + p) / p) * p;
+					if ((m & 1) == 0) m += p;
+				}
+				next[activeCount++] = (int) ((m - segLow - 1) >> 1);
+			}
+			
+			// cross out odd multiples
+			int wordCount = (oddCount + 63) >> 6;
+			Arrays.fill(bits, 0, wordCount, 0);
+			for (int i=0; i<activeCount; i++) {
+				// j is long, because j + p overflows int for p > 2^31 - SEGMENT_ODDS, i.e. for end > ~2^62 - 2^50
+				long j = next[i];
+				int p = basePrimes[i];
+				for ( ; j < oddCount; j += p) {
+					bits[(int) (j>>6)] |= 1L << j;
+				}
+				next[i] = (int) (j - SEGMENT_ODDS); // < p
+			}
+			
+			// invert, so that set bits are primes
+			for (int w=0; w<wordCount; w++) {
+				bits[w] = ~bits[w];
+			}
+			if ((oddCount & 63) != 0) bits[wordCount-1] &= (1L << oddCount) - 1;
+			if (segLow == 0) bits[0] &= ~1L; // 1 is not prime
+			
+			callback.processBlock(segLow, bits, oddCount);
+		}
+	}
+
+	private <T> List<T> runTasks(List<Callable<T>> tasks) {
+		try {
+			List<T> results = new ArrayList<>(tasks.size());
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Parallel sieve has been interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Adapter passing the primes of a block to a SieveCallback one by one.
+	 */
+	private static class BlockToPrimesCallback implements SieveBlockCallback {
+		private SieveCallback callback;
+		
+		BlockToPrimesCallback(SieveCallback callback) {
+			this.callback = callback;
+		}
+		
+		@Override
+		public void processBlock(long low, long[] oddBits, int oddCount) {
+			int wordCount = (oddCount + 63) >> 6;
+			for (int w=0; w<wordCount; w++) {
+				long word = oddBits[w];
+				long wordLow = low + (((long) w) << 7) + 1;
+				while (word != 0) {
+					callback.processPrime(wordLow + (Long.numberOfTrailingZeros(word) << 1));
+					word &= word - 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the primes of one chunk in a long[].
+	 */
+	private static class CollectingBlockCallback implements SieveBlockCallback {
+		long[] primes;
+		int count = 0;
+		
+		CollectingBlockCallback(long rangeSize) {
+			// a rough guess; the array grows if necessary
+			primes = new long[(int) Math.min(rangeSize/16 + 64, 1<<20)];
+		}
+		
+		@Override
+		public void processBlock(long low, long[] oddBits, int oddCount) {
+			int wordCount = (oddCount + 63) >> 6;
+			for (int w=0; w<wordCount; w++) {
+				long word = oddBits[w];
+				if (count + 64 > primes.length) primes = Arrays.copyOf(primes, (int) Math.min(2L * primes.length + 64, Integer.MAX_VALUE - 8));
+				long wordLow = low + (((long) w) << 7) + 1;
+				while (word != 0) {
+					primes[count++] = wordLow + (Long.numberOfTrailingZeros(word) << 1);
+					word &= word - 1;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+/**
+ * Random access to the primes in increasing order.
+ * 
+ * @author Tilman Neumann
+ */
+public interface PrimeTable {
+	/**
+	 * Ensures that the table contains at least the first 'desiredCount' primes.
+	 * @param desiredCount
+	 * @return this
+	 * @throws IllegalArgumentException if the table can not provide that many primes
+	 */
+	PrimeTable ensurePrimeCount(int desiredCount);
+
+	/**
+	 * Ensures that the table contains all primes <= x.
+	 * @param x
+	 * @return this
+	 * @throws IllegalArgumentException if the table can not provide all primes <= x
+	 */
+	PrimeTable ensureLimit(int x);
+
+	/**
+	 * @return the biggest x such that the table can provide all primes <= x; Integer.MAX_VALUE if the table grows on demand
+	 */
+	int getLimit();
+
+	/**
+	 * @return the number of primes the table can provide; Integer.MAX_VALUE if the table grows on demand
+	 */
+	int getPrimeCount();
+
+	/**
+	 * Get the n.th prime, e.g. p[0]=2.
+	 * @param n
+	 * @return n.th prime, where n starts at 0, e.g. p[0] = 2
+	 */
+	int getPrime(int n);
+}
@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018-2024 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -32,10 +32,26 @@ public class SegmentedSieve {
 	 * @param limit biggest number to test for prime
 	 */
 	public void sieve(long limit) {
+		sieve(2, limit);
+	}
+
+	/**
+	 * Generate the primes p with start <= p <= limit.
+	 * This allows to continue sieving where a previous sieve run stopped.
+	 * 
+	 * @param start smallest number to test for prime
+	 * @param limit biggest number to test for prime
+	 */
+	public void sieve(long start, long limit) {
 		// small primes not delivered by the sieve below
-		clientCallback.processPrime(2);
+		if (start <= 2 && limit >= 2) clientCallback.processPrime(2);
 
-		int segmentSize = (int) Math.min(limit, 131072); // best segmentSize determined by experiment
+		// the first odd candidate >= 3, and the even number before it as the lower bound of the first segment
+		long first = Math.max(3, start | 1);
+		if (first > limit) return;
+		long start0 = first - 1;
+		
+		int segmentSize = (int) Math.min(limit - start0 + 1, 131072); // best segmentSize determined by experiment
 		int sqrt = (int) Math.sqrt(limit);
 		
 		// Generate small primes <= sqrt(limit).
@@ -65,8 +81,8 @@ public class SegmentedSieve {
 
 		// segment loop
 		long s = 3;
-		long n = 3;
-		for (long low=0; low <= limit; low += segmentSize) {
+		long n = first;
+		for (long low=start0; low <= limit; low += segmentSize) {
 			boolean[] sieveIsComposite = new boolean[segmentSize]; // initialized with false
 			// current segment = interval [low, high]
 			long high = Math.min(low + segmentSize - 1, limit);
@@ -75,7 +91,14 @@ public class SegmentedSieve {
 			for ( ; s*s <= high; s+=2) {
 				if (!isComposite[(int) s]) {
 					doublePrimes[primesCount] = s<<1;
-					next[primesCount] = s*s - low;
+					// The first odd multiple of s to cross out is s^2, or the first odd multiple >= low if s^2 < low.
+					// The latter can only happen in the first segment if start > 2.
+					long m = s*s;
+					if (m < low) {
+						m = ((low + s - 1) / s) * s;
+						if ((m & 1) == 0) m += s;
+					}
+					next[primesCount] = m - low;
 					primesCount++;
 				}
 			}
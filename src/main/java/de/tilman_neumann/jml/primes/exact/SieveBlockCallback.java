@@ -0,0 +1,33 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+/**
+ * Callback interface for sieves delivering primes as bitsets over the odd numbers.
+ * 
+ * @author Tilman Neumann
+ */
+public interface SieveBlockCallback {
+	/**
+	 * Process a sieved block. Bit i of oddBits (bit i%64 of oddBits[i/64]) represents the odd number low + 2i + 1;
+	 * it is set if and only if that number is prime. The only even prime 2 is not contained in any block.
+	 * 
+	 * The array is reused by the sieve after this method returns, so it must be copied if it is needed later.
+	 * 
+	 * @param low an even number
+	 * @param oddBits the bitset
+	 * @param oddCount the number of valid bits, starting at bit 0
+	 */
+	void processBlock(long low, long[] oddBits, int oddCount);
+}
@@ -0,0 +1,399 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * A compact store of all primes up to some limit, based on a mod 30 wheel bitset.
+ * 
+ * Each byte represents the 8 numbers coprime to 30 in an interval [30k, 30k+30), so a store up to 10^11 needs about 3.3 GB,
+ * whereas an int array of these primes is not possible at all (and would need 16 GB).
+ * A popcount index (cumulative prime counts per superblock of 2^16 words and per block of 16 words) allows to answer
+ * isPrime(n) in O(1), pi(x) in O(1) and nthPrime(n) in O(log n). nextPrime(n) scans the bitset, which is fast because prime gaps are small.
+ * 
+ * A store can be written to a file and memory-mapped read-only later, so that no sieving or index computation is needed at startup,
+ * and several processes can share the data through the page cache.
+ * 
+ * @author Tilman Neumann
+ */
+public class WheelPrimeStore {
+	private static final Logger LOG = LogManager.getLogger(WheelPrimeStore.class);
+	private static final boolean DEBUG = false;
+
+	/** the numbers coprime to 30 in [0, 30) */
+	private static final int[] RESIDUES = {1, 7, 11, 13, 17, 19, 23, 29};
+	/** RESIDUE_INDEX[r] = i if RESIDUES[i] == r, or -1 if r is not coprime to 30 */
+	private static final int[] RESIDUE_INDEX = new int[30];
+	/** RESIDUE_COUNT[r] = number of residues <= r */
+	private static final int[] RESIDUE_COUNT = new int[30];
+	static {
+		int count = 0;
+		for (int r=0; r<30; r++) {
+			RESIDUE_INDEX[r] = -1;
+			if (count < 8 && RESIDUES[count] == r) RESIDUE_INDEX[r] = count++;
+			RESIDUE_COUNT[r] = count;
+		}
+	}
+
+	/** the primes not contained in the wheel, with a dummy entry at index 0 */
+	private static final long[] SMALL_PRIMES = {0, 2, 3, 5};
+
+	private static final int BLOCK_WORDS_LOG = 4;
+	private static final int SUPERBLOCK_WORDS_LOG = 16;
+	/** number of words per page; smaller than 2^31 bytes, the maximum size of a memory-mapped buffer */
+	private static final int PAGE_WORDS_LOG = 27;
+	private static final int PAGE_WORDS_MASK = (1<<PAGE_WORDS_LOG) - 1;
+
+	private static final int FILE_MAGIC = 0x4a4d4c57; // "JMLW"
+	private static final int FILE_VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+
+	private long limit;
+	private long wordCount;
+	/** the wheel bitset in pages of 2^27 words */
+	private LongBuffer[] pages;
+	/** number of wheel primes before each superblock */
+	private LongBuffer superblockCounts;
+	/** number of wheel primes before each block, relative to the start of its superblock */
+	private IntBuffer blockCounts;
+	/** number of all primes <= limit */
+	private long primeCount;
+
+	/**
+	 * Sieve all primes up to limit, using the given number of threads.
+	 * @param limit maximum number to be covered by the store
+	 * @param numberOfThreads
+	 * @return prime store
+	 */
+	public static WheelPrimeStore create(long limit, int numberOfThreads) {
+		if (limit < 0 || limit >= (1L<<42)) throw new IllegalArgumentException("limit " + limit + " is not supported; must be in [0, 2^42)");
+		long wordCount = ((limit/30 + 1) * 8 + 63) >> 6;
+		int pageCount = (int) ((wordCount + PAGE_WORDS_MASK) >> PAGE_WORDS_LOG);
+		long[][] pageArrays = new long[pageCount][];
+		for (int i=0; i<pageCount; i++) {
+			pageArrays[i] = new long[(int) Math.min(1L<<PAGE_WORDS_LOG, wordCount - (((long) i) << PAGE_WORDS_LOG))];
+		}
+		
+		ParallelSegmentedSieve sieve = new ParallelSegmentedSieve(numberOfThreads);
+		try {
+			sieve.sieve(0, limit+1, new WheelBlockCallback(pageArrays));
+		} finally {
+			sieve.shutdown();
+		}
+		
+		LongBuffer[] pages = new LongBuffer[pageCount];
+		for (int i=0; i<pageCount; i++) {
+			pages[i] = LongBuffer.wrap(pageArrays[i]);
+		}
+		WheelPrimeStore store = new WheelPrimeStore(limit, wordCount, pages);
+		store.computeIndex();
+		if (DEBUG) LOG.debug("Created prime store up to " + limit + " with " + store.primeCount + " primes in " + wordCount + " words");
+		return store;
+	}
+
+	/**
+	 * Memory-map a prime store file written by {@link #write(File)}. The file is mapped read-only.
+	 * @param file
+	 * @return prime store
+	 * @throws IOException if the file can not be read or has an invalid format
+	 */
+	public static WheelPrimeStore map(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(0) != FILE_MAGIC || header.getInt(4) != FILE_VERSION) throw new IOException(file + " is not a prime store file of version " + FILE_VERSION);
+			long limit = header.getLong(8);
+			long wordCount = header.getLong(16);
+			long primeCount = header.getLong(24);
+			int superblockCount = superblockCount(wordCount);
+			int blockCount = blockCount(wordCount);
+			long expectedFileSize = HEADER_SIZE + 8*wordCount + 8L*superblockCount + 4L*blockCount;
+			if (channel.size() != expectedFileSize) throw new IOException(file + " has size " + channel.size() + ", but " + expectedFileSize + " was expected");
+			
+			int pageCount = (int) ((wordCount + PAGE_WORDS_MASK) >> PAGE_WORDS_LOG);
+			LongBuffer[] pages = new LongBuffer[pageCount];
+			long position = HEADER_SIZE;
+			for (int i=0; i<pageCount; i++) {
+				long pageWords = Math.min(1L<<PAGE_WORDS_LOG, wordCount - (((long) i) << PAGE_WORDS_LOG));
+				pages[i] = channel.map(MapMode.READ_ONLY, position, 8*pageWords).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+				position += 8*pageWords;
+			}
+			WheelPrimeStore store = new WheelPrimeStore(limit, wordCount, pages);
+			store.superblockCounts = channel.map(MapMode.READ_ONLY, position, 8L*superblockCount).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+			position += 8L*superblockCount;
+			store.blockCounts = channel.map(MapMode.READ_ONLY, position, 4L*blockCount).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			store.primeCount = primeCount;
+			// the mappings stay valid after the channel is closed
+			return store;
+		}
+	}
+
+	private WheelPrimeStore(long limit, long wordCount, LongBuffer[] pages) {
+		this.limit = limit;
+		this.wordCount = wordCount;
+		this.pages = pages;
+	}
+	
+	private static int superblockCount(long wordCount) {
+		return (int) (((wordCount - 1) >> SUPERBLOCK_WORDS_LOG) + 1);
+	}
+	
+	private static int blockCount(long wordCount) {
+		return (int) (((wordCount - 1) >> BLOCK_WORDS_LOG) + 1);
+	}
+
+	private void computeIndex() {
+		superblockCounts = LongBuffer.allocate(superblockCount(wordCount));
+		blockCounts = IntBuffer.allocate(blockCount(wordCount));
+		long count = 0, superblockStartCount = 0;
+		for (long w=0; w<wordCount; w++) {
+			if ((w & ((1<<SUPERBLOCK_WORDS_LOG)-1)) == 0) {
+				superblockStartCount = count;
+				superblockCounts.put((int) (w >> SUPERBLOCK_WORDS_LOG), count);
+			}
+			if ((w & ((1<<BLOCK_WORDS_LOG)-1)) == 0) {
+				blockCounts.put((int) (w >> BLOCK_WORDS_LOG), (int) (count - superblockStartCount));
+			}
+			count += Long.bitCount(getWord(w));
+		}
+		// add 2, 3, 5 which are not contained in the wheel
+		primeCount = count + Math.min(3, pi_small(limit));
+	}
+
+	/**
+	 * Write this store to a file that can be memory-mapped with {@link #map(File)}.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void write(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+			channel.truncate(0);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putLong(limit).putLong(wordCount).putLong(primeCount);
+			header.position(HEADER_SIZE); // the rest of the header is reserved
+			writeFully(channel, header);
+			
+			ByteBuffer buffer = ByteBuffer.allocate(1<<16).order(ByteOrder.LITTLE_ENDIAN);
+			for (long w=0; w<wordCount; w++) {
+				if (!buffer.hasRemaining()) writeFully(channel, buffer);
+				buffer.putLong(getWord(w));
+			}
+			for (int i=0; i<superblockCounts.limit(); i++) {
+				if (!buffer.hasRemaining()) writeFully(channel, buffer);
+				buffer.putLong(superblockCounts.get(i));
+			}
+			for (int i=0; i<blockCounts.limit(); i++) {
+				if (buffer.remaining() < 4) writeFully(channel, buffer);
+				buffer.putInt(blockCounts.get(i));
+			}
+			writeFully(channel, buffer);
+		}
+	}
+	
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * @return the maximum number covered by this store
+	 */
+	public long getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return the number of primes <= limit
+	 */
+	public long getPrimeCount() {
+		return primeCount;
+	}
+
+	/**
+	 * @param n a number <= limit
+	 * @return true if n is prime
+	 */
+	public boolean isPrime(long n) {
+		checkArgument(n);
+		if (n < 7) return n==2 || n==3 || n==5;
+		int residueIndex = RESIDUE_INDEX[(int) (n % 30)];
+		if (residueIndex < 0) return false;
+		long bit = ((n / 30) << 3) + residueIndex;
+		return (getWord(bit >> 6) & (1L << bit)) != 0;
+	}
+
+	/**
+	 * The prime counting function.
+	 * @param x a number <= limit
+	 * @return the number of primes <= x
+	 */
+	public long pi(long x) {
+		checkArgument(x);
+		if (x < 7) return pi_small(x);
+		// bit index of the biggest wheel number <= x; x >= 7 implies bit >= 1
+		long bit = ((x / 30) << 3) + RESIDUE_COUNT[(int) (x % 30)] - 1;
+		return 3 + countWheelPrimes(bit);
+	}
+	
+	private static int pi_small(long x) {
+		if (x < 2) return 0;
+		if (x < 3) return 1;
+		if (x < 5) return 2;
+		return 3; // x < 7
+	}
+
+	/**
+	 * @param bit
+	 * @return the number of wheel primes with bit index <= bit
+	 */
+	private long countWheelPrimes(long bit) {
+		long w = bit >> 6;
+		long count = superblockCounts.get((int) (w >> SUPERBLOCK_WORDS_LOG)) + blockCounts.get((int) (w >> BLOCK_WORDS_LOG));
+		for (long v = (w >> BLOCK_WORDS_LOG) << BLOCK_WORDS_LOG; v < w; v++) {
+			count += Long.bitCount(getWord(v));
+		}
+		return count + Long.bitCount(getWord(w) & (-1L >>> (63 - (bit & 63))));
+	}
+
+	/**
+	 * @param n a number with 1 <= n <= getPrimeCount()
+	 * @return the n.th prime, where nthPrime(1) = 2
+	 */
+	public long nthPrime(long n) {
+		if (n < 1 || n > primeCount) throw new IllegalArgumentException("n=" + n + " is not in [1, " + primeCount + "]");
+		if (n <= 3) return SMALL_PRIMES[(int) n];
+		long m = n - 3; // we want the m.th wheel prime
+		
+		// find the last superblock with less than m wheel primes before it
+		int left = 0, right = superblockCounts.limit() - 1;
+		while (left < right) {
+			int mid = (left + right + 1) >>> 1;
+			if (superblockCounts.get(mid) < m) left = mid; else right = mid - 1;
+		}
+		int superblock = left;
+		long rest = m - superblockCounts.get(superblock);
+		
+		// find the last block in that superblock with less than rest wheel primes before it
+		int firstBlock = superblock << (SUPERBLOCK_WORDS_LOG - BLOCK_WORDS_LOG);
+		left = firstBlock;
+		right = (int) Math.min(blockCounts.limit(), firstBlock + (1L << (SUPERBLOCK_WORDS_LOG - BLOCK_WORDS_LOG))) - 1;
+		while (left < right) {
+			int mid = (left + right + 1) >>> 1;
+			if (blockCounts.get(mid) < rest) left = mid; else right = mid - 1;
+		}
+		rest -= blockCounts.get(left);
+		
+		// scan the words of the block
+		long w = ((long) left) << BLOCK_WORDS_LOG;
+		long word = getWord(w);
+		int wordPrimeCount;
+		while ((wordPrimeCount = Long.bitCount(word)) < rest) {
+			rest -= wordPrimeCount;
+			word = getWord(++w);
+		}
+		// select the rest.th set bit of word
+		for (long i=1; i<rest; i++) {
+			word &= word - 1;
+		}
+		return wheelNumber((w << 6) + Long.numberOfTrailingZeros(word));
+	}
+
+	/**
+	 * @param n a number < limit
+	 * @return the smallest prime > n, or -1 if there is no such prime <= limit
+	 */
+	public long nextPrime(long n) {
+		checkArgument(n);
+		if (n < 2) return limit >= 2 ? 2 : -1;
+		if (n < 3) return limit >= 3 ? 3 : -1;
+		if (n < 5) return limit >= 5 ? 5 : -1;
+		// first bit index of a wheel number > n
+		long bit = ((n / 30) << 3) + RESIDUE_COUNT[(int) (n % 30)];
+		long w = bit >> 6;
+		if (w >= wordCount) return -1;
+		long word = getWord(w) & (-1L << bit);
+		while (word == 0) {
+			if (++w == wordCount) return -1;
+			word = getWord(w);
+		}
+		return wheelNumber((w << 6) + Long.numberOfTrailingZeros(word));
+	}
+	
+	private static long wheelNumber(long bit) {
+		return 30 * (bit >> 3) + RESIDUES[(int) (bit & 7)];
+	}
+
+	private long getWord(long w) {
+		return pages[(int) (w >> PAGE_WORDS_LOG)].get((int) (w & PAGE_WORDS_MASK));
+	}
+
+	private void checkArgument(long n) {
+		if (n > limit) throw new IllegalArgumentException("n=" + n + " exceeds the limit " + limit + " of this prime store");
+	}
+
+	/**
+	 * Sets the wheel bits of the primes received from the sieve.
+	 * Blocks are processed concurrently, but two blocks can only share their first or last word, so only these need synchronization.
+	 */
+	private static class WheelBlockCallback implements SieveBlockCallback {
+		private long[][] pageArrays;
+		
+		WheelBlockCallback(long[][] pageArrays) {
+			this.pageArrays = pageArrays;
+		}
+		
+		@Override
+		public void processBlock(long low, long[] oddBits, int oddCount) {
+			long firstWord = wheelWord(low + 1);
+			long lastWord = wheelWord(low + 2L*oddCount - 1);
+			int oddWordCount = (oddCount + 63) >> 6;
+			for (int i=0; i<oddWordCount; i++) {
+				long oddWord = oddBits[i];
+				long oddWordLow = low + (((long) i) << 7) + 1;
+				while (oddWord != 0) {
+					long p = oddWordLow + (Long.numberOfTrailingZeros(oddWord) << 1);
+					oddWord &= oddWord - 1;
+					if (p < 7) continue; // 3 and 5 are not part of the wheel
+					long bit = ((p / 30) << 3) + RESIDUE_INDEX[(int) (p % 30)];
+					long w = bit >> 6;
+					long[] page = pageArrays[(int) (w >> PAGE_WORDS_LOG)];
+					int index = (int) (w & PAGE_WORDS_MASK);
+					if (w == firstWord || w == lastWord) {
+						synchronized (this) {
+							page[index] |= 1L << bit;
+						}
+					} else {
+						page[index] |= 1L << bit;
+					}
+				}
+			}
+		}
+		
+		private static long wheelWord(long n) {
+			return (n / 30) >> 3;
+		}
+	}
+}
@@ -1,6 +1,6 @@
 /*
  * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
- * Copyright (C) 2018 Tilman Neumann - tilman.neumann@web.de
+ * Copyright (C) 2018-2026 Tilman Neumann - tilman.neumann@web.de
  *
  * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
  * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
@@ -23,6 +23,8 @@ import java.util.HashSet;
  * [http://en.wikipedia.org/wiki/Baillie-PSW_primality_test] and references therein.
  * 
  * Note that BPSW may be considered a deterministic prime test for N < 2^64.
+ * Such arguments are delegated to the allocation-free {@link BPSWTest64}, and arguments with up to 512 bits
+ * to the Montgomery arithmetic implementation {@link BPSWTest512}.
  * 
  * @author Tilman Neumann
  */
@@ -39,24 +41,32 @@ public class BPSWTest {
 		return hashset;
 	}
 	
-	//private TDivPrimeTest tdiv = new TDivPrimeTest();
+	private BPSWTest64 bpsw64 = new BPSWTest64();
+	private BPSWTest512 bpsw512 = new BPSWTest512();
+	/** created on demand, because the sieve itself creates BPSWTest instances */
+	private PrimeRangeSieve primeRangeSieve;
 	private MillerRabinTest millerRabinTest = new MillerRabinTest();
 	private LucasTest lucasTest = new LucasTest();
 
     public boolean isProbablePrime(long N) {
-    	return isProbablePrime(BigInteger.valueOf(N)); // TODO: faster implementation for long?
+    	// sign is irrelevant; Math.abs(Long.MIN_VALUE) is Long.MIN_VALUE, which is 2^63 as an unsigned number and thus correctly composite
+    	return bpsw64.isProbablePrime(Math.abs(N));
     }
 
     public boolean isProbablePrime(BigInteger N) {
         N = N.abs(); // sign is irrelevant
-        if (!N.testBit(0)) return N.equals(I_2); // even N>2 is not prime
 
-        // For small N, trial division is much faster than BPSW
-        if (N.bitLength() < 32) {
-        	return TDivPrimeTest.getInstance().isPrime(N.intValue());
+        // For N < 2^64 the Montgomery implementation is much faster than BigInteger arithmetic, and faster than trial division even for small N
+        if (N.bitLength() <= 64) {
+        	return bpsw64.isProbablePrime(N.longValue());
+        }
+        if (!N.testBit(0)) return false; // even N>2 is not prime
+        // up to 512 bit, fixed-limb Montgomery arithmetic is 2-3 times faster than BigInteger arithmetic
+        if (N.bitLength() <= BPSWTest512.MAX_BITS) {
+        	return bpsw512.isProbablePrime(N);
         }
         
-		// Test residues % 30030. Note that N<30030 have been exclude by trial division above.
+		// Test residues % 30030. Note that N<30030 have been handled above.
 		if (!primeRestsMod30030.contains(N.mod(BIG_30030).intValue())) return false;
 
 		// The Lucas test is not carried out if N fails the base 2 Miller-Rabin test.
@@ -68,16 +78,11 @@ public class BPSWTest {
      * @return first prime > N
      */
     public BigInteger nextProbablePrime(BigInteger N) {
-    	// Java's built-in function using a sieve to identify prime candidates is stronger for N>=256 bit.
-    	if (N.bitLength()>=256) return N.nextProbablePrime();
-    	
-        N = N.abs(); // sign is irrelevant
-        if (N.bitLength()<=1) return I_2;
-    	// skip argument and make even argument odd
-        N = N.testBit(0) ? N.add(I_2) : N.add(I_1);
+    	// for N<=64 bit, stepping through the candidates without creating BigIntegers is fastest
+    	if (N.bitLength()<=64) return bpsw512.nextProbablePrime(N);
     	
-    	// loop to next prime
-    	while (!isProbablePrime(N)) N = N.add(I_2);
-    	return N;
+    	// above, sieving the candidates with more primes than just those <= 37 pays off
+    	if (primeRangeSieve == null) primeRangeSieve = new PrimeRangeSieve();
+    	return primeRangeSieve.nextProbablePrime(N);
     }
 }
@@ -0,0 +1,309 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.probable;
+
+import static de.tilman_neumann.jml.base.BigIntConstants.*;
+
+import java.math.BigInteger;
+
+import de.tilman_neumann.jml.modular.JacobiSymbol;
+import de.tilman_neumann.jml.modular.MontgomeryEngine;
+import de.tilman_neumann.jml.roots.SqrtExact;
+
+/**
+ * BPSW probable prime test for odd N with up to 512 bits, doing a base 2 Miller-Rabin test and a strong Lucas test
+ * in the fixed-limb Montgomery arithmetic of {@link MontgomeryEngine}.
+ * 
+ * The Miller-Rabin test, which rejects nearly all composites, is done by BigInteger.modPow(), because the JVM computes
+ * its Montgomery products with intrinsics that are 1.3 (96 bit) to 2.6 (512 bit) times faster than the engine.
+ * So each test allocates the BigInteger temporaries of that step.
+ * The Lucas test, which needs lots of temporary objects in BigInteger arithmetic, does not create objects (except for
+ * the final sqrt test of the rare arguments that look like squares), which makes this class notably faster for primes.
+ * 
+ * Instances are not thread-safe.
+ * 
+ * @author Tilman Neumann
+ */
+public class BPSWTest512 {
+	/** the maximum bit length of arguments */
+	public static final int MAX_BITS = 32*MontgomeryEngine.MAX_LIMBS;
+	
+	/** 2*3*5*7*11*13 = 30030 */
+	private static final int M1 = 30030;
+	
+	/** 17*19*23*29*31*37 = 247110827 */
+	private static final int M2 = 247110827;
+	
+	/** residues r (mod 30030) with gcd(r, 30030) = 1 */
+	private static final boolean[] COPRIME_TO_M1 = computeCoprimeResidues();
+	
+	/** quadratic residues modulo 63, 65 and 11, used as a quick square test */
+	private static final boolean[] SQUARES_MOD_63 = computeSquares(63);
+	private static final boolean[] SQUARES_MOD_65 = computeSquares(65);
+	private static final boolean[] SQUARES_MOD_11 = computeSquares(11);
+	
+	private static boolean[] computeCoprimeResidues() {
+		boolean[] coprime = new boolean[M1];
+		for (int r=0; r<M1; r++) {
+			coprime[r] = r%2!=0 && r%3!=0 && r%5!=0 && r%7!=0 && r%11!=0 && r%13!=0;
+		}
+		return coprime;
+	}
+	
+	private static boolean[] computeSquares(int m) {
+		boolean[] squares = new boolean[m];
+		for (int i=0; i<m; i++) squares[(i*i)%m] = true;
+		return squares;
+	}
+	
+	private BPSWTest64 bpsw64 = new BPSWTest64();
+	private MillerRabinTest millerRabinTest = new MillerRabinTest();
+	private MontgomeryEngine engine = new MontgomeryEngine();
+	private JacobiSymbol jacobiEngine = new JacobiSymbol();
+	
+	// buffers
+	private int[] N = new int[MontgomeryEngine.MAX_LIMBS];
+	private int limbCount;
+	private int[] D = new int[MontgomeryEngine.MAX_LIMBS];
+	private int[] U = new int[MontgomeryEngine.MAX_LIMBS];
+	private int[] V = new int[MontgomeryEngine.MAX_LIMBS];
+	private int[] U2 = new int[MontgomeryEngine.MAX_LIMBS];
+	private int[] V2 = new int[MontgomeryEngine.MAX_LIMBS];
+	private int[] tmp = new int[MontgomeryEngine.MAX_LIMBS];
+	
+	/**
+	 * Test if N is a BPSW probable prime.
+	 * @param N a number with at most 512 bits
+	 * @return true if N is probable prime, false if N is composite
+	 */
+	public boolean isProbablePrime(BigInteger N) {
+		if (N.signum() < 0) N = N.negate(); // sign is irrelevant
+		int NBits = N.bitLength();
+		if (NBits > MAX_BITS) {
+			throw new IllegalArgumentException("N = " + N + " has " + NBits + " bits, but " + getClass().getSimpleName() + " supports arguments with at most " + MAX_BITS + " bits");
+		}
+		if (NBits <= 64) return bpsw64.isProbablePrime(N.longValue());
+		if (!N.testBit(0)) return false;
+		
+		setCandidate(N);
+		if (!passesSmallPrimeTests()) return false;
+		return test(N);
+	}
+	
+	/**
+	 * @param N
+	 * @return the first probable prime > N, for N with at most 511 bits
+	 */
+	public BigInteger nextProbablePrime(BigInteger N) {
+		if (N.signum() < 0) N = N.negate(); // sign is irrelevant
+		int NBits = N.bitLength();
+		if (NBits >= MAX_BITS) {
+			throw new IllegalArgumentException("N = " + N + " has " + NBits + " bits, but nextProbablePrime() supports arguments with at most " + (MAX_BITS-1) + " bits");
+		}
+		if (NBits < 63) {
+			// then all primes in question fit into a long
+			long n = N.longValue();
+			if (n < 2) return BigInteger.valueOf(2);
+			n = (n&1)==0 ? n+1 : n+2;
+			while (!bpsw64.isProbablePrime(n)) n += 2;
+			return new BigInteger(Long.toUnsignedString(n));
+		}
+		
+		// set the first candidate N+1 or N+2
+		setCandidate(N);
+		addToCandidate(N.testBit(0) ? 2 : 1);
+		
+		while (true) {
+			if (passesSmallPrimeTests()) {
+				BigInteger candidate = toBigInteger(this.N, limbCount);
+				if (test(candidate)) return candidate;
+			}
+			addToCandidate(2);
+		}
+	}
+	
+	/**
+	 * Copies N into the candidate buffer. Allocation-free.
+	 * @param N positive with at most 512 bits
+	 */
+	private void setCandidate(BigInteger N) {
+		int NBits = N.bitLength();
+		for (int i=0; i<MontgomeryEngine.MAX_LIMBS; i++) this.N[i] = 0;
+		for (int i=0; i<NBits; i++) {
+			if (N.testBit(i)) this.N[i>>5] |= 1<<(i&31);
+		}
+		limbCount = Math.max(MontgomeryEngine.MIN_LIMBS, (NBits+31)>>5);
+	}
+	
+	/**
+	 * Adds a to the candidate. The result must have at most 512 bits.
+	 * @param a
+	 */
+	private void addToCandidate(int a) {
+		long carry = a;
+		int i = 0;
+		for ( ; carry!=0; i++) {
+			carry += N[i] & 0xFFFFFFFFL;
+			N[i] = (int) carry;
+			carry >>>= 32;
+		}
+		if (i > limbCount) limbCount = i;
+	}
+	
+	/**
+	 * The BPSW test of odd N that has no prime factors <= 37. Requires that the candidate buffer N and limbCount have been set up.
+	 * @param N the candidate as BigInteger
+	 * @return true if N is probable prime, false if N is composite
+	 */
+	private boolean test(BigInteger N) {
+		// The Lucas test is not carried out if N fails the base 2 Miller-Rabin test.
+		if (!millerRabinTest.testSingleBase(N, I_2)) return false;
+		
+		engine.setModulus(this.N, limbCount);
+		return isStrongLucasProbablePrime();
+	}
+	
+	/**
+	 * @return false if N has a prime factor <= 37
+	 */
+	private boolean passesSmallPrimeTests() {
+		if (!COPRIME_TO_M1[mod(M1)]) return false;
+		int r2 = mod(M2);
+		return r2%17!=0 && r2%19!=0 && r2%23!=0 && r2%29!=0 && r2%31!=0 && r2%37!=0;
+	}
+	
+	/**
+	 * Strong Lucas probable prime test with parameters P=1, D some value in 5, -7, 9, -11, 13, -15, ...  and Q=(1-D)/4,
+	 * following the same recurrences as {@link LucasTest#isStrongProbablePrime(BigInteger)}.
+	 * 
+	 * @return true if N is a strong Lucas probable prime, false if N is composite
+	 */
+	private boolean isStrongLucasProbablePrime() {
+		// Get first D with Jacobi(D|N) == -1. That is impossible if N is a square, so we check that if the search takes a while.
+		int Dint = 5;
+		while (true) {
+			int jacobi = jacobiSymbol(Dint);
+			if (jacobi == -1) break;
+			if (jacobi == 0) return false; // |D| < N is a proper factor of N
+			Dint = Dint>0 ? -Dint-2 : -Dint+2;
+			if (Dint == 13 && isSquare()) return false;
+		}
+		engine.toMontgomery(Math.abs(Dint), D);
+		if (Dint < 0) {
+			for (int i=0; i<limbCount; i++) tmp[i] = 0;
+			engine.subtract(tmp, D, D);
+		}
+		
+		// delta(N) = N+1 = d*2^s, d odd. Adding 1 to N flips the lowest run of 1-bits of N, so s is the index of the lowest 0-bit of N,
+		// and above bit s the bits of N+1 are those of N. If N = 2^k-1 (a Mersenne prime candidate) then s = k and d = 1.
+		final int NBits = engine.getBitLength();
+		int s = 1;
+		while (s < NBits && testBit(N, s)) s++;
+		
+		// run Lucas sequence until we find U_d
+		engine.getOne(U);
+		engine.getOne(V);
+		for (int i = NBits-2; i >= s; i--) {
+			// double indices: U_2k = U_k * V_k, V_2k = (V_k^2 + D*U_k^2) / 2 (mod N)
+			doubleIndices();
+			if (i == s || testBit(N, i)) {
+				// increment indices: U_(2k+1) = (U_2k + V_2k) / 2, V_(2k+1) = (D*U_2k + V_2k) / 2 (mod N)
+				engine.add(U2, V2, U);
+				engine.half(U, U);
+				engine.mul(D, U2, V);
+				engine.add(V, V2, V);
+				engine.half(V, V);
+			} else {
+				int[] swap = U; U = U2; U2 = swap;
+				swap = V; V = V2; V2 = swap;
+			}
+		}
+		// If U_d == 0 (mod N) or V_d == 0 (mod N) then N is a strong Lucas probable prime
+		if (engine.isZero(U) || engine.isZero(V)) return true;
+		
+		// test V_(d*2^r) == 0 (mod N) for 0<r<s
+		for (int r=1; r<s; r++) {
+			doubleIndices();
+			int[] swap = U; U = U2; U2 = swap;
+			swap = V; V = V2; V2 = swap;
+			if (engine.isZero(V)) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Computes U2 = U*V and V2 = (V^2 + D*U^2) / 2 (mod N).
+	 */
+	private void doubleIndices() {
+		engine.mul(U, V, U2);
+		engine.mul(U, U, tmp);
+		engine.mul(D, tmp, tmp);
+		engine.mul(V, V, V2);
+		engine.add(V2, tmp, V2);
+		engine.half(V2, V2);
+	}
+	
+	/**
+	 * Jacobi symbol (D|N) for small odd D, reduced to a Jacobi symbol of ints by quadratic reciprocity.
+	 * @param D
+	 * @return (D|N)
+	 */
+	private int jacobiSymbol(int D) {
+		int a = Math.abs(D);
+		int t = jacobiEngine.jacobiSymbol(mod(a), a);
+		if ((a&3)==3 && (N[0]&3)==3) t = -t; // (a|N) = (N|a) * (-1)^((a-1)/2 * (N-1)/2)
+		if (D<0 && (N[0]&3)==3) t = -t; // (-1|N) = (-1)^((N-1)/2)
+		return t;
+	}
+	
+	/**
+	 * @return true if N is a square
+	 */
+	private boolean isSquare() {
+		// odd squares are 1 (mod 8)
+		if ((N[0]&7) != 1) return false;
+		if (!SQUARES_MOD_63[mod(63)] || !SQUARES_MOD_65[mod(65)] || !SQUARES_MOD_11[mod(11)]) return false;
+		// only few non-squares get here
+		return SqrtExact.exactSqrt(toBigInteger(N, limbCount)) != null;
+	}
+	
+	/**
+	 * @param divisor positive int
+	 * @return N % divisor
+	 */
+	private int mod(int divisor) {
+		long rem = 0;
+		for (int i=limbCount-1; i>=0; i--) {
+			rem = ((rem << 32) | (N[i] & 0xFFFFFFFFL)) % divisor;
+		}
+		return (int) rem;
+	}
+	
+	private static boolean testBit(int[] a, int i) {
+		return ((a[i>>5] >>> (i&31)) & 1) != 0;
+	}
+	
+	private static BigInteger toBigInteger(int[] a, int limbCount) {
+		byte[] bytes = new byte[(limbCount<<2) + 1]; // big-endian with a leading 0 byte for the sign
+		for (int i=0; i<limbCount; i++) {
+			int limb = a[i];
+			int pos = bytes.length - 1 - (i<<2);
+			bytes[pos] = (byte) limb;
+			bytes[pos-1] = (byte) (limb >>> 8);
+			bytes[pos-2] = (byte) (limb >>> 16);
+			bytes[pos-3] = (byte) (limb >>> 24);
+		}
+		return new BigInteger(bytes);
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.probable;
+
+import de.tilman_neumann.jml.modular.JacobiSymbol;
+
+/**
+ * Allocation-free BPSW prime test for unsigned 64 bit arguments, carrying out a base 2 Miller-Rabin test
+ * followed by a strong Lucas test, both in Montgomery arithmetic with reducer R=2^64.
+ * 
+ * BPSW has been verified to have no pseudoprimes below 2^64, so for the arguments accepted here this is a deterministic prime test.
+ * 
+ * Instances keep no state besides constant tables, so they can be shared between threads.
+ * 
+ * @author Tilman Neumann
+ */
+public class BPSWTest64 {
+	/** 2*3*5*7*11*13 = 30030 */
+	private static final int M1 = 30030;
+	
+	/** 17*19*23*29*31*37 = 247110827 */
+	private static final int M2 = 247110827;
+	
+	/** residues r (mod 30030) with gcd(r, 30030) = 1 */
+	private static final boolean[] COPRIME_TO_M1 = computeCoprimeResidues();
+	
+	/** bit p is set for the odd primes p < 41 */
+	private static final long SMALL_ODD_PRIMES_MASK = (1L<<3) | (1L<<5) | (1L<<7) | (1L<<11) | (1L<<13) | (1L<<17) | (1L<<19) | (1L<<23) | (1L<<29) | (1L<<31) | (1L<<37);
+	
+	private static boolean[] computeCoprimeResidues() {
+		boolean[] coprime = new boolean[M1];
+		for (int r=0; r<M1; r++) {
+			coprime[r] = r%2!=0 && r%3!=0 && r%5!=0 && r%7!=0 && r%11!=0 && r%13!=0;
+		}
+		return coprime;
+	}
+	
+	private JacobiSymbol jacobiEngine = new JacobiSymbol();
+
+	/**
+	 * Test if N is prime. N is interpreted as an unsigned 64 bit number, i.e. negative arguments stand for N >= 2^63.
+	 * 
+	 * @param N
+	 * @return true if N is prime, false if N is composite, 0 or 1
+	 */
+	public boolean isProbablePrime(long N) {
+		if ((N&1)==0) return N==2;
+		
+		if (N>=0 && N<41) return ((SMALL_ODD_PRIMES_MASK >>> N) & 1) != 0;
+		
+		// Test residues of the primes <= 37. N is bigger than all of them, so a zero residue means that N is composite.
+		if (!COPRIME_TO_M1[(int) Long.remainderUnsigned(N, M1)]) return false;
+		int r2 = (int) Long.remainderUnsigned(N, M2);
+		if (r2%17==0 || r2%19==0 || r2%23==0 || r2%29==0 || r2%31==0 || r2%37==0) return false;
+		
+		// N has no prime factors <= 37, so N < 41^2 = 1681 must be prime
+		if (N>=0 && N<1681) return true;
+		
+		final long Ninv = computeInverseModR(N);
+		final long one = Long.remainderUnsigned(-N, N); // R mod N
+		
+		// The Lucas test is not carried out if N fails the base 2 Miller-Rabin test.
+		return isStrongProbablePrimeBase2(N, Ninv, one) && isStrongLucasProbablePrime(N, Ninv, one);
+	}
+	
+	/**
+	 * Miller-Rabin test to base 2.
+	 * 
+	 * @param N odd modulus
+	 * @param Ninv (1/N) mod 2^64
+	 * @param one the Montgomery form of 1
+	 * @return true if N is a strong probable prime to base 2
+	 */
+	private boolean isStrongProbablePrimeBase2(long N, long Ninv, long one) {
+		final long minusOne = N - one;
+		final long Nm1 = N - 1;
+		final int s = Long.numberOfTrailingZeros(Nm1);
+		final long d = Nm1 >>> s;
+		
+		// x = 2^d. Multiplications by the base 2 are simply modular doublings.
+		long x = one;
+		for (int i = 63 - Long.numberOfLeadingZeros(d); i >= 0; i--) {
+			x = montMul(x, x, N, Ninv);
+			if (((d >>> i) & 1) != 0) x = addMod(x, x, N);
+		}
+		if (x == one || x == minusOne) return true;
+		
+		for (int r=1; r<s; r++) {
+			x = montMul(x, x, N, Ninv);
+			if (x == minusOne) return true;
+			if (x == one) return false; // nontrivial square root of 1
+		}
+		return false;
+	}
+	
+	/**
+	 * Strong Lucas probable prime test with parameters P=1, D some value in 5, -7, 9, -11, 13, -15, ...  and Q=(1-D)/4,
+	 * following the same recurrences as {@link LucasTest#isStrongProbablePrime(java.math.BigInteger)}.
+	 * 
+	 * @param N odd modulus
+	 * @param Ninv (1/N) mod 2^64
+	 * @param one the Montgomery form of 1
+	 * @return true if N is a strong Lucas probable prime, false if N is composite
+	 */
+	private boolean isStrongLucasProbablePrime(long N, long Ninv, long one) {
+		// We will never find a D with Jacobi(D|N) == -1 if N is a perfect square -> do square-test before.
+		if (isSquare(N)) return false;
+		
+		// Now get first D with Jacobi(D|N) == -1
+		int D = 5;
+		while (true) {
+			int jacobi = jacobiSymbol(D, N);
+			if (jacobi == -1) break;
+			if (jacobi == 0) return false; // |D| < N is a proper factor of N
+			D = D>0 ? -D-2 : -D+2;
+		}
+		// Montgomery form of D
+		long Dm = toMontgomery(Math.abs(D), N, one);
+		if (D<0 && Dm!=0) Dm = N - Dm;
+		
+		// delta(N) = N+1 = d*2^s, d odd. N+1 does not overflow because 2^64-1 is divisible by 3.
+		final long delta = N + 1;
+		final int s = Long.numberOfTrailingZeros(delta);
+		final long d = delta >>> s;
+		
+		// run Lucas sequence until we find U_d
+		long U = one;
+		long V = one;
+		for (int i = 62 - Long.numberOfLeadingZeros(d); i >= 0; i--) {
+			// double indices: U_2k = U_k * V_k, V_2k = (V_k^2 + D*U_k^2) / 2 (mod N)
+			long U2 = montMul(U, V, N, Ninv);
+			long V2 = half(addMod(montMul(V, V, N, Ninv), montMul(Dm, montMul(U, U, N, Ninv), N, Ninv), N), N);
+			if (((d >>> i) & 1) != 0) {
+				// increment indices: U_(2k+1) = (U_2k + V_2k) / 2, V_(2k+1) = (D*U_2k + V_2k) / 2 (mod N)
+				U = half(addMod(U2, V2, N), N);
+				V = half(addMod(montMul(Dm, U2, N, Ninv), V2, N), N);
+			} else {
+				U = U2;
+				V = V2;
+			}
+		}
+		// If U_d == 0 (mod N) or V_d == 0 (mod N) then N is a strong Lucas probable prime
+		if (U == 0 || V == 0) return true;
+		
+		// test V_(d*2^r) == 0 (mod N) for 0<r<s
+		for (int r=1; r<s; r++) {
+			long U2 = montMul(U, V, N, Ninv);
+			V = half(addMod(montMul(V, V, N, Ninv), montMul(Dm, montMul(U, U, N, Ninv), N, Ninv), N), N);
+			U = U2;
+			if (V == 0) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Jacobi symbol (D|N) for small odd D and odd unsigned N, reduced to a Jacobi symbol of ints by quadratic reciprocity.
+	 * @param D
+	 * @param N
+	 * @return (D|N)
+	 */
+	private int jacobiSymbol(int D, long N) {
+		int a = Math.abs(D);
+		int t = jacobiEngine.jacobiSymbol((int) Long.remainderUnsigned(N, a), a);
+		if ((a&3)==3 && (N&3)==3) t = -t; // (a|N) = (N|a) * (-1)^((a-1)/2 * (N-1)/2)
+		if (D<0 && (N&3)==3) t = -t; // (-1|N) = (-1)^((N-1)/2)
+		return t;
+	}
+	
+	/**
+	 * @param N unsigned 64 bit number
+	 * @return true if N is a perfect square
+	 */
+	private static boolean isSquare(long N) {
+		// the double approximation of an unsigned long may be a bit too big or too small
+		double Ndbl = N>=0 ? (double) N : (double) (N>>>1) * 2.0;
+		long r = Math.min((long) Math.sqrt(Ndbl), 0xFFFFFFFFL);
+		while (Long.compareUnsigned(r*r, N) > 0) r--;
+		while (r < 0xFFFFFFFFL && Long.compareUnsigned((r+1)*(r+1), N) <= 0) r++;
+		return r*r == N;
+	}
+	
+	/**
+	 * Compute (1/N) mod 2^64 by Newton iteration; each step doubles the number of correct low bits,
+	 * and N*N == 1 (mod 8) gives 3 correct bits to start with.
+	 * @param N odd
+	 * @return (1/N) mod 2^64
+	 */
+	private static long computeInverseModR(long N) {
+		long x = N;
+		x *= 2 - N*x;
+		x *= 2 - N*x;
+		x *= 2 - N*x;
+		x *= 2 - N*x;
+		x *= 2 - N*x;
+		return x;
+	}
+	
+	/**
+	 * Montgomery form a*R mod N of a small non-negative integer a, computed by double-and-add from R mod N.
+	 * @param a
+	 * @param N
+	 * @param one R mod N
+	 * @return a*R mod N
+	 */
+	private static long toMontgomery(int a, long N, long one) {
+		long result = 0;
+		for (int i = 31 - Integer.numberOfLeadingZeros(a); i >= 0; i--) {
+			result = addMod(result, result, N);
+			if (((a >>> i) & 1) != 0) result = addMod(result, one, N);
+		}
+		return result;
+	}
+	
+	/**
+	 * Montgomery multiplication a*b/R mod N for unsigned a, b < N and R=2^64.
+	 * 
+	 * With m = ab * (1/N) mod R, the low parts of ab and m*N are equal, so (ab - m*N)/R is just the difference of the high parts,
+	 * which lies in (-N, N). Thus the result needs at most one correction and never overflows, even for N >= 2^63.
+	 * 
+	 * @param a
+	 * @param b
+	 * @param N odd modulus
+	 * @param Ninv (1/N) mod 2^64
+	 * @return a*b/R mod N
+	 */
+	private static long montMul(long a, long b, long N, long Ninv) {
+		long abHigh = unsignedMultiplyHigh(a, b);
+		long m = a * b * Ninv;
+		long mNHigh = unsignedMultiplyHigh(m, N);
+		long r = abHigh - mNHigh;
+		return Long.compareUnsigned(abHigh, mNHigh) < 0 ? r + N : r;
+	}
+	
+	private static long unsignedMultiplyHigh(long a, long b) {
+		return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+	}
+	
+	/**
+	 * @param a unsigned, a < N
+	 * @param b unsigned, b < N
+	 * @param N
+	 * @return (a + b) mod N
+	 */
+	private static long addMod(long a, long b, long N) {
+		long s = a + b;
+		// subtract N if there was an unsigned overflow or s >= N
+		return (Long.compareUnsigned(s, a) < 0 || Long.compareUnsigned(s, N) >= 0) ? s - N : s;
+	}
+	
+	/**
+	 * @param a unsigned, a < N
+	 * @param N odd
+	 * @return a/2 mod N
+	 */
+	private static long half(long a, long N) {
+		return (a&1)==0 ? a>>>1 : (a>>>1) + (N>>>1) + 1;
+	}
+}
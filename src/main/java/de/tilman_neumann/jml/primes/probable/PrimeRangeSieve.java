@@ -0,0 +1,354 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.probable;
+
+import static de.tilman_neumann.jml.base.BigIntConstants.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.jml.base.UnsignedBigInt;
+import de.tilman_neumann.jml.primes.exact.AutoExpandingPrimesArray;
+
+/**
+ * Incremental search for probable primes in ranges of big integers.
+ * 
+ * The search proceeds in intervals of odd numbers. Each interval is first sieved by the small primes up to a bound depending
+ * on the size of the numbers; only the survivors are subjected to a BPSW test. The residues of the interval start modulo the
+ * sieve primes are computed once per search and then updated from interval to interval, so the big number arithmetic per
+ * interval is negligible. Intervals start small, which suits nextProbablePrime(), and grow for bulk generation.
+ * 
+ * With more than one thread the BPSW tests of the survivors are done in parallel. In single-threaded mode they are done lazily,
+ * i.e. only as far as the caller consumes primes.
+ * 
+ * The primes are available as a lazy iterator or stream. Each iterator keeps its own state, so different threads may run
+ * searches at the same time, but a single iterator must not be shared between threads.
+ * 
+ * The worker threads are daemon threads, but shutdown() should be called when the sieve is not needed anymore.
+ * 
+ * @author Tilman Neumann
+ */
+public class PrimeRangeSieve {
+	private static final Logger LOG = LogManager.getLogger(PrimeRangeSieve.class);
+	private static final boolean DEBUG = false;
+	
+	/** the smallest number of odd numbers per interval */
+	private static final int MIN_INTERVAL_ODDS = 1<<7;
+	/** the biggest number of odd numbers per interval */
+	private static final int MAX_INTERVAL_ODDS = 1<<16;
+	
+	/** the number of candidates tested in parallel by each thread in one go */
+	private static final int CANDIDATES_PER_THREAD = 8;
+	
+	private int numberOfThreads;
+	
+	/** null in single-threaded mode */
+	private ExecutorService executor;
+	
+	/**
+	 * Standard constructor, creating a single-threaded sieve.
+	 */
+	public PrimeRangeSieve() {
+		this(1);
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param numberOfThreads the number of threads to run BPSW tests
+	 */
+	public PrimeRangeSieve(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+		if (numberOfThreads > 1) {
+			executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+				private AtomicInteger threadIndex = new AtomicInteger();
+				
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "PRS-" + threadIndex.getAndIncrement());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+	}
+	
+	/**
+	 * @param N
+	 * @return the first probable prime > |N|
+	 */
+	public BigInteger nextProbablePrime(BigInteger N) {
+		return iterator(N.abs().add(I_1)).next();
+	}
+	
+	/**
+	 * @param start inclusive
+	 * @param end exclusive
+	 * @return the probable primes p with start <= p < end, in increasing order
+	 */
+	public List<BigInteger> probablePrimes(BigInteger start, BigInteger end) {
+		List<BigInteger> primes = new ArrayList<>();
+		Iterator<BigInteger> iter = iterator(start);
+		while (true) {
+			BigInteger p = iter.next();
+			if (p.compareTo(end) >= 0) break;
+			primes.add(p);
+		}
+		return primes;
+	}
+	
+	/**
+	 * @param start
+	 * @return an infinite iterator over the probable primes >= start, in increasing order
+	 */
+	public Iterator<BigInteger> iterator(BigInteger start) {
+		return new Search(start);
+	}
+	
+	/**
+	 * @param start
+	 * @return an infinite, lazy, sequential stream of the probable primes >= start, in increasing order
+	 */
+	public Stream<BigInteger> stream(BigInteger start) {
+		int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(start), characteristics), false);
+	}
+	
+	/**
+	 * Shut down the worker threads.
+	 */
+	public void shutdown() {
+		if (executor != null) executor.shutdown();
+	}
+	
+	/**
+	 * The sieve primes are all odd primes up to a bound growing with the size of the numbers, because
+	 * the BPSW tests saved by a bigger bound are the more expensive the bigger the numbers are.
+	 * @param bits the bit length of the numbers to sieve
+	 * @return the sieve primes
+	 */
+	private static int[] computeSievePrimes(int bits) {
+		int pLimit = Math.max(1<<10, Math.min(1<<18, bits<<7));
+		AutoExpandingPrimesArray primesArray = AutoExpandingPrimesArray.get().ensureLimit(pLimit);
+		int count = primesArray.getInsertPosition(pLimit) - 1; // without 2
+		int[] sievePrimes = new int[count];
+		for (int i=0; i<count; i++) {
+			sievePrimes[i] = primesArray.getPrime(i+1);
+		}
+		return sievePrimes;
+	}
+	
+	/**
+	 * The state of a single search.
+	 */
+	private class Search implements Iterator<BigInteger> {
+		/** true if 2 still has to be delivered */
+		private boolean twoPending;
+		
+		/** the start of the current interval, odd */
+		private BigInteger intervalStart;
+		/** the interval start if it is small enough to be affected by the sieve primes themselves, otherwise -1 */
+		private long smallIntervalStart;
+		/** the number of odd numbers in the current interval */
+		private int intervalOdds;
+		
+		private int[] sievePrimes;
+		/** intervalStart % p for all sieve primes p */
+		private int[] residues;
+		/** bit i is set if intervalStart + 2i is composite */
+		private long[] composites;
+		
+		/** offsets i of the numbers intervalStart + 2i that survived the sieve */
+		private int[] survivors;
+		private int survivorCount;
+		/** the survivors up to this index have been tested */
+		private int testedCount;
+		/** the next survivor to look at */
+		private int pos;
+		/** the survivors that have been found to be probable prime; other entries are null */
+		private BigInteger[] primes;
+		
+		/** one test instance per thread */
+		private BPSWTest[] bpsw;
+		
+		Search(BigInteger start) {
+			if (start.compareTo(I_2) <= 0) {
+				twoPending = true;
+				start = I_3;
+			} else if (!start.testBit(0)) {
+				start = start.add(I_1);
+			}
+			intervalStart = start;
+			smallIntervalStart = start.bitLength() < 62 ? start.longValue() : -1;
+			int bits = start.bitLength();
+			intervalOdds = Math.max(MIN_INTERVAL_ODDS, Math.min(MAX_INTERVAL_ODDS, Integer.highestOneBit(bits)<<1));
+			
+			sievePrimes = computeSievePrimes(bits);
+			residues = new int[sievePrimes.length];
+			UnsignedBigInt start_UBI = new UnsignedBigInt(start);
+			for (int k=0; k<sievePrimes.length; k++) {
+				residues[k] = start_UBI.mod(sievePrimes[k]);
+			}
+			
+			bpsw = new BPSWTest[numberOfThreads];
+			for (int t=0; t<numberOfThreads; t++) bpsw[t] = new BPSWTest();
+			
+			allocateIntervalArrays();
+			sieveInterval();
+		}
+		
+		private void allocateIntervalArrays() {
+			composites = new long[(intervalOdds+63)>>6];
+			survivors = new int[intervalOdds];
+			primes = new BigInteger[intervalOdds];
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return true; // there are infinitely many primes
+		}
+		
+		@Override
+		public BigInteger next() {
+			if (twoPending) {
+				twoPending = false;
+				return I_2;
+			}
+			while (true) {
+				while (pos < testedCount) {
+					BigInteger prime = primes[pos++];
+					if (prime != null) return prime;
+				}
+				if (testedCount < survivorCount) {
+					testNextCandidates();
+				} else {
+					nextInterval();
+				}
+			}
+		}
+		
+		private void sieveInterval() {
+			final int words = (intervalOdds+63)>>6;
+			for (int w=0; w<words; w++) composites[w] = 0;
+			if (smallIntervalStart == 1) composites[0] = 1L; // 1 is not prime
+			
+			for (int k=0; k<sievePrimes.length; k++) {
+				int p = sievePrimes[k];
+				// find the first i with intervalStart + 2i == 0 (mod p)
+				int d = residues[k]==0 ? 0 : p - residues[k];
+				int i = (d&1)==0 ? d>>1 : (d+p)>>1;
+				// do not sieve out the sieve primes themselves
+				if (smallIntervalStart >= 0 && smallIntervalStart + 2L*i == p) i += p;
+				for ( ; i<intervalOdds; i+=p) {
+					composites[i>>6] |= 1L << i; // shifts are mod 64
+				}
+			}
+			
+			survivorCount = 0;
+			for (int i=0; i<intervalOdds; i++) {
+				if ((composites[i>>6] & (1L << i)) == 0) survivors[survivorCount++] = i;
+			}
+			testedCount = pos = 0;
+			if (DEBUG) LOG.debug("interval of " + intervalOdds + " odd numbers starting at " + intervalStart + " has " + survivorCount + " survivors");
+		}
+		
+		private void nextInterval() {
+			int step = intervalOdds<<1;
+			intervalStart = intervalStart.add(BigInteger.valueOf(step));
+			if (smallIntervalStart >= 0) {
+				smallIntervalStart += step;
+				if (smallIntervalStart >= 1L<<62) smallIntervalStart = -1;
+			}
+			for (int k=0; k<sievePrimes.length; k++) {
+				residues[k] = (residues[k] + step) % sievePrimes[k];
+			}
+			if (intervalOdds < MAX_INTERVAL_ODDS) {
+				intervalOdds <<= 1;
+				allocateIntervalArrays();
+			}
+			sieveInterval();
+		}
+		
+		/**
+		 * Test the next candidates, one at a time in single-threaded mode, otherwise CANDIDATES_PER_THREAD per thread in parallel.
+		 */
+		private void testNextCandidates() {
+			if (executor == null) {
+				primes[testedCount] = testCandidate(bpsw[0], testedCount);
+				testedCount++;
+				return;
+			}
+			
+			final int first = testedCount;
+			final int last = Math.min(survivorCount, first + numberOfThreads * CANDIDATES_PER_THREAD);
+			List<Callable<Void>> tasks = new ArrayList<>(numberOfThreads);
+			for (int t=0; t<numberOfThreads; t++) {
+				final BPSWTest threadBpsw = bpsw[t];
+				final int firstOfThread = first + t;
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						// interleaved distribution, because the bit lengths of the candidates differ by at most 1
+						for (int j=firstOfThread; j<last; j+=numberOfThreads) {
+							primes[j] = testCandidate(threadBpsw, j);
+						}
+						return null;
+					}
+				});
+			}
+			runTasks(tasks);
+			testedCount = last;
+		}
+		
+		/**
+		 * @param bpswTest
+		 * @param j survivor index
+		 * @return the candidate if it is probable prime, otherwise null
+		 */
+		private BigInteger testCandidate(BPSWTest bpswTest, int j) {
+			BigInteger candidate = intervalStart.add(BigInteger.valueOf(2L * survivors[j]));
+			return bpswTest.isProbablePrime(candidate) ? candidate : null;
+		}
+	}
+	
+	private void runTasks(List<Callable<Void>> tasks) {
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Prime search has been interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+}
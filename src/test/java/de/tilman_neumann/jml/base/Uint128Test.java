@@ -218,4 +218,28 @@ public class Uint128Test {
 	}
 	
 	// we do not test spMul64_MH() here because we know that it is wrong in general
+	
+	@Test
+	public void testSpMod_MH() {
+		
+		for (int i=0; i<NCOUNT; i++) {
+			// 63 and 64 bit divisors
+			BigInteger v_big = (i&1)==0 ? hi_big[i] : lo_big[i];
+			if (v_big.signum() == 0) continue;
+			long v = v_big.longValue();
+			
+			for (int j=0; j<NCOUNT; j++) {
+				// the quotient must fit into 64 bit
+				BigInteger high_big = hi_big[j].mod(v_big);
+				BigInteger dividend = high_big.shiftLeft(64).add(lo_big[j]);
+				long rem = Uint128.spMod_MH(high_big.longValue(), lo[j], v);
+				BigInteger correctRem = dividend.mod(v_big);
+				if (!correctRem.equals(BigInteger.valueOf(rem).and(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE)))) {
+					LOG.error("spMod_MH: " + dividend + " % " + v_big + ": correct = " + correctRem + " but result = " + Long.toUnsignedString(rem));
+				}
+				Assert.assertEquals(correctRem.longValue(), rem);
+				Assert.assertEquals(new Uint128(high_big.longValue(), lo[j]).spDivide_MH(v)[1], rem);
+			}
+		}
+	}
 }
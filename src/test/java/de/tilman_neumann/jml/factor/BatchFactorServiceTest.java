@@ -0,0 +1,101 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.util.ConfigUtil;
+import de.tilman_neumann.util.SortedMultiset;
+
+public class BatchFactorServiceTest {
+	private static final Logger LOG = LogManager.getLogger(BatchFactorServiceTest.class);
+
+	private static BatchFactorService service;
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		// small bounds so that all three dispatch paths are used
+		service = new BatchFactorService(2, 40, 100, true);
+	}
+	
+	@AfterClass
+	public static void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	public void testMixedSizes() {
+		String[][] testData = new String[][] {
+			{"949443", "3 * 11 * 28771"}, // 20 bit
+			{"624800360363", "233 * 2681546611"}, // 40 bit
+			{"1052330620377735995", "5 * 5107^2 * 20549 * 392699"}, // 60 bit
+			{"15841065490425479923", "2604221509 * 6082841047"}, // 64 bit
+			{"5679148659138759837165981543", "3^3 * 466932157 * 450469808245315337"}, // 93 bit
+			{"397300163206016223405718807788461929", "616341415231755247 * 644610524925741607"}, // 119 bit
+			{"9223372036854775807", "7^2 * 73 * 127 * 337 * 92737 * 649657"}, // 63 bit
+		};
+		
+		List<BigInteger> Ns = new ArrayList<>();
+		for (String[] entry : testData) {
+			Ns.add(new BigInteger(entry[0]));
+		}
+		
+		// collection API
+		List<SortedMultiset<BigInteger>> results = service.factorAll(Ns);
+		for (int i=0; i<testData.length; i++) {
+			String factorsStr = results.get(i).toString("*", "^");
+			LOG.info(testData[i][0] + " = " + factorsStr);
+			assertEquals(testData[i][1], factorsStr);
+		}
+		
+		// stream API
+		List<String> streamResults = service.factor(Ns.stream()).map(f -> f.toString("*", "^")).collect(Collectors.toList());
+		for (int i=0; i<testData.length; i++) {
+			assertEquals(testData[i][1], streamResults.get(i));
+		}
+	}
+	
+	@Test
+	public void testFindSingleFactors() {
+		Random rng = new Random();
+		// enough N for several chunks, with up to 63 bit so that both batch algorithms are used
+		long[] N = new long[5000];
+		for (int i=0; i<N.length; i++) {
+			int bits = 20 + rng.nextInt(44);
+			int pBits = bits/2 - rng.nextInt(bits/4);
+			long p = BigInteger.probablePrime(pBits, rng).longValue();
+			long q = BigInteger.probablePrime(bits - pBits, rng).longValue();
+			N[i] = p*q;
+		}
+		long[] factors = new long[N.length];
+		service.findSingleFactors(N, factors);
+		for (int i=0; i<N.length; i++) {
+			assertTrue("N = " + N[i] + ", factor = " + factors[i], factors[i] > 1 && factors[i] < N[i] && N[i] % factors[i] == 0);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test of LongFactorizer.
+ * 
+ * @author Tilman Neumann
+ */
+public class LongFactorizerTest {
+	private static final Logger LOG = LogManager.getLogger(LongFactorizerTest.class);
+	private static final Random RNG = new Random();
+
+	private static LongFactorizer factorizer;
+	private static FactorAlgorithm combi;
+	
+	private long[] primes = new long[LongFactorizer.MAX_DISTINCT_PRIME_FACTORS];
+	private int[] exponents = new int[LongFactorizer.MAX_DISTINCT_PRIME_FACTORS];
+
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		factorizer = new LongFactorizer();
+		combi = new CombinedFactorAlgorithm(1);
+	}
+
+	@Test
+	public void testSmallNumbers() {
+		assertEquals("", factorize(1));
+		for (long N=2; N<=100000; N++) {
+			assertEquals("N = " + N, combi.factor(BigInteger.valueOf(N)).toString("*", "^"), factorize(N));
+		}
+	}
+	
+	@Test
+	public void testSpecialNumbers() {
+		assertEquals("3^2 * 11 * 31158931", factorize(3084734169L)); // 32 bit
+		assertEquals("2^62", factorize(1L<<62));
+		assertEquals("2 * 3 * 5 * 7 * 11 * 13 * 17 * 19 * 23 * 29 * 31 * 37 * 41 * 43 * 47", factorize(614889782588491410L)); // primorial(47)
+		assertEquals("1000000007^2", factorize(1000000014000000049L));
+		assertEquals("7^2 * 73 * 127 * 337 * 92737 * 649657", factorize(Long.MAX_VALUE));
+		assertEquals("9223372036854775783", factorize(9223372036854775783L)); // biggest 63 bit prime
+		assertEquals("1000003^3", factorize(1000003L*1000003*1000003));
+		assertEquals("3037000453 * 3037000493", factorize(3037000453L*3037000493L)); // 63 bit semiprime
+	}
+	
+	@Test
+	public void testRandomNumbers() {
+		for (int bits = 32; bits <= 63; bits++) {
+			LOG.info("Test random numbers with " + bits + " bits");
+			for (int i=0; i<1000; i++) {
+				long N = new BigInteger(bits-1, RNG).setBit(bits-1).longValue();
+				assertEquals("N = " + N, combi.factor(BigInteger.valueOf(N)).toString("*", "^"), factorize(N));
+			}
+		}
+	}
+	
+	@Test
+	public void testSemiprimes() {
+		for (int bits = 32; bits <= 63; bits++) {
+			LOG.info("Test semiprimes with " + bits + " bits");
+			for (int i=0; i<100; i++) {
+				long p = BigInteger.probablePrime(bits/2, RNG).longValue();
+				long q = BigInteger.probablePrime(bits - bits/2, RNG).longValue();
+				String expected = p < q ? p + " * " + q : p == q ? p + "^2" : q + " * " + p;
+				assertEquals("N = " + p*q, expected, factorize(p*q));
+			}
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testZero() {
+		factorizer.factor(0, primes, exponents);
+	}
+	
+	/**
+	 * @param N
+	 * @return the factorization of N in the format of SortedMultiset.toString("*", "^")
+	 */
+	private String factorize(long N) {
+		int count = factorizer.factor(N, primes, exponents);
+		StringBuilder result = new StringBuilder();
+		for (int i=0; i<count; i++) {
+			if (i > 0) result.append(" * ");
+			result.append(primes[i]);
+			if (exponents[i] > 1) result.append("^").append(exponents[i]);
+		}
+		return result.toString();
+	}
+}
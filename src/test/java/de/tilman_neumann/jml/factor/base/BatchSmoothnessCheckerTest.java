@@ -0,0 +1,84 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.primes.exact.AutoExpandingPrimesArray;
+import de.tilman_neumann.util.ConfigUtil;
+
+public class BatchSmoothnessCheckerTest {
+
+	private static final int PRIME_BOUND = 1000;
+
+	private static AutoExpandingPrimesArray primes;
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		primes = AutoExpandingPrimesArray.get().ensurePrimeCount(1000);
+	}
+
+	@Test
+	public void testProductAndRemainderTrees() {
+		List<BigInteger> numbers = new ArrayList<>();
+		BigInteger expectedProduct = BigInteger.ONE;
+		for (int i=1; i<=11; i++) {
+			BigInteger n = BigInteger.valueOf(1000 + 7*i);
+			numbers.add(n);
+			expectedProduct = expectedProduct.multiply(n);
+		}
+		assertEquals(expectedProduct, BatchSmoothnessChecker.product(numbers));
+		
+		BigInteger x = new BigInteger("123456789012345678901234567890123456789");
+		BigInteger[] remainders = BatchSmoothnessChecker.remainders(x, BatchSmoothnessChecker.productTree(numbers));
+		for (int i=0; i<numbers.size(); i++) {
+			assertEquals(x.mod(numbers.get(i)), remainders[i]);
+		}
+	}
+	
+	@Test
+	public void testAreSmooth() {
+		BatchSmoothnessChecker checker = new BatchSmoothnessChecker(PRIME_BOUND);
+		Random rng = new Random(42);
+		List<BigInteger> numbers = new ArrayList<>();
+		boolean[] expected = new boolean[500];
+		for (int i=0; i<expected.length; i++) {
+			// products of random primes, sometimes with a prime > PRIME_BOUND, and with some powers
+			BigInteger n = BigInteger.ONE;
+			int factorCount = 1 + rng.nextInt(6);
+			boolean smooth = true;
+			for (int j=0; j<factorCount; j++) {
+				int p = primes.getPrime(rng.nextInt(rng.nextInt(10)==0 ? 1000 : 168)); // there are 168 primes < 1000
+				if (p > PRIME_BOUND) smooth = false;
+				n = n.multiply(BigInteger.valueOf(p).pow(1 + rng.nextInt(3)));
+			}
+			numbers.add(n);
+			expected[i] = smooth;
+		}
+		boolean[] result = checker.areSmooth(numbers);
+		assertTrue(Arrays.equals(expected, result));
+		
+		assertEquals(0, checker.areSmooth(new ArrayList<BigInteger>()).length);
+	}
+}
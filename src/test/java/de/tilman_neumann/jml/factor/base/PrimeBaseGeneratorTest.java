@@ -0,0 +1,67 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.factor.siqs.ModularSqrtsEngine;
+import de.tilman_neumann.util.ConfigUtil;
+
+public class PrimeBaseGeneratorTest {
+
+	private static final int N_COUNT = 100;
+	
+	private PrimeBaseGenerator primeBaseGenerator = new PrimeBaseGenerator();
+	private ModularSqrtsEngine modularSqrtsEngine = new ModularSqrtsEngine();
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+
+	@Test
+	public void testCachedPrimeBaseEqualsUncachedPrimeBase() {
+		Random rng = new Random(43);
+		for (int i=0; i<N_COUNT; i++) {
+			int bits = 60 + rng.nextInt(200);
+			BigInteger kN = new BigInteger(bits, rng).setBit(bits-1);
+			// vary prime base sizes so that the cache needs to be expanded a few times
+			int primeBaseSize = 30 + rng.nextInt(100 * (i+1));
+			
+			int[] expectedPrimes = new int[primeBaseSize];
+			primeBaseGenerator.computeReducedPrimeBase(kN, primeBaseSize, expectedPrimes);
+			int[] expectedTArray = modularSqrtsEngine.computeTArray(expectedPrimes, primeBaseSize, kN);
+
+			int[] primes = new int[primeBaseSize];
+			int[] kNModPArray = new int[primeBaseSize];
+			float[] lnPArray = new float[primeBaseSize];
+			long[] pinvArray = new long[primeBaseSize];
+			primeBaseGenerator.computeReducedPrimeBase(kN, primeBaseSize, primes, kNModPArray, lnPArray, pinvArray);
+			assertArrayEquals(expectedPrimes, primes);
+			for (int j=0; j<primeBaseSize; j++) {
+				int p = primes[j];
+				assertEquals(kN.mod(BigInteger.valueOf(p)).intValue(), kNModPArray[j]);
+				assertEquals((float) Math.log(p), lnPArray[j], 0.0F);
+				assertEquals((1L<<32) / p, pinvArray[j]);
+			}
+			assertArrayEquals(expectedTArray, modularSqrtsEngine.computeTArray(primes, kNModPArray, primeBaseSize));
+		}
+	}
+}
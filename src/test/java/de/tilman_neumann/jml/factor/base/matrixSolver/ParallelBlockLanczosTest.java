@@ -0,0 +1,58 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.base.matrixSolver;
+
+import static org.junit.Assert.*;
+
+import java.security.SecureRandom;
+
+import org.junit.Test;
+
+/**
+ * Tests that the multi-threaded Block-Lanczos solver computes the same result as the single-threaded one.
+ */
+public class ParallelBlockLanczosTest {
+
+	private static final SecureRandom RNG = new SecureRandom();
+
+	/**
+	 * Create a random sparse matrix in the format expected by the Block-Lanczos solver.
+	 * @param size number of rows and columns
+	 * @param maxRowWeight maximum number of entries per row
+	 * @return matrix
+	 */
+	private static int[][] createRandomMatrix(int size, int maxRowWeight) {
+		int[][] matrixB = new int[size][];
+		for (int row = 0; row < size; row++) {
+			int rowWeight = 1 + RNG.nextInt(maxRowWeight);
+			matrixB[row] = new int[rowWeight];
+			for (int i = 0; i < rowWeight; i++) {
+				matrixB[row][i] = RNG.nextInt(size);
+			}
+		}
+		return matrixB;
+	}
+
+	@Test
+	public void testSameResultAsSerialSolver() {
+		for (int size : new int[] {100, 6000}) {
+			int[][] matrixB = createRandomMatrix(size, 20);
+			int[] serialResult = new BlockLanczos().computeBlockLanczos(matrixB, size);
+			for (int numberOfThreads : new int[] {2, 3}) {
+				int[] parallelResult = new ParallelBlockLanczos(numberOfThreads).computeBlockLanczos(matrixB, size);
+				assertArrayEquals("size=" + size + ", numberOfThreads=" + numberOfThreads, serialResult, parallelResult);
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2018-2025 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.ecm;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.factor.FactorTestBase;
+import de.tilman_neumann.util.ConfigUtil;
+
+public class EllipticCurveMethod4ThreadsTest extends FactorTestBase {
+
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		setFactorizer(new EllipticCurveMethod(-1, 4));
+	}
+
+	@Test
+	public void testSomeInputs() {
+		assertFullFactorizationSuccess("8225267468394993133669189614204532935183709603155231863020477010700542265332938919716662623", 
+				"1234567891 * 1234567907 * 1234567913 * 1234567927 * 1234567949 * 1234567967 * 1234567981 * 1234568021 * 1234568029 * 1234568047");
+		assertFullFactorizationSuccess("1593332576170570774181606244493046197050984933692181475920784855223341",
+				"17 * 1210508704285703 * 2568160569265616473 * 30148619026320753545829271787156467");
+	}
+	
+	/**
+	 * The parallel ECM must find the same factor as the single-threaded version, because both return the factor found by the first successful curve.
+	 */
+	@Test
+	public void testSameFactorAsSingleThreaded() {
+		BigInteger N = new BigInteger("8225267468394993133669189614204532935183709603155231863020477010700542265332938919716662623");
+		BigInteger factor1 = new EllipticCurveMethod(-1, 1).findSingleFactor(N);
+		for (int threads=2; threads<=4; threads++) {
+			BigInteger factor2 = new EllipticCurveMethod(-1, threads).findSingleFactor(N);
+			assertEquals(factor1, factor2);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.ecm;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of TinyEcm64MHBatch.
+ * 
+ * @author Tilman Neumann
+ */
+public class TinyEcm64MHBatchTest {
+	private static final Logger LOG = LogManager.getLogger(TinyEcm64MHBatchTest.class);
+	private static final Random RNG = new Random();
+	
+	private static final int NCOUNT = 1000;
+
+	private static TinyEcm64MHBatch ecm;
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		ecm = new TinyEcm64MHBatch();
+	}
+
+	@Test
+	public void testSmallNumbers() {
+		long[] N = new long[100000];
+		for (int i=0; i<N.length; i++) {
+			N[i] = i+1;
+		}
+		long[] factors = new long[N.length];
+		ecm.findSingleFactors(N, factors);
+		for (int i=0; i<N.length; i++) {
+			assertSingleFactor(N[i], factors[i]);
+		}
+	}
+	
+	@Test
+	public void testSpecialNumbers() {
+		long[] N = new long[] {
+			-949443, // 3 * 11 * 28771
+			1000000014000000049L, // 1000000007^2
+			1000000028000000147L, // 1000000007 * 1000000021
+			1100087778366101931L, // Fibonacci(88)
+			322527333642009919L, // 567914891 * 567914909
+			4611686018427387847L, // biggest 62 bit prime
+			4611686014132420609L, // (2^31-1)^2
+			8192L*8191*8191, // 2^13 * (2^13-1)^2
+			1000003L*1000003*1000003, // prime cube
+		};
+		long[] factors = new long[N.length];
+		ecm.findSingleFactors(N, factors);
+		for (int i=0; i<N.length; i++) {
+			assertSingleFactor(N[i], factors[i]);
+		}
+	}
+
+	@Test
+	public void testRandomNumbers() {
+		long[] N = new long[NCOUNT];
+		for (int i=0; i<NCOUNT; i++) {
+			int bits = 20 + RNG.nextInt(TinyEcm64MHBatch.MAX_BITS_SUPPORTED - 19);
+			N[i] = new BigInteger(bits-1, RNG).setBit(bits-1).longValue();
+			if (RNG.nextBoolean()) N[i] = -N[i];
+		}
+		long[] factors = new long[NCOUNT];
+		ecm.findSingleFactors(N, factors);
+		for (int i=0; i<NCOUNT; i++) {
+			assertSingleFactor(N[i], factors[i]);
+		}
+	}
+	
+	@Test
+	public void testSemiprimes() {
+		for (int bits = 30; bits <= TinyEcm64MHBatch.MAX_BITS_SUPPORTED; bits += 4) {
+			LOG.info("Test " + NCOUNT + " semiprimes with " + bits + " bits");
+			long[] N = new long[NCOUNT];
+			for (int i=0; i<NCOUNT; i++) {
+				// the smaller factor has at least 12 bit, so that trial division does not find it
+				int pBits = 12 + RNG.nextInt(bits/2 - 11);
+				long p = BigInteger.probablePrime(pBits, RNG).longValue();
+				long q = BigInteger.probablePrime(bits - pBits, RNG).longValue();
+				N[i] = p*q;
+			}
+			long[] factors = new long[NCOUNT];
+			ecm.findSingleFactors(N, factors);
+			for (int i=0; i<NCOUNT; i++) {
+				assertSingleFactor(N[i], factors[i]);
+			}
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooBigNumber() {
+		ecm.findSingleFactors(new long[] {15, 1L<<62}, new long[2]);
+	}
+
+	private static void assertSingleFactor(long N, long factor) {
+		long nAbs = Math.abs(N);
+		if (nAbs == 1 || BigInteger.valueOf(nAbs).isProbablePrime(20)) {
+			assertEquals("N = " + N, 1, factor);
+		} else {
+			assertTrue("N = " + N + ", factor = " + factor, factor > 1 && factor < nAbs && nAbs % factor == 0);
+		}
+	}
+}
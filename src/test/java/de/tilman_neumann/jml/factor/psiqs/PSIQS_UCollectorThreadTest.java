@@ -0,0 +1,42 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2018-2025 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.psiqs;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.factor.FactorTestBase;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.siqs.powers.NoPowerFinder;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * Tests PSIQS_U with a dedicated congruence collector thread.
+ */
+public class PSIQS_UCollectorThreadTest extends FactorTestBase {
+
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		setFactorizer(new PSIQS_U(0.31F, 0.37F, null, 2, new NoPowerFinder(), new MatrixSolverBlockLanczos(), false, true));
+	}
+
+	@Test
+	public void testSomeInputs() {
+		assertFullFactorizationSuccess("5679148659138759837165981543", "3^3 * 466932157 * 450469808245315337"); // 93 bit
+		assertFullFactorizationSuccess("11111111111111111111111111155555555555111111111111111", "67 * 157 * 1056289676880987842105819104055096069503860738769");
+		assertFullFactorizationSuccess("397300163206016223405718807788461929", "616341415231755247 * 644610524925741607"); // 119 bit
+		assertFullFactorizationSuccess("978707181979411554508205093389905677471267735951", "895248181446935645773009 * 1093224429004241214265439"); // 160 bit
+	}
+}
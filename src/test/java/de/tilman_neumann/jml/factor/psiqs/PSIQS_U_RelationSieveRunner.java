@@ -0,0 +1,60 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.psiqs;
+
+import java.io.File;
+import java.math.BigInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.tilman_neumann.jml.factor.base.congruence.SieveOnlyCongruenceCollector;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.siqs.powers.NoPowerFinder;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * A relation sieving worker process: Sieves one partition of the a-parameters for N and writes the relations to a relation file,
+ * until the process is killed. The relation files of all workers can be merged and solved by a RelationMerger.
+ * 
+ * @author Tilman Neumann
+ */
+public class PSIQS_U_RelationSieveRunner {
+
+	private static final Logger LOG = LogManager.getLogger(PSIQS_U_RelationSieveRunner.class);
+
+	/**
+	 * @param args N partIndex partCount directory [numberOfThreads [checkpointIntervalMillis]]
+	 */
+	public static void main(String[] args) {
+    	ConfigUtil.initProject();
+    	if (args.length < 4) {
+    		LOG.error("Usage: PSIQS_U_RelationSieveRunner N partIndex partCount directory [numberOfThreads [checkpointIntervalMillis]]");
+    		return;
+    	}
+		BigInteger N = new BigInteger(args[0]);
+		int partIndex = Integer.parseInt(args[1]);
+		int partCount = Integer.parseInt(args[2]);
+		File directory = new File(args[3]);
+		int numThreads = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+		long checkpointIntervalMillis = args.length > 5 ? Long.parseLong(args[5]) : 10000;
+		directory.mkdirs();
+		
+		PSIQS_U qs = new PSIQS_U(0.31F, 0.37F, null, numThreads, new NoPowerFinder(), new MatrixSolverBlockLanczos(), new SieveOnlyCongruenceCollector());
+		qs.setAParameterPartition(partIndex, partCount);
+		qs.enableCheckpoints(directory, checkpointIntervalMillis);
+		LOG.info("Sieving partition " + partIndex + "/" + partCount + " of N = " + N + " (" + N.bitLength() + " bits) to " + directory + " ...");
+		qs.findSingleFactor(N); // does not return
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs;
+
+import static de.tilman_neumann.jml.base.BigIntConstants.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tilman_neumann.jml.factor.base.congruence.AQPair;
+import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollector;
+import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollector01;
+import de.tilman_neumann.jml.factor.base.congruence.RelationFileReader;
+import de.tilman_neumann.jml.factor.base.congruence.RelationFileWriter;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.siqs.poly.SIQSPolyGenerator;
+import de.tilman_neumann.jml.factor.siqs.powers.NoPowerFinder;
+import de.tilman_neumann.jml.factor.siqs.sieve.Sieve03hU;
+import de.tilman_neumann.jml.factor.siqs.tdiv.TDiv_QS_2LP;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * Tests that an interrupted SIQS run can be resumed from its relation file.
+ */
+public class CheckpointCongruenceCollectorTest {
+
+	private static final BigInteger N = new BigInteger("767780273051320231283882581365952543395211"); // 140 bit
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+
+	private static SIQS createSIQS(CongruenceCollector cc) {
+		return new SIQS(0.31F, 0.37F, null, new NoPowerFinder(), new SIQSPolyGenerator(), new Sieve03hU(), new TDiv_QS_2LP(true), cc, new MatrixSolverBlockLanczos());
+	}
+	
+	@Test
+	public void testResumeAfterCrash() throws IOException {
+		File directory = folder.getRoot();
+		
+		// first run: simulate a crash after some relations have been collected
+		SIQS siqs1 = createSIQS(new CongruenceCollector01(10) {
+			private int aqPairCount = 0;
+			
+			@Override
+			public void collectAndProcessAQPairs(List<AQPair> aqPairs) {
+				super.collectAndProcessAQPairs(aqPairs);
+				aqPairCount += aqPairs.size();
+				if (aqPairCount >= 300) throw new IllegalStateException("simulated crash");
+			}
+		});
+		siqs1.enableCheckpoints(directory, 0);
+		try {
+			siqs1.findSingleFactor(N);
+			fail("The first run should have crashed");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		File file = new File(directory, "siqs-" + N + ".rel");
+		assertTrue(file.exists());
+
+		// the relation file must contain valid relations
+		RelationFileReader reader = new RelationFileReader(file);
+		assertEquals(N, reader.getN());
+		int relationCount = 0, checkpointCount = 0;
+		byte tag;
+		while ((tag = reader.next()) != RelationFileReader.END) {
+			if (tag == RelationFileWriter.RELATION) {
+				AQPair aqPair = reader.getAQPair();
+				BigInteger Q = I_1;
+				for (Map.Entry<Long, Integer> entry : aqPair.getAllQFactors().entrySet()) {
+					Q = Q.multiply(BigInteger.valueOf(entry.getKey()).pow(entry.getValue()));
+				}
+				assertEquals(aqPair.getA().multiply(aqPair.getA()).mod(N), Q.mod(N));
+				relationCount++;
+			} else {
+				checkpointCount++;
+			}
+		}
+		reader.close();
+		assertTrue(relationCount >= 300);
+		assertTrue(checkpointCount > 1);
+		
+		// second run: resume and find a factor
+		SIQS siqs2 = createSIQS(new CongruenceCollector01(10));
+		siqs2.enableCheckpoints(directory, 0);
+		BigInteger factor = siqs2.findSingleFactor(N);
+		assertNotNull(factor);
+		assertTrue(factor.compareTo(I_1) > 0 && factor.compareTo(N) < 0);
+		assertEquals(I_0, N.mod(factor));
+		// the relation file is deleted after success
+		assertFalse(file.exists());
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tilman_neumann.jml.factor.base.congruence.CongruenceCollector01;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.psiqs.PSIQS_U_RelationSieveRunner;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * Tests that the relations sieved by several worker processes on distinct a-parameter partitions can be merged to find a factor.
+ */
+public class RelationMergerTest {
+	private static final Logger LOG = LogManager.getLogger(RelationMergerTest.class);
+
+	private static final BigInteger N = new BigInteger("767780273051320231283882581365952543395211"); // 140 bit
+	private static final int WORKER_COUNT = 2;
+	private static final long TIMEOUT_MILLIS = 300000;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+
+	@Test
+	public void testMergeWorkerRelations() throws IOException, InterruptedException {
+		String javaExecutable = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		String classPath = System.getProperty("java.class.path");
+		List<Process> workers = new ArrayList<>();
+		List<File> relationFiles = new ArrayList<>();
+		try {
+			for (int i=0; i<WORKER_COUNT; i++) {
+				File workerDirectory = folder.newFolder("worker" + i);
+				ProcessBuilder pb = new ProcessBuilder(javaExecutable, "-cp", classPath, PSIQS_U_RelationSieveRunner.class.getName(),
+						N.toString(), String.valueOf(i), String.valueOf(WORKER_COUNT), workerDirectory.getAbsolutePath(), "1", "1000");
+				pb.redirectErrorStream(true);
+				pb.redirectOutput(new File(folder.getRoot(), "worker" + i + ".log"));
+				workers.add(pb.start());
+				relationFiles.add(new File(workerDirectory, "siqs-" + N + ".rel"));
+			}
+			
+			RelationMerger merger = new RelationMerger(new CongruenceCollector01(10), new MatrixSolverBlockLanczos());
+			long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+			BigInteger factor = null;
+			while (factor == null && System.currentTimeMillis() < deadline) {
+				Thread.sleep(2000);
+				for (Process worker : workers) {
+					assertTrue("A worker process terminated unexpectedly", worker.isAlive());
+				}
+				try {
+					factor = merger.findFactor(N, relationFiles);
+				} catch (IOException e) {
+					// some worker has not written its file header yet
+					LOG.debug("Relation files not ready: " + e);
+				}
+			}
+			assertNotNull("No factor found within " + TIMEOUT_MILLIS + " ms", factor);
+			assertTrue(factor.compareTo(BigInteger.ONE) > 0 && factor.compareTo(N) < 0);
+			assertEquals(BigInteger.ZERO, N.mod(factor));
+		} finally {
+			for (Process worker : workers) {
+				worker.destroyForcibly();
+				worker.waitFor();
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.psiqs.PSIQS_U;
+import de.tilman_neumann.jml.factor.siqs.poly.SIQSPolyGenerator;
+import de.tilman_neumann.jml.factor.siqs.powers.NoPowerFinder;
+import de.tilman_neumann.jml.factor.siqs.sieve.Sieve03hU;
+import de.tilman_neumann.jml.factor.siqs.tdiv.TDiv_QS_2LP;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * Tests the runtime metrics of SIQS and PSIQS.
+ */
+public class SIQSMetricsTest {
+
+	private static final BigInteger N = new BigInteger("767780273051320231283882581365952543395211"); // 140 bit
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+
+	@Test
+	public void testSIQSMetrics() {
+		SIQSMetrics metrics = new SIQSMetrics();
+		List<SIQSMetricsSnapshot> snapshots = new ArrayList<>();
+		metrics.setListener(snapshot -> snapshots.add(snapshot), 100);
+		SIQS siqs = new SIQS(0.31F, 0.37F, null, new NoPowerFinder(), new SIQSPolyGenerator(), new Sieve03hU(), new TDiv_QS_2LP(true), 10, new MatrixSolverBlockLanczos());
+		siqs.setMetrics(metrics);
+		BigInteger factor = siqs.findSingleFactor(N);
+		assertEquals(BigInteger.ZERO, N.mod(factor));
+		
+		assertFalse(snapshots.isEmpty());
+		SIQSMetricsSnapshot last = snapshots.get(snapshots.size()-1);
+		assertEquals(N, last.getN());
+		assertEquals(1, last.getThreadCount());
+		assertTrue(last.getPolynomialCount() > 0);
+		assertTrue(last.getSmoothRelationCount() > 0);
+		assertTrue(last.getPartialRelationCount() > 0);
+		assertTrue(last.getCycleCount() > 0);
+		assertTrue(last.getRelationsPerSecond() > 0);
+		assertTrue(last.getSieveMillis(0) > 0);
+		// the polled snapshot equals the last pushed one, because the factorization is finished
+		SIQSMetricsSnapshot polled = metrics.getSnapshot();
+		assertEquals(last.getPolynomialCount(), polled.getPolynomialCount());
+		assertEquals(last.getSmoothRelationCount(), polled.getSmoothRelationCount());
+	}
+
+	@Test
+	public void testPSIQSMetrics() {
+		SIQSMetrics metrics = new SIQSMetrics();
+		PSIQS_U psiqs = new PSIQS_U(0.31F, 0.37F, null, 2, new NoPowerFinder(), new MatrixSolverBlockLanczos());
+		psiqs.setMetrics(metrics);
+		BigInteger factor = psiqs.findSingleFactor(N);
+		assertEquals(BigInteger.ZERO, N.mod(factor));
+		
+		SIQSMetricsSnapshot snapshot = metrics.getSnapshot();
+		assertEquals(2, snapshot.getThreadCount());
+		long polynomialCount = 0;
+		for (int i=0; i<2; i++) {
+			polynomialCount += snapshot.getPolynomialCount(i);
+		}
+		assertEquals(polynomialCount, snapshot.getPolynomialCount());
+		assertTrue(polynomialCount > 0);
+		assertTrue(snapshot.getSmoothCongruenceCount() > 0);
+	}
+}
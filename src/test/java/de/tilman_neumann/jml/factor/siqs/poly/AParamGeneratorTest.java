@@ -0,0 +1,68 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.poly;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.primes.exact.AutoExpandingPrimesArray;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * Tests that the a-parameter generators fail instead of looping forever when the prime base does not allow for more a-parameters.
+ */
+public class AParamGeneratorTest {
+
+	/** a 64 bit N for which PSIQS occasionally used to run out of a-parameters */
+	private static final BigInteger N = new BigInteger("15841065490425479923");
+	
+	private static final int PRIME_BASE_SIZE = 30;
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+	
+	@Test(timeout = 60000)
+	public void testAParameterExhaustion() {
+		testAParameterExhaustion(new AParamGenerator01(4));
+		testAParameterExhaustion(new AParamGenerator02(4));
+	}
+	
+	private void testAParameterExhaustion(AParamGenerator apg) {
+		AutoExpandingPrimesArray primes = AutoExpandingPrimesArray.get().ensurePrimeCount(PRIME_BASE_SIZE);
+		int[] primesArray = new int[PRIME_BASE_SIZE];
+		for (int i=0; i<PRIME_BASE_SIZE; i++) primesArray[i] = primes.getPrime(i);
+		// the a-parameter computation does not depend on the modular sqrts
+		int[] tArray = new int[PRIME_BASE_SIZE];
+		apg.initialize(1, N, N, 1, PRIME_BASE_SIZE, primesArray, tArray, 6144);
+		
+		// there are at most (29 choose 4) = 23751 a-parameters from 4 odd primes of the prime base
+		HashSet<BigInteger> aParams = new HashSet<>();
+		try {
+			for (int i=0; i<=23751; i++) {
+				assertTrue(apg.getName() + " returned a duplicate a-parameter", aParams.add(apg.computeNextAParameter()));
+			}
+			fail(apg.getName() + " returned more distinct a-parameters than possible");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.sieve;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.factor.FactorTestBase;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.siqs.SIQS;
+import de.tilman_neumann.jml.factor.siqs.poly.SIQSPolyGenerator;
+import de.tilman_neumann.jml.factor.siqs.powers.NoPowerFinder;
+import de.tilman_neumann.jml.factor.siqs.tdiv.TDiv_QS_2LP;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * SIQS tests with the sieve using the best available sieve kernel.
+ */
+public class Sieve03hVTest extends FactorTestBase {
+
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		setFactorizer(new SIQS(0.31F, 0.37F, null, new NoPowerFinder(), new SIQSPolyGenerator(), new Sieve03hV(), new TDiv_QS_2LP(true), 10, new MatrixSolverBlockLanczos()));
+	}
+
+	@Test
+	public void testSomeInputs() {
+		assertFullFactorizationSuccess("15841065490425479923", "2604221509 * 6082841047"); // 64 bit
+		assertFullFactorizationSuccess("5679148659138759837165981543", "3^3 * 466932157 * 450469808245315337"); // 93 bit
+		assertFullFactorizationSuccess("767780273051320231283882581365952543395211", "660354203788781431679 * 1162679466029264081909"); // 140 bit
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.sieve;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * Compares the best available sieve kernel with the scalar sieve kernel.
+ */
+public class SieveKernelTest {
+	private static final Logger LOG = LogManager.getLogger(SieveKernelTest.class);
+
+	private static final int CHUNK_SIZE = 4096;
+	
+	private static SieveKernel scalarKernel;
+	private static SieveKernel bestKernel;
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		scalarKernel = new ScalarSieveKernel();
+		bestKernel = SieveKernels.create();
+		LOG.info("Testing sieve kernel " + bestKernel.getName());
+	}
+
+	@Test
+	public void testFill() {
+		for (SieveKernel kernel : new SieveKernel[] {scalarKernel, bestKernel}) {
+			for (int size : new int[] {0, 1, 31, 256, 1000, 65536}) {
+				byte[] sieveArray = new byte[size + 10];
+				kernel.fill(sieveArray, size, (byte) 77);
+				for (int i=0; i<size; i++) assertEquals(77, sieveArray[i]);
+				for (int i=size; i<size+10; i++) assertEquals(0, sieveArray[i]);
+			}
+		}
+	}
+	
+	@Test
+	public void testCollect() {
+		Random rng = new Random(42);
+		int[] scalarHits = new int[CHUNK_SIZE];
+		int[] bestHits = new int[CHUNK_SIZE];
+		for (int hitProbabilityInverse : new int[] {1, 3, 100, 10000}) {
+			byte[] sieveArray = new byte[5 * CHUNK_SIZE];
+			for (int i=0; i<sieveArray.length; i++) {
+				int value = rng.nextInt(128);
+				sieveArray[i] = (byte) (rng.nextInt(hitProbabilityInverse)==0 ? value | 0x80 : value);
+			}
+			for (int n=0; n<100; n++) {
+				int start = rng.nextInt(sieveArray.length);
+				int end = Math.min(sieveArray.length, start + rng.nextInt(CHUNK_SIZE+1));
+				int scalarCount = scalarKernel.collect(sieveArray, start, end, scalarHits);
+				int bestCount = bestKernel.collect(sieveArray, start, end, bestHits);
+				assertEquals(scalarCount, bestCount);
+				for (int i=0; i<scalarCount; i++) {
+					int x = scalarHits[i];
+					assertTrue(start <= x && x < end && sieveArray[x] < 0);
+					assertEquals(x, bestHits[i]);
+				}
+				// the scalar result should be complete
+				int expectedCount = 0;
+				for (int x=start; x<end; x++) if (sieveArray[x] < 0) expectedCount++;
+				assertEquals(expectedCount, scalarCount);
+			}
+		}
+	}
+}
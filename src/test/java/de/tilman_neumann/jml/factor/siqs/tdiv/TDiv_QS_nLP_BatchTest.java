@@ -0,0 +1,60 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.tdiv;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.factor.FactorTestBase;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.siqs.SIQS;
+import de.tilman_neumann.jml.factor.siqs.poly.SIQSPolyGenerator;
+import de.tilman_neumann.jml.factor.siqs.powers.NoPowerFinder;
+import de.tilman_neumann.jml.factor.siqs.sieve.Sieve03hU;
+import de.tilman_neumann.jml.factor.siqs.tuning.SIQSTuningTable;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * SIQS tests with batch cofactorization in TDiv_QS_nLP.
+ * 
+ * With default parameters, composite QRests appear only for N > 250 bit. Here we use a big tdivTestExponent,
+ * which increases the smoothBound such that there are composite QRests already for the 140 bit test number.
+ */
+public class TDiv_QS_nLP_BatchTest extends FactorTestBase {
+
+	private static TDiv_QS_nLP tdiv;
+	
+	@BeforeClass
+	public static void setup() throws IOException {
+		ConfigUtil.initProject();
+		tdiv = new TDiv_QS_nLP(true, true);
+		SIQS siqs = new SIQS(0.31F, 0.37F, null, new NoPowerFinder(), new SIQSPolyGenerator(), new Sieve03hU(), tdiv, 10, new MatrixSolverBlockLanczos());
+		siqs.setParameterProvider(SIQSTuningTable.read(new StringReader("140 0.31 0.37 0.22 0.27\n")));
+		setFactorizer(siqs);
+	}
+
+	@Test
+	public void testSomeInputs() {
+		assertFullFactorizationSuccess("767780273051320231283882581365952543395211", "660354203788781431679 * 1162679466029264081909"); // 140 bit
+		// make sure that the factorization did not succeed without the batch path
+		assertTrue("no batch smoothness test was carried out", tdiv.getBatchTestCount() > 0);
+		assertTrue("batch tests got only " + tdiv.getBatchQRestCount() + " QRests", tdiv.getBatchQRestCount() >= TDiv_QS_nLP.MIN_BATCH_SIZE);
+		assertTrue("batch tests found no smooth QRests", tdiv.getBatchSmoothCount() > 0);
+	}
+}
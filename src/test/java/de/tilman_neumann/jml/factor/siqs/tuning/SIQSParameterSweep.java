@@ -0,0 +1,287 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.tuning;
+
+import static de.tilman_neumann.jml.base.BigIntConstants.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.tilman_neumann.jml.factor.TestNumberNature;
+import de.tilman_neumann.jml.factor.TestsetGenerator;
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.siqs.SIQS;
+import de.tilman_neumann.jml.factor.siqs.SIQSMetrics;
+import de.tilman_neumann.jml.factor.siqs.SIQSMetricsSnapshot;
+import de.tilman_neumann.jml.factor.siqs.poly.SIQSPolyGenerator;
+import de.tilman_neumann.jml.factor.siqs.powers.NoPowerFinder;
+import de.tilman_neumann.jml.factor.siqs.sieve.Sieve;
+import de.tilman_neumann.jml.factor.siqs.sieve.Sieve03h;
+import de.tilman_neumann.jml.factor.siqs.sieve.Sieve03hU;
+import de.tilman_neumann.jml.factor.siqs.sieve.Sieve03hV;
+import de.tilman_neumann.jml.factor.siqs.sieve.SieveParamsFactory02;
+import de.tilman_neumann.jml.factor.siqs.sieve.SingleBlockSieveU;
+import de.tilman_neumann.jml.factor.siqs.tdiv.TDiv_QS;
+import de.tilman_neumann.jml.factor.siqs.tdiv.TDiv_QS_2LP;
+import de.tilman_neumann.jml.factor.siqs.tdiv.TDiv_QS_2LP_Full;
+import de.tilman_neumann.util.ConfigUtil;
+import de.tilman_neumann.util.TimeUtil;
+
+/**
+ * Offline parameter sweep for single-threaded SIQS.<br/><br/>
+ * 
+ * For each bit size, all combinations of the configured Cmult, Mmult, qCount, sieve exponent offsets, sieves and trial division variants
+ * are run on the same TestsetGenerator numbers. The configurations are ranked by their median time per N,
+ * and the parameters of the fastest one are written to a tuning table that can be given to SIQS or PSIQS via
+ * <code>setParameterProvider(SIQSTuningTable.read(file))</code>.<br/><br/>
+ * 
+ * The number of configurations is the product of the sizes of all value arrays, so better sweep only few parameters at once.
+ * 
+ * @author Tilman Neumann
+ */
+@SuppressWarnings("unused") // suppress warnings on unused imports
+public class SIQSParameterSweep {
+	
+	private static final Logger LOG = LogManager.getLogger(SIQSParameterSweep.class);
+
+	// test set options
+	/** number of test numbers per bit size */
+	private static final int N_COUNT = 3;
+	/** the bit size of N to start with */
+	private static final int START_BITS = 100;
+	/** the increment in bit size from test set to test set */
+	private static final int INCR_BITS = 20;
+	/** maximum number of bits to test */
+	private static final int MAX_BITS = 200;
+	/** number of warmup factorizations with the first configuration before each bit size */
+	private static final int WARMUPS = 1;
+	/** Nature of test numbers */
+	private static final TestNumberNature TEST_NUMBER_NATURE = TestNumberNature.MODERATE_SEMIPRIMES;
+	/** the tuning table file written after each bit size */
+	private static final String OUTPUT_FILE = "siqs-tuning.txt";
+	/** number of best configurations logged per bit size */
+	private static final int LOG_BEST_COUNT = 5;
+	
+	// parameters to sweep
+	private static final float[] CMULT_VALUES = new float[] {0.29F, 0.31F, 0.33F};
+	private static final float[] MMULT_VALUES = new float[] {0.33F, 0.37F, 0.41F};
+	/** wanted number of q-parameters; null means the default of the a-parameter generator */
+	private static final Integer[] Q_COUNT_VALUES = new Integer[] {null};
+	/** offsets added to SieveParamsFactory02.getDefaultSieveHitExponent() */
+	private static final double[] SIEVE_HIT_EXPONENT_OFFSETS = new double[] {-0.02, 0, 0.02};
+	/** offsets added to SieveParamsFactory02.getDefaultTDivTestExponent() */
+	private static final double[] TDIV_TEST_EXPONENT_OFFSETS = new double[] {0};
+	
+	/** sieve implementations. SingleBlockSieveU permits to sweep the block size, too. */
+	private static final List<Variant<Sieve>> SIEVES = Arrays.asList(
+		new Variant<Sieve>("Sieve03hU", () -> new Sieve03hU())
+//		new Variant<Sieve>("Sieve03h", () -> new Sieve03h()),
+//		new Variant<Sieve>("Sieve03hV", () -> new Sieve03hV()),
+//		new Variant<Sieve>("SingleBlockSieveU(32768)", () -> new SingleBlockSieveU(32768)),
+//		new Variant<Sieve>("SingleBlockSieveU(65536)", () -> new SingleBlockSieveU(65536))
+	);
+	
+	/** trial division implementations */
+	private static final List<Variant<TDiv_QS>> TDIVS = Arrays.asList(
+		new Variant<TDiv_QS>("TDiv_QS_2LP", () -> new TDiv_QS_2LP(true))
+//		new Variant<TDiv_QS>("TDiv_QS_2LP_Full", () -> new TDiv_QS_2LP_Full(true))
+	);
+	
+	/**
+	 * A named factory for some sub-algorithm. SIQS sub-algorithms are stateful, so each configuration needs new instances.
+	 * @param <T> sub-algorithm type
+	 */
+	private static class Variant<T> {
+		String name;
+		Supplier<T> factory;
+		
+		Variant(String name, Supplier<T> factory) {
+			this.name = name;
+			this.factory = factory;
+		}
+	}
+	
+	/**
+	 * One point of the parameter space, and its results.
+	 */
+	private static class Configuration {
+		SIQSParameters parameters;
+		Integer qCount;
+		Variant<Sieve> sieve;
+		Variant<TDiv_QS> tdiv;
+		
+		long medianMillis;
+		double relationsPerSecond;
+		int failCount;
+		
+		Configuration(SIQSParameters parameters, Integer qCount, Variant<Sieve> sieve, Variant<TDiv_QS> tdiv) {
+			this.parameters = parameters;
+			this.qCount = qCount;
+			this.sieve = sieve;
+			this.tdiv = tdiv;
+		}
+		
+		SIQS createSIQS() {
+			return new SIQS(parameters.Cmult, parameters.Mmult, qCount, new NoPowerFinder(), new SIQSPolyGenerator(), sieve.factory.get(), tdiv.factory.get(), 10, new MatrixSolverBlockLanczos());
+		}
+		
+		@Override
+		public String toString() {
+			return parameters + ", qCount=" + qCount + ", sieve=" + sieve.name + ", tdiv=" + tdiv.name;
+		}
+	}
+	
+	private List<Configuration> createConfigurations(int bits) {
+		double defaultSieveHitExponent = SieveParamsFactory02.getDefaultSieveHitExponent(bits);
+		double defaultTDivTestExponent = SieveParamsFactory02.getDefaultTDivTestExponent(bits);
+		List<Configuration> configurations = new ArrayList<>();
+		for (float Cmult : CMULT_VALUES) {
+			for (float Mmult : MMULT_VALUES) {
+				for (double sieveHitExponentOffset : SIEVE_HIT_EXPONENT_OFFSETS) {
+					for (double tdivTestExponentOffset : TDIV_TEST_EXPONENT_OFFSETS) {
+						SIQSParameters parameters = new SIQSParameters(Cmult, Mmult, round(defaultSieveHitExponent + sieveHitExponentOffset), round(defaultTDivTestExponent + tdivTestExponentOffset));
+						for (Integer qCount : Q_COUNT_VALUES) {
+							for (Variant<Sieve> sieve : SIEVES) {
+								for (Variant<TDiv_QS> tdiv : TDIVS) {
+									configurations.add(new Configuration(parameters, qCount, sieve, tdiv));
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		return configurations;
+	}
+	
+	/** round to 4 decimal digits to get readable tuning tables */
+	private static double round(double x) {
+		return Math.round(x * 10000) / 10000.0;
+	}
+	
+	/**
+	 * Factor all test numbers with the given configuration and store the median time and the mean relations/second in it.
+	 * @param configuration
+	 * @param testNumbers
+	 */
+	private void run(Configuration configuration, BigInteger[] testNumbers) {
+		SIQS siqs = configuration.createSIQS();
+		// a table with a single entry applies the parameters to all N
+		SIQSTuningTable table = new SIQSTuningTable();
+		table.put(testNumbers[0].bitLength(), configuration.parameters);
+		siqs.setParameterProvider(table);
+		SIQSMetrics metrics = new SIQSMetrics();
+		siqs.setMetrics(metrics);
+		
+		long[] durations = new long[testNumbers.length];
+		double relationsPerSecondSum = 0;
+		for (int i=0; i<testNumbers.length; i++) {
+			BigInteger N = testNumbers[i];
+			long t0 = System.currentTimeMillis();
+			BigInteger factor = null;
+			try {
+				factor = siqs.findSingleFactor(N);
+			} catch (ArithmeticException e) {
+				LOG.error("SIQS with " + configuration + " threw Exception while searching for a factor of N=" + N + ": " + e);
+			}
+			durations[i] = System.currentTimeMillis() - t0;
+			if (factor==null || factor.compareTo(I_1)<=0 || factor.equals(N) || N.mod(factor).signum()!=0) {
+				LOG.error("SIQS with " + configuration + " did not find a factor of N=" + N + ", it returned " + factor);
+				configuration.failCount++;
+			}
+			SIQSMetricsSnapshot snapshot = metrics.getSnapshot();
+			if (snapshot != null) relationsPerSecondSum += snapshot.getRelationsPerSecond();
+		}
+		Arrays.sort(durations);
+		configuration.medianMillis = durations[durations.length/2];
+		configuration.relationsPerSecond = relationsPerSecondSum / testNumbers.length;
+	}
+	
+	private void warmup(BigInteger[] testNumbers, Configuration configuration) {
+		SIQS siqs = configuration.createSIQS();
+		for (int i=0; i<WARMUPS; i++) {
+			siqs.findSingleFactor(testNumbers[i % testNumbers.length]);
+		}
+	}
+	
+	/**
+	 * Run the sweep for one bit size.
+	 * @param bits
+	 * @return the fastest configuration without failures, or null if all configurations had failures
+	 */
+	private Configuration sweep(int bits) {
+		BigInteger[] testNumbers = TestsetGenerator.generate(N_COUNT, bits, TEST_NUMBER_NATURE);
+		List<Configuration> configurations = createConfigurations(bits);
+		LOG.info("Sweep " + configurations.size() + " configurations on " + N_COUNT + " N with " + bits + " bit, e.g. N = " + testNumbers[0]);
+		
+		warmup(testNumbers, configurations.get(0));
+		for (Configuration configuration : configurations) {
+			System.gc(); // create equal conditions for all configurations
+			run(configuration, testNumbers);
+			if (LOG.isDebugEnabled()) LOG.debug("  " + configuration + ": median " + TimeUtil.timeStr(configuration.medianMillis));
+		}
+		
+		configurations.sort(Comparator.comparingInt((Configuration c) -> c.failCount).thenComparingLong(c -> c.medianMillis));
+		LOG.info("Best configurations for " + bits + " bit:");
+		for (int i=0; i<Math.min(LOG_BEST_COUNT, configurations.size()); i++) {
+			Configuration c = configurations.get(i);
+			String failStr = c.failCount>0 ? ", " + c.failCount + " failures" : "";
+			LOG.info(String.format("  #%d: median %s, %.1f relations/s%s: %s", i+1, TimeUtil.timeStr(c.medianMillis), c.relationsPerSecond, failStr, c));
+		}
+		Configuration best = configurations.get(0);
+		return best.failCount==0 ? best : null;
+	}
+	
+	/**
+	 * Run the sweep over all bit sizes, writing the tuning table after each bit size.
+	 * @param outputFile
+	 * @throws IOException if the tuning table can not be written
+	 */
+	public void sweep(File outputFile) throws IOException {
+		SIQSTuningTable table = new SIQSTuningTable();
+		for (int bits = START_BITS; bits <= MAX_BITS; bits += INCR_BITS) {
+			Configuration best = sweep(bits);
+			if (best == null) {
+				LOG.error("All configurations failed for " + bits + " bit, no tuning table entry written.");
+				continue;
+			}
+			table.put(bits, best.parameters);
+			table.write(outputFile);
+		}
+		LOG.info("Wrote tuning table with " + table.size() + " entries to " + outputFile.getAbsolutePath());
+	}
+	
+	/**
+	 * Stand-alone parameter sweep.
+	 * @param args optional output file name; default is siqs-tuning.txt
+	 */
+	public static void main(String[] args) {
+		ConfigUtil.initProject();
+		File outputFile = new File(args.length > 0 ? args[0] : OUTPUT_FILE);
+		try {
+			new SIQSParameterSweep().sweep(outputFile);
+		} catch (IOException e) {
+			LOG.error("Could not write tuning table to " + outputFile + ": " + e, e);
+		}
+	}
+}
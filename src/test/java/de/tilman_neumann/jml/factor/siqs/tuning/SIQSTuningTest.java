@@ -0,0 +1,97 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.factor.siqs.tuning;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.jml.factor.base.matrixSolver.MatrixSolverBlockLanczos;
+import de.tilman_neumann.jml.factor.siqs.SIQS;
+import de.tilman_neumann.jml.factor.siqs.poly.SIQSPolyGenerator;
+import de.tilman_neumann.jml.factor.siqs.powers.NoPowerFinder;
+import de.tilman_neumann.jml.factor.siqs.sieve.Sieve03hU;
+import de.tilman_neumann.jml.factor.siqs.tdiv.TDiv_QS_2LP;
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * Tests SIQS tuning tables and the auto-tuner.
+ */
+public class SIQSTuningTest {
+
+	private static final double DELTA = 1E-6;
+
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+
+	@Test
+	public void testTableReadWriteAndInterpolation() throws IOException {
+		String text = "# test table\n100 0.30 0.36 0.21 0.12\n\n200 0.32 0.40 0.25 0.16\n";
+		SIQSTuningTable table = SIQSTuningTable.read(new StringReader(text));
+		assertEquals(2, table.size());
+		
+		SIQSParameters p = table.get(150);
+		assertEquals(0.31, p.Cmult, DELTA);
+		assertEquals(0.38, p.Mmult, DELTA);
+		assertEquals(0.23, p.sieveHitExponent, DELTA);
+		assertEquals(0.14, p.tdivTestExponent, DELTA);
+		// outside of the table the nearest entry is used
+		assertEquals(0.30, table.get(50).Cmult, DELTA);
+		assertEquals(0.32, table.get(300).Cmult, DELTA);
+		
+		StringWriter writer = new StringWriter();
+		table.write(writer);
+		SIQSTuningTable table2 = SIQSTuningTable.read(new StringReader(writer.toString()));
+		assertEquals(2, table2.size());
+		assertEquals(table.get(123).toString(), table2.get(123).toString());
+	}
+	
+	@Test(expected = IOException.class)
+	public void testTableSyntaxError() throws IOException {
+		SIQSTuningTable.read(new StringReader("100 0.30 0.36 0.21\n"));
+	}
+	
+	@Test
+	public void testAutoTunerFollowsFasterParameters() {
+		// simulated sieve time that is minimal at Cmult=0.34
+		SIQSAutoTuner tuner = new SIQSAutoTuner();
+		SIQSParameters defaults = SIQSParameters.createDefault(200, 0.30F, 0.37F);
+		for (int i=0; i<100; i++) {
+			SIQSParameters p = tuner.getParameters(200, defaults);
+			long millis = 1000 + (long) (100000 * Math.abs(p.Cmult - 0.34));
+			tuner.reportResult(200, p, millis);
+		}
+		SIQSParameters best = tuner.getTuningTable().get(200);
+		assertEquals(0.34, best.Cmult, 0.005);
+		assertEquals(0.37, best.Mmult, DELTA);
+	}
+	
+	@Test
+	public void testSIQSWithTuningTable() throws IOException {
+		SIQSTuningTable table = SIQSTuningTable.read(new StringReader("140 0.30 0.36 0.22 0.12\n"));
+		SIQS siqs = new SIQS(0.31F, 0.37F, null, new NoPowerFinder(), new SIQSPolyGenerator(), new Sieve03hU(), new TDiv_QS_2LP(true), 10, new MatrixSolverBlockLanczos());
+		siqs.setParameterProvider(table);
+		BigInteger N = new BigInteger("767780273051320231283882581365952543395211"); // 140 bit
+		BigInteger factor = siqs.findSingleFactor(N);
+		assertEquals(BigInteger.ZERO, N.mod(factor));
+	}
+}
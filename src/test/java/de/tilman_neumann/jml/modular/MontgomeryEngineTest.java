@@ -0,0 +1,102 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.modular;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test of MontgomeryEngine against BigInteger arithmetic.
+ * 
+ * @author Tilman Neumann
+ */
+public class MontgomeryEngineTest {
+	private static final Logger LOG = LogManager.getLogger(MontgomeryEngineTest.class);
+	private static final Random RNG = new Random();
+	
+	private static final int NCOUNT = 1000;
+
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+
+	@Test
+	public void testArithmetic() {
+		MontgomeryEngine engine = new MontgomeryEngine();
+		int[] a = new int[MontgomeryEngine.MAX_LIMBS];
+		int[] b = new int[MontgomeryEngine.MAX_LIMBS];
+		int[] result = new int[MontgomeryEngine.MAX_LIMBS];
+		for (int nBits = 33; nBits <= 32*MontgomeryEngine.MAX_LIMBS; nBits += 17) {
+			LOG.info("Test " + NCOUNT + " N with " + nBits + " bits");
+			for (int i=0; i<NCOUNT; i++) {
+				BigInteger N = new BigInteger(nBits, RNG).setBit(nBits-1).setBit(0);
+				if (i==0) N = BigInteger.ONE.shiftLeft(nBits).subtract(BigInteger.ONE); // all bits set
+				engine.setModulus(N);
+				int limbCount = engine.getLimbCount();
+				BigInteger R = BigInteger.ONE.shiftLeft(32*limbCount);
+				BigInteger RInv = R.modInverse(N);
+				assertEquals(N.bitLength(), engine.getBitLength());
+				
+				engine.getOne(result);
+				assertEquals(R.mod(N), toBigInteger(result, limbCount));
+				
+				BigInteger A = new BigInteger(nBits, RNG).mod(N);
+				BigInteger B = new BigInteger(nBits, RNG).mod(N);
+				if (i==1) A = B = N.subtract(BigInteger.ONE); // biggest operands
+				setLimbs(A, a, limbCount);
+				setLimbs(B, b, limbCount);
+				
+				engine.mul(a, b, result);
+				assertEquals(A.multiply(B).multiply(RInv).mod(N), toBigInteger(result, limbCount));
+				engine.add(a, b, result);
+				assertEquals(A.add(B).mod(N), toBigInteger(result, limbCount));
+				engine.subtract(a, b, result);
+				assertEquals(A.subtract(B).mod(N), toBigInteger(result, limbCount));
+				engine.half(a, result);
+				assertEquals(A.multiply(BigInteger.TWO.modInverse(N)).mod(N), toBigInteger(result, limbCount));
+				int small = RNG.nextInt(1000);
+				engine.toMontgomery(small, result);
+				assertEquals(BigInteger.valueOf(small).multiply(R).mod(N), toBigInteger(result, limbCount));
+				
+				// results may overwrite the arguments
+				engine.mul(a, a, a);
+				assertEquals(A.multiply(A).multiply(RInv).mod(N), toBigInteger(a, limbCount));
+			}
+		}
+	}
+	
+	private static void setLimbs(BigInteger A, int[] a, int limbCount) {
+		for (int i=0; i<limbCount; i++) {
+			a[i] = A.shiftRight(32*i).intValue();
+		}
+	}
+	
+	private static BigInteger toBigInteger(int[] a, int limbCount) {
+		BigInteger result = BigInteger.ZERO;
+		for (int i=limbCount-1; i>=0; i--) {
+			result = result.shiftLeft(32).add(BigInteger.valueOf(a[i] & 0xFFFFFFFFL));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tilman_neumann.jml.factor.base.PrimeBaseGenerator;
+import de.tilman_neumann.jml.factor.tdiv.TDiv;
+import de.tilman_neumann.jml.factor.tdiv.TDiv31Barrett;
+import de.tilman_neumann.util.ConfigUtil;
+import de.tilman_neumann.util.SortedMultiset;
+
+public class MappedPrimeTableTest {
+
+	private static final int LIMIT = 1<<21; // enough for TDiv31Barrett
+	
+	@ClassRule
+	public static TemporaryFolder folder = new TemporaryFolder();
+	
+	private static MappedPrimeTable primeTable;
+	private static AutoExpandingPrimesArray primesArray;
+
+	@BeforeClass
+	public static void setup() throws IOException {
+		ConfigUtil.initProject();
+		File file = folder.newFile("primes.bin");
+		MappedPrimeTable.write(file, LIMIT);
+		primeTable = new MappedPrimeTable(file);
+		primesArray = AutoExpandingPrimesArray.get().ensureLimit(LIMIT);
+	}
+	
+	@Test
+	public void testContent() {
+		assertEquals(LIMIT, primeTable.getLimit());
+		int count = primesArray.getInsertPosition(LIMIT);
+		assertEquals(count, primeTable.getPrimeCount());
+		for (int i=0; i<count; i++) {
+			assertEquals(primesArray.getPrime(i), primeTable.getPrime(i));
+		}
+		primeTable.ensureLimit(LIMIT);
+		primeTable.ensurePrimeCount(count);
+		assertThrows(IllegalArgumentException.class, () -> primeTable.ensureLimit(LIMIT+1));
+		assertThrows(IllegalArgumentException.class, () -> primeTable.ensurePrimeCount(count+1));
+	}
+
+	@Test
+	public void testAsPrimeSource() {
+		TDiv31Barrett tdiv31 = new TDiv31Barrett(primeTable);
+		TDiv tdiv = new TDiv(primeTable).setTestLimit(LIMIT);
+		Random rng = new Random(47);
+		for (int i=0; i<1000; i++) {
+			BigInteger N = BigInteger.valueOf(rng.nextInt(Integer.MAX_VALUE - 2) + 2);
+			SortedMultiset<BigInteger> factors = tdiv31.factor(N);
+			BigInteger product = BigInteger.ONE;
+			for (BigInteger factor : factors.toList()) product = product.multiply(factor);
+			assertEquals(N, product);
+			assertEquals(factors, tdiv.factor(N));
+		}
+		
+		PrimeBaseGenerator generator = new PrimeBaseGenerator(primeTable);
+		PrimeBaseGenerator defaultGenerator = new PrimeBaseGenerator();
+		for (int i=0; i<20; i++) {
+			BigInteger kN = new BigInteger(100 + 5*i, rng);
+			int[] primeBase = new int[1000], expectedPrimeBase = new int[1000];
+			generator.computeReducedPrimeBase(kN, 1000, primeBase);
+			defaultGenerator.computeReducedPrimeBase(kN, 1000, expectedPrimeBase);
+			assertArrayEquals(expectedPrimeBase, primeBase);
+		}
+	}
+
+	@Test
+	public void testTDivBeyondTableLimit() {
+		// N > LIMIT^2 exhausts the table; the default test limit must not exceed the table limit
+		TDiv tdiv = new TDiv(primeTable);
+		BigInteger p = BigInteger.valueOf(LIMIT).nextProbablePrime();
+		BigInteger N = p.multiply(p.nextProbablePrime());
+		assertEquals("[" + N + "]", tdiv.factor(N).toList().toString());
+		assertEquals(BigInteger.ONE, tdiv.findSingleFactor(N));
+		
+		BigInteger N9 = N.multiply(BigInteger.valueOf(9));
+		assertEquals("[3, 3, " + N + "]", tdiv.factor(N9).toList().toString());
+		assertEquals(BigInteger.valueOf(3), tdiv.findSingleFactor(N9));
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+public class ParallelSegmentedSieveTest {
+
+	private static final long[][] RANGES = new long[][] {{0, 1}, {0, 3}, {2, 100}, {3, 1000000}, {524287, 524289}, {1000001, 5000000}, {1000000000000L, 1000010000000L}};
+	
+	private static ParallelSegmentedSieve sieve;
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		sieve = new ParallelSegmentedSieve(3);
+	}
+	
+	@AfterClass
+	public static void tearDown() {
+		sieve.shutdown();
+	}
+
+	private static long[] expectedPrimes(long start, long end) {
+		LongCollector callback = new LongCollector();
+		new SegmentedSieve(callback).sieve(start, end-1);
+		return Arrays.copyOf(callback.primes, callback.count);
+	}
+	
+	@Test
+	public void testLongArrayResult() {
+		for (long[] range : RANGES) {
+			assertArrayEquals(expectedPrimes(range[0], range[1]), sieve.sieve(range[0], range[1]));
+		}
+	}
+
+	@Test
+	public void testPerThreadCallbacks() {
+		for (long[] range : RANGES) {
+			LongCollector[] callbacks = new LongCollector[5];
+			for (int i=0; i<callbacks.length; i++) callbacks[i] = new LongCollector();
+			sieve.sieve(range[0], range[1], callbacks);
+			// the concatenation of the callback results must be the sorted list of all primes
+			long[] result = new long[0];
+			for (LongCollector callback : callbacks) {
+				int oldLength = result.length;
+				result = Arrays.copyOf(result, oldLength + callback.count);
+				System.arraycopy(callback.primes, 0, result, oldLength, callback.count);
+			}
+			assertArrayEquals(expectedPrimes(range[0], range[1]), result);
+		}
+	}
+
+	@Test
+	public void testBlocks() {
+		for (long[] range : RANGES) {
+			long[] expected = expectedPrimes(range[0], range[1]);
+			long expectedOddCount = expected.length > 0 && expected[0] == 2 ? expected.length - 1 : expected.length;
+			long expectedSum = 0;
+			for (long p : expected) if (p != 2) expectedSum += p;
+			
+			AtomicLong count = new AtomicLong();
+			AtomicLong sum = new AtomicLong();
+			sieve.sieve(range[0], range[1], (SieveBlockCallback) (low, oddBits, oddCount) -> {
+				for (int i=0; i<oddCount; i++) {
+					if ((oddBits[i>>6] & (1L << i)) != 0) {
+						count.incrementAndGet();
+						sum.addAndGet(low + 2*i + 1);
+					}
+				}
+			});
+			assertEquals(expectedOddCount, count.get());
+			assertEquals(expectedSum, sum.get());
+		}
+	}
+	
+	private static class LongCollector implements SieveCallback {
+		long[] primes = new long[16];
+		int count = 0;
+		
+		@Override
+		public void processPrime(long prime) {
+			if (count == primes.length) primes = Arrays.copyOf(primes, 2*count);
+			primes[count++] = prime;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+import java.io.File;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+/**
+ * Writes a prime table file that can be used via MappedPrimeTable, and optionally a WheelPrimeStore file.
+ */
+public class PrimeTableWriter {
+	private static final Logger LOG = LogManager.getLogger(PrimeTableWriter.class);
+
+	/**
+	 * Write prime table files.
+	 * @param args &lt;file&gt; &lt;limit&gt; [&lt;wheel store file&gt; [&lt;wheel store limit&gt;]]
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		ConfigUtil.initProject();
+		if (args.length < 2 || args.length > 4) {
+			System.err.println("Usage: PrimeTableWriter <file> <limit> [<wheel store file> [<wheel store limit>]]");
+			return;
+		}
+		File file = new File(args[0]);
+		int limit = Integer.parseInt(args[1]);
+		long start = System.currentTimeMillis();
+		MappedPrimeTable.write(file, limit);
+		LOG.info("Wrote " + new MappedPrimeTable(file).getPrimeCount() + " primes <= " + limit + " to " + file + " in " + (System.currentTimeMillis()-start) + "ms");
+		
+		if (args.length > 2) {
+			File wheelFile = new File(args[2]);
+			long wheelLimit = args.length > 3 ? Long.parseLong(args[3]) : limit;
+			start = System.currentTimeMillis();
+			WheelPrimeStore store = WheelPrimeStore.create(wheelLimit, Runtime.getRuntime().availableProcessors());
+			store.write(wheelFile);
+			LOG.info("Wrote wheel prime store with " + store.getPrimeCount() + " primes <= " + wheelLimit + " to " + wheelFile + " in " + (System.currentTimeMillis()-start) + "ms");
+		}
+	}
+}
@@ -13,10 +13,15 @@
  */
 package de.tilman_neumann.jml.primes.exact;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import de.tilman_neumann.jml.primes.bounds.NthPrimeUpperBounds;
 import de.tilman_neumann.util.ConfigUtil;
@@ -67,4 +72,47 @@ public class SieveTest {
     		assertEquals(correctResult[i], primesArray.getPrime(i));
     	}
 	}
+
+	@Test
+	public void testSegmentedSieveRange() {
+		// start and end points inside and at the borders of segments
+		long[][] ranges = new long[][] {{0, 1}, {2, 2}, {3, 100}, {4, 1000}, {1000, 131072}, {131071, 131075}, {97, 500000}, {500000, 1500000}};
+		for (long[] range : ranges) {
+			long start = range[0], limit = range[1];
+			CollectingCallback rangeCallback = new CollectingCallback(NCOUNT);
+			new SegmentedSieve(rangeCallback).sieve(start, limit);
+			int i = 0;
+			while (correctResult[i] < start) i++;
+			for (int j=0; j<rangeCallback.count; j++) {
+				assertEquals(correctResult[i++], rangeCallback.array[j]);
+			}
+			assertTrue(correctResult[i] > limit);
+		}
+	}
+
+	@Test
+	public void testAutoExpandingPrimesArrayConcurrentExpansion() throws InterruptedException {
+		// a fresh instance, so that expansions really happen
+		AutoExpandingPrimesArray primesArray = new AutoExpandingPrimesArray();
+		AtomicInteger errorCount = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+		for (int t=0; t<4; t++) {
+			final int offset = t;
+			Thread thread = new Thread() {
+				public void run() {
+					for (int i=offset; i<1000000; i+=4) {
+						if (primesArray.getPrime(i) != correctResult[i]) errorCount.incrementAndGet();
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) thread.join();
+		assertEquals(0, errorCount.get());
+		
+		// ensureLimit() must continue after the last prime, too
+		primesArray.ensureLimit(correctResult[2000000]);
+		assertEquals(2000001, primesArray.getInsertPosition(correctResult[2000000]));
+	}
 }
@@ -0,0 +1,92 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.exact;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+public class WheelPrimeStoreTest {
+
+	private static final int LIMIT = 20000000;
+	
+	private static CollectingCallback expected;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		expected = new CollectingCallback(2000000);
+		new SegmentedSieve(expected).sieve(LIMIT);
+	}
+	
+	@Test
+	public void testSmallLimits() {
+		for (int limit=0; limit<=100; limit++) {
+			WheelPrimeStore store = WheelPrimeStore.create(limit, 2);
+			int count = 0;
+			for (int n=0; n<=limit; n++) {
+				boolean isPrime = count < expected.count && expected.array[count] == n;
+				assertEquals(isPrime, store.isPrime(n));
+				if (isPrime) {
+					count++;
+					assertEquals(n, store.nthPrime(count));
+				}
+				assertEquals(count, store.pi(n));
+				assertEquals(count < expected.count && expected.array[count] <= limit ? expected.array[count] : -1, store.nextPrime(n));
+			}
+			assertEquals(count, store.getPrimeCount());
+		}
+	}
+
+	@Test
+	public void testCreateWriteAndMap() throws IOException {
+		WheelPrimeStore store = WheelPrimeStore.create(LIMIT, 3);
+		verify(store);
+		
+		File file = folder.newFile("primes.bin");
+		store.write(file);
+		verify(WheelPrimeStore.map(file));
+	}
+	
+	private void verify(WheelPrimeStore store) {
+		assertEquals(LIMIT, store.getLimit());
+		assertEquals(expected.count, store.getPrimeCount());
+		int count = 0;
+		for (int n=0; n<=LIMIT; n++) {
+			boolean isPrime = expected.array[count] == n;
+			assertEquals(isPrime, store.isPrime(n));
+			if (isPrime) count++;
+			if ((n & 1023) == 0 || isPrime) {
+				assertEquals(count, store.pi(n));
+			}
+			if (isPrime) {
+				assertEquals(n, store.nthPrime(count));
+			}
+			if ((n & 1023) == 0 && count < expected.count) {
+				assertEquals(expected.array[count], store.nextPrime(n));
+			}
+		}
+	}
+}
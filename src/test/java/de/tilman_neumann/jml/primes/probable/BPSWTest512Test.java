@@ -0,0 +1,99 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.probable;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+import static de.tilman_neumann.jml.base.BigIntConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of BPSWTest512.
+ * 
+ * @author Tilman Neumann
+ */
+public class BPSWTest512Test {
+	private static final Logger LOG = LogManager.getLogger(BPSWTest512Test.class);
+	private static final Random RNG = new Random();
+	
+	private static final int NCOUNT = 50;
+
+	private static final BPSWTest512 bpsw = new BPSWTest512();
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+
+	@Test
+	public void testRandomArguments() {
+		for (int nBits = 60; nBits<=BPSWTest512.MAX_BITS; nBits+=13) {
+			LOG.info("Test correctness of " + NCOUNT + " N with " + nBits + " bits:");
+			for (int i=0; i<NCOUNT; i++) {
+				BigInteger n = new BigInteger(nBits, RNG);
+				assertEquals("n = " + n, n.isProbablePrime(50), bpsw.isProbablePrime(n));
+				BigInteger p = BigInteger.probablePrime(nBits, RNG);
+				assertTrue("p = " + p, bpsw.isProbablePrime(p));
+				// products of two primes are the typical composites surviving trial division
+				BigInteger q = BigInteger.probablePrime(nBits/2, RNG);
+				BigInteger pq = p.multiply(q);
+				if (pq.bitLength() <= BPSWTest512.MAX_BITS) assertFalse("n = " + p + " * " + q, bpsw.isProbablePrime(pq));
+			}
+		}
+	}
+	
+	@Test
+	public void testSpecialArguments() {
+		// Mersenne numbers, with N+1 = 2^k
+		for (int k : new int[] {89, 107, 127}) {
+			BigInteger M = I_1.shiftLeft(k).subtract(I_1);
+			assertTrue("2^" + k + "-1", bpsw.isProbablePrime(M));
+		}
+		for (int k : new int[] {67, 101, 128, 257, 512}) {
+			BigInteger M = I_1.shiftLeft(k).subtract(I_1);
+			assertFalse("2^" + k + "-1", bpsw.isProbablePrime(M));
+		}
+		// squares of primes, for which no Lucas parameter D exists
+		for (int nBits = 40; nBits<=256; nBits+=24) {
+			BigInteger p = BigInteger.probablePrime(nBits, RNG);
+			assertFalse("n = " + p + "^2", bpsw.isProbablePrime(p.multiply(p)));
+		}
+		// negative arguments
+		assertTrue(bpsw.isProbablePrime(BigInteger.probablePrime(100, RNG).negate()));
+	}
+	
+	@Test
+	public void testNextProbablePrime() {
+		for (int nBits = 20; nBits<BPSWTest512.MAX_BITS; nBits+=30) {
+			LOG.info("Test nextProbablePrime() for " + NCOUNT + " N with " + nBits + " bits:");
+			for (int i=0; i<NCOUNT; i++) {
+				BigInteger n = new BigInteger(nBits, RNG);
+				assertEquals(n.nextProbablePrime(), bpsw.nextProbablePrime(n));
+			}
+		}
+		// the candidate needs another limb
+		BigInteger n = I_1.shiftLeft(128).subtract(I_1);
+		assertEquals(n.nextProbablePrime(), bpsw.nextProbablePrime(n));
+	}
+}
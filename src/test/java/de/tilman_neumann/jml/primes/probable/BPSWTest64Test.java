@@ -0,0 +1,101 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.probable;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of BPSWTest64 and the long arguments of BPSWTest.
+ * 
+ * @author Tilman Neumann
+ */
+public class BPSWTest64Test {
+	private static final Logger LOG = LogManager.getLogger(BPSWTest64Test.class);
+	private static final Random RNG = new Random();
+	
+	private static final int SMALL_N_LIMIT = 100000;
+	private static final int NCOUNT = 10000;
+
+	/** strong pseudoprimes to base 2, Carmichael numbers and Lucas pseudoprimes */
+	private static final long[] PSEUDOPRIMES = new long[] {
+		341, 561, 1105, 1729, 2047, 3277, 4033, 4681, 5459, 5777, 8321, 10877, 16109, 18971, 
+		3215031751L, 2152302898747L, 3474749660383L, 341550071728321L, 3825123056546413051L
+	};
+	
+	private static final BPSWTest64 bpsw64 = new BPSWTest64();
+	private static final BPSWTest bpsw = new BPSWTest();
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+	}
+
+	@Test
+	public void testSmallArguments() {
+		for (int n=0; n<SMALL_N_LIMIT; n++) {
+			assertEquals("n = " + n, BigInteger.valueOf(n).isProbablePrime(50), bpsw64.isProbablePrime(n));
+		}
+	}
+	
+	@Test
+	public void testRandomArguments() {
+		for (int nBits = 32; nBits<=64; nBits+=8) {
+			LOG.info("Test correctness of " + NCOUNT + " N with " + nBits + " bits:");
+			for (int i=0; i<NCOUNT; i++) {
+				BigInteger n = new BigInteger(nBits, RNG);
+				assertEquals("n = " + n, n.isProbablePrime(50), bpsw64.isProbablePrime(n.longValue()));
+				// random primes, which are rare among the random numbers above
+				BigInteger p = BigInteger.probablePrime(nBits, RNG);
+				assertTrue("p = " + p, bpsw64.isProbablePrime(p.longValue()));
+			}
+		}
+	}
+	
+	@Test
+	public void testSpecialArguments() {
+		for (long n : PSEUDOPRIMES) {
+			assertFalse("n = " + n, bpsw64.isProbablePrime(n));
+		}
+		// squares of primes, for which no Lucas parameter D exists
+		for (long p : new long[] {1093, 3511, 4294967291L}) {
+			assertFalse("n = " + p + "^2", bpsw64.isProbablePrime(p*p));
+		}
+		// unsigned arguments near 2^64
+		assertTrue(bpsw64.isProbablePrime(-59L)); // 2^64 - 59
+		assertFalse(bpsw64.isProbablePrime(-1L)); // 2^64 - 1
+		assertTrue(bpsw64.isProbablePrime(Long.MAX_VALUE - 24)); // 2^63 - 25
+		assertFalse(bpsw64.isProbablePrime(Long.MAX_VALUE));
+	}
+	
+	@Test
+	public void testSignedLongArguments() {
+		assertTrue(bpsw.isProbablePrime(-7L));
+		assertTrue(bpsw.isProbablePrime(-(Long.MAX_VALUE - 24)));
+		assertFalse(bpsw.isProbablePrime(Long.MIN_VALUE));
+		assertFalse(bpsw.isProbablePrime(-1L));
+		assertFalse(bpsw.isProbablePrime(0L));
+	}
+}
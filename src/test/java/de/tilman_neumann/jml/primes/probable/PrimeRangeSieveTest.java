@@ -0,0 +1,105 @@
+/*
+ * java-math-library is a Java library focused on number theory, but not necessarily limited to it. It is based on the PSIQS 4.0 factoring project.
+ * Copyright (C) 2026 Tilman Neumann - tilman.neumann@web.de
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program;
+ * if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.tilman_neumann.jml.primes.probable;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.apache.logging.log4j.LogManager;
+
+import de.tilman_neumann.util.ConfigUtil;
+
+import static de.tilman_neumann.jml.base.BigIntConstants.*;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test of PrimeRangeSieve.
+ * 
+ * @author Tilman Neumann
+ */
+public class PrimeRangeSieveTest {
+	private static final Logger LOG = LogManager.getLogger(PrimeRangeSieveTest.class);
+	private static final Random RNG = new Random();
+	
+	private static final int NCOUNT = 10;
+
+	private static PrimeRangeSieve sieve;
+	private static PrimeRangeSieve parallelSieve;
+	
+	@BeforeClass
+	public static void setup() {
+		ConfigUtil.initProject();
+		sieve = new PrimeRangeSieve();
+		parallelSieve = new PrimeRangeSieve(3);
+	}
+	
+	@AfterClass
+	public static void tearDown() {
+		sieve.shutdown();
+		parallelSieve.shutdown();
+	}
+
+	@Test
+	public void testSmallPrimes() {
+		// covers the sieve primes themselves and the switch to bigger intervals
+		Iterator<BigInteger> iter = sieve.iterator(I_0);
+		BigInteger p = I_1;
+		for (int i=0; i<20000; i++) {
+			p = p.nextProbablePrime();
+			assertEquals(p, iter.next());
+		}
+	}
+	
+	@Test
+	public void testNextProbablePrime() {
+		for (int nBits = 2; nBits<=600; nBits+=17) {
+			LOG.info("Test nextProbablePrime() for " + NCOUNT + " N with " + nBits + " bits");
+			for (int i=0; i<NCOUNT; i++) {
+				BigInteger n = new BigInteger(nBits, RNG);
+				BigInteger expected = n.nextProbablePrime();
+				assertEquals("n = " + n, expected, sieve.nextProbablePrime(n));
+				assertEquals("n = " + n, expected, parallelSieve.nextProbablePrime(n));
+				assertEquals("n = " + n, expected, sieve.nextProbablePrime(n.negate()));
+			}
+		}
+	}
+	
+	@Test
+	public void testRangesAndStreams() {
+		for (int nBits = 20; nBits<=300; nBits+=40) {
+			BigInteger start = new BigInteger(nBits, RNG);
+			BigInteger end = start.add(BigInteger.valueOf(50L*nBits));
+			List<BigInteger> primes = sieve.probablePrimes(start, end);
+			LOG.info("Found " + primes.size() + " primes in [" + start + ", " + end + ")");
+			
+			// compare to a plain loop over Java's nextProbablePrime()
+			int i = 0;
+			for (BigInteger p = start.subtract(I_1).nextProbablePrime(); p.compareTo(end) < 0; p = p.nextProbablePrime()) {
+				assertEquals(p, primes.get(i++));
+			}
+			assertEquals(i, primes.size());
+			
+			assertEquals(primes, parallelSieve.probablePrimes(start, end));
+			assertEquals(primes, sieve.stream(start).limit(primes.size()).collect(Collectors.toList()));
+			assertEquals(primes, parallelSieve.stream(start).limit(primes.size()).collect(Collectors.toList()));
+		}
+	}
+}